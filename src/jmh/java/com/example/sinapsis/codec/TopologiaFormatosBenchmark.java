@@ -0,0 +1,121 @@
+package com.example.sinapsis.codec;
+
+import com.example.sinapsis.model.RedeMT;
+import com.example.sinapsis.model.Subestacao;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark dos formatos de resposta de GET /subestacoes (JSON, CBOR, Smile e Protocol Buffers) para uma topologia
+ * grande: tempo para codificar a lista de subestações com suas redes MT e para decodificá-la, como faz o cliente.
+ * O tamanho da resposta de cada formato é impresso no início de cada fork.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TopologiaFormatosBenchmark {
+
+    @Param({"json", "cbor", "smile", "protobuf"})
+    private String formato;
+
+    @Param({"5000"})
+    private int subestacoes;
+
+    @Param({"20"})
+    private int redesPorSubestacao;
+
+    private List<Subestacao> topologia;
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private byte[] codificada;
+
+    @Setup
+    public void setUp() throws Exception {
+        ObjectMapper mapper = switch (formato) {
+            case "cbor" -> new CBORMapper();
+            case "smile" -> new SmileMapper();
+            default -> new ObjectMapper();
+        };
+        // Como no ObjectMapper do Spring Boot (o geohash é apenas de leitura)
+        mapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        TypeReference<List<Subestacao>> tipo = new TypeReference<>() {
+        };
+        writer = mapper.writerFor(tipo);
+        reader = mapper.readerFor(tipo);
+
+        // Coordenadas e tensões com a escala das colunas, como retornadas pelo banco
+        Random random = new Random(42);
+        topologia = new ArrayList<>(subestacoes);
+        for (int i = 0; i < subestacoes; i++) {
+            Subestacao subestacao = new Subestacao();
+            subestacao.setId(i + 1);
+            subestacao.setCodigo(Integer.toString(i, 36).toUpperCase());
+            subestacao.setNome("Subestação " + i);
+            subestacao.setLatitude(BigDecimal.valueOf(-33 + random.nextDouble() * 38).setScale(13, RoundingMode.HALF_EVEN));
+            subestacao.setLongitude(BigDecimal.valueOf(-74 + random.nextDouble() * 40).setScale(13, RoundingMode.HALF_EVEN));
+            subestacao.setVersao((long) random.nextInt(10));
+            subestacao.atualizarGeohash();
+
+            List<RedeMT> redes = new ArrayList<>(redesPorSubestacao);
+            for (int j = 0; j < redesPorSubestacao; j++) {
+                RedeMT rede = new RedeMT();
+                rede.setId(i * redesPorSubestacao + j + 1);
+                rede.setCodigo(String.format("%05d", i * redesPorSubestacao + j));
+                rede.setNome("Rede de média tensão " + j);
+                rede.setTensaoNominal(j % 3 == 0 ? new BigDecimal("34.50") : new BigDecimal("13.80"));
+                rede.setVersao(0L);
+                rede.setSubestacao(subestacao);
+                redes.add(rede);
+            }
+            subestacao.setRedesMT(redes);
+            topologia.add(subestacao);
+        }
+
+        codificada = codificar();
+        System.out.printf("%n%s: %d subestações, %d redes MT, %d bytes%n",
+                formato, subestacoes, subestacoes * redesPorSubestacao, codificada.length);
+    }
+
+    @Benchmark
+    public byte[] codificar() throws Exception {
+        if (!"protobuf".equals(formato)) {
+            return writer.writeValueAsBytes(topologia);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CodedOutputStream out = CodedOutputStream.newInstance(bytes);
+        TopologiaProtobuf.escreverSubestacoes(topologia, null, out);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public List<Subestacao> decodificar() throws Exception {
+        if (!"protobuf".equals(formato)) {
+            return reader.readValue(codificada);
+        }
+        return TopologiaProtobuf.lerSubestacoes(CodedInputStream.newInstance(codificada)).itens();
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.sinapsis.infra;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.core.Authentication;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark da validação de tokens JWT no caminho do filtro de autenticação.
+ * Compara a verificação completa (assinatura HMAC e decodificação do JSON) com a busca no cache de tokens verificados,
+ * que é o caso de requisições repetidas com o mesmo token.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JwtServiceBenchmark {
+
+    private JwtService jwtService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService();
+        token = jwtService.generateToken("operador");
+        jwtService.authenticate(token); // Coloca o token no cache
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken("operador");
+    }
+
+    @Benchmark
+    public JwtService.TokenVerificado validateTokenUncached() {
+        return jwtService.verificar(token);
+    }
+
+    @Benchmark
+    public Authentication validateTokenCached() {
+        return jwtService.authenticate(token);
+    }
+}
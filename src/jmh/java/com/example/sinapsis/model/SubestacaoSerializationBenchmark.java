@@ -0,0 +1,62 @@
+package com.example.sinapsis.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark da serialização JSON (Jackson) de uma subestação com suas redes MT,
+ * como feita nas respostas de GET /subestacoes/{id} e na exportação NDJSON.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SubestacaoSerializationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int redes;
+
+    private ObjectWriter writer;
+    private Subestacao subestacao;
+
+    @Setup
+    public void setUp() {
+        writer = new ObjectMapper().writerFor(Subestacao.class);
+
+        subestacao = new Subestacao();
+        subestacao.setId(1);
+        subestacao.setCodigo("SPO");
+        subestacao.setNome("Subestação São Paulo");
+        subestacao.setLatitude(new BigDecimal("-23.5505000000000"));
+        subestacao.setLongitude(new BigDecimal("-46.6333000000000"));
+
+        List<RedeMT> lista = new ArrayList<>(redes);
+        for (int i = 0; i < redes; i++) {
+            RedeMT rede = new RedeMT();
+            rede.setId(i + 1);
+            rede.setCodigo(String.format("R%04d", i));
+            rede.setNome("Rede de média tensão " + i);
+            rede.setTensaoNominal(new BigDecimal("13.80"));
+            rede.setSubestacao(subestacao);
+            lista.add(rede);
+        }
+        subestacao.setRedesMT(lista);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return writer.writeValueAsBytes(subestacao);
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.sinapsis.services;
+
+import com.example.sinapsis.SinapsisApplication;
+import com.example.sinapsis.model.RedeMT;
+import com.example.sinapsis.model.Subestacao;
+import com.example.sinapsis.repositories.RedeMTRepository;
+import com.example.sinapsis.repositories.SubestacaoRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de SubestacaoService.save e SubestacaoService.update com o contexto completo da aplicação
+ * (transações, Hibernate, eventos, cache e índice espacial) sobre um H2 em memória no modo MySQL.
+ * As tabelas são esvaziadas a cada iteração, porque os códigos de subestação têm apenas 3 caracteres.
+ * As propriedades do H2 são passadas como argumentos de linha de comando, que têm precedência sobre
+ * application.properties; antes de esvaziar as tabelas, o benchmark confirma que está conectado ao H2.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SubestacaoServiceBenchmark {
+
+    // Quantidade de redes MT de cada subestação salva ou atualizada
+    private static final int REDES_POR_SUBESTACAO = 10;
+
+    // Quantidade de códigos distintos de subestação (3 caracteres em base 36)
+    private static final int CODIGOS_DISPONIVEIS = 36 * 36 * 36;
+
+    private static final String URL_H2 = "jdbc:h2:mem:benchmark";
+
+    private ConfigurableApplicationContext context;
+    private SubestacaoService subestacaoService;
+    private SubestacaoRepository subestacaoRepository;
+    private RedeMTRepository redeMTRepository;
+
+    private int sequencia;
+    private Subestacao subestacaoAtualizada;
+    private boolean alternar;
+
+    @Setup(Level.Trial)
+    public void iniciarAplicacao() throws SQLException {
+        context = new SpringApplicationBuilder(SinapsisApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + URL_H2 + ";MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--logging.level.root=WARN");
+        verificarBancoH2();
+        subestacaoService = context.getBean(SubestacaoService.class);
+        subestacaoRepository = context.getBean(SubestacaoRepository.class);
+        redeMTRepository = context.getBean(RedeMTRepository.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void limparTabelas() throws SQLException {
+        verificarBancoH2();
+        redeMTRepository.deleteAllInBatch();
+        subestacaoRepository.deleteAllInBatch();
+        sequencia = 0;
+
+        // Subestação usada pelo benchmark de atualização
+        subestacaoAtualizada = subestacaoService.save(novaSubestacao());
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrarAplicacao() {
+        context.close();
+    }
+
+    @Benchmark
+    public Subestacao save() {
+        return subestacaoService.save(novaSubestacao());
+    }
+
+    @Benchmark
+    public Subestacao update() {
+        // Alterna entre dois conjuntos de redes que compartilham metade dos códigos,
+        // exercitando a criação, a manutenção e a remoção de redes a cada chamada
+        alternar = !alternar;
+        int deslocamento = alternar ? REDES_POR_SUBESTACAO / 2 : 0;
+
+        Subestacao dados = new Subestacao();
+        dados.setCodigo(subestacaoAtualizada.getCodigo());
+        dados.setNome("Subestação atualizada");
+        dados.setLatitude(new BigDecimal("-22.9056"));
+        dados.setLongitude(new BigDecimal("-47.0608"));
+        dados.setRedesMT(redes(subestacaoAtualizada.getCodigo(), deslocamento));
+        return subestacaoService.update(subestacaoAtualizada.getId(), dados);
+    }
+
+    // As tabelas são esvaziadas a cada iteração: recusa qualquer banco que não seja o H2 em memória do benchmark
+    private void verificarBancoH2() throws SQLException {
+        try (Connection conexao = context.getBean(DataSource.class).getConnection()) {
+            String url = conexao.getMetaData().getURL();
+            if (url == null || !url.startsWith(URL_H2)) {
+                throw new IllegalStateException("O benchmark deve rodar no H2 em memória, mas está conectado a " + url);
+            }
+        }
+    }
+
+    private Subestacao novaSubestacao() {
+        int numero = sequencia++;
+        if (numero >= CODIGOS_DISPONIVEIS) {
+            throw new IllegalStateException("Códigos de subestação esgotados na iteração; reduza o tempo de medição.");
+        }
+
+        Subestacao subestacao = new Subestacao();
+        subestacao.setCodigo(base36(numero, 3));
+        subestacao.setNome("Subestação " + numero);
+        subestacao.setLatitude(new BigDecimal("-23.5505"));
+        subestacao.setLongitude(new BigDecimal("-46.6333"));
+        subestacao.setRedesMT(redes(base36(numero, 3), 0));
+        return subestacao;
+    }
+
+    // Redes com códigos de 5 caracteres: código da subestação seguido do número da rede
+    private static List<RedeMT> redes(String prefixo, int deslocamento) {
+        List<RedeMT> redes = new ArrayList<>(REDES_POR_SUBESTACAO);
+        for (int i = 0; i < REDES_POR_SUBESTACAO; i++) {
+            RedeMT rede = new RedeMT();
+            rede.setCodigo(prefixo + base36(i + deslocamento, 5 - prefixo.length()));
+            rede.setNome("Rede " + i);
+            rede.setTensaoNominal(new BigDecimal("13.80"));
+            redes.add(rede);
+        }
+        return redes;
+    }
+
+    private static String base36(int valor, int tamanho) {
+        StringBuilder codigo = new StringBuilder(Integer.toString(valor, 36).toUpperCase());
+        while (codigo.length() < tamanho) {
+            codigo.insert(0, '0');
+        }
+        return codigo.toString();
+    }
+}
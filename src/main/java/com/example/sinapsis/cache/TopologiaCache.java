@@ -0,0 +1,157 @@
+package com.example.sinapsis.cache;
+
+import com.example.sinapsis.model.RedeMT;
+import com.example.sinapsis.model.Subestacao;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Cache em memória (read-through) das consultas por ID de subestações e redes MT e da consulta de redes MT por código.
+ * Cada cache é limitado em quantidade de entradas e expira as entradas após um tempo fixo desde a gravação,
+ * registrando estatísticas de acertos e falhas.
+ * Os serviços invalidam as entradas afetadas por cada escrita: imediatamente e novamente ao final da transação,
+ * para que uma leitura concorrente não recoloque no cache um valor anterior ao commit.
+ */
+@Component
+public class TopologiaCache implements MeterBinder {
+
+    private final Cache<Integer, Subestacao> subestacoes;
+    private final Cache<Integer, RedeMT> redes;
+
+    // Código da rede MT -> ID; guarda também códigos inexistentes, que são o caso comum no cadastro
+    private final Cache<String, Optional<Integer>> redesPorCodigo;
+
+    /**
+     * Construtor da classe TopologiaCache.
+     *
+     * @param tamanhoMaximo Quantidade máxima de entradas de cada cache.
+     * @param ttl           Tempo de vida de cada entrada após ser gravada.
+     */
+    public TopologiaCache(@Value("${sinapsis.cache.tamanho-maximo:10000}") long tamanhoMaximo,
+                          @Value("${sinapsis.cache.ttl:5m}") Duration ttl) {
+        this.subestacoes = criar(tamanhoMaximo, ttl);
+        this.redes = criar(tamanhoMaximo, ttl);
+        this.redesPorCodigo = criar(tamanhoMaximo, ttl);
+    }
+
+    private static <K, V> Cache<K, V> criar(long tamanhoMaximo, Duration ttl) {
+        return Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Publica as métricas de cada cache (acertos, falhas, remoções e tamanho).
+     *
+     * @param registry Registro de métricas.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, subestacoes, "subestacoes");
+        CaffeineCacheMetrics.monitor(registry, redes, "redesMT");
+        CaffeineCacheMetrics.monitor(registry, redesPorCodigo, "redesMTPorCodigo");
+    }
+
+    /**
+     * Busca uma subestação no cache, carregando-a com a função informada em caso de falha.
+     * Subestações não encontradas não são guardadas.
+     *
+     * @param id       ID da subestação.
+     * @param carregar Função que busca a subestação no banco de dados (com as redes MT carregadas).
+     * @return Um Optional contendo a subestação, ou vazio se não existir.
+     */
+    public Optional<Subestacao> getSubestacao(Integer id, Function<Integer, Optional<Subestacao>> carregar) {
+        return Optional.ofNullable(subestacoes.get(id, chave -> carregar.apply(chave).orElse(null)));
+    }
+
+    /**
+     * Busca uma rede MT no cache, carregando-a com a função informada em caso de falha.
+     * Redes não encontradas não são guardadas.
+     *
+     * @param id       ID da rede MT.
+     * @param carregar Função que busca a rede MT no banco de dados.
+     * @return Um Optional contendo a rede MT, ou vazio se não existir.
+     */
+    public Optional<RedeMT> getRede(Integer id, Function<Integer, Optional<RedeMT>> carregar) {
+        return Optional.ofNullable(redes.get(id, chave -> carregar.apply(chave).orElse(null)));
+    }
+
+    /**
+     * Busca o ID de uma rede MT pelo código, carregando-o com a função informada em caso de falha.
+     *
+     * @param codigo   Código da rede MT.
+     * @param carregar Função que busca o ID da rede MT no banco de dados.
+     * @return Um Optional contendo o ID da rede MT, ou vazio se não existir rede com o código.
+     */
+    public Optional<Integer> getRedeIdPorCodigo(String codigo, Function<String, Optional<Integer>> carregar) {
+        return redesPorCodigo.get(codigo, carregar);
+    }
+
+    /**
+     * Invalida a subestação informada.
+     *
+     * @param id ID da subestação (ignorado se null).
+     */
+    public void invalidarSubestacao(Integer id) {
+        if (id != null) {
+            invalidar(subestacoes, id);
+        }
+    }
+
+    /**
+     * Invalida a rede MT informada, tanto pelo ID quanto pelo código.
+     *
+     * @param id     ID da rede MT (ignorado se null).
+     * @param codigo Código da rede MT (ignorado se null).
+     */
+    public void invalidarRede(Integer id, String codigo) {
+        if (id != null) {
+            invalidar(redes, id);
+        }
+        if (codigo != null) {
+            invalidar(redesPorCodigo, codigo);
+        }
+    }
+
+    /**
+     * Retorna as estatísticas de acertos, falhas e remoções de cada cache.
+     *
+     * @return Estatísticas indexadas pelo nome do cache.
+     */
+    public Map<String, CacheStats> estatisticas() {
+        Map<String, CacheStats> estatisticas = new LinkedHashMap<>();
+        estatisticas.put("subestacoes", subestacoes.stats());
+        estatisticas.put("redesMT", redes.stats());
+        estatisticas.put("redesMTPorCodigo", redesPorCodigo.stats());
+        return estatisticas;
+    }
+
+    // Remove a entrada agora e, se houver uma transação em andamento, novamente quando ela terminar
+    private static <K> void invalidar(Cache<K, ?> cache, K chave) {
+        cache.invalidate(chave);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(chave);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.example.sinapsis.cache;
+
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import com.aayushatharva.brotli4j.encoder.Encoder;
+import com.example.sinapsis.events.TopologiaAlteradaEvent;
+import com.example.sinapsis.model.RedeMT;
+import com.example.sinapsis.model.Subestacao;
+import com.example.sinapsis.repositories.RedeMTRepository;
+import com.example.sinapsis.repositories.SubestacaoRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Snapshots das listas completas de subestações (com as redes MT) e de redes MT, já serializados em JSON e
+ * comprimidos em gzip e Brotli, para que GET /subestacoes e GET /redesmt sejam respondidos copiando bytes prontos,
+ * sem consultar o banco, serializar ou comprimir a cada requisição.
+ * Os snapshots são gerados quando a aplicação inicia e novamente após cada alteração confirmada da topologia,
+ * em uma thread própria; alterações próximas são agrupadas em uma única geração. Enquanto a nova geração não
+ * termina, as requisições recebem o snapshot anterior.
+ */
+@Component
+public class TopologiaSnapshot {
+    private static final Logger logger = LoggerFactory.getLogger(TopologiaSnapshot.class);
+
+    // Nível de compressão do gzip e qualidade do Brotli: a compressão é feita uma vez por geração, fora das requisições,
+    // mas a qualidade máxima do Brotli (11) é lenta demais para topologias grandes
+    private static final int NIVEL_GZIP = Deflater.BEST_COMPRESSION;
+    private static final int QUALIDADE_BROTLI = 9;
+
+    private final SubestacaoRepository subestacaoRepository;
+    private final RedeMTRepository redeMTRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transaction;
+    private final Duration atraso;
+    private final boolean brotliDisponivel;
+
+    private final ScheduledExecutorService gerador;
+    private final AtomicBoolean agendada = new AtomicBoolean();
+    private long geracoes;
+
+    private volatile Conteudo subestacoes;
+    private volatile Conteudo redes;
+
+    /**
+     * Construtor da classe TopologiaSnapshot.
+     *
+     * @param subestacaoRepository Repositório das subestações.
+     * @param redeMTRepository     Repositório das redes MT.
+     * @param objectMapper         ObjectMapper usado nas respostas JSON.
+     * @param transactionManager   Gerenciador de transações usado nas consultas de cada geração.
+     * @param atraso               Espera entre uma alteração e a nova geração, para agrupar alterações próximas.
+     */
+    public TopologiaSnapshot(SubestacaoRepository subestacaoRepository,
+                             RedeMTRepository redeMTRepository,
+                             ObjectMapper objectMapper,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${sinapsis.snapshot.atraso:500ms}") Duration atraso) {
+        this.subestacaoRepository = subestacaoRepository;
+        this.redeMTRepository = redeMTRepository;
+        this.objectMapper = objectMapper;
+        // Transação de escrita: com réplicas configuradas, a leitura precisa ver a alteração que acabou de ser confirmada
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.atraso = atraso;
+        this.brotliDisponivel = Brotli4jLoader.isAvailable();
+        if (!brotliDisponivel) {
+            logger.warn("Biblioteca nativa do Brotli indisponível; snapshots da topologia apenas em gzip",
+                    Brotli4jLoader.getUnavailabilityCause());
+        }
+        this.gerador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "snapshot-topologia");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Gera os primeiros snapshots quando a aplicação termina de iniciar.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        agendar(Duration.ZERO);
+    }
+
+    /**
+     * Agenda uma nova geração após a confirmação de uma alteração da topologia.
+     * Subestações contêm as redes MT, então qualquer alteração renova os dois snapshots.
+     *
+     * @param event Evento de alteração da topologia.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTopologiaAlterada(TopologiaAlteradaEvent event) {
+        agendar(atraso);
+    }
+
+    /**
+     * Retorna o snapshot atual da lista de subestações com as redes MT (GET /subestacoes).
+     *
+     * @return Um Optional contendo o snapshot, ou vazio se o primeiro ainda não foi gerado.
+     */
+    public Optional<Conteudo> subestacoes() {
+        return Optional.ofNullable(subestacoes);
+    }
+
+    /**
+     * Retorna o snapshot atual da lista de redes MT (GET /redesmt).
+     *
+     * @return Um Optional contendo o snapshot, ou vazio se o primeiro ainda não foi gerado.
+     */
+    public Optional<Conteudo> redes() {
+        return Optional.ofNullable(redes);
+    }
+
+    /**
+     * Interrompe a thread de geração.
+     */
+    @PreDestroy
+    public void encerrar() {
+        gerador.shutdownNow();
+    }
+
+    // Uma geração por vez: alterações recebidas enquanto há uma agendada são atendidas por ela
+    private void agendar(Duration espera) {
+        if (agendada.compareAndSet(false, true)) {
+            gerador.schedule(this::gerar, espera.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Gera os snapshots a partir do estado atual do banco de dados.
+     * Executado na thread de geração; exposto ao pacote para os testes.
+     */
+    void gerar() {
+        // Alterações confirmadas a partir daqui agendam uma nova geração
+        agendada.set(false);
+        long inicio = System.nanoTime();
+        try {
+            Conteudo novasSubestacoes = transaction.execute(status -> criar(subestacaoRepository.findAllWithRedes(),
+                    new TypeReference<List<Subestacao>>() {
+                    }));
+            Conteudo novasRedes = transaction.execute(status -> criar(redeMTRepository.findAll(),
+                    new TypeReference<List<RedeMT>>() {
+                    }));
+            subestacoes = novasSubestacoes;
+            redes = novasRedes;
+            logger.debug("Snapshots da topologia gerados em {} ms: subestações {}, redes MT {}",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio), novasSubestacoes, novasRedes);
+        } catch (RuntimeException e) {
+            // O snapshot anterior continua sendo servido até a próxima alteração
+            logger.error("Falha ao gerar os snapshots da topologia: {}", e.getMessage(), e);
+        }
+    }
+
+    private <T> Conteudo criar(List<T> itens, TypeReference<List<T>> tipo) {
+        try {
+            byte[] json = objectMapper.writerFor(tipo).writeValueAsBytes(itens);
+            return new Conteudo(++geracoes, etag(json), json, gzip(json), brotliDisponivel ? brotli(json) : null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // ETag derivado do conteúdo: se mantém entre gerações e reinícios enquanto a topologia não muda.
+    // Fraco porque o mesmo JSON é servido com codificações diferentes
+    private static String etag(byte[] json) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(json);
+            return "W/\"" + HexFormat.of().formatHex(hash, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(json.length / 8);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes) {
+            {
+                def.setLevel(NIVEL_GZIP);
+            }
+        }) {
+            out.write(json);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] brotli(byte[] json) throws IOException {
+        return Encoder.compress(json, new Encoder.Parameters().setQuality(QUALIDADE_BROTLI));
+    }
+
+    /**
+     * Codificações de conteúdo dos snapshots.
+     */
+    public enum Codificacao {
+        BROTLI("br"),
+        GZIP("gzip"),
+        IDENTIDADE(null);
+
+        private final String nome;
+
+        Codificacao(String nome) {
+            this.nome = nome;
+        }
+
+        /**
+         * Retorna o valor do cabeçalho Content-Encoding.
+         *
+         * @return Nome da codificação, ou null para o conteúdo sem compressão.
+         */
+        public String getNome() {
+            return nome;
+        }
+    }
+
+    /**
+     * Snapshot de uma lista da topologia.
+     *
+     * @param geracao Número da geração, crescente desde o início da aplicação.
+     * @param etag    ETag fraco derivado do conteúdo JSON.
+     * @param json    Lista serializada em JSON.
+     * @param gzip    JSON comprimido em gzip.
+     * @param brotli  JSON comprimido em Brotli, ou null se o Brotli estiver indisponível.
+     */
+    public record Conteudo(long geracao, String etag, byte[] json, byte[] gzip, byte[] brotli) {
+
+        /**
+         * Escolhe a codificação a partir do cabeçalho Accept-Encoding: Brotli, se aceito e disponível,
+         * senão gzip, se aceito, senão o JSON sem compressão.
+         *
+         * @param acceptEncoding Valor do cabeçalho Accept-Encoding (pode ser null).
+         * @return Codificação escolhida.
+         */
+        public Codificacao codificacao(String acceptEncoding) {
+            if (acceptEncoding == null) {
+                return Codificacao.IDENTIDADE;
+            }
+            boolean aceitaGzip = false;
+            for (String item : acceptEncoding.toLowerCase(Locale.ROOT).split(",")) {
+                String[] partes = item.split(";");
+                String nome = partes[0].trim();
+                if (recusada(partes)) {
+                    continue;
+                }
+                if (nome.equals("br") && brotli != null) {
+                    return Codificacao.BROTLI;
+                }
+                aceitaGzip |= nome.equals("gzip") || nome.equals("x-gzip") || nome.equals("*");
+            }
+            return aceitaGzip ? Codificacao.GZIP : Codificacao.IDENTIDADE;
+        }
+
+        /**
+         * Retorna o conteúdo na codificação informada.
+         *
+         * @param codificacao Codificação desejada.
+         * @return Bytes do snapshot.
+         */
+        public byte[] corpo(Codificacao codificacao) {
+            return switch (codificacao) {
+                case BROTLI -> brotli;
+                case GZIP -> gzip;
+                case IDENTIDADE -> json;
+            };
+        }
+
+        // Codificação com q=0 no Accept-Encoding
+        private static boolean recusada(String[] partes) {
+            for (int i = 1; i < partes.length; i++) {
+                String parametro = partes[i].trim();
+                if (parametro.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(parametro.substring(2)) <= 0;
+                    } catch (NumberFormatException e) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return "geração " + geracao + ": " + json.length + " bytes, gzip " + gzip.length + " bytes, brotli "
+                    + (brotli != null ? brotli.length + " bytes" : "indisponível");
+        }
+    }
+}
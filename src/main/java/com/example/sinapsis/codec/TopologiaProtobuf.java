@@ -0,0 +1,356 @@
+package com.example.sinapsis.codec;
+
+import com.example.sinapsis.dto.CursorPage;
+import com.example.sinapsis.model.RedeMT;
+import com.example.sinapsis.model.Subestacao;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Codificação de subestações e redes MT em Protocol Buffers, conforme o esquema {@code proto/topologia.proto}.
+ * As mensagens são escritas e lidas campo a campo com CodedOutputStream/CodedInputStream, sem classes geradas
+ * pelo protoc, de forma que as entidades são serializadas diretamente, sem cópia para objetos intermediários.
+ * Latitude, longitude e tensão nominal são enviadas como inteiros na escala das colunas do banco, sem perda de
+ * precisão e sem conversão de texto para decimal no cliente.
+ */
+public final class TopologiaProtobuf {
+
+    /**
+     * Tipo de mídia das respostas em Protocol Buffers.
+     */
+    public static final String MEDIA_TYPE = "application/x-protobuf";
+
+    // Casas decimais de LATITUDE/LONGITUDE e de TENSAO_NOMINAL
+    static final int ESCALA_COORDENADA = 13;
+    static final int ESCALA_TENSAO = 2;
+
+    // Campos da mensagem RedeMT
+    private static final int REDE_ID = 1;
+    private static final int REDE_CODIGO = 2;
+    private static final int REDE_NOME = 3;
+    private static final int REDE_TENSAO = 4;
+    private static final int REDE_VERSAO = 5;
+    private static final int REDE_SUBESTACAO_ID = 6;
+
+    // Campos da mensagem Subestacao
+    private static final int SUBESTACAO_ID = 1;
+    private static final int SUBESTACAO_CODIGO = 2;
+    private static final int SUBESTACAO_NOME = 3;
+    private static final int SUBESTACAO_LATITUDE = 4;
+    private static final int SUBESTACAO_LONGITUDE = 5;
+    private static final int SUBESTACAO_GEOHASH = 6;
+    private static final int SUBESTACAO_VERSAO = 7;
+    private static final int SUBESTACAO_REDES = 8;
+
+    // Campos das mensagens Subestacoes e RedesMT
+    private static final int LISTA_ITENS = 1;
+    private static final int LISTA_PROXIMO_CURSOR = 2;
+
+    private TopologiaProtobuf() {
+    }
+
+    /**
+     * Escreve uma subestação, com suas redes MT, como mensagem Subestacao.
+     *
+     * @param subestacao Subestação a ser escrita.
+     * @param out        Stream de saída.
+     * @throws IOException Em caso de erro de escrita.
+     */
+    public static void escreverSubestacao(Subestacao subestacao, CodedOutputStream out) throws IOException {
+        escreverCampos(subestacao, out);
+    }
+
+    /**
+     * Escreve uma rede MT como mensagem RedeMT, incluindo o ID da subestação.
+     *
+     * @param rede Rede MT a ser escrita.
+     * @param out  Stream de saída.
+     * @throws IOException Em caso de erro de escrita.
+     */
+    public static void escreverRedeMT(RedeMT rede, CodedOutputStream out) throws IOException {
+        escreverCampos(rede, true, out);
+    }
+
+    /**
+     * Escreve uma lista ou página de subestações como mensagem Subestacoes.
+     *
+     * @param subestacoes   Subestações a serem escritas.
+     * @param proximoCursor Cursor da próxima página (pode ser null).
+     * @param out           Stream de saída.
+     * @throws IOException Em caso de erro de escrita.
+     */
+    public static void escreverSubestacoes(Collection<Subestacao> subestacoes, String proximoCursor,
+                                           CodedOutputStream out) throws IOException {
+        for (Subestacao subestacao : subestacoes) {
+            out.writeTag(LISTA_ITENS, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            out.writeUInt32NoTag(tamanho(subestacao));
+            escreverCampos(subestacao, out);
+        }
+        if (proximoCursor != null) {
+            out.writeString(LISTA_PROXIMO_CURSOR, proximoCursor);
+        }
+    }
+
+    /**
+     * Escreve uma lista ou página de redes MT como mensagem RedesMT.
+     *
+     * @param redes         Redes MT a serem escritas.
+     * @param proximoCursor Cursor da próxima página (pode ser null).
+     * @param out           Stream de saída.
+     * @throws IOException Em caso de erro de escrita.
+     */
+    public static void escreverRedesMT(Collection<RedeMT> redes, String proximoCursor,
+                                       CodedOutputStream out) throws IOException {
+        for (RedeMT rede : redes) {
+            out.writeTag(LISTA_ITENS, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            out.writeUInt32NoTag(tamanho(rede, true));
+            escreverCampos(rede, true, out);
+        }
+        if (proximoCursor != null) {
+            out.writeString(LISTA_PROXIMO_CURSOR, proximoCursor);
+        }
+    }
+
+    /**
+     * Lê uma mensagem Subestacao. As redes MT lidas ficam vinculadas à subestação.
+     *
+     * @param in Stream de entrada posicionado no início da mensagem.
+     * @return Subestação lida.
+     * @throws IOException Se a mensagem for inválida.
+     */
+    public static Subestacao lerSubestacao(CodedInputStream in) throws IOException {
+        Subestacao subestacao = new Subestacao();
+        List<RedeMT> redes = new ArrayList<>();
+        subestacao.setRedesMT(redes);
+        int tag;
+        while ((tag = in.readTag()) != 0) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case SUBESTACAO_ID -> subestacao.setId(in.readInt32());
+                case SUBESTACAO_CODIGO -> subestacao.setCodigo(in.readStringRequireUtf8());
+                case SUBESTACAO_NOME -> subestacao.setNome(in.readStringRequireUtf8());
+                case SUBESTACAO_LATITUDE -> subestacao.setLatitude(BigDecimal.valueOf(in.readSInt64(), ESCALA_COORDENADA));
+                case SUBESTACAO_LONGITUDE -> subestacao.setLongitude(BigDecimal.valueOf(in.readSInt64(), ESCALA_COORDENADA));
+                case SUBESTACAO_GEOHASH -> in.readStringRequireUtf8(); // Derivado da latitude/longitude
+                case SUBESTACAO_VERSAO -> subestacao.setVersao(in.readInt64());
+                case SUBESTACAO_REDES -> {
+                    int limite = in.pushLimit(in.readRawVarint32());
+                    RedeMT rede = lerRedeMT(in);
+                    rede.setSubestacao(subestacao);
+                    redes.add(rede);
+                    in.popLimit(limite);
+                }
+                default -> in.skipField(tag);
+            }
+        }
+        return subestacao;
+    }
+
+    /**
+     * Lê uma mensagem RedeMT. Se o ID da subestação estiver presente, a rede MT recebe uma referência
+     * a uma subestação contendo apenas o ID.
+     *
+     * @param in Stream de entrada posicionado no início da mensagem.
+     * @return Rede MT lida.
+     * @throws IOException Se a mensagem for inválida.
+     */
+    public static RedeMT lerRedeMT(CodedInputStream in) throws IOException {
+        RedeMT rede = new RedeMT();
+        int tag;
+        while ((tag = in.readTag()) != 0) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case REDE_ID -> rede.setId(in.readInt32());
+                case REDE_CODIGO -> rede.setCodigo(in.readStringRequireUtf8());
+                case REDE_NOME -> rede.setNome(in.readStringRequireUtf8());
+                case REDE_TENSAO -> rede.setTensaoNominal(BigDecimal.valueOf(in.readSInt32(), ESCALA_TENSAO));
+                case REDE_VERSAO -> rede.setVersao(in.readInt64());
+                case REDE_SUBESTACAO_ID -> {
+                    Subestacao referencia = new Subestacao();
+                    referencia.setId(in.readInt32());
+                    rede.setSubestacao(referencia);
+                }
+                default -> in.skipField(tag);
+            }
+        }
+        return rede;
+    }
+
+    /**
+     * Lê uma mensagem Subestacoes.
+     *
+     * @param in Stream de entrada posicionado no início da mensagem.
+     * @return Página com as subestações e o cursor da próxima página (null se ausente).
+     * @throws IOException Se a mensagem for inválida.
+     */
+    public static CursorPage<Subestacao> lerSubestacoes(CodedInputStream in) throws IOException {
+        List<Subestacao> itens = new ArrayList<>();
+        String proximoCursor = null;
+        int tag;
+        while ((tag = in.readTag()) != 0) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case LISTA_ITENS -> {
+                    int limite = in.pushLimit(in.readRawVarint32());
+                    itens.add(lerSubestacao(in));
+                    in.popLimit(limite);
+                }
+                case LISTA_PROXIMO_CURSOR -> proximoCursor = in.readStringRequireUtf8();
+                default -> in.skipField(tag);
+            }
+        }
+        return new CursorPage<>(itens, proximoCursor);
+    }
+
+    /**
+     * Lê uma mensagem RedesMT.
+     *
+     * @param in Stream de entrada posicionado no início da mensagem.
+     * @return Página com as redes MT e o cursor da próxima página (null se ausente).
+     * @throws IOException Se a mensagem for inválida.
+     */
+    public static CursorPage<RedeMT> lerRedesMT(CodedInputStream in) throws IOException {
+        List<RedeMT> itens = new ArrayList<>();
+        String proximoCursor = null;
+        int tag;
+        while ((tag = in.readTag()) != 0) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case LISTA_ITENS -> {
+                    int limite = in.pushLimit(in.readRawVarint32());
+                    itens.add(lerRedeMT(in));
+                    in.popLimit(limite);
+                }
+                case LISTA_PROXIMO_CURSOR -> proximoCursor = in.readStringRequireUtf8();
+                default -> in.skipField(tag);
+            }
+        }
+        return new CursorPage<>(itens, proximoCursor);
+    }
+
+    // Tamanho, em bytes, dos campos de uma subestação (sem a tag e o tamanho da própria mensagem)
+    private static int tamanho(Subestacao subestacao) {
+        int tamanho = 0;
+        if (subestacao.getId() != null) {
+            tamanho += CodedOutputStream.computeInt32Size(SUBESTACAO_ID, subestacao.getId());
+        }
+        if (subestacao.getCodigo() != null) {
+            tamanho += CodedOutputStream.computeStringSize(SUBESTACAO_CODIGO, subestacao.getCodigo());
+        }
+        if (subestacao.getNome() != null) {
+            tamanho += CodedOutputStream.computeStringSize(SUBESTACAO_NOME, subestacao.getNome());
+        }
+        if (subestacao.getLatitude() != null) {
+            tamanho += CodedOutputStream.computeSInt64Size(SUBESTACAO_LATITUDE, escalar(subestacao.getLatitude(), ESCALA_COORDENADA));
+        }
+        if (subestacao.getLongitude() != null) {
+            tamanho += CodedOutputStream.computeSInt64Size(SUBESTACAO_LONGITUDE, escalar(subestacao.getLongitude(), ESCALA_COORDENADA));
+        }
+        if (subestacao.getGeohash() != null) {
+            tamanho += CodedOutputStream.computeStringSize(SUBESTACAO_GEOHASH, subestacao.getGeohash());
+        }
+        if (subestacao.getVersao() != null) {
+            tamanho += CodedOutputStream.computeInt64Size(SUBESTACAO_VERSAO, subestacao.getVersao());
+        }
+        if (subestacao.getRedesMT() != null) {
+            for (RedeMT rede : subestacao.getRedesMT()) {
+                int tamanhoRede = tamanho(rede, false);
+                tamanho += CodedOutputStream.computeTagSize(SUBESTACAO_REDES)
+                        + CodedOutputStream.computeUInt32SizeNoTag(tamanhoRede) + tamanhoRede;
+            }
+        }
+        return tamanho;
+    }
+
+    private static void escreverCampos(Subestacao subestacao, CodedOutputStream out) throws IOException {
+        if (subestacao.getId() != null) {
+            out.writeInt32(SUBESTACAO_ID, subestacao.getId());
+        }
+        if (subestacao.getCodigo() != null) {
+            out.writeString(SUBESTACAO_CODIGO, subestacao.getCodigo());
+        }
+        if (subestacao.getNome() != null) {
+            out.writeString(SUBESTACAO_NOME, subestacao.getNome());
+        }
+        if (subestacao.getLatitude() != null) {
+            out.writeSInt64(SUBESTACAO_LATITUDE, escalar(subestacao.getLatitude(), ESCALA_COORDENADA));
+        }
+        if (subestacao.getLongitude() != null) {
+            out.writeSInt64(SUBESTACAO_LONGITUDE, escalar(subestacao.getLongitude(), ESCALA_COORDENADA));
+        }
+        if (subestacao.getGeohash() != null) {
+            out.writeString(SUBESTACAO_GEOHASH, subestacao.getGeohash());
+        }
+        if (subestacao.getVersao() != null) {
+            out.writeInt64(SUBESTACAO_VERSAO, subestacao.getVersao());
+        }
+        if (subestacao.getRedesMT() != null) {
+            for (RedeMT rede : subestacao.getRedesMT()) {
+                out.writeTag(SUBESTACAO_REDES, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+                out.writeUInt32NoTag(tamanho(rede, false));
+                escreverCampos(rede, false, out);
+            }
+        }
+    }
+
+    // Tamanho, em bytes, dos campos de uma rede MT; dentro de uma subestação, o ID da subestação é omitido
+    private static int tamanho(RedeMT rede, boolean comSubestacao) {
+        int tamanho = 0;
+        if (rede.getId() != null) {
+            tamanho += CodedOutputStream.computeInt32Size(REDE_ID, rede.getId());
+        }
+        if (rede.getCodigo() != null) {
+            tamanho += CodedOutputStream.computeStringSize(REDE_CODIGO, rede.getCodigo());
+        }
+        if (rede.getNome() != null) {
+            tamanho += CodedOutputStream.computeStringSize(REDE_NOME, rede.getNome());
+        }
+        if (rede.getTensaoNominal() != null) {
+            tamanho += CodedOutputStream.computeSInt32Size(REDE_TENSAO, (int) escalar(rede.getTensaoNominal(), ESCALA_TENSAO));
+        }
+        if (rede.getVersao() != null) {
+            tamanho += CodedOutputStream.computeInt64Size(REDE_VERSAO, rede.getVersao());
+        }
+        Integer subestacaoId = comSubestacao ? subestacaoId(rede) : null;
+        if (subestacaoId != null) {
+            tamanho += CodedOutputStream.computeInt32Size(REDE_SUBESTACAO_ID, subestacaoId);
+        }
+        return tamanho;
+    }
+
+    private static void escreverCampos(RedeMT rede, boolean comSubestacao, CodedOutputStream out) throws IOException {
+        if (rede.getId() != null) {
+            out.writeInt32(REDE_ID, rede.getId());
+        }
+        if (rede.getCodigo() != null) {
+            out.writeString(REDE_CODIGO, rede.getCodigo());
+        }
+        if (rede.getNome() != null) {
+            out.writeString(REDE_NOME, rede.getNome());
+        }
+        if (rede.getTensaoNominal() != null) {
+            out.writeSInt32(REDE_TENSAO, (int) escalar(rede.getTensaoNominal(), ESCALA_TENSAO));
+        }
+        if (rede.getVersao() != null) {
+            out.writeInt64(REDE_VERSAO, rede.getVersao());
+        }
+        Integer subestacaoId = comSubestacao ? subestacaoId(rede) : null;
+        if (subestacaoId != null) {
+            out.writeInt32(REDE_SUBESTACAO_ID, subestacaoId);
+        }
+    }
+
+    // O ID é lido do proxy da subestação sem inicializá-lo
+    private static Integer subestacaoId(RedeMT rede) {
+        return rede.getSubestacao() != null ? rede.getSubestacao().getId() : null;
+    }
+
+    // Valor decimal como inteiro na escala da coluna (por exemplo, 13.80 kV -> 1380)
+    static long escalar(BigDecimal valor, int escala) {
+        return valor.setScale(escala, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+}
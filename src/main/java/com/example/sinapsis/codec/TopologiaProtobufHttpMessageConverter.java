@@ -0,0 +1,79 @@
+package com.example.sinapsis.codec;
+
+import com.example.sinapsis.dto.CursorPage;
+import com.example.sinapsis.model.RedeMT;
+import com.example.sinapsis.model.Subestacao;
+import com.google.protobuf.CodedOutputStream;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * Conversor das respostas em Protocol Buffers ({@code Accept: application/x-protobuf}).
+ * Escreve subestações, redes MT e listas ou páginas por cursor delas; corpos de requisição continuam em JSON.
+ */
+public class TopologiaProtobufHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    /**
+     * Tipo de mídia das respostas em Protocol Buffers.
+     */
+    public static final MediaType PROTOBUF = MediaType.valueOf(TopologiaProtobuf.MEDIA_TYPE);
+
+    /**
+     * Construtor da classe TopologiaProtobufHttpMessageConverter.
+     */
+    public TopologiaProtobufHttpMessageConverter() {
+        super(PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Subestacao.class.isAssignableFrom(clazz) || RedeMT.class.isAssignableFrom(clazz)
+                || Collection.class.isAssignableFrom(clazz) || CursorPage.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Leitura em Protocol Buffers não suportada.", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object valor, HttpOutputMessage outputMessage) throws IOException {
+        // Listas de outros tipos (resumos, estatísticas) não têm mensagem no esquema; verificado antes de escrever
+        Collection<?> itens = valor instanceof CursorPage<?> pagina ? pagina.itens()
+                : valor instanceof Collection<?> colecao ? colecao : null;
+        boolean subestacoes = itens != null && itens.stream().allMatch(Subestacao.class::isInstance);
+        if (itens != null && !subestacoes && !itens.stream().allMatch(RedeMT.class::isInstance)) {
+            throw new HttpMessageNotWritableException("Resposta sem representação em Protocol Buffers; use JSON.");
+        }
+
+        CodedOutputStream out = CodedOutputStream.newInstance(outputMessage.getBody());
+        String proximoCursor = valor instanceof CursorPage<?> pagina ? pagina.proximoCursor() : null;
+        if (valor instanceof Subestacao subestacao) {
+            TopologiaProtobuf.escreverSubestacao(subestacao, out);
+        } else if (valor instanceof RedeMT rede) {
+            TopologiaProtobuf.escreverRedeMT(rede, out);
+        } else if (subestacoes) {
+            // Uma lista vazia tem a mesma codificação nas mensagens Subestacoes e RedesMT
+            @SuppressWarnings("unchecked")
+            Collection<Subestacao> lista = (Collection<Subestacao>) itens;
+            TopologiaProtobuf.escreverSubestacoes(lista, proximoCursor, out);
+        } else {
+            @SuppressWarnings("unchecked")
+            Collection<RedeMT> lista = (Collection<RedeMT>) itens;
+            TopologiaProtobuf.escreverRedesMT(lista, proximoCursor, out);
+        }
+        out.flush();
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.sinapsis.controllers;
+
+import com.example.sinapsis.push.AlteracoesPush;
+import com.example.sinapsis.services.AlteracaoTopologiaService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Set;
+
+/**
+ * Controlador responsável pelo registro de alterações da topologia, consultado por sistemas externos
+ * para sincronizar apenas as subestações e redes MT alteradas.
+ */
+@RestController
+@RequestMapping("/changes")
+public class AlteracaoController {
+    @Autowired
+    private AlteracaoTopologiaService alteracaoTopologiaService;
+
+    @Autowired
+    private AlteracoesPush alteracoesPush;
+
+    /**
+     * Retorna as alterações de subestações e redes MT confirmadas após o cursor, em ordem de confirmação.
+     * A resposta traz sempre o cursor a ser enviado na próxima consulta.
+     *
+     * @param since Cursor retornado pela consulta anterior ou por GET /changes/cursor (opcional).
+     * @param limit Quantidade máxima de alterações (opcional).
+     * @return ResponseEntity com a página de alterações (status 200), status 400 se os parâmetros forem inválidos
+     * ou status 410 se o cursor for anterior às alterações removidas pela retenção.
+     */
+    @GetMapping
+    public ResponseEntity<?> getAlteracoes(@RequestParam(required = false) String since,
+                                           @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(alteracaoTopologiaService.findAlteracoes(since, limit));
+        } catch (AlteracaoTopologiaService.CursorExpiradoException e) {
+            return ResponseEntity.status(HttpStatus.GONE).body("Erro: " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Erro: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Retorna o cursor da última alteração registrada, usado para iniciar uma sincronização completa.
+     *
+     * @return ResponseEntity com uma página vazia contendo o cursor atual (status 200).
+     */
+    @GetMapping("/cursor")
+    public ResponseEntity<?> getCursorAtual() {
+        return ResponseEntity.ok(alteracaoTopologiaService.findCursorAtual());
+    }
+
+    /**
+     * Envia as alterações de subestações e redes MT por Server-Sent Events, à medida que são confirmadas.
+     * Cada evento "alteracao" traz a alteração e tem como ID o cursor da alteração, o mesmo de GET /changes;
+     * ao se reconectar, o cliente retoma a partir do último evento recebido.
+     *
+     * @param subestacaoId IDs das subestações cujas alterações são enviadas (opcional; todas se omitido).
+     * @param since        Cursor a partir do qual as alterações são enviadas (opcional).
+     * @param lastEventId  ID do último evento recebido, enviado pelo navegador na reconexão; tem precedência
+     *                     sobre since.
+     * @return ResponseEntity com o fluxo de eventos (status 200), status 400 se o cursor for inválido ou
+     * status 503 se o envio ainda não foi iniciado.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(@RequestParam(required = false) Set<Integer> subestacaoId,
+                                             @RequestParam(required = false) String since,
+                                             @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        try {
+            String cursor = lastEventId != null ? lastEventId : since;
+            Long ultimoEventoId = cursor == null ? null : AlteracaoTopologiaService.decodeSequencia(cursor);
+            return ResponseEntity.ok(alteracoesPush.assinar(subestacaoId, ultimoEventoId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+}
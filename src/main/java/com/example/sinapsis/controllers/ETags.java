@@ -0,0 +1,42 @@
+package com.example.sinapsis.controllers;
+
+/**
+ * Utilitário para os ETags dos endpoints, derivados da versão (@Version) das entidades.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    /**
+     * Gera o ETag forte de uma versão.
+     *
+     * @param versao Versão da entidade.
+     * @return ETag entre aspas.
+     */
+    static String of(Long versao) {
+        return "\"" + versao + "\"";
+    }
+
+    /**
+     * Extrai a versão esperada de um cabeçalho If-Match.
+     *
+     * @param ifMatch Valor do cabeçalho If-Match (pode ser null).
+     * @return Versão informada, ou null se o cabeçalho estiver ausente ou for "*".
+     * @throws IllegalArgumentException Se o cabeçalho não contiver um ETag gerado por esta aplicação.
+     */
+    static Long versao(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String valor = ifMatch.trim();
+        if (valor.length() < 2 || !valor.startsWith("\"") || !valor.endsWith("\"")) {
+            throw new IllegalArgumentException("If-Match inválido: " + ifMatch);
+        }
+        try {
+            return Long.valueOf(valor.substring(1, valor.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("If-Match inválido: " + ifMatch);
+        }
+    }
+}
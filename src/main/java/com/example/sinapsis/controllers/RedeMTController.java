@@ -1,13 +1,33 @@
 package com.example.sinapsis.controllers;
 
+import com.example.sinapsis.cache.TopologiaSnapshot;
+import com.example.sinapsis.dto.CursorPage;
+import com.example.sinapsis.dto.EstatisticasSubestacao;
+import com.example.sinapsis.dto.EstatisticasTensao;
+import com.example.sinapsis.dto.SituacaoIngestao;
+import com.example.sinapsis.memoria.TopologiaImutavel;
+import com.example.sinapsis.memoria.TopologiaMemoria;
 import com.example.sinapsis.model.RedeMT;
 import com.example.sinapsis.model.Subestacao;
+import com.example.sinapsis.services.EstatisticasRedesService;
+import com.example.sinapsis.services.RedeMTIngestaoService;
 import com.example.sinapsis.services.RedeMTService;
 import org.springframework.beans.factory.annotation.Autowired;
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.validation.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.math.BigDecimal;
+import java.net.URI;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Controlador responsável por gerenciar operações relacionadas à entidade RedeMT.
@@ -19,33 +39,133 @@ public class RedeMTController {
     @Autowired
     private RedeMTService redeMTService;
 
+    @Autowired
+    private RedeMTIngestaoService redeMTIngestaoService;
+
+    @Autowired
+    private EstatisticasRedesService estatisticasRedesService;
+
+    @Autowired
+    private TopologiaSnapshot topologiaSnapshot;
+
+    @Autowired(required = false)
+    private TopologiaMemoria topologiaMemoria;
+
     /**
-     * Retorna uma lista com todas as redes MT cadastradas.
+     * Retorna as redes MT cadastradas.
+     * Sem parâmetros, retorna a lista completa, respondida em JSON a partir do snapshot já serializado e comprimido
+     * da topologia. Se {@code cursor} ou {@code limit} forem informados,
+     * retorna uma página por cursor contendo os itens e o cursor da próxima página.
+     * Se {@code tensaoMin}, {@code tensaoMax} ou {@code subestacaoId} forem informados, retorna uma página por cursor
+     * das redes com tensão nominal na faixa, ordenadas por tensão, apenas com ID, código, tensão e subestação.
+     * Com o modo de leitura em memória habilitado, a lista completa e as páginas sem filtros são respondidas
+     * sem acessar o banco de dados.
      *
-     * @return Lista de objetos RedeMT.
+     * @param cursor       Cursor opaco retornado pela página anterior (opcional).
+     * @param limit        Quantidade máxima de redes MT por página (opcional).
+     * @param tensaoMin    Tensão nominal mínima, inclusiva (opcional).
+     * @param tensaoMax    Tensão nominal máxima, inclusiva (opcional).
+     * @param subestacaoId ID da subestação das redes (opcional).
+     * @param request      Requisição, usada para avaliar os cabeçalhos Accept, Accept-Encoding e If-None-Match.
+     * @return ResponseEntity contendo a lista ou a página de redes MT (status 200), ou status 400 se os parâmetros forem inválidos.
      */
     @GetMapping
-    public List<RedeMT> getAll() {
-        return redeMTService.findAll();
+    public ResponseEntity<?> getAll(@RequestParam(required = false) String cursor,
+                                    @RequestParam(required = false) Integer limit,
+                                    @RequestParam(required = false) BigDecimal tensaoMin,
+                                    @RequestParam(required = false) BigDecimal tensaoMax,
+                                    @RequestParam(required = false) Integer subestacaoId,
+                                    WebRequest request) {
+        if (tensaoMin != null || tensaoMax != null || subestacaoId != null) {
+            try {
+                return ResponseEntity.ok(redeMTService.findByFaixaDeTensao(tensaoMin, tensaoMax, subestacaoId, cursor, limit));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body("Erro: " + e.getMessage());
+            }
+        }
+
+        if (cursor == null && limit == null) {
+            ResponseEntity<byte[]> snapshot = Snapshots.responder(topologiaSnapshot.redes(), request);
+            if (snapshot != null) {
+                return snapshot;
+            }
+            Optional<TopologiaImutavel> memoria = memoria();
+            List<RedeMT> redes = memoria.isPresent() ? memoria.get().redes() : redeMTService.findAll();
+            return ResponseEntity.ok(redes);
+        }
+
+        try {
+            Optional<TopologiaImutavel> memoria = memoria();
+            CursorPage<RedeMT> pagina = memoria.isPresent()
+                    ? memoria.get().paginaRedes(cursor, limit)
+                    : redeMTService.findPage(cursor, limit);
+            return ResponseEntity.ok(pagina);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Erro: " + e.getMessage());
+        }
     }
 
     /**
      * Busca uma rede MT pelo seu ID.
+     * A resposta traz um ETag forte derivado da versão da rede MT. Se o cabeçalho If-None-Match corresponder
+     * à versão atual, responde 304 consultando apenas a versão, sem carregar nem serializar a rede MT.
+     * Com o modo de leitura em memória habilitado, a rede MT é respondida sem acessar o banco de dados.
      *
-     * @param id ID da rede MT a ser buscada.
-     * @return ResponseEntity com a rede MT encontrada (status 200) ou status 404 se não for encontrada.
+     * @param id      ID da rede MT a ser buscada.
+     * @param request Requisição, usada para avaliar o cabeçalho If-None-Match.
+     * @return ResponseEntity com a rede MT encontrada (status 200), status 304 se o cliente já tiver a versão atual ou status 404 se não for encontrada.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<RedeMT> getById(@PathVariable Integer id) {
+    public ResponseEntity<RedeMT> getById(@PathVariable Integer id, WebRequest request) {
+        Optional<TopologiaImutavel> memoria = memoria();
+        if (memoria.isPresent()) {
+            TopologiaImutavel topologia = memoria.get();
+            Long versao = topologia.versaoRede(id);
+            if (versao != null && request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                    && request.checkNotModified(ETags.of(versao))) {
+                return null; // Status 304 e ETag já definidos por checkNotModified
+            }
+            RedeMT redemt = topologia.rede(id);
+            return redemt != null ? ResponseEntity.ok().eTag(ETags.of(redemt.getVersao())).body(redemt) : ResponseEntity.notFound().build();
+        }
+
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Optional<Long> versao = redeMTService.findVersao(id);
+            if (versao.isPresent() && request.checkNotModified(ETags.of(versao.get()))) {
+                return null; // Status 304 e ETag já definidos por checkNotModified
+            }
+        }
+
         RedeMT redemt = redeMTService.findById(id);
 
         if (redemt != null) {
-            return ResponseEntity.ok(redemt);
+            return ResponseEntity.ok().eTag(ETags.of(redemt.getVersao())).body(redemt);
         } else {
             return ResponseEntity.notFound().build();
         }
     }
 
+    /**
+     * Retorna as estatísticas de tensão nominal de todas as redes MT: tensões mínima, máxima e média
+     * e a quantidade de redes por classe de tensão.
+     *
+     * @return ResponseEntity com as estatísticas (status 200).
+     */
+    @GetMapping("/estatisticas")
+    public ResponseEntity<EstatisticasTensao> getEstatisticas() {
+        return ResponseEntity.ok(estatisticasRedesService.findEstatisticasTensao());
+    }
+
+    /**
+     * Retorna a quantidade de redes MT e as tensões mínima, máxima e média de cada subestação.
+     *
+     * @return ResponseEntity com as estatísticas de cada subestação (status 200).
+     */
+    @GetMapping("/estatisticas/subestacoes")
+    public ResponseEntity<List<EstatisticasSubestacao>> getEstatisticasSubestacoes() {
+        return ResponseEntity.ok(estatisticasRedesService.findEstatisticasSubestacoes());
+    }
+
     /**
      * Cria uma nova rede MT.
      *
@@ -57,6 +177,71 @@ public class RedeMTController {
         return redeMTService.save(redeMT);
     }
 
+    /**
+     * Envia redes MT para cadastro assíncrono.
+     * As redes são validadas e enfileiradas, e a resposta é devolvida sem esperar pela gravação, que é feita em lotes.
+     * O resultado de cada rede pode ser consultado em GET /redesmt/ingestao/{ticket}.
+     *
+     * @param redes Redes MT a serem cadastradas.
+     * @return ResponseEntity com a situação inicial do lote e o endereço para consulta (status 202), status 400 se o lote
+     * for inválido ou status 503 se a fila de ingestão estiver cheia.
+     */
+    @PostMapping("/ingestao")
+    public ResponseEntity<?> ingerir(@RequestBody List<RedeMT> redes) {
+        try {
+            SituacaoIngestao situacao = redeMTIngestaoService.enfileirar(redes);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/redesmt/ingestao/" + situacao.ticket()))
+                    .body(situacao);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Erro: " + e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body("Erro: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Consulta a situação de um lote de redes MT enviado para cadastro assíncrono.
+     *
+     * @param ticket Ticket devolvido no envio.
+     * @return ResponseEntity com o resultado de cada rede MT (status 200) ou status 404 se o ticket não existir ou tiver expirado.
+     */
+    @GetMapping("/ingestao/{ticket}")
+    public ResponseEntity<SituacaoIngestao> getIngestao(@PathVariable String ticket) {
+        return redeMTIngestaoService.situacao(ticket)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Atualiza parcialmente uma rede MT (JSON Merge Patch).
+     * Apenas os campos presentes são alterados. A versão lida pelo cliente deve ser enviada no cabeçalho If-Match
+     * (ETag de GET /redesmt/{id}) ou no campo "versao"; se a rede tiver sido alterada desde então, responde 409.
+     *
+     * @param id      ID da rede MT a ser atualizada.
+     * @param patch   Documento JSON Merge Patch.
+     * @param ifMatch ETag da versão lida pelo cliente (opcional).
+     * @return ResponseEntity com a rede MT atualizada e o novo ETag (status 200), ou uma mensagem de erro (status 400, 409 ou 500).
+     */
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<?> patch(@PathVariable Integer id, @RequestBody JsonNode patch,
+                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        try {
+            RedeMT redeMT = redeMTService.patch(id, patch, ETags.versao(ifMatch));
+            return ResponseEntity.ok().eTag(ETags.of(redeMT.getVersao())).body(redeMT);
+        } catch (IllegalArgumentException | ConstraintViolationException e) {
+            return ResponseEntity.badRequest().body("Erro: " + e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Erro: a rede MT foi alterada por outra requisição. Busque a versão atual e tente novamente.");
+        } catch (DataIntegrityViolationException e) {
+            return ResponseEntity.badRequest().body("Erro de integridade: Verifique os dados informados.");
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Erro inesperado ao atualizar rede MT.");
+        }
+    }
+
     /**
      * Exclui uma rede MT pelo seu ID.
      *
@@ -66,4 +251,9 @@ public class RedeMTController {
     public void delete(@PathVariable Integer id) {
         redeMTService.deleteById(id);
     }
+
+    // Topologia em memória, se o modo de leitura em memória estiver habilitado e a carga já tiver terminado
+    private Optional<TopologiaImutavel> memoria() {
+        return topologiaMemoria != null ? topologiaMemoria.atual() : Optional.empty();
+    }
 }
@@ -0,0 +1,44 @@
+package com.example.sinapsis.controllers;
+
+import com.example.sinapsis.search.TopologiaSearchIndex;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controlador responsável pela busca de subestações e redes MT por código ou nome (autocompletar).
+ */
+@RestController
+@RequestMapping("/search")
+public class SearchController {
+    private final TopologiaSearchIndex searchIndex;
+
+    /**
+     * Construtor da classe SearchController.
+     *
+     * @param searchIndex Índice de busca em memória da topologia.
+     */
+    public SearchController(TopologiaSearchIndex searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    /**
+     * Busca subestações e redes MT cujo código começa com o texto ou cujo nome o contém, ignorando acentos.
+     * A consulta é respondida pelo índice em memória, sem acessar o banco de dados.
+     *
+     * @param q     Texto digitado.
+     * @param limit Quantidade máxima de resultados (opcional).
+     * @return ResponseEntity com os resultados em ordem de relevância (status 200) ou uma mensagem de erro (status 400).
+     */
+    @GetMapping
+    public ResponseEntity<?> search(@RequestParam(required = false) String q,
+                                    @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(searchIndex.buscar(q, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Erro: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.sinapsis.controllers;
+
+import com.example.sinapsis.cache.TopologiaSnapshot;
+import com.example.sinapsis.codec.TopologiaProtobufHttpMessageConverter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Utilitário para responder as listas completas a partir dos snapshots da topologia.
+ */
+final class Snapshots {
+
+    // Formatos de resposta que não são JSON; pedidos nesses formatos não usam o snapshot
+    private static final List<MediaType> OUTROS_FORMATOS = List.of(
+            MediaType.APPLICATION_CBOR,
+            MediaType.valueOf("application/x-jackson-smile"),
+            TopologiaProtobufHttpMessageConverter.PROTOBUF);
+
+    private Snapshots() {
+    }
+
+    /**
+     * Monta a resposta com os bytes do snapshot, na codificação aceita pelo cliente.
+     * O ETag do snapshot permite responder 304 a requisições condicionais.
+     *
+     * @param snapshot Snapshot atual, se já tiver sido gerado.
+     * @param request  Requisição, usada para avaliar os cabeçalhos Accept e Accept-Encoding.
+     * @return Resposta com o snapshot, ou null se não houver snapshot ou se o cliente pedir outro formato que não JSON.
+     */
+    static ResponseEntity<byte[]> responder(Optional<TopologiaSnapshot.Conteudo> snapshot, WebRequest request) {
+        if (snapshot.isEmpty() || !prefereJson(request.getHeader(HttpHeaders.ACCEPT))) {
+            return null;
+        }
+        TopologiaSnapshot.Conteudo conteudo = snapshot.get();
+        TopologiaSnapshot.Codificacao codificacao = conteudo.codificacao(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(conteudo.etag())
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        if (codificacao.getNome() != null) {
+            resposta.header(HttpHeaders.CONTENT_ENCODING, codificacao.getNome());
+        }
+        return resposta.body(conteudo.corpo(codificacao));
+    }
+
+    // Verifica se o formato negociado seria JSON: percorre os tipos aceitos da maior para a menor preferência
+    private static boolean prefereJson(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return true;
+        }
+        List<MediaType> aceitos;
+        try {
+            aceitos = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+        aceitos.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType aceito : aceitos) {
+            if (aceito.getQualityValue() <= 0) {
+                break;
+            }
+            if (aceito.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return true;
+            }
+            if (OUTROS_FORMATOS.stream().anyMatch(aceito::isCompatibleWith)) {
+                return false;
+            }
+        }
+        return false;
+    }
+}
@@ -1,13 +1,32 @@
 package com.example.sinapsis.controllers;
 
+import com.example.sinapsis.cache.TopologiaSnapshot;
+import com.example.sinapsis.dto.CursorPage;
+import com.example.sinapsis.dto.ResultadoImportacao;
+import com.example.sinapsis.dto.SubestacaoProxima;
+import com.example.sinapsis.dto.SubestacaoResumo;
+import com.example.sinapsis.memoria.TopologiaImutavel;
+import com.example.sinapsis.memoria.TopologiaMemoria;
 import com.example.sinapsis.model.Subestacao;
+import com.example.sinapsis.model.VersaoSubestacao;
+import com.example.sinapsis.services.SubestacaoImportService;
 import com.example.sinapsis.services.SubestacaoService;
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.validation.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -23,29 +42,157 @@ public class SubestacaoController {
     @Autowired
     private SubestacaoService subestacaoService;
 
+    @Autowired
+    private SubestacaoImportService subestacaoImportService;
+
+    @Autowired
+    private TopologiaSnapshot topologiaSnapshot;
+
+    @Autowired(required = false)
+    private TopologiaMemoria topologiaMemoria;
+
     private static final Logger logger = LoggerFactory.getLogger(SubestacaoController.class);
 
     /**
-     * Retorna uma lista com todas as subestações cadastradas.
+     * Retorna as subestações cadastradas.
+     * Com {@code view=summary}, retorna apenas os dados básicos e a quantidade de redes MT de cada subestação,
+     * calculados em uma única consulta. Na visão completa ({@code view=full}, padrão), as subestações são
+     * retornadas com as redes MT, carregadas na mesma consulta; se {@code cursor} ou {@code limit} forem
+     * informados, retorna uma página por cursor contendo os itens e o cursor da próxima página.
+     * A lista completa em JSON é respondida a partir do snapshot já serializado e comprimido da topologia.
+     * Com o modo de leitura em memória habilitado, a visão completa é respondida sem acessar o banco de dados.
      *
-     * @return ResponseEntity contendo a lista de subestações (status 200).
+     * @param view    Visão desejada: "full" (padrão) ou "summary".
+     * @param cursor  Cursor opaco retornado pela página anterior (opcional).
+     * @param limit   Quantidade máxima de subestações por página (opcional).
+     * @param request Requisição, usada para avaliar os cabeçalhos Accept, Accept-Encoding e If-None-Match.
+     * @return ResponseEntity contendo a lista, o resumo ou a página de subestações (status 200), ou status 400 se os parâmetros forem inválidos.
      */
     @GetMapping
-    public ResponseEntity<List<Subestacao>> getAll() {
-        List<Subestacao> subestacoes = subestacaoService.findAll();
-        return ResponseEntity.ok(subestacoes);
+    public ResponseEntity<?> getAll(@RequestParam(defaultValue = "full") String view,
+                                    @RequestParam(required = false) String cursor,
+                                    @RequestParam(required = false) Integer limit,
+                                    WebRequest request) {
+        if ("summary".equals(view)) {
+            List<SubestacaoResumo> resumos = subestacaoService.findAllResumos();
+            return ResponseEntity.ok(resumos);
+        }
+        if (!"full".equals(view)) {
+            return ResponseEntity.badRequest().body("Erro: visão inválida: " + view);
+        }
+
+        if (cursor == null && limit == null) {
+            ResponseEntity<byte[]> snapshot = Snapshots.responder(topologiaSnapshot.subestacoes(), request);
+            if (snapshot != null) {
+                return snapshot;
+            }
+            Optional<TopologiaImutavel> memoria = memoria();
+            List<Subestacao> subestacoes = memoria.isPresent() ? memoria.get().subestacoes() : subestacaoService.findAll();
+            return ResponseEntity.ok(subestacoes);
+        }
+
+        try {
+            Optional<TopologiaImutavel> memoria = memoria();
+            CursorPage<Subestacao> pagina = memoria.isPresent()
+                    ? memoria.get().paginaSubestacoes(cursor, limit)
+                    : subestacaoService.findPage(cursor, limit);
+            return ResponseEntity.ok(pagina);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Erro: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Exporta a topologia completa (subestações e suas redes MT) em JSON delimitado por linhas (NDJSON).
+     * A resposta é escrita em streaming, uma subestação por linha, sem montar a lista inteira em memória.
+     *
+     * @return ResponseEntity com o corpo em streaming (status 200).
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> export() {
+        StreamingResponseBody body = out -> subestacaoService.exportTopology(out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * Busca as k subestações mais próximas de um ponto (por exemplo, o local de uma falta).
+     * A consulta é respondida pelo índice espacial em memória, sem acessar o banco de dados.
+     *
+     * @param lat Latitude do ponto, em graus.
+     * @param lon Longitude do ponto, em graus.
+     * @param k   Quantidade de subestações a retornar (padrão 5).
+     * @return ResponseEntity com as subestações ordenadas por distância (status 200) ou uma mensagem de erro (status 400).
+     */
+    @GetMapping("/nearby")
+    public ResponseEntity<?> getNearby(@RequestParam double lat,
+                                       @RequestParam double lon,
+                                       @RequestParam(defaultValue = "5") int k) {
+        try {
+            List<SubestacaoProxima> proximas = subestacaoService.findNearby(lat, lon, k);
+            return ResponseEntity.ok(proximas);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Erro: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Busca as subestações dentro de uma área retangular (viewport do mapa).
+     *
+     * @param minLat Latitude mínima da área.
+     * @param minLon Longitude mínima da área.
+     * @param maxLat Latitude máxima da área.
+     * @param maxLon Longitude máxima da área.
+     * @return ResponseEntity com as subestações dentro da área (status 200) ou uma mensagem de erro (status 400).
+     */
+    @GetMapping("/bbox")
+    public ResponseEntity<?> getInBoundingBox(@RequestParam BigDecimal minLat,
+                                              @RequestParam BigDecimal minLon,
+                                              @RequestParam BigDecimal maxLat,
+                                              @RequestParam BigDecimal maxLon) {
+        try {
+            List<Subestacao> subestacoes = subestacaoService.findInBoundingBox(minLat, minLon, maxLat, maxLon);
+            return ResponseEntity.ok(subestacoes);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Erro: " + e.getMessage());
+        }
     }
 
     /**
      * Busca uma subestação pelo seu ID.
+     * A resposta traz um ETag forte derivado da versão da subestação, que muda quando a subestação ou qualquer
+     * uma de suas redes MT é alterada. Se o cabeçalho If-None-Match corresponder à versão atual, responde 304
+     * consultando apenas a versão, sem carregar nem serializar a subestação.
+     * Com o modo de leitura em memória habilitado, a subestação é respondida sem acessar o banco de dados.
      *
-     * @param id ID da subestação a ser buscada.
-     * @return ResponseEntity com a subestação encontrada (status 200) ou status 404 se não for encontrada.
+     * @param id      ID da subestação a ser buscada.
+     * @param request Requisição, usada para avaliar o cabeçalho If-None-Match.
+     * @return ResponseEntity com a subestação encontrada (status 200), status 304 se o cliente já tiver a versão atual ou status 404 se não for encontrada.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Subestacao> getById(@PathVariable Integer id) {
+    public ResponseEntity<Subestacao> getById(@PathVariable Integer id, WebRequest request) {
+        Optional<TopologiaImutavel> memoria = memoria();
+        if (memoria.isPresent()) {
+            TopologiaImutavel topologia = memoria.get();
+            Long versao = topologia.versaoSubestacao(id);
+            if (versao != null && request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                    && request.checkNotModified(ETags.of(versao))) {
+                return null; // Status 304 e ETag já definidos por checkNotModified
+            }
+            Subestacao subestacao = topologia.subestacao(id);
+            return subestacao != null ? ResponseEntity.ok().eTag(ETags.of(VersaoSubestacao.de(subestacao))).body(subestacao) : ResponseEntity.notFound().build();
+        }
+
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Optional<Long> versao = subestacaoService.findVersao(id);
+            if (versao.isPresent() && request.checkNotModified(ETags.of(versao.get()))) {
+                return null; // Status 304 e ETag já definidos por checkNotModified
+            }
+        }
+
         Subestacao subestacao = subestacaoService.findById(id);
-        return subestacao != null ? ResponseEntity.ok(subestacao) : ResponseEntity.notFound().build();
+        return subestacao != null ? ResponseEntity.ok().eTag(ETags.of(VersaoSubestacao.de(subestacao))).body(subestacao) : ResponseEntity.notFound().build();
     }
 
     /**
@@ -71,6 +218,27 @@ public class SubestacaoController {
         }
     }
 
+    /**
+     * Importa um lote de subestações, com suas redes MT, de uma só vez.
+     * Cada item é validado e gravado de forma independente; o resultado indica, para cada posição do lote,
+     * se a subestação foi criada (com o ID gerado) ou rejeitada (com o motivo).
+     *
+     * @param subestacoes Lista de subestações a serem importadas.
+     * @return ResponseEntity com o resultado de cada item (status 200) ou uma mensagem de erro (status 400 ou 500).
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<?> createBulk(@RequestBody List<Subestacao> subestacoes) {
+        try {
+            List<ResultadoImportacao> resultados = subestacaoImportService.importar(subestacoes);
+            return ResponseEntity.ok(resultados);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Erro: " + e.getMessage());
+        } catch (Exception e) {
+            logger.error("Erro inesperado ao importar subestações: {}", e.getMessage(), e);
+            return ResponseEntity.internalServerError().body("Erro inesperado ao importar subestações.");
+        }
+    }
+
     /**
      * Atualiza uma subestação existente.
      *
@@ -85,9 +253,40 @@ public class SubestacaoController {
             return ResponseEntity.ok(updatedSubestacao);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body("Erro: " + e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Erro: a subestação foi alterada por outra requisição. Busque a versão atual e tente novamente.");
+        } catch (DataIntegrityViolationException e) {
+            return ResponseEntity.badRequest().body("Erro de integridade: Verifique os dados informados.");
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Erro inesperado ao atualizar subestação.");
+        }
+    }
+
+    /**
+     * Atualiza parcialmente uma subestação (JSON Merge Patch).
+     * Apenas os campos presentes são alterados; a lista de redes MT só é tocada se estiver presente.
+     * A versão lida pelo cliente deve ser enviada no cabeçalho If-Match (ETag de GET /subestacoes/{id})
+     * ou no campo "versao"; se a subestação tiver sido alterada desde então, responde 409.
+     *
+     * @param id      ID da subestação a ser atualizada.
+     * @param patch   Documento JSON Merge Patch.
+     * @param ifMatch ETag da versão lida pelo cliente (opcional).
+     * @return ResponseEntity com a subestação atualizada e o novo ETag (status 200), ou uma mensagem de erro (status 400, 409 ou 500).
+     */
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<?> patch(@PathVariable Integer id, @RequestBody JsonNode patch,
+                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        try {
+            Subestacao subestacao = subestacaoService.patch(id, patch, ETags.versao(ifMatch));
+            return ResponseEntity.ok().eTag(ETags.of(VersaoSubestacao.de(subestacao))).body(subestacao);
+        } catch (IllegalArgumentException | ConstraintViolationException e) {
+            return ResponseEntity.badRequest().body("Erro: " + e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Erro: a subestação foi alterada por outra requisição. Busque a versão atual e tente novamente.");
         } catch (DataIntegrityViolationException e) {
             return ResponseEntity.badRequest().body("Erro de integridade: Verifique os dados informados.");
         } catch (Exception e) {
+            logger.error("Erro inesperado ao atualizar subestação: {}", e.getMessage(), e);
             return ResponseEntity.internalServerError().body("Erro inesperado ao atualizar subestação.");
         }
     }
@@ -111,4 +310,37 @@ public class SubestacaoController {
             return ResponseEntity.internalServerError().body("Erro inesperado ao remover subestação.");
         }
     }
+
+    /**
+     * Exclui em massa, com as suas redes MT, as subestações com os IDs informados ou cujo código começa com o
+     * prefixo informado (por exemplo, na desativação de uma região). Exatamente um dos dois parâmetros deve ser
+     * informado.
+     *
+     * @param ids    IDs das subestações a serem excluídas (opcional).
+     * @param prefix Prefixo do código das subestações a serem excluídas (opcional).
+     * @return ResponseEntity com a quantidade de subestações removidas (status 200) ou uma mensagem de erro em caso de falha (status 400 ou 500).
+     */
+    @DeleteMapping
+    public ResponseEntity<?> deleteAll(@RequestParam(required = false) List<Integer> ids,
+                                       @RequestParam(required = false) String prefix) {
+        if ((ids == null) == (prefix == null)) {
+            return ResponseEntity.badRequest().body("Erro: informe os IDs (ids) ou o prefixo do código (prefix) das subestações.");
+        }
+        try {
+            int removidas = ids != null ? subestacaoService.deleteAllById(ids) : subestacaoService.deleteByCodigoPrefixo(prefix);
+            return ResponseEntity.ok(removidas + " subestações removidas com sucesso.");
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Erro: " + e.getMessage());
+        } catch (DataIntegrityViolationException e) {
+            return ResponseEntity.badRequest().body("Erro de integridade: Estas subestações podem estar vinculadas a outras entidades.");
+        } catch (Exception e) {
+            logger.error("Erro inesperado ao remover subestações: {}", e.getMessage(), e);
+            return ResponseEntity.internalServerError().body("Erro inesperado ao remover subestações.");
+        }
+    }
+
+    // Topologia em memória, se o modo de leitura em memória estiver habilitado e a carga já tiver terminado
+    private Optional<TopologiaImutavel> memoria() {
+        return topologiaMemoria != null ? topologiaMemoria.atual() : Optional.empty();
+    }
 }
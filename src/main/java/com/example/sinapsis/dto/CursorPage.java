@@ -0,0 +1,113 @@
+package com.example.sinapsis.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Página de resultados paginados por cursor (keyset pagination).
+ * Em vez de OFFSET, cada página carrega um cursor opaco que identifica o último registro retornado,
+ * de forma que o custo da consulta permanece constante independentemente da profundidade da página.
+ *
+ * @param itens         Itens da página atual.
+ * @param proximoCursor Cursor para buscar a próxima página, ou null se esta for a última.
+ * @param <T>           Tipo dos itens da página.
+ */
+public record CursorPage<T>(List<T> itens, String proximoCursor) {
+
+    // Tamanho de página usado quando o cliente não informa o limite
+    public static final int LIMITE_PADRAO = 50;
+
+    // Tamanho máximo de página aceito, para evitar respostas gigantes
+    public static final int LIMITE_MAXIMO = 500;
+
+    private static final String SEPARADOR = ":";
+
+    /**
+     * Normaliza o limite informado pelo cliente.
+     *
+     * @param limite Limite solicitado (pode ser null).
+     * @return O limite padrão se nenhum for informado, ou o limite solicitado restrito ao máximo permitido.
+     * @throws IllegalArgumentException Se o limite for menor que 1.
+     */
+    public static int normalizeLimit(Integer limite) {
+        if (limite == null) {
+            return LIMITE_PADRAO;
+        }
+        if (limite < 1) {
+            throw new IllegalArgumentException("O limite deve ser maior que zero.");
+        }
+        return Math.min(limite, LIMITE_MAXIMO);
+    }
+
+    /**
+     * Monta uma página a partir do resultado de uma consulta que buscou {@code limite + 1} registros.
+     * O registro excedente, se existir, indica que há uma próxima página e é descartado.
+     *
+     * @param resultado Registros retornados pela consulta (até limite + 1).
+     * @param limite    Tamanho da página.
+     * @param chave     Função que extrai as partes do cursor a partir do último item da página.
+     * @param <T>       Tipo dos itens.
+     * @return Página com os itens e o cursor da próxima página.
+     */
+    public static <T> CursorPage<T> of(List<T> resultado, int limite, Function<T, String[]> chave) {
+        if (resultado.size() <= limite) {
+            return new CursorPage<>(resultado, null);
+        }
+        List<T> itens = resultado.subList(0, limite);
+        return new CursorPage<>(itens, encode(chave.apply(itens.get(limite - 1))));
+    }
+
+    /**
+     * Codifica as partes de um cursor em um token opaco.
+     *
+     * @param partes Valores que identificam a posição do cursor.
+     * @return Token Base64 URL-safe.
+     */
+    public static String encode(String... partes) {
+        byte[] bytes = String.join(SEPARADOR, partes).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * Decodifica um token de cursor.
+     *
+     * @param cursor Token recebido do cliente.
+     * @param partes Quantidade de partes esperada.
+     * @return Partes do cursor.
+     * @throws IllegalArgumentException Se o token for inválido.
+     */
+    public static String[] decode(String cursor, int partes) {
+        String valor;
+        try {
+            valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor, e);
+        }
+
+        String[] resultado = valor.split(SEPARADOR, -1);
+        if (resultado.length != partes) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor);
+        }
+        return resultado;
+    }
+
+    /**
+     * Decodifica um cursor composto apenas por um ID inteiro.
+     *
+     * @param cursor Token recebido do cliente, ou null para a primeira página.
+     * @return ID contido no cursor, ou 0 se nenhum cursor for informado.
+     * @throws IllegalArgumentException Se o token for inválido.
+     */
+    public static int decodeId(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(decode(cursor, 1)[0]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor, e);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.sinapsis.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Projeção das estatísticas das redes MT de uma subestação, calculadas por uma consulta agregada (GROUP BY).
+ */
+public interface EstatisticasRedes {
+
+    /**
+     * Retorna o ID da subestação.
+     *
+     * @return ID da subestação.
+     */
+    Integer getSubestacaoId();
+
+    /**
+     * Retorna a quantidade de redes MT.
+     *
+     * @return Quantidade de redes MT.
+     */
+    Long getQuantidadeRedes();
+
+    /**
+     * Retorna a quantidade de redes MT com tensão nominal informada.
+     *
+     * @return Quantidade de redes MT com tensão.
+     */
+    Long getQuantidadeComTensao();
+
+    /**
+     * Retorna a soma das tensões nominais.
+     *
+     * @return Soma das tensões nominais, ou null se nenhuma rede tiver tensão.
+     */
+    BigDecimal getSomaTensao();
+
+    /**
+     * Retorna a menor tensão nominal.
+     *
+     * @return Menor tensão nominal, ou null se nenhuma rede tiver tensão.
+     */
+    BigDecimal getTensaoMinima();
+
+    /**
+     * Retorna a maior tensão nominal.
+     *
+     * @return Maior tensão nominal, ou null se nenhuma rede tiver tensão.
+     */
+    BigDecimal getTensaoMaxima();
+
+    /**
+     * Retorna a quantidade de redes MT da classe de 15 kV.
+     *
+     * @return Quantidade de redes MT.
+     */
+    Long getQuantidadeClasse15kV();
+
+    /**
+     * Retorna a quantidade de redes MT da classe de 24,2 kV.
+     *
+     * @return Quantidade de redes MT.
+     */
+    Long getQuantidadeClasse24kV();
+
+    /**
+     * Retorna a quantidade de redes MT da classe de 36,2 kV.
+     *
+     * @return Quantidade de redes MT.
+     */
+    Long getQuantidadeClasse36kV();
+
+    /**
+     * Retorna a quantidade de redes MT acima da classe de 36,2 kV.
+     *
+     * @return Quantidade de redes MT.
+     */
+    Long getQuantidadeAcima36kV();
+}
@@ -0,0 +1,48 @@
+package com.example.sinapsis.dto;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Estatísticas das redes MT de uma subestação.
+ *
+ * @param id              ID da subestação.
+ * @param codigo          Código da subestação.
+ * @param nome            Nome da subestação.
+ * @param quantidadeRedes Quantidade de redes MT.
+ * @param tensaoMinima    Menor tensão nominal, em kV (null se nenhuma rede tiver tensão).
+ * @param tensaoMaxima    Maior tensão nominal, em kV (null se nenhuma rede tiver tensão).
+ * @param tensaoMedia     Tensão nominal média, em kV (null se nenhuma rede tiver tensão).
+ */
+public record EstatisticasSubestacao(Integer id, String codigo, String nome, long quantidadeRedes,
+                                     BigDecimal tensaoMinima, BigDecimal tensaoMaxima, BigDecimal tensaoMedia) {
+
+    /**
+     * Construtor usado pela consulta ao resumo das redes; os valores são null para subestações sem redes.
+     *
+     * @param id                  ID da subestação.
+     * @param codigo              Código da subestação.
+     * @param nome                Nome da subestação.
+     * @param quantidadeRedes     Quantidade de redes MT.
+     * @param quantidadeComTensao Quantidade de redes MT com tensão nominal informada.
+     * @param somaTensao          Soma das tensões nominais.
+     * @param tensaoMinima        Menor tensão nominal.
+     * @param tensaoMaxima        Maior tensão nominal.
+     */
+    public EstatisticasSubestacao(Integer id, String codigo, String nome, Long quantidadeRedes, Long quantidadeComTensao,
+                                  BigDecimal somaTensao, BigDecimal tensaoMinima, BigDecimal tensaoMaxima) {
+        this(id, codigo, nome, quantidadeRedes == null ? 0 : quantidadeRedes, tensaoMinima, tensaoMaxima,
+                media(somaTensao, quantidadeComTensao == null ? 0 : quantidadeComTensao));
+    }
+
+    /**
+     * Calcula a média a partir da soma e da quantidade, com duas casas decimais.
+     *
+     * @param soma       Soma dos valores.
+     * @param quantidade Quantidade de valores.
+     * @return Média, ou null se não houver valores.
+     */
+    public static BigDecimal media(BigDecimal soma, long quantidade) {
+        return soma == null || quantidade == 0 ? null : soma.divide(BigDecimal.valueOf(quantidade), 2, RoundingMode.HALF_UP);
+    }
+}
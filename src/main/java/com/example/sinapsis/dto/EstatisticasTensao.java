@@ -0,0 +1,20 @@
+package com.example.sinapsis.dto;
+
+import com.example.sinapsis.model.ClasseTensao;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Estatísticas de tensão nominal de todas as redes MT.
+ *
+ * @param quantidadeRedes     Quantidade de redes MT.
+ * @param quantidadeSemTensao Quantidade de redes MT sem tensão nominal informada (fora do histograma).
+ * @param tensaoMinima        Menor tensão nominal, em kV.
+ * @param tensaoMaxima        Maior tensão nominal, em kV.
+ * @param tensaoMedia         Tensão nominal média, em kV.
+ * @param histograma          Quantidade de redes MT por classe de tensão.
+ */
+public record EstatisticasTensao(long quantidadeRedes, long quantidadeSemTensao, BigDecimal tensaoMinima,
+                                 BigDecimal tensaoMaxima, BigDecimal tensaoMedia, Map<ClasseTensao, Long> histograma) {
+}
@@ -0,0 +1,17 @@
+package com.example.sinapsis.dto;
+
+import com.example.sinapsis.model.AlteracaoTopologia;
+
+import java.util.List;
+
+/**
+ * Página do registro de alterações da topologia.
+ * Ao contrário de {@link CursorPage}, o cursor está sempre presente: na última página, ele é usado para buscar
+ * as alterações confirmadas depois.
+ *
+ * @param itens          Alterações, em ordem de sequência.
+ * @param proximoCursor  Cursor a ser enviado na próxima consulta.
+ * @param maisAlteracoes Indica se já há mais alterações após esta página.
+ */
+public record PaginaAlteracoes(List<AlteracaoTopologia> itens, String proximoCursor, boolean maisAlteracoes) {
+}
@@ -0,0 +1,35 @@
+package com.example.sinapsis.dto;
+
+/**
+ * Projeção resumida de uma rede MT, com o ID da subestação em vez da entidade.
+ */
+public interface RedeMTResumo {
+
+    /**
+     * Retorna o ID da rede MT.
+     *
+     * @return ID da rede MT.
+     */
+    Integer getId();
+
+    /**
+     * Retorna o código da rede MT.
+     *
+     * @return Código da rede MT.
+     */
+    String getCodigo();
+
+    /**
+     * Retorna o nome da rede MT.
+     *
+     * @return Nome da rede MT.
+     */
+    String getNome();
+
+    /**
+     * Retorna o ID da subestação da rede MT.
+     *
+     * @return ID da subestação.
+     */
+    Integer getSubestacaoId();
+}
@@ -0,0 +1,39 @@
+package com.example.sinapsis.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Projeção de uma rede MT na busca por faixa de tensão.
+ * Contém apenas colunas do índice IDX_REDE_MT_TENSAO_SUBESTACAO (e a chave primária, presente em todo índice
+ * secundário do InnoDB), de forma que a consulta é respondida pelo índice sem ler as linhas da tabela.
+ */
+public interface RedeMTTensao {
+
+    /**
+     * Retorna o ID da rede MT.
+     *
+     * @return ID da rede MT.
+     */
+    Integer getId();
+
+    /**
+     * Retorna o código da rede MT.
+     *
+     * @return Código da rede MT.
+     */
+    String getCodigo();
+
+    /**
+     * Retorna a tensão nominal da rede MT.
+     *
+     * @return Tensão nominal, em kV.
+     */
+    BigDecimal getTensaoNominal();
+
+    /**
+     * Retorna o ID da subestação da rede MT.
+     *
+     * @return ID da subestação.
+     */
+    Integer getSubestacaoId();
+}
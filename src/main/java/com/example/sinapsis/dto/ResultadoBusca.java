@@ -0,0 +1,21 @@
+package com.example.sinapsis.dto;
+
+/**
+ * Resultado da busca por código ou nome de subestações e redes MT.
+ *
+ * @param tipo         Tipo da entidade encontrada.
+ * @param id           ID da entidade.
+ * @param codigo       Código da entidade.
+ * @param nome         Nome da entidade.
+ * @param subestacaoId ID da subestação (o próprio ID, no caso de uma subestação).
+ */
+public record ResultadoBusca(Tipo tipo, Integer id, String codigo, String nome, Integer subestacaoId) {
+
+    /**
+     * Tipos de entidade retornados pela busca.
+     */
+    public enum Tipo {
+        SUBESTACAO,
+        REDE_MT
+    }
+}
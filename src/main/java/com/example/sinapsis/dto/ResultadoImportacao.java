@@ -0,0 +1,57 @@
+package com.example.sinapsis.dto;
+
+/**
+ * Resultado da importação de um item de um lote de subestações ou de redes MT.
+ *
+ * @param indice   Posição do item no lote recebido.
+ * @param codigo   Código da subestação ou da rede MT.
+ * @param status   Situação do item após a importação.
+ * @param id       ID gerado para o item, quando criado.
+ * @param mensagem Motivo da rejeição, quando rejeitada.
+ */
+public record ResultadoImportacao(int indice, String codigo, Status status, Integer id, String mensagem) {
+
+    /**
+     * Situação de um item importado.
+     */
+    public enum Status {
+        PENDENTE,
+        CRIADA,
+        REJEITADA
+    }
+
+    /**
+     * Cria o resultado de um item que ainda aguarda gravação.
+     *
+     * @param indice Posição do item no lote.
+     * @param codigo Código do item.
+     * @return Resultado do item.
+     */
+    public static ResultadoImportacao pendente(int indice, String codigo) {
+        return new ResultadoImportacao(indice, codigo, Status.PENDENTE, null, null);
+    }
+
+    /**
+     * Cria o resultado de um item importado com sucesso.
+     *
+     * @param indice Posição do item no lote.
+     * @param codigo Código da subestação.
+     * @param id     ID gerado para a subestação.
+     * @return Resultado do item.
+     */
+    public static ResultadoImportacao criada(int indice, String codigo, Integer id) {
+        return new ResultadoImportacao(indice, codigo, Status.CRIADA, id, null);
+    }
+
+    /**
+     * Cria o resultado de um item rejeitado.
+     *
+     * @param indice   Posição do item no lote.
+     * @param codigo   Código da subestação.
+     * @param mensagem Motivo da rejeição.
+     * @return Resultado do item.
+     */
+    public static ResultadoImportacao rejeitada(int indice, String codigo, String mensagem) {
+        return new ResultadoImportacao(indice, codigo, Status.REJEITADA, null, mensagem);
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.sinapsis.dto;
+
+import java.util.List;
+
+/**
+ * Situação de um lote de redes MT enviado para ingestão assíncrona.
+ *
+ * @param ticket    Identificador do lote, usado para consultar a situação.
+ * @param total     Quantidade de redes MT recebidas.
+ * @param pendentes Quantidade de redes MT que ainda aguardam gravação.
+ * @param itens     Resultado de cada rede MT, na mesma ordem do lote recebido.
+ */
+public record SituacaoIngestao(String ticket, int total, int pendentes, List<ResultadoImportacao> itens) {
+}
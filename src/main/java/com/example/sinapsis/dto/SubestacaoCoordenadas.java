@@ -0,0 +1,45 @@
+package com.example.sinapsis.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Projeção com os dados de identificação e localização de uma subestação, sem as redes MT.
+ * Usada para carregar estruturas em memória sem hidratar as entidades completas.
+ */
+public interface SubestacaoCoordenadas {
+
+    /**
+     * Retorna o ID da subestação.
+     *
+     * @return ID da subestação.
+     */
+    Integer getId();
+
+    /**
+     * Retorna o código da subestação.
+     *
+     * @return Código da subestação.
+     */
+    String getCodigo();
+
+    /**
+     * Retorna o nome da subestação.
+     *
+     * @return Nome da subestação.
+     */
+    String getNome();
+
+    /**
+     * Retorna a latitude da subestação.
+     *
+     * @return Latitude da subestação.
+     */
+    BigDecimal getLatitude();
+
+    /**
+     * Retorna a longitude da subestação.
+     *
+     * @return Longitude da subestação.
+     */
+    BigDecimal getLongitude();
+}
@@ -0,0 +1,15 @@
+package com.example.sinapsis.dto;
+
+/**
+ * Resultado de uma busca por subestações próximas a um ponto.
+ *
+ * @param id          ID da subestação.
+ * @param codigo      Código da subestação.
+ * @param nome        Nome da subestação.
+ * @param latitude    Latitude da subestação.
+ * @param longitude   Longitude da subestação.
+ * @param distanciaKm Distância (haversine) entre a subestação e o ponto consultado, em quilômetros.
+ */
+public record SubestacaoProxima(Integer id, String codigo, String nome, double latitude, double longitude,
+                                double distanciaKm) {
+}
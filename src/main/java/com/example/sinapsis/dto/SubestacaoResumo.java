@@ -0,0 +1,52 @@
+package com.example.sinapsis.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Projeção resumida de uma subestação, com a quantidade de redes MT em vez da lista completa.
+ * Preenchida por uma única consulta agregada, sem carregar as redes.
+ */
+public interface SubestacaoResumo {
+
+    /**
+     * Retorna o ID da subestação.
+     *
+     * @return ID da subestação.
+     */
+    Integer getId();
+
+    /**
+     * Retorna o código da subestação.
+     *
+     * @return Código da subestação.
+     */
+    String getCodigo();
+
+    /**
+     * Retorna o nome da subestação.
+     *
+     * @return Nome da subestação.
+     */
+    String getNome();
+
+    /**
+     * Retorna a latitude da subestação.
+     *
+     * @return Latitude da subestação.
+     */
+    BigDecimal getLatitude();
+
+    /**
+     * Retorna a longitude da subestação.
+     *
+     * @return Longitude da subestação.
+     */
+    BigDecimal getLongitude();
+
+    /**
+     * Retorna a quantidade de redes MT associadas à subestação.
+     *
+     * @return Quantidade de redes MT.
+     */
+    Long getQuantidadeRedes();
+}
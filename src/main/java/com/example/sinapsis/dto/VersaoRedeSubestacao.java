@@ -0,0 +1,29 @@
+package com.example.sinapsis.dto;
+
+/**
+ * Projeção com a versão de uma subestação e o ID e a versão de uma de suas redes MT, usada para calcular o ETag
+ * da subestação sem carregar as entidades. Uma subestação sem redes MT tem uma única linha, sem rede.
+ */
+public interface VersaoRedeSubestacao {
+
+    /**
+     * Retorna a versão da subestação.
+     *
+     * @return Versão da subestação.
+     */
+    Long getVersaoSubestacao();
+
+    /**
+     * Retorna o ID da rede MT.
+     *
+     * @return ID da rede MT, ou null se a subestação não tiver redes MT.
+     */
+    Integer getRedeId();
+
+    /**
+     * Retorna a versão da rede MT.
+     *
+     * @return Versão da rede MT, ou null se a subestação não tiver redes MT.
+     */
+    Long getRedeVersao();
+}
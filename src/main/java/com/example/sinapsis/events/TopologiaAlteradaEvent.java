@@ -0,0 +1,81 @@
+package com.example.sinapsis.events;
+
+import com.example.sinapsis.model.RedeMT;
+import com.example.sinapsis.model.Subestacao;
+
+/**
+ * Evento publicado pelos serviços sempre que uma subestação ou rede MT é criada, atualizada ou removida.
+ * Componentes que mantêm estruturas derivadas da topologia (índices, caches, etc.) escutam este evento
+ * para se manterem atualizados sem que os serviços precisem conhecê-los.
+ *
+ * @param entidade     Tipo da entidade alterada.
+ * @param operacao     Operação realizada.
+ * @param id           ID da entidade alterada.
+ * @param subestacaoId ID da subestação à qual a alteração pertence (o próprio ID, no caso de uma subestação).
+ * @param subestacao   Estado da subestação após a alteração, ou null em remoções e em alterações de rede MT.
+ * @param rede         Estado da rede MT após a alteração, ou null em remoções e em alterações de subestação.
+ */
+public record TopologiaAlteradaEvent(Entidade entidade, Operacao operacao, Integer id, Integer subestacaoId,
+                                     Subestacao subestacao, RedeMT rede) {
+
+    /**
+     * Tipos de entidade da topologia.
+     */
+    public enum Entidade {
+        SUBESTACAO,
+        REDE_MT
+    }
+
+    /**
+     * Operações que alteram a topologia.
+     */
+    public enum Operacao {
+        CRIACAO,
+        ATUALIZACAO,
+        REMOCAO
+    }
+
+    /**
+     * Cria o evento de criação ou atualização de uma subestação.
+     *
+     * @param operacao   Operação realizada (CRIACAO ou ATUALIZACAO).
+     * @param subestacao Subestação salva.
+     * @return Evento correspondente.
+     */
+    public static TopologiaAlteradaEvent subestacaoSalva(Operacao operacao, Subestacao subestacao) {
+        return new TopologiaAlteradaEvent(Entidade.SUBESTACAO, operacao, subestacao.getId(), subestacao.getId(), subestacao, null);
+    }
+
+    /**
+     * Cria o evento de remoção de uma subestação.
+     *
+     * @param id ID da subestação removida.
+     * @return Evento correspondente.
+     */
+    public static TopologiaAlteradaEvent subestacaoRemovida(Integer id) {
+        return new TopologiaAlteradaEvent(Entidade.SUBESTACAO, Operacao.REMOCAO, id, id, null, null);
+    }
+
+    /**
+     * Cria o evento de criação ou atualização de uma rede MT.
+     *
+     * @param operacao Operação realizada (CRIACAO ou ATUALIZACAO).
+     * @param rede     Rede MT salva.
+     * @return Evento correspondente.
+     */
+    public static TopologiaAlteradaEvent redeSalva(Operacao operacao, RedeMT rede) {
+        Integer subestacaoId = rede.getSubestacao() != null ? rede.getSubestacao().getId() : null;
+        return new TopologiaAlteradaEvent(Entidade.REDE_MT, operacao, rede.getId(), subestacaoId, null, rede);
+    }
+
+    /**
+     * Cria o evento de remoção de uma rede MT.
+     *
+     * @param id           ID da rede MT removida.
+     * @param subestacaoId ID da subestação à qual a rede pertencia.
+     * @return Evento correspondente.
+     */
+    public static TopologiaAlteradaEvent redeRemovida(Integer id, Integer subestacaoId) {
+        return new TopologiaAlteradaEvent(Entidade.REDE_MT, Operacao.REMOCAO, id, subestacaoId, null, null);
+    }
+}
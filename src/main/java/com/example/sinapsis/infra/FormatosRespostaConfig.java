@@ -0,0 +1,64 @@
+package com.example.sinapsis.infra;
+
+import com.example.sinapsis.codec.TopologiaProtobufHttpMessageConverter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Configuração dos formatos de resposta escolhidos pelo cabeçalho Accept: JSON (padrão), CBOR
+ * ({@code application/cbor}), Smile ({@code application/x-jackson-smile}) e Protocol Buffers
+ * ({@code application/x-protobuf}).
+ * CBOR e Smile usam o mesmo ObjectMapper configurado para o JSON (spring.jackson.*), então as respostas têm os
+ * mesmos campos. Os conversores binários ficam depois do JSON, que continua sendo usado quando o cliente aceita
+ * qualquer formato.
+ */
+@Configuration
+public class FormatosRespostaConfig implements WebMvcConfigurer {
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder;
+
+    /**
+     * Construtor da classe FormatosRespostaConfig.
+     *
+     * @param objectMapperBuilder Builder do ObjectMapper configurado pelo Spring Boot (um novo a cada uso).
+     */
+    public FormatosRespostaConfig(ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder) {
+        this.objectMapperBuilder = objectMapperBuilder;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.removeIf(converter -> converter instanceof MappingJackson2SmileHttpMessageConverter
+                || converter instanceof MappingJackson2CborHttpMessageConverter);
+        converters.add(new MappingJackson2CborHttpMessageConverter(
+                objectMapperBuilder.getObject().factory(new CBORFactory()).build()));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(
+                objectMapperBuilder.getObject().factory(new SmileFactory()).build()));
+        converters.add(new TopologiaProtobufHttpMessageConverter());
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // A mesma URL tem uma representação por formato: caches HTTP devem considerar o Accept
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+                return true;
+            }
+        }).addPathPatterns("/subestacoes/**", "/redesmt/**");
+    }
+}
@@ -1,35 +1,52 @@
 package com.example.sinapsis.infra;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Collections;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Filtro responsável por interceptar todas as requisições HTTP e validar o token JWT presente no cabeçalho "Authorization".
  * Se o token for válido, o usuário é autenticado no contexto de segurança do Spring.
+ * O usuário de um token já verificado é obtido do cache do JwtService, mas a autenticação é criada a cada requisição
+ * e recebe os detalhes da própria requisição (endereço remoto).
  */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
 
+    // Tempo gasto pelo filtro para validar o token, por resultado (autenticado ou invalido)
+    private final Timer autenticados;
+    private final Timer invalidos;
+
     /**
      * Construtor da classe JwtAuthenticationFilter.
      *
-     * @param jwtService Serviço responsável por validar tokens JWT.
+     * @param jwtService    Serviço responsável por validar tokens JWT.
+     * @param meterRegistry Registro de métricas onde o tempo de validação é publicado.
      */
-    public JwtAuthenticationFilter(JwtService jwtService) {
+    public JwtAuthenticationFilter(JwtService jwtService, MeterRegistry meterRegistry) {
         this.jwtService = jwtService;
+        this.autenticados = timer(meterRegistry, "autenticado");
+        this.invalidos = timer(meterRegistry, "invalido");
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String resultado) {
+        return Timer.builder("sinapsis.jwt.filter")
+                .description("Tempo de validação do token JWT no filtro de autenticação")
+                .tag("resultado", resultado)
+                .register(meterRegistry);
     }
 
     /**
@@ -56,14 +73,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         // Extrai o token JWT (remove o prefixo "Bearer ")
         String token = header.substring(7);
-        // Valida o token e obtém o nome de usuário
-        String username = jwtService.validateToken(token);
+        // Valida o token e obtém a autenticação do usuário (o usuário é reaproveitado do cache em requisições repetidas)
+        long inicio = System.nanoTime();
+        UsernamePasswordAuthenticationToken authentication = jwtService.authenticate(token);
+        (authentication != null ? autenticados : invalidos).record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
 
         // Se o token for válido, autentica o usuário no contexto de segurança
-        if (username != null) {
-            User user = new User(username, "", Collections.emptyList());// Cria um objeto User com o nome de usuário
-            UsernamePasswordAuthenticationToken authentication =
-                    new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());// Cria a autenticação
+        if (authentication != null) {
             authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request)); // Define os detalhes da autenticação
             SecurityContextHolder.getContext().setAuthentication(authentication);// Define a autenticação no contexto de segurança
         }
@@ -5,13 +5,28 @@ import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import com.auth0.jwt.interfaces.JWTVerifier;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.Date;
 
 /**
  * Serviço responsável por gerar e validar tokens JWT (JSON Web Tokens).
  * Utiliza a biblioteca Auth0 JWT para criar tokens com tempo de expiração e validar tokens existentes.
+ * Tokens válidos ficam em um cache indexado pelo digest SHA-256 do token até o instante de expiração,
+ * de forma que requisições repetidas com o mesmo token não repetem a verificação da assinatura e a decodificação.
  */
 @Service
 public class JwtService {
@@ -23,9 +38,36 @@ public class JwtService {
     // Tempo de expiração do token (2 horas em milissegundos)
     private static final long EXPIRATION_TIME = 7200000;
 
+    // Quantidade máxima de tokens verificados mantidos em cache
+    static final int MAX_TOKENS_VERIFICADOS = 10000;
+
     // Algoritmo usado para assinar e verificar tokens JWT
     private final Algorithm algorithm = Algorithm.HMAC256(SECRET_KEY);
 
+    // Verificador de tokens; é imutável e thread-safe, então é criado uma única vez
+    private final JWTVerifier verifier = JWT.require(algorithm).build();
+
+    // Tokens já verificados, indexados pelo digest do token; cada entrada expira junto com o token
+    private final Cache<String, TokenVerificado> tokensVerificados = Caffeine.newBuilder()
+            .maximumSize(MAX_TOKENS_VERIFICADOS)
+            .expireAfter(new Expiry<String, TokenVerificado>() {
+                @Override
+                public long expireAfterCreate(String digest, TokenVerificado token, long currentTime) {
+                    return token.tempoRestante().toNanos();
+                }
+
+                @Override
+                public long expireAfterUpdate(String digest, TokenVerificado token, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+
+                @Override
+                public long expireAfterRead(String digest, TokenVerificado token, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .build();
+
     /**
      * Gera um token JWT para o usuário especificado.
      *
@@ -46,12 +88,74 @@ public class JwtService {
      * @return Nome de usuário (subject) contido no token, ou null se o token for inválido ou expirado.
      */
     public String validateToken(String token) {
+        Authentication authentication = authenticate(token);
+        return authentication == null ? null : authentication.getName();
+    }
+
+    /**
+     * Valida um token JWT e retorna a autenticação do usuário contido no token.
+     * O usuário é obtido na primeira verificação do token e reaproveitado, a partir do cache, nas requisições
+     * seguintes até a expiração do token; a autenticação é criada a cada chamada, pois é mutável.
+     *
+     * @param token Token JWT a ser validado.
+     * @return Autenticação do usuário, ou null se o token for inválido ou expirado.
+     */
+    public UsernamePasswordAuthenticationToken authenticate(String token) {
+        String digest = digest(token);
+        TokenVerificado verificado = tokensVerificados.getIfPresent(digest);
+        if (verificado == null) {
+            verificado = verificar(token);
+            if (verificado == null) {
+                return null; // Tokens inválidos não são guardados no cache
+            }
+            if (verificado.expiraEm() != null) {
+                tokensVerificados.put(digest, verificado);
+            }
+        }
+        User usuario = verificado.usuario();
+        return new UsernamePasswordAuthenticationToken(usuario, null, usuario.getAuthorities());
+    }
+
+    /**
+     * Verifica a assinatura e a expiração do token, sem consultar o cache.
+     *
+     * @param token Token JWT a ser verificado.
+     * @return Token verificado, ou null se o token for inválido ou expirado.
+     */
+    TokenVerificado verificar(String token) {
         try {
-            JWTVerifier verifier = JWT.require(algorithm).build();// Cria um verificador de token
             DecodedJWT decodedJWT = verifier.verify(token);// Verifica e decodifica o token
-            return decodedJWT.getSubject(); // Retorna o subject (nome de usuário) do token
+            if (decodedJWT.getSubject() == null || decodedJWT.getSubject().isEmpty()) {
+                return null; // Token sem usuário não autentica ninguém
+            }
+            User user = new User(decodedJWT.getSubject(), "", Collections.emptyList());
+            Date expiraEm = decodedJWT.getExpiresAt();
+            return new TokenVerificado(user, expiraEm == null ? null : expiraEm.toInstant());
         } catch (JWTVerificationException e) {
             return null; // Retorna null se o token for inválido ou expirado
         }
     }
+
+    // Digest SHA-256 do token, usado como chave do cache para não manter os tokens em memória
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 não disponível", e);
+        }
+    }
+
+    /**
+     * Token já verificado: usuário (imutável, com as permissões) e instante de expiração do token
+     * (null se o token não tiver expiração, caso em que não é guardado no cache).
+     */
+    record TokenVerificado(User usuario, Instant expiraEm) {
+
+        // Tempo até a expiração do token, usado como tempo de vida da entrada no cache
+        Duration tempoRestante() {
+            Duration restante = Duration.between(Instant.now(), expiraEm);
+            return restante.isNegative() ? Duration.ZERO : restante;
+        }
+    }
 }
@@ -0,0 +1,102 @@
+package com.example.sinapsis.infra;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuração do roteamento de leituras para réplicas, ativada quando sinapsis.datasource.replicas.urls é definido.
+ * Substitui o DataSource da aplicação por um {@link ReplicaRoutingDataSource} com um pool para a primária
+ * (spring.datasource.*) e um pool somente leitura para cada réplica; as propriedades spring.datasource.hikari.*
+ * valem para todos os pools.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "sinapsis.datasource.replicas", name = "urls")
+public class ReplicaDataSourceConfig {
+    private ReplicaRoutingDataSource dataSource;
+
+    /**
+     * Cria o DataSource que roteia as transações somente leitura para as réplicas.
+     *
+     * @param properties   Propriedades do DataSource da primária.
+     * @param environment  Ambiente, usado para aplicar as propriedades do Hikari aos pools.
+     * @param urls         URLs JDBC das réplicas.
+     * @param username     Usuário das réplicas (o da primária, se vazio).
+     * @param password     Senha das réplicas (a da primária, se o usuário for vazio).
+     * @param atrasoMaximo Atraso de replicação máximo para que uma réplica receba leituras.
+     * @param intervalo    Intervalo entre as verificações do atraso das réplicas.
+     * @param consulta     Consulta que retorna o atraso em segundos (SHOW REPLICA STATUS, se vazia).
+     * @return DataSource da aplicação.
+     */
+    @Bean(destroyMethod = "")
+    public DataSource dataSource(DataSourceProperties properties,
+                                 Environment environment,
+                                 @Value("${sinapsis.datasource.replicas.urls}") List<String> urls,
+                                 @Value("${sinapsis.datasource.replicas.username:}") String username,
+                                 @Value("${sinapsis.datasource.replicas.password:}") String password,
+                                 @Value("${sinapsis.datasource.replicas.atraso-maximo:5s}") Duration atrasoMaximo,
+                                 @Value("${sinapsis.datasource.replicas.intervalo-verificacao:5s}") Duration intervalo,
+                                 @Value("${sinapsis.datasource.replicas.consulta-atraso:}") String consulta) {
+        Binder binder = Binder.get(environment);
+        HikariDataSource primaria = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primaria));
+
+        boolean mesmasCredenciais = username.isBlank();
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            binder.bind("spring.datasource.hikari", Bindable.ofInstance(replica));
+            replica.setJdbcUrl(urls.get(i).trim());
+            replica.setUsername(mesmasCredenciais ? properties.determineUsername() : username);
+            replica.setPassword(mesmasCredenciais ? properties.determinePassword() : password);
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setReadOnly(true);
+            replica.setPoolName("replica-" + i);
+            replicas.add(replica);
+        }
+
+        dataSource = new ReplicaRoutingDataSource(primaria, replicas, atrasoMaximo,
+                consulta.isBlank() ? ReplicaRoutingDataSource::atrasoMySql : ReplicaRoutingDataSource.atrasoPorConsulta(consulta));
+        dataSource.iniciarVerificacao(intervalo);
+        return dataSource;
+    }
+
+    /**
+     * Faz o Hibernate devolver a conexão ao fim de cada transação em vez de mantê-la até o fim da sessão.
+     * Com open-in-view a sessão dura a requisição inteira; mantendo a conexão, uma transação de escrita
+     * executada depois de uma somente leitura reutilizaria a conexão da réplica.
+     *
+     * @return Customizador das propriedades do Hibernate.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer liberarConexaoAposTransacao() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    /**
+     * Fecha os pools da primária e das réplicas. O fechamento é feito aqui e não pelo próprio bean porque o
+     * DataSource pode ser envolvido por outros componentes (por exemplo, o controle de admissão).
+     */
+    @PreDestroy
+    public void fechar() {
+        if (dataSource != null) {
+            dataSource.close();
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.sinapsis.infra;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DataSource que envia as transações somente leitura ({@code @Transactional(readOnly = true)}) para as réplicas
+ * e todo o restante (escritas, transações de escrita e acessos fora de transação) para a primária.
+ * As réplicas são usadas em rodízio. Uma réplica cujo atraso de replicação passa do máximo configurado, ou que não
+ * responde à verificação, deixa de receber leituras até a próxima verificação bem-sucedida; sem réplicas
+ * disponíveis, as leituras vão para a primária.
+ * A conexão real só é obtida no primeiro comando (LazyConnectionDataSourceProxy), depois que o gerenciador de
+ * transações já marcou a transação como somente leitura; por isso a escolha é feita nesse momento.
+ */
+public class ReplicaRoutingDataSource extends DelegatingDataSource implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private static final String PRIMARIA = "primaria";
+
+    private final DataSource primaria;
+    private final List<DataSource> replicas;
+    private final Duration atrasoMaximo;
+    private final AtrasoReplica atrasoReplica;
+
+    // Réplicas aptas a receber leituras; substituído por inteiro a cada verificação
+    private volatile boolean[] disponiveis;
+    private final AtomicInteger proxima = new AtomicInteger();
+
+    private ScheduledExecutorService verificador;
+
+    /**
+     * Mede o atraso de replicação de uma réplica.
+     */
+    @FunctionalInterface
+    public interface AtrasoReplica {
+
+        /**
+         * Mede o atraso de replicação.
+         *
+         * @param conexao Conexão com a réplica.
+         * @return Atraso atual, ou null se a replicação não estiver em andamento.
+         * @throws SQLException Em caso de erro na consulta.
+         */
+        Duration medir(Connection conexao) throws SQLException;
+    }
+
+    /**
+     * Construtor da classe ReplicaRoutingDataSource.
+     * As réplicas começam indisponíveis até a primeira verificação ({@link #verificarReplicas()}).
+     *
+     * @param primaria      DataSource da primária.
+     * @param replicas      DataSources das réplicas.
+     * @param atrasoMaximo  Atraso de replicação máximo para que uma réplica receba leituras.
+     * @param atrasoReplica Forma de medir o atraso de cada réplica.
+     */
+    public ReplicaRoutingDataSource(DataSource primaria, List<DataSource> replicas, Duration atrasoMaximo,
+                                    AtrasoReplica atrasoReplica) {
+        this.primaria = primaria;
+        this.replicas = List.copyOf(replicas);
+        this.atrasoMaximo = atrasoMaximo;
+        this.atrasoReplica = atrasoReplica;
+        this.disponiveis = new boolean[this.replicas.size()];
+
+        Roteador roteador = new Roteador();
+        Map<Object, Object> destinos = new HashMap<>();
+        destinos.put(PRIMARIA, primaria);
+        for (int i = 0; i < this.replicas.size(); i++) {
+            destinos.put(i, this.replicas.get(i));
+        }
+        roteador.setTargetDataSources(destinos);
+        roteador.setDefaultTargetDataSource(primaria);
+        roteador.afterPropertiesSet();
+        setTargetDataSource(new LazyConnectionDataSourceProxy(roteador));
+    }
+
+    /**
+     * Mede o atraso das réplicas lendo {@code Seconds_Behind_Source} de {@code SHOW REPLICA STATUS} (MySQL 8.0.22+).
+     *
+     * @param conexao Conexão com a réplica.
+     * @return Atraso atual, ou null se a replicação estiver parada.
+     * @throws SQLException Em caso de erro na consulta.
+     */
+    public static Duration atrasoMySql(Connection conexao) throws SQLException {
+        try (Statement statement = conexao.createStatement();
+             ResultSet rs = statement.executeQuery("SHOW REPLICA STATUS")) {
+            if (!rs.next()) {
+                return null;
+            }
+            long segundos = rs.getLong("Seconds_Behind_Source");
+            return rs.wasNull() ? null : Duration.ofSeconds(segundos);
+        }
+    }
+
+    /**
+     * Cria uma medição de atraso a partir de uma consulta que retorna o atraso em segundos na primeira coluna
+     * (por exemplo, a idade da última linha de uma tabela de heartbeat gravada na primária).
+     *
+     * @param consulta Consulta SQL.
+     * @return Medição de atraso.
+     */
+    public static AtrasoReplica atrasoPorConsulta(String consulta) {
+        return conexao -> {
+            try (Statement statement = conexao.createStatement();
+                 ResultSet rs = statement.executeQuery(consulta)) {
+                if (!rs.next()) {
+                    return null;
+                }
+                long segundos = rs.getLong(1);
+                return rs.wasNull() ? null : Duration.ofSeconds(segundos);
+            }
+        };
+    }
+
+    /**
+     * Mede o atraso de cada réplica e atualiza quais podem receber leituras.
+     */
+    public void verificarReplicas() {
+        boolean[] resultado = new boolean[replicas.size()];
+        boolean[] anteriores = disponiveis;
+        for (int i = 0; i < replicas.size(); i++) {
+            Duration atraso = null;
+            try (Connection conexao = replicas.get(i).getConnection()) {
+                atraso = atrasoReplica.medir(conexao);
+            } catch (SQLException | RuntimeException e) {
+                logger.debug("Falha ao verificar a réplica {}", i, e);
+            }
+            resultado[i] = atraso != null && atraso.compareTo(atrasoMaximo) <= 0;
+            if (resultado[i] != anteriores[i]) {
+                if (resultado[i]) {
+                    logger.info("Réplica {} disponível para leituras (atraso {})", i, atraso);
+                } else {
+                    logger.warn("Réplica {} indisponível para leituras (atraso {}, máximo {})", i, atraso, atrasoMaximo);
+                }
+            }
+        }
+        disponiveis = resultado;
+    }
+
+    /**
+     * Inicia a verificação periódica das réplicas, em uma thread própria.
+     *
+     * @param intervalo Intervalo entre as verificações.
+     */
+    public synchronized void iniciarVerificacao(Duration intervalo) {
+        if (verificador != null) {
+            return;
+        }
+        verificador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "verificador-replicas");
+            thread.setDaemon(true);
+            return thread;
+        });
+        verificador.scheduleWithFixedDelay(this::verificarReplicas, 0, intervalo.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Retorna a quantidade de réplicas aptas a receber leituras.
+     *
+     * @return Quantidade de réplicas disponíveis.
+     */
+    public int getReplicasDisponiveis() {
+        int total = 0;
+        for (boolean disponivel : disponiveis) {
+            if (disponivel) {
+                total++;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Interrompe a verificação das réplicas e fecha os pools de conexões da primária e das réplicas.
+     */
+    @Override
+    public synchronized void close() {
+        if (verificador != null) {
+            verificador.shutdownNow();
+            verificador = null;
+        }
+        fechar(primaria);
+        replicas.forEach(ReplicaRoutingDataSource::fechar);
+    }
+
+    private static void fechar(DataSource dataSource) {
+        if (dataSource instanceof AutoCloseable fechavel) {
+            try {
+                fechavel.close();
+            } catch (Exception e) {
+                logger.warn("Falha ao fechar o pool de conexões", e);
+            }
+        }
+    }
+
+    // Escolhe o destino de cada conexão física, no momento em que ela é de fato obtida
+    private class Roteador extends AbstractRoutingDataSource {
+        @Override
+        protected Object determineCurrentLookupKey() {
+            if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                return PRIMARIA;
+            }
+            boolean[] atuais = disponiveis;
+            int inicio = Math.floorMod(proxima.getAndIncrement(), Math.max(atuais.length, 1));
+            for (int i = 0; i < atuais.length; i++) {
+                int indice = (inicio + i) % atuais.length;
+                if (atuais[indice]) {
+                    return indice;
+                }
+            }
+            return PRIMARIA;
+        }
+    }
+}
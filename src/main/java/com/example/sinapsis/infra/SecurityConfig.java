@@ -50,7 +50,9 @@ public class SecurityConfig {
                 .cors(cors -> cors.disable()) // desabilita o cors (somente pra desenvolvimento)
                 .csrf(csrf -> csrf.disable())// Desabilita a proteção CSRF (não recomendado para aplicações web tradicionais)
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/subestacoes/**", "/redesmt/**").authenticated()// Protege os endpoints de subestações e redes MT
+                        .requestMatchers("/subestacoes/**", "/redesmt/**", "/search/**", "/changes/**").authenticated()// Protege os endpoints de subestações, redes MT, busca e alterações
+                        .requestMatchers("/actuator/health").permitAll()// Health check aberto para balanceadores e orquestradores
+                        .requestMatchers("/actuator/**").authenticated()// Protege as métricas (/actuator/prometheus) e os demais endpoints do actuator
                         .anyRequest().permitAll()// Permite acesso a todos os outros endpoints sem autenticação
                 )
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))// Configura a política de sessão como STATELESS
@@ -0,0 +1,61 @@
+package com.example.sinapsis.infra;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ajusta as sequências de IDs de subestações e redes MT aos IDs já existentes, antes que a aplicação receba
+ * requisições.
+ * No MySQL as sequências SEQ_SUBESTACAO e SEQ_REDE_MT são emuladas por tabelas que o Hibernate cria iniciando em 1;
+ * em um banco criado por uma versão anterior (IDs por IDENTITY) os primeiros blocos colidiriam com os IDs existentes.
+ * Com o otimizador pooled, o valor lido da tabela é o maior ID do próximo bloco, que vai de next_val - 49 a next_val;
+ * next_val é então elevado a pelo menos MAX(ID) + 50. Quando a sequência já está à frente dos IDs, nada é alterado.
+ * Bancos com sequências nativas (como o H2 dos testes e benchmarks) não usam essas tabelas e não são ajustados.
+ */
+@Component
+public class SequenciasIds {
+    private static final Logger logger = LoggerFactory.getLogger(SequenciasIds.class);
+
+    // Deve acompanhar o allocationSize de @SequenceGenerator em Subestacao e RedeMT
+    static final int TAMANHO_BLOCO = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean sequenciasEmuladas;
+
+    /**
+     * @param jdbcTemplate         JdbcTemplate da primária (fora de transação somente leitura).
+     * @param entityManagerFactory Usado para saber se o banco emula as sequências; também garante que o ajuste rode
+     *                             depois que o Hibernate criou as tabelas.
+     */
+    public SequenciasIds(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.sequenciasEmuladas = !entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect().getSequenceSupport().supportsSequences();
+    }
+
+    /**
+     * Eleva as sequências que estão atrás dos IDs existentes.
+     */
+    @PostConstruct
+    public void ajustar() {
+        if (!sequenciasEmuladas) {
+            return;
+        }
+        ajustar("seq_subestacao", "tb_subestacao", "id_subestacao");
+        ajustar("seq_rede_mt", "tb_rede_mt", "id_rede_mt");
+    }
+
+    private void ajustar(String sequencia, String tabela, String coluna) {
+        String minimo = "(SELECT COALESCE(MAX(" + coluna + "), 0) + " + TAMANHO_BLOCO + " FROM " + tabela + ")";
+        int alteradas = jdbcTemplate.update(
+                "UPDATE " + sequencia + " SET next_val = " + minimo + " WHERE next_val < " + minimo);
+        if (alteradas > 0) {
+            logger.info("Sequência {} ajustada aos IDs existentes em {}", sequencia, tabela);
+        }
+    }
+}
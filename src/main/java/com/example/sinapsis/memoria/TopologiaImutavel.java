@@ -0,0 +1,482 @@
+package com.example.sinapsis.memoria;
+
+import com.example.sinapsis.dto.CursorPage;
+import com.example.sinapsis.model.RedeMT;
+import com.example.sinapsis.model.Subestacao;
+import com.example.sinapsis.model.VersaoSubestacao;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Topologia (subestações e redes MT) imutável e compacta, guardada em colunas: um array por atributo,
+ * com uma posição por subestação ou por rede MT.
+ * As subestações ficam ordenadas por ID e as redes MT agrupadas por subestação, de forma que as redes de uma
+ * subestação são um intervalo contíguo das colunas das redes, delimitado por deslocamentos inteiros.
+ * Coordenadas são guardadas como double e tensões nominais em centésimos de kV; as entidades devolvidas
+ * reconstroem os decimais na escala das colunas do banco, então são serializadas como as lidas do banco.
+ * Uma instância nunca é alterada: cada alteração da topologia gera uma nova instância a partir da anterior.
+ */
+public final class TopologiaImutavel {
+
+    // Casas decimais de LATITUDE/LONGITUDE e de TENSAO_NOMINAL
+    private static final int ESCALA_COORDENADA = 13;
+    private static final int ESCALA_TENSAO = 2;
+
+    // Valores que representam colunas nulas nos arrays de tipos primitivos
+    private static final int SEM_TENSAO = Integer.MIN_VALUE;
+    private static final long SEM_VERSAO = Long.MIN_VALUE;
+
+    /**
+     * Topologia sem subestações.
+     */
+    public static final TopologiaImutavel VAZIA = new Construtor(0, 0).construir();
+
+    // Colunas das subestações, ordenadas por ID; latitude e longitude são NaN quando não informadas
+    private final int[] ids;
+    private final String[] codigos;
+    private final String[] nomes;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final long[] versoes;
+
+    // As redes MT da subestação i ocupam as posições inicioRedes[i] até inicioRedes[i + 1] - 1
+    private final int[] inicioRedes;
+
+    // Colunas das redes MT, agrupadas por subestação e ordenadas por ID dentro de cada grupo
+    private final int[] redeIds;
+    private final String[] redeCodigos;
+    private final String[] redeNomes;
+    private final int[] redeTensoes;
+    private final long[] redeVersoes;
+    private final int[] redeSubestacoes;
+
+    // Índice das redes MT por ID: IDs em ordem crescente e a posição de cada um nas colunas das redes
+    private final int[] redeIdsOrdenados;
+    private final int[] redePosicoes;
+
+    private TopologiaImutavel(Construtor c) {
+        this.ids = Arrays.copyOf(c.ids, c.subestacoes);
+        this.codigos = Arrays.copyOf(c.codigos, c.subestacoes);
+        this.nomes = Arrays.copyOf(c.nomes, c.subestacoes);
+        this.latitudes = Arrays.copyOf(c.latitudes, c.subestacoes);
+        this.longitudes = Arrays.copyOf(c.longitudes, c.subestacoes);
+        this.versoes = Arrays.copyOf(c.versoes, c.subestacoes);
+        this.inicioRedes = Arrays.copyOf(c.inicioRedes, c.subestacoes + 1);
+        this.inicioRedes[c.subestacoes] = c.redes;
+        this.redeIds = Arrays.copyOf(c.redeIds, c.redes);
+        this.redeCodigos = Arrays.copyOf(c.redeCodigos, c.redes);
+        this.redeNomes = Arrays.copyOf(c.redeNomes, c.redes);
+        this.redeTensoes = Arrays.copyOf(c.redeTensoes, c.redes);
+        this.redeVersoes = Arrays.copyOf(c.redeVersoes, c.redes);
+        this.redeSubestacoes = Arrays.copyOf(c.redeSubestacoes, c.redes);
+
+        // Ordena pares (ID, posição) codificados em um long, sem criar um objeto por rede
+        long[] pares = new long[redeIds.length];
+        for (int i = 0; i < pares.length; i++) {
+            pares[i] = ((long) redeIds[i] << 32) | i;
+        }
+        Arrays.sort(pares);
+        this.redeIdsOrdenados = new int[pares.length];
+        this.redePosicoes = new int[pares.length];
+        for (int i = 0; i < pares.length; i++) {
+            redeIdsOrdenados[i] = (int) (pares[i] >> 32);
+            redePosicoes[i] = (int) pares[i];
+        }
+    }
+
+    /**
+     * Cria a topologia a partir de subestações com as redes MT carregadas.
+     *
+     * @param subestacoes Subestações, em qualquer ordem.
+     * @return Topologia correspondente.
+     */
+    public static TopologiaImutavel de(Collection<Subestacao> subestacoes) {
+        List<Subestacao> ordenadas = new ArrayList<>(subestacoes);
+        ordenadas.sort(Comparator.comparing(Subestacao::getId));
+        Construtor construtor = new Construtor(ordenadas.size(), ordenadas.size() * 8);
+        for (Subestacao subestacao : ordenadas) {
+            construtor.adicionar(subestacao, Set.of());
+        }
+        return construtor.construir();
+    }
+
+    /**
+     * Cria uma nova topologia substituindo subestações desta. As demais subestações e suas redes MT são copiadas
+     * desta topologia; redes MT que passaram a pertencer a uma das subestações substituídas saem da anterior.
+     *
+     * @param alteradas    IDs das subestações alteradas.
+     * @param recarregadas Estado atual, com as redes MT carregadas, das subestações alteradas que ainda existem;
+     *                     as ausentes foram removidas.
+     * @return Nova topologia.
+     */
+    public TopologiaImutavel comAlteracoes(Set<Integer> alteradas, Collection<Subestacao> recarregadas) {
+        List<Subestacao> novas = new ArrayList<>(recarregadas);
+        novas.sort(Comparator.comparing(Subestacao::getId));
+        Set<Integer> redesMovidas = new HashSet<>();
+        int quantidadeRedes = 0;
+        for (Subestacao subestacao : novas) {
+            if (subestacao.getRedesMT() != null) {
+                subestacao.getRedesMT().forEach(r -> redesMovidas.add(r.getId()));
+                quantidadeRedes += subestacao.getRedesMT().size();
+            }
+        }
+
+        Construtor construtor = new Construtor(ids.length + novas.size(), redeIds.length + quantidadeRedes);
+        Iterator<Subestacao> iterator = novas.iterator();
+        Subestacao proxima = iterator.hasNext() ? iterator.next() : null;
+        for (int i = 0; i < ids.length; i++) {
+            while (proxima != null && proxima.getId() < ids[i]) {
+                construtor.adicionar(proxima, Set.of());
+                proxima = iterator.hasNext() ? iterator.next() : null;
+            }
+            if (!alteradas.contains(ids[i])) {
+                construtor.copiar(this, i, redesMovidas);
+            }
+        }
+        while (proxima != null) {
+            construtor.adicionar(proxima, Set.of());
+            proxima = iterator.hasNext() ? iterator.next() : null;
+        }
+        return construtor.construir();
+    }
+
+    /**
+     * Retorna a quantidade de subestações.
+     *
+     * @return Quantidade de subestações.
+     */
+    public int quantidadeSubestacoes() {
+        return ids.length;
+    }
+
+    /**
+     * Retorna a quantidade de redes MT.
+     *
+     * @return Quantidade de redes MT.
+     */
+    public int quantidadeRedes() {
+        return redeIds.length;
+    }
+
+    /**
+     * Retorna todas as subestações, em ordem de ID, com as redes MT.
+     *
+     * @return Subestações da topologia.
+     */
+    public List<Subestacao> subestacoes() {
+        return subestacoesApos(Integer.MIN_VALUE, ids.length);
+    }
+
+    /**
+     * Retorna todas as redes MT, em ordem de ID.
+     *
+     * @return Redes MT da topologia.
+     */
+    public List<RedeMT> redes() {
+        return redesApos(Integer.MIN_VALUE, redeIds.length);
+    }
+
+    /**
+     * Busca uma subestação pelo ID, com as redes MT.
+     *
+     * @param id ID da subestação.
+     * @return Nova instância (desanexada) da subestação, ou null se não existir.
+     */
+    public Subestacao subestacao(int id) {
+        int posicao = Arrays.binarySearch(ids, id);
+        return posicao >= 0 ? criarSubestacao(posicao) : null;
+    }
+
+    /**
+     * Retorna a versão de uma subestação com as suas redes MT ({@link VersaoSubestacao}), usada como ETag.
+     *
+     * @param id ID da subestação.
+     * @return Versão da subestação com as redes MT, ou null se a subestação não existir ou não tiver versão.
+     */
+    public Long versaoSubestacao(int id) {
+        int posicao = Arrays.binarySearch(ids, id);
+        if (posicao < 0 || versoes[posicao] == SEM_VERSAO) {
+            return null;
+        }
+        long versao = VersaoSubestacao.inicio(versoes[posicao]);
+        for (int r = inicioRedes[posicao]; r < inicioRedes[posicao + 1]; r++) {
+            versao = VersaoSubestacao.comRede(versao, redeIds[r], redeVersoes[r] == SEM_VERSAO ? 0L : redeVersoes[r]);
+        }
+        return versao;
+    }
+
+    /**
+     * Retorna as subestações com ID maior que o informado, em ordem de ID, com as redes MT.
+     *
+     * @param aposId     ID a partir do qual buscar (exclusivo).
+     * @param quantidade Quantidade máxima de subestações.
+     * @return Subestações encontradas.
+     */
+    public List<Subestacao> subestacoesApos(int aposId, int quantidade) {
+        int inicio = aposIndice(ids, aposId);
+        int fim = inicio + Math.min(ids.length - inicio, quantidade);
+        List<Subestacao> resultado = new ArrayList<>(fim - inicio);
+        for (int i = inicio; i < fim; i++) {
+            resultado.add(criarSubestacao(i));
+        }
+        return resultado;
+    }
+
+    /**
+     * Busca uma rede MT pelo ID.
+     *
+     * @param id ID da rede MT.
+     * @return Nova instância (desanexada) da rede MT, vinculada a uma subestação contendo apenas o ID,
+     * ou null se não existir.
+     */
+    public RedeMT rede(int id) {
+        int indice = Arrays.binarySearch(redeIdsOrdenados, id);
+        if (indice < 0) {
+            return null;
+        }
+        int posicao = redePosicoes[indice];
+        Subestacao referencia = new Subestacao();
+        referencia.setId(ids[redeSubestacoes[posicao]]);
+        return criarRede(posicao, referencia);
+    }
+
+    /**
+     * Retorna a versão de uma rede MT, usada como ETag.
+     *
+     * @param id ID da rede MT.
+     * @return Versão da rede MT, ou null se não existir.
+     */
+    public Long versaoRede(int id) {
+        int indice = Arrays.binarySearch(redeIdsOrdenados, id);
+        return indice >= 0 ? valor(redeVersoes[redePosicoes[indice]]) : null;
+    }
+
+    /**
+     * Retorna o ID da subestação de uma rede MT.
+     *
+     * @param id ID da rede MT.
+     * @return ID da subestação, ou null se a rede MT não existir.
+     */
+    public Integer subestacaoDaRede(int id) {
+        int indice = Arrays.binarySearch(redeIdsOrdenados, id);
+        return indice >= 0 ? ids[redeSubestacoes[redePosicoes[indice]]] : null;
+    }
+
+    /**
+     * Retorna as redes MT com ID maior que o informado, em ordem de ID.
+     *
+     * @param aposId     ID a partir do qual buscar (exclusivo).
+     * @param quantidade Quantidade máxima de redes MT.
+     * @return Redes MT encontradas.
+     */
+    public List<RedeMT> redesApos(int aposId, int quantidade) {
+        int inicio = aposIndice(redeIdsOrdenados, aposId);
+        int fim = inicio + Math.min(redeIdsOrdenados.length - inicio, quantidade);
+        List<RedeMT> resultado = new ArrayList<>(fim - inicio);
+        for (int i = inicio; i < fim; i++) {
+            resultado.add(rede(redeIdsOrdenados[i]));
+        }
+        return resultado;
+    }
+
+    /**
+     * Retorna uma página de subestações, com as redes MT, no mesmo formato de cursor de GET /subestacoes.
+     *
+     * @param cursor Cursor opaco retornado pela página anterior, ou null para a primeira página.
+     * @param limite Quantidade máxima de subestações na página (usa o padrão se null).
+     * @return Página de subestações com o cursor da próxima página.
+     * @throws IllegalArgumentException Se o cursor ou o limite forem inválidos.
+     */
+    public CursorPage<Subestacao> paginaSubestacoes(String cursor, Integer limite) {
+        int tamanho = CursorPage.normalizeLimit(limite);
+        return CursorPage.of(subestacoesApos(CursorPage.decodeId(cursor), tamanho + 1), tamanho,
+                s -> new String[]{String.valueOf(s.getId())});
+    }
+
+    /**
+     * Retorna uma página de redes MT no mesmo formato de cursor de GET /redesmt.
+     *
+     * @param cursor Cursor opaco retornado pela página anterior, ou null para a primeira página.
+     * @param limite Quantidade máxima de redes MT na página (usa o padrão se null).
+     * @return Página de redes MT com o cursor da próxima página.
+     * @throws IllegalArgumentException Se o cursor ou o limite forem inválidos.
+     */
+    public CursorPage<RedeMT> paginaRedes(String cursor, Integer limite) {
+        int tamanho = CursorPage.normalizeLimit(limite);
+        return CursorPage.of(redesApos(CursorPage.decodeId(cursor), tamanho + 1), tamanho,
+                r -> new String[]{String.valueOf(r.getId())});
+    }
+
+    // Primeira posição com valor maior que o informado em um array ordenado sem repetições
+    private static int aposIndice(int[] ordenados, int valor) {
+        int posicao = Arrays.binarySearch(ordenados, valor);
+        return posicao >= 0 ? posicao + 1 : -posicao - 1;
+    }
+
+    private Subestacao criarSubestacao(int posicao) {
+        Subestacao subestacao = new Subestacao();
+        subestacao.setId(ids[posicao]);
+        subestacao.setCodigo(codigos[posicao]);
+        subestacao.setNome(nomes[posicao]);
+        subestacao.setLatitude(decimal(latitudes[posicao]));
+        subestacao.setLongitude(decimal(longitudes[posicao]));
+        subestacao.setVersao(valor(versoes[posicao]));
+        subestacao.atualizarGeohash();
+
+        List<RedeMT> redes = new ArrayList<>(inicioRedes[posicao + 1] - inicioRedes[posicao]);
+        for (int r = inicioRedes[posicao]; r < inicioRedes[posicao + 1]; r++) {
+            redes.add(criarRede(r, subestacao));
+        }
+        subestacao.setRedesMT(redes);
+        return subestacao;
+    }
+
+    private RedeMT criarRede(int posicao, Subestacao subestacao) {
+        RedeMT rede = new RedeMT();
+        rede.setId(redeIds[posicao]);
+        rede.setCodigo(redeCodigos[posicao]);
+        rede.setNome(redeNomes[posicao]);
+        rede.setTensaoNominal(redeTensoes[posicao] == SEM_TENSAO ? null : BigDecimal.valueOf(redeTensoes[posicao], ESCALA_TENSAO));
+        rede.setVersao(valor(redeVersoes[posicao]));
+        rede.setSubestacao(subestacao);
+        return rede;
+    }
+
+    // O double mais próximo de um valor com 13 casas decimais difere dele em menos de meia unidade da 13ª casa,
+    // então o arredondamento recupera o valor gravado no banco
+    private static BigDecimal decimal(double valor) {
+        return Double.isNaN(valor) ? null : BigDecimal.valueOf(valor).setScale(ESCALA_COORDENADA, RoundingMode.HALF_EVEN);
+    }
+
+    private static Long valor(long versao) {
+        return versao == SEM_VERSAO ? null : versao;
+    }
+
+    // Acumula as colunas de uma nova topologia; subestações devem ser adicionadas em ordem crescente de ID
+    private static final class Construtor {
+        private int subestacoes;
+        private int[] ids;
+        private String[] codigos;
+        private String[] nomes;
+        private double[] latitudes;
+        private double[] longitudes;
+        private long[] versoes;
+        private int[] inicioRedes;
+
+        private int redes;
+        private int[] redeIds;
+        private String[] redeCodigos;
+        private String[] redeNomes;
+        private int[] redeTensoes;
+        private long[] redeVersoes;
+        private int[] redeSubestacoes;
+
+        Construtor(int capacidadeSubestacoes, int capacidadeRedes) {
+            ids = new int[capacidadeSubestacoes];
+            codigos = new String[capacidadeSubestacoes];
+            nomes = new String[capacidadeSubestacoes];
+            latitudes = new double[capacidadeSubestacoes];
+            longitudes = new double[capacidadeSubestacoes];
+            versoes = new long[capacidadeSubestacoes];
+            inicioRedes = new int[capacidadeSubestacoes + 1];
+            redeIds = new int[capacidadeRedes];
+            redeCodigos = new String[capacidadeRedes];
+            redeNomes = new String[capacidadeRedes];
+            redeTensoes = new int[capacidadeRedes];
+            redeVersoes = new long[capacidadeRedes];
+            redeSubestacoes = new int[capacidadeRedes];
+        }
+
+        void adicionar(Subestacao subestacao, Set<Integer> ignorar) {
+            int posicao = novaSubestacao();
+            ids[posicao] = subestacao.getId();
+            codigos[posicao] = subestacao.getCodigo();
+            nomes[posicao] = subestacao.getNome();
+            latitudes[posicao] = subestacao.getLatitude() != null ? subestacao.getLatitude().doubleValue() : Double.NaN;
+            longitudes[posicao] = subestacao.getLongitude() != null ? subestacao.getLongitude().doubleValue() : Double.NaN;
+            versoes[posicao] = subestacao.getVersao() != null ? subestacao.getVersao() : SEM_VERSAO;
+            if (subestacao.getRedesMT() == null) {
+                return;
+            }
+            List<RedeMT> ordenadas = new ArrayList<>(subestacao.getRedesMT());
+            ordenadas.sort(Comparator.comparing(RedeMT::getId));
+            for (RedeMT rede : ordenadas) {
+                if (ignorar.contains(rede.getId())) {
+                    continue;
+                }
+                int r = novaRede();
+                redeIds[r] = rede.getId();
+                redeCodigos[r] = rede.getCodigo();
+                redeNomes[r] = rede.getNome();
+                redeTensoes[r] = rede.getTensaoNominal() != null
+                        ? rede.getTensaoNominal().setScale(ESCALA_TENSAO, RoundingMode.HALF_EVEN).unscaledValue().intValueExact()
+                        : SEM_TENSAO;
+                redeVersoes[r] = rede.getVersao() != null ? rede.getVersao() : SEM_VERSAO;
+                redeSubestacoes[r] = posicao;
+            }
+        }
+
+        void copiar(TopologiaImutavel origem, int i, Set<Integer> ignorar) {
+            int posicao = novaSubestacao();
+            ids[posicao] = origem.ids[i];
+            codigos[posicao] = origem.codigos[i];
+            nomes[posicao] = origem.nomes[i];
+            latitudes[posicao] = origem.latitudes[i];
+            longitudes[posicao] = origem.longitudes[i];
+            versoes[posicao] = origem.versoes[i];
+            for (int o = origem.inicioRedes[i]; o < origem.inicioRedes[i + 1]; o++) {
+                if (ignorar.contains(origem.redeIds[o])) {
+                    continue;
+                }
+                int r = novaRede();
+                redeIds[r] = origem.redeIds[o];
+                redeCodigos[r] = origem.redeCodigos[o];
+                redeNomes[r] = origem.redeNomes[o];
+                redeTensoes[r] = origem.redeTensoes[o];
+                redeVersoes[r] = origem.redeVersoes[o];
+                redeSubestacoes[r] = posicao;
+            }
+        }
+
+        TopologiaImutavel construir() {
+            return new TopologiaImutavel(this);
+        }
+
+        private int novaSubestacao() {
+            if (subestacoes == ids.length) {
+                int capacidade = Math.max(16, ids.length * 2);
+                ids = Arrays.copyOf(ids, capacidade);
+                codigos = Arrays.copyOf(codigos, capacidade);
+                nomes = Arrays.copyOf(nomes, capacidade);
+                latitudes = Arrays.copyOf(latitudes, capacidade);
+                longitudes = Arrays.copyOf(longitudes, capacidade);
+                versoes = Arrays.copyOf(versoes, capacidade);
+                inicioRedes = Arrays.copyOf(inicioRedes, capacidade + 1);
+            }
+            inicioRedes[subestacoes] = redes;
+            return subestacoes++;
+        }
+
+        private int novaRede() {
+            if (redes == redeIds.length) {
+                int capacidade = Math.max(16, redeIds.length * 2);
+                redeIds = Arrays.copyOf(redeIds, capacidade);
+                redeCodigos = Arrays.copyOf(redeCodigos, capacidade);
+                redeNomes = Arrays.copyOf(redeNomes, capacidade);
+                redeTensoes = Arrays.copyOf(redeTensoes, capacidade);
+                redeVersoes = Arrays.copyOf(redeVersoes, capacidade);
+                redeSubestacoes = Arrays.copyOf(redeSubestacoes, capacidade);
+            }
+            return redes++;
+        }
+    }
+}
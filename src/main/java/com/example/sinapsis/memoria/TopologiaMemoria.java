@@ -0,0 +1,174 @@
+package com.example.sinapsis.memoria;
+
+import com.example.sinapsis.events.TopologiaAlteradaEvent;
+import com.example.sinapsis.model.Subestacao;
+import com.example.sinapsis.repositories.SubestacaoRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Modo de leitura em memória: mantém a topologia em uma {@link TopologiaImutavel} para que as consultas por ID e
+ * as listas de subestações e redes MT sejam respondidas sem acessar o banco de dados e sem bloqueios.
+ * A topologia é carregada quando a aplicação inicia e, após cada alteração confirmada, uma nova instância é criada
+ * a partir da atual, recarregando apenas as subestações afetadas, e substitui a anterior de forma atômica.
+ * As requisições em andamento continuam usando a instância que obtiveram.
+ * Habilitado pela propriedade {@code sinapsis.leitura.memoria.enabled}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "sinapsis.leitura.memoria", name = "enabled", havingValue = "true")
+public class TopologiaMemoria {
+    private static final Logger logger = LoggerFactory.getLogger(TopologiaMemoria.class);
+
+    private final SubestacaoRepository subestacaoRepository;
+    private final TransactionTemplate transaction;
+
+    // Todas as substituições da topologia são feitas nesta thread, uma por vez
+    private final ExecutorService atualizador;
+    private final AtomicBoolean agendada = new AtomicBoolean();
+    private final Set<Integer> pendentes = ConcurrentHashMap.newKeySet();
+
+    private volatile TopologiaImutavel atual;
+
+    /**
+     * Construtor da classe TopologiaMemoria.
+     *
+     * @param subestacaoRepository Repositório das subestações.
+     * @param transactionManager   Gerenciador de transações usado nas consultas ao banco.
+     */
+    public TopologiaMemoria(SubestacaoRepository subestacaoRepository, PlatformTransactionManager transactionManager) {
+        this.subestacaoRepository = subestacaoRepository;
+        // Transação de escrita: com réplicas configuradas, a leitura precisa ver a alteração que acabou de ser confirmada
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.atualizador = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "topologia-memoria");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Carrega a topologia completa quando a aplicação termina de iniciar.
+     * Até o fim da carga, as leituras continuam sendo feitas no banco.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        atualizador.execute(this::carregarTudo);
+    }
+
+    /**
+     * Registra as subestações afetadas por uma alteração confirmada da topologia e agenda a atualização.
+     * Para redes MT, a subestação anterior da rede também é recarregada, pois a rede pode ter mudado de subestação.
+     *
+     * @param event Evento de alteração da topologia.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTopologiaAlterada(TopologiaAlteradaEvent event) {
+        if (event.subestacaoId() != null) {
+            pendentes.add(event.subestacaoId());
+        }
+        TopologiaImutavel topologia = atual;
+        if (event.entidade() == TopologiaAlteradaEvent.Entidade.REDE_MT && event.id() != null && topologia != null) {
+            Integer anterior = topologia.subestacaoDaRede(event.id());
+            if (anterior != null) {
+                pendentes.add(anterior);
+            }
+        }
+        agendar();
+    }
+
+    /**
+     * Retorna a topologia em memória atual.
+     *
+     * @return Um Optional contendo a topologia, ou vazio se a primeira carga ainda não terminou.
+     */
+    public Optional<TopologiaImutavel> atual() {
+        return Optional.ofNullable(atual);
+    }
+
+    /**
+     * Interrompe a thread de atualização.
+     */
+    @PreDestroy
+    public void encerrar() {
+        atualizador.shutdownNow();
+    }
+
+    // Uma atualização por vez: alterações recebidas enquanto há uma agendada são atendidas por ela
+    private void agendar() {
+        if (agendada.compareAndSet(false, true)) {
+            atualizador.execute(this::aplicarPendentes);
+        }
+    }
+
+    /**
+     * Carrega a topologia completa do banco de dados.
+     * Executado na thread de atualização; exposto ao pacote para os testes.
+     */
+    void carregarTudo() {
+        long inicio = System.nanoTime();
+        // A carga completa inclui as alterações confirmadas até aqui; as seguintes ficam pendentes
+        pendentes.clear();
+        try {
+            List<Subestacao> subestacoes = transaction.execute(status -> subestacaoRepository.findAllWithRedes());
+            atual = TopologiaImutavel.de(subestacoes);
+            logger.info("Topologia em memória carregada em {} ms: {} subestações, {} redes MT",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio),
+                    atual.quantidadeSubestacoes(), atual.quantidadeRedes());
+        } catch (RuntimeException e) {
+            // As leituras continuam sendo feitas no banco
+            logger.error("Falha ao carregar a topologia em memória: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Recarrega as subestações afetadas pelas alterações pendentes e substitui a topologia atual.
+     * Executado na thread de atualização; exposto ao pacote para os testes.
+     */
+    void aplicarPendentes() {
+        // Alterações confirmadas a partir daqui agendam uma nova atualização
+        agendada.set(false);
+        TopologiaImutavel base = atual;
+        if (base == null) {
+            // Ainda não carregada, ou a carga falhou: tenta novamente a carga completa
+            carregarTudo();
+            return;
+        }
+
+        Set<Integer> ids = new HashSet<>();
+        for (Iterator<Integer> iterator = pendentes.iterator(); iterator.hasNext(); ) {
+            ids.add(iterator.next());
+            iterator.remove();
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        try {
+            List<Subestacao> recarregadas = transaction.execute(status -> subestacaoRepository.findByIdInOrderByIdAsc(ids));
+            atual = base.comAlteracoes(ids, recarregadas);
+            logger.debug("Topologia em memória atualizada: {} subestações recarregadas", ids.size());
+        } catch (RuntimeException e) {
+            // As subestações voltam a ficar pendentes e são recarregadas na próxima alteração
+            pendentes.addAll(ids);
+            logger.error("Falha ao atualizar a topologia em memória: {}", e.getMessage(), e);
+        }
+    }
+}
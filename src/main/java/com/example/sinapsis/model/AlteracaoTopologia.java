@@ -0,0 +1,137 @@
+package com.example.sinapsis.model;
+
+import com.example.sinapsis.events.TopologiaAlteradaEvent;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Entrada do registro de alterações da topologia (somente inclusão): indica que uma subestação ou rede MT
+ * foi criada, atualizada ou removida. O estado atual da entidade é consultado nos endpoints da entidade.
+ * A sequência é atribuída na confirmação da transação que fez a alteração, em ordem de confirmação.
+ */
+@Entity
+@Table(name = "TB_ALTERACAO_TOPOLOGIA", indexes = {
+        @Index(name = "IDX_ALTERACAO_TOPOLOGIA_DATA", columnList = "DATA_ALTERACAO"),
+        @Index(name = "IDX_ALTERACAO_TOPOLOGIA_ENTIDADE", columnList = "ENTIDADE, ID_ENTIDADE, ID_ALTERACAO")})
+@NoArgsConstructor
+public class AlteracaoTopologia {
+
+    // Atribuída a partir de SequenciaAlteracoes, na ordem de confirmação das transações
+    @Id
+    @Column(name = "ID_ALTERACAO")
+    private Long sequencia;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "ENTIDADE", length = 10, nullable = false)
+    private TopologiaAlteradaEvent.Entidade entidade;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "OPERACAO", length = 11, nullable = false)
+    private TopologiaAlteradaEvent.Operacao operacao;
+
+    @Column(name = "ID_ENTIDADE", nullable = false)
+    private Integer entidadeId;
+
+    // Subestação da entidade (a própria subestação, ou a subestação da rede MT após a alteração)
+    @Column(name = "ID_SUBESTACAO")
+    private Integer subestacaoId;
+
+    @Column(name = "DATA_ALTERACAO", nullable = false)
+    private Instant data;
+
+    /**
+     * Construtor de uma alteração ainda sem sequência.
+     *
+     * @param entidade     Tipo da entidade alterada.
+     * @param operacao     Operação realizada.
+     * @param entidadeId   ID da entidade alterada.
+     * @param subestacaoId ID da subestação da entidade.
+     */
+    public AlteracaoTopologia(TopologiaAlteradaEvent.Entidade entidade, TopologiaAlteradaEvent.Operacao operacao,
+                              Integer entidadeId, Integer subestacaoId) {
+        this.entidade = entidade;
+        this.operacao = operacao;
+        this.entidadeId = entidadeId;
+        this.subestacaoId = subestacaoId;
+    }
+
+    /**
+     * Retorna a sequência da alteração.
+     *
+     * @return Sequência, crescente na ordem em que as alterações foram confirmadas.
+     */
+    public Long getSequencia() {
+        return sequencia;
+    }
+
+    /**
+     * Define a sequência da alteração.
+     *
+     * @param sequencia Sequência da alteração.
+     */
+    public void setSequencia(Long sequencia) {
+        this.sequencia = sequencia;
+    }
+
+    /**
+     * Retorna o tipo da entidade alterada.
+     *
+     * @return Tipo da entidade.
+     */
+    public TopologiaAlteradaEvent.Entidade getEntidade() {
+        return entidade;
+    }
+
+    /**
+     * Retorna a operação realizada.
+     *
+     * @return Operação.
+     */
+    public TopologiaAlteradaEvent.Operacao getOperacao() {
+        return operacao;
+    }
+
+    /**
+     * Retorna o ID da entidade alterada.
+     *
+     * @return ID da subestação ou da rede MT.
+     */
+    public Integer getEntidadeId() {
+        return entidadeId;
+    }
+
+    /**
+     * Retorna o ID da subestação da entidade.
+     *
+     * @return ID da subestação.
+     */
+    public Integer getSubestacaoId() {
+        return subestacaoId;
+    }
+
+    /**
+     * Retorna a data em que a alteração foi confirmada.
+     *
+     * @return Data da alteração.
+     */
+    public Instant getData() {
+        return data;
+    }
+
+    /**
+     * Define a data em que a alteração foi confirmada.
+     *
+     * @param data Data da alteração.
+     */
+    public void setData(Instant data) {
+        this.data = data;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.sinapsis.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Classes de tensão de redes MT, pela tensão máxima do equipamento (15 kV, 24,2 kV e 36,2 kV).
+ * Os limites são repetidos nas consultas agregadas de RedeMTRepository e devem ser mantidos iguais.
+ */
+public enum ClasseTensao {
+    CLASSE_15KV(new BigDecimal("15.0")),
+    CLASSE_24_2KV(new BigDecimal("24.2")),
+    CLASSE_36_2KV(new BigDecimal("36.2")),
+    ACIMA_36_2KV(null);
+
+    private final BigDecimal limite;
+
+    ClasseTensao(BigDecimal limite) {
+        this.limite = limite;
+    }
+
+    /**
+     * Retorna a tensão máxima da classe (inclusiva), ou null para a última classe.
+     *
+     * @return Tensão máxima da classe, em kV.
+     */
+    public BigDecimal getLimite() {
+        return limite;
+    }
+}
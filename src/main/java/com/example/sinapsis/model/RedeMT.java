@@ -6,6 +6,8 @@ import jakarta.validation.constraints.DecimalMax;
 import jakarta.validation.constraints.DecimalMin;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
 
 import java.math.BigDecimal;
@@ -14,17 +16,23 @@ import java.math.BigDecimal;
  * Classe que representa a entidade RedeMT no banco de dados.
  * Uma RedeMT está associada a uma Subestacao e contém informações como código, nome e tensão nominal.
  */
+// Updates gravam apenas as colunas alteradas
 @Entity
-@Table(name = "TB_REDE_MT")
+@DynamicUpdate
+// Índice da busca por faixa de tensão; inclui o código para que a consulta seja respondida apenas pelo índice
+@Table(name = "TB_REDE_MT", indexes = @Index(name = "IDX_REDE_MT_TENSAO_SUBESTACAO",
+        columnList = "TENSAO_NOMINAL, ID_SUBESTACAO, CODIGO"))
 @NoArgsConstructor
 @AllArgsConstructor
 public class RedeMT {
+    // IDs gerados por sequência com alocação em blocos (pooled), permitindo inserts em lote via JDBC batching
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "SEQ_REDE_MT")
+    @SequenceGenerator(name = "SEQ_REDE_MT", sequenceName = "SEQ_REDE_MT", allocationSize = 50)
     @Column(name = "ID_REDE_MT")
     private Integer id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "ID_SUBESTACAO", nullable = false)
     @JsonBackReference
     private Subestacao subestacao;
@@ -35,6 +43,12 @@ public class RedeMT {
     @Column(name = "NOME", length = 100)
     private String nome;
 
+    // Versão para controle de concorrência otimista
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "VERSAO", nullable = false)
+    private Long versao;
+
     @DecimalMin(value = "1.0", message = "Tensão nominal mínima é 1.0")
     @DecimalMax(value = "500.0", message = "Tensão nominal máxima é 500.0")
     @Column(name = "TENSAO_NOMINAL", precision = 5, scale = 2)
@@ -129,5 +143,22 @@ public class RedeMT {
     public void setNome(String nome) {
         this.nome = nome;
     }
-}
 
+    /**
+     * Retorna a versão da RedeMT, incrementada a cada alteração (controle de concorrência otimista).
+     *
+     * @return Versão da RedeMT.
+     */
+    public Long getVersao() {
+        return versao;
+    }
+
+    /**
+     * Define a versão da RedeMT.
+     *
+     * @param versao Versão da RedeMT.
+     */
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
+}
@@ -0,0 +1,236 @@
+package com.example.sinapsis.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Resumo das redes MT de uma subestação (quantidade, tensões e distribuição por classe de tensão).
+ * É mantido pelos serviços a cada escrita que altera as redes da subestação, para que os relatórios
+ * sejam calculados a partir de uma linha por subestação em vez de percorrer todas as redes.
+ */
+@Entity
+@Table(name = "TB_RESUMO_REDES_SUBESTACAO")
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumoRedesSubestacao {
+
+    // Mesmo ID da subestação resumida
+    @Id
+    @Column(name = "ID_SUBESTACAO")
+    private Integer subestacaoId;
+
+    @Column(name = "QTD_REDES", nullable = false)
+    private long quantidadeRedes;
+
+    // Redes com tensão nominal informada, usadas no cálculo da média
+    @Column(name = "QTD_COM_TENSAO", nullable = false)
+    private long quantidadeComTensao;
+
+    @Column(name = "SOMA_TENSAO", precision = 15, scale = 2)
+    private BigDecimal somaTensao;
+
+    @Column(name = "TENSAO_MINIMA", precision = 5, scale = 2)
+    private BigDecimal tensaoMinima;
+
+    @Column(name = "TENSAO_MAXIMA", precision = 5, scale = 2)
+    private BigDecimal tensaoMaxima;
+
+    // Quantidade de redes em cada classe de tensão (ClasseTensao)
+    @Column(name = "QTD_CLASSE_15KV", nullable = false)
+    private long quantidadeClasse15kV;
+
+    @Column(name = "QTD_CLASSE_24_2KV", nullable = false)
+    private long quantidadeClasse24kV;
+
+    @Column(name = "QTD_CLASSE_36_2KV", nullable = false)
+    private long quantidadeClasse36kV;
+
+    @Column(name = "QTD_ACIMA_36_2KV", nullable = false)
+    private long quantidadeAcima36kV;
+
+    /**
+     * Construtor de um resumo vazio para uma subestação.
+     *
+     * @param subestacaoId ID da subestação.
+     */
+    public ResumoRedesSubestacao(Integer subestacaoId) {
+        this.subestacaoId = subestacaoId;
+    }
+
+    /**
+     * Retorna o ID da subestação.
+     *
+     * @return ID da subestação.
+     */
+    public Integer getSubestacaoId() {
+        return subestacaoId;
+    }
+
+    /**
+     * Retorna a quantidade de redes MT da subestação.
+     *
+     * @return Quantidade de redes MT.
+     */
+    public long getQuantidadeRedes() {
+        return quantidadeRedes;
+    }
+
+    /**
+     * Define a quantidade de redes MT da subestação.
+     *
+     * @param quantidadeRedes Quantidade de redes MT.
+     */
+    public void setQuantidadeRedes(long quantidadeRedes) {
+        this.quantidadeRedes = quantidadeRedes;
+    }
+
+    /**
+     * Retorna a quantidade de redes MT com tensão nominal informada.
+     *
+     * @return Quantidade de redes MT com tensão.
+     */
+    public long getQuantidadeComTensao() {
+        return quantidadeComTensao;
+    }
+
+    /**
+     * Define a quantidade de redes MT com tensão nominal informada.
+     *
+     * @param quantidadeComTensao Quantidade de redes MT com tensão.
+     */
+    public void setQuantidadeComTensao(long quantidadeComTensao) {
+        this.quantidadeComTensao = quantidadeComTensao;
+    }
+
+    /**
+     * Retorna a soma das tensões nominais.
+     *
+     * @return Soma das tensões nominais, em kV.
+     */
+    public BigDecimal getSomaTensao() {
+        return somaTensao;
+    }
+
+    /**
+     * Define a soma das tensões nominais.
+     *
+     * @param somaTensao Soma das tensões nominais, em kV.
+     */
+    public void setSomaTensao(BigDecimal somaTensao) {
+        this.somaTensao = somaTensao;
+    }
+
+    /**
+     * Retorna a menor tensão nominal.
+     *
+     * @return Menor tensão nominal, em kV.
+     */
+    public BigDecimal getTensaoMinima() {
+        return tensaoMinima;
+    }
+
+    /**
+     * Define a menor tensão nominal.
+     *
+     * @param tensaoMinima Menor tensão nominal, em kV.
+     */
+    public void setTensaoMinima(BigDecimal tensaoMinima) {
+        this.tensaoMinima = tensaoMinima;
+    }
+
+    /**
+     * Retorna a maior tensão nominal.
+     *
+     * @return Maior tensão nominal, em kV.
+     */
+    public BigDecimal getTensaoMaxima() {
+        return tensaoMaxima;
+    }
+
+    /**
+     * Define a maior tensão nominal.
+     *
+     * @param tensaoMaxima Maior tensão nominal, em kV.
+     */
+    public void setTensaoMaxima(BigDecimal tensaoMaxima) {
+        this.tensaoMaxima = tensaoMaxima;
+    }
+
+    /**
+     * Retorna a quantidade de redes MT da classe de 15 kV.
+     *
+     * @return Quantidade de redes MT.
+     */
+    public long getQuantidadeClasse15kV() {
+        return quantidadeClasse15kV;
+    }
+
+    /**
+     * Define a quantidade de redes MT da classe de 15 kV.
+     *
+     * @param quantidadeClasse15kV Quantidade de redes MT.
+     */
+    public void setQuantidadeClasse15kV(long quantidadeClasse15kV) {
+        this.quantidadeClasse15kV = quantidadeClasse15kV;
+    }
+
+    /**
+     * Retorna a quantidade de redes MT da classe de 24,2 kV.
+     *
+     * @return Quantidade de redes MT.
+     */
+    public long getQuantidadeClasse24kV() {
+        return quantidadeClasse24kV;
+    }
+
+    /**
+     * Define a quantidade de redes MT da classe de 24,2 kV.
+     *
+     * @param quantidadeClasse24kV Quantidade de redes MT.
+     */
+    public void setQuantidadeClasse24kV(long quantidadeClasse24kV) {
+        this.quantidadeClasse24kV = quantidadeClasse24kV;
+    }
+
+    /**
+     * Retorna a quantidade de redes MT da classe de 36,2 kV.
+     *
+     * @return Quantidade de redes MT.
+     */
+    public long getQuantidadeClasse36kV() {
+        return quantidadeClasse36kV;
+    }
+
+    /**
+     * Define a quantidade de redes MT da classe de 36,2 kV.
+     *
+     * @param quantidadeClasse36kV Quantidade de redes MT.
+     */
+    public void setQuantidadeClasse36kV(long quantidadeClasse36kV) {
+        this.quantidadeClasse36kV = quantidadeClasse36kV;
+    }
+
+    /**
+     * Retorna a quantidade de redes MT acima da classe de 36,2 kV.
+     *
+     * @return Quantidade de redes MT.
+     */
+    public long getQuantidadeAcima36kV() {
+        return quantidadeAcima36kV;
+    }
+
+    /**
+     * Define a quantidade de redes MT acima da classe de 36,2 kV.
+     *
+     * @param quantidadeAcima36kV Quantidade de redes MT.
+     */
+    public void setQuantidadeAcima36kV(long quantidadeAcima36kV) {
+        this.quantidadeAcima36kV = quantidadeAcima36kV;
+    }
+}
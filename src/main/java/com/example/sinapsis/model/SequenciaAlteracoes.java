@@ -0,0 +1,90 @@
+package com.example.sinapsis.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.NoArgsConstructor;
+
+/**
+ * Contador do registro de alterações da topologia, em uma única linha.
+ * Cada transação que registra alterações bloqueia a linha até confirmar, então as sequências são atribuídas na
+ * ordem de confirmação: um cliente que leu até uma sequência nunca deixa de ver uma alteração confirmada depois
+ * com sequência menor.
+ */
+@Entity
+@Table(name = "TB_SEQUENCIA_ALTERACAO")
+@NoArgsConstructor
+public class SequenciaAlteracoes {
+
+    /**
+     * ID da única linha da tabela.
+     */
+    public static final Integer ID = 1;
+
+    @Id
+    @Column(name = "ID_SEQUENCIA")
+    private Integer id;
+
+    // Última sequência atribuída
+    @Column(name = "ULTIMA", nullable = false)
+    private long ultima;
+
+    // Maior sequência já removida pela retenção; cursores anteriores a ela expiraram
+    @Column(name = "REMOVIDAS_ATE", nullable = false)
+    private long removidasAte;
+
+    /**
+     * Construtor do contador inicial, sem alterações registradas.
+     *
+     * @param id ID da linha ({@link #ID}).
+     */
+    public SequenciaAlteracoes(Integer id) {
+        this.id = id;
+    }
+
+    /**
+     * Retorna o ID da linha.
+     *
+     * @return ID da linha.
+     */
+    public Integer getId() {
+        return id;
+    }
+
+    /**
+     * Retorna a última sequência atribuída.
+     *
+     * @return Última sequência, ou 0 se nenhuma alteração foi registrada.
+     */
+    public long getUltima() {
+        return ultima;
+    }
+
+    /**
+     * Define a última sequência atribuída.
+     *
+     * @param ultima Última sequência.
+     */
+    public void setUltima(long ultima) {
+        this.ultima = ultima;
+    }
+
+    /**
+     * Retorna a maior sequência removida pela retenção.
+     *
+     * @return Maior sequência removida, ou 0 se nenhuma foi removida.
+     */
+    public long getRemovidasAte() {
+        return removidasAte;
+    }
+
+    /**
+     * Define a maior sequência removida pela retenção.
+     *
+     * @param removidasAte Maior sequência removida.
+     */
+    public void setRemovidasAte(long removidasAte) {
+        this.removidasAte = removidasAte;
+    }
+}
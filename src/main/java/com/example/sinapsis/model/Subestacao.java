@@ -1,5 +1,6 @@
 package com.example.sinapsis.model;
 
+import com.example.sinapsis.spatial.Geohash;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.DecimalMax;
@@ -8,6 +9,8 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
 
 import java.math.BigDecimal;
@@ -17,14 +20,18 @@ import java.util.List;
  * Classe que representa a entidade Subestacao no banco de dados.
  * Uma Subestacao contém informações como código, nome, latitude, longitude e uma lista de redes MT associadas.
  */
+// Updates gravam apenas as colunas alteradas
 @Entity
-@Table(name = "TB_SUBESTACAO")
+@DynamicUpdate
+@Table(name = "TB_SUBESTACAO", indexes = @Index(name = "IDX_SUBESTACAO_GEOHASH", columnList = "GEOHASH"))
 @NoArgsConstructor
 @AllArgsConstructor
 public class Subestacao {
 
+    // IDs gerados por sequência com alocação em blocos (pooled), permitindo inserts em lote via JDBC batching
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "SEQ_SUBESTACAO")
+    @SequenceGenerator(name = "SEQ_SUBESTACAO", sequenceName = "SEQ_SUBESTACAO", allocationSize = 50)
     @Column(name = "ID_SUBESTACAO")
     private Integer id;
 
@@ -48,6 +55,17 @@ public class Subestacao {
     @DecimalMax(value = "180.000", message = "Longitude máxima é 180")
     private BigDecimal longitude;
 
+    // Geohash derivado da latitude/longitude, indexado para buscas por área
+    @Column(name = "GEOHASH", length = Geohash.PRECISAO_MAXIMA)
+    private String geohash;
+
+    // Versão da linha da subestação, para controle de concorrência otimista; não muda quando uma rede MT muda.
+    // O ETag da subestação combina esta versão com as das redes MT: ver {@link VersaoSubestacao}
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "VERSAO", nullable = false)
+    private Long versao;
+
     @OneToMany(mappedBy = "subestacao", cascade = CascadeType.ALL, orphanRemoval = false)
     @JsonManagedReference
     private List<RedeMT> redesMT;
@@ -142,6 +160,47 @@ public class Subestacao {
         this.longitude = longitude;
     }
 
+    /**
+     * Retorna o geohash da Subestacao, calculado a partir da latitude e longitude.
+     *
+     * @return Geohash da Subestacao.
+     */
+    public String getGeohash() {
+        return geohash;
+    }
+
+    /**
+     * Recalcula o geohash a partir da latitude e longitude.
+     * Executado automaticamente antes de inserir ou atualizar a Subestacao.
+     */
+    @PrePersist
+    @PreUpdate
+    public void atualizarGeohash() {
+        if (latitude == null || longitude == null) {
+            geohash = null;
+        } else {
+            geohash = Geohash.encode(latitude.doubleValue(), longitude.doubleValue(), Geohash.PRECISAO_MAXIMA);
+        }
+    }
+
+    /**
+     * Retorna a versão da Subestacao, incrementada a cada alteração (controle de concorrência otimista).
+     *
+     * @return Versão da Subestacao.
+     */
+    public Long getVersao() {
+        return versao;
+    }
+
+    /**
+     * Define a versão da Subestacao.
+     *
+     * @param versao Versão da Subestacao.
+     */
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
+
     /**
      * Retorna a lista de redes MT associadas à Subestacao.
      *
@@ -0,0 +1,65 @@
+package com.example.sinapsis.model;
+
+/**
+ * Versão de uma subestação com as suas redes MT, usada como ETag.
+ * Combina a versão (@Version) da subestação com o ID e a versão de cada rede MT, então muda quando a subestação
+ * é alterada e quando uma de suas redes MT é criada, alterada, removida ou reassociada, sem que a escrita de uma
+ * rede MT precise bloquear ou incrementar a linha da subestação.
+ * A combinação das redes é uma soma de hashes de 64 bits, independente da ordem em que as redes são informadas.
+ */
+public final class VersaoSubestacao {
+
+    private VersaoSubestacao() {
+    }
+
+    /**
+     * Inicia a versão a partir da versão da subestação; as redes MT são acrescentadas com {@link #comRede}.
+     *
+     * @param versaoSubestacao Versão (@Version) da subestação.
+     * @return Versão da subestação sem redes MT.
+     */
+    public static long inicio(long versaoSubestacao) {
+        return misturar(versaoSubestacao);
+    }
+
+    /**
+     * Acrescenta uma rede MT à versão.
+     *
+     * @param versao     Versão calculada até aqui.
+     * @param redeId     ID da rede MT.
+     * @param redeVersao Versão (@Version) da rede MT.
+     * @return Versão com a rede MT.
+     */
+    public static long comRede(long versao, int redeId, long redeVersao) {
+        return versao + misturar(misturar(redeId) + redeVersao);
+    }
+
+    /**
+     * Calcula a versão de uma subestação com as redes MT carregadas.
+     *
+     * @param subestacao Subestação.
+     * @return Versão da subestação com as redes MT, ou null se a subestação ainda não tiver versão.
+     */
+    public static Long de(Subestacao subestacao) {
+        if (subestacao.getVersao() == null) {
+            return null;
+        }
+        long versao = inicio(subestacao.getVersao());
+        if (subestacao.getRedesMT() != null) {
+            for (RedeMT rede : subestacao.getRedesMT()) {
+                if (rede.getId() != null) {
+                    versao = comRede(versao, rede.getId(), rede.getVersao() != null ? rede.getVersao() : 0L);
+                }
+            }
+        }
+        return versao;
+    }
+
+    // Finalizador do SplitMix64: espalha os bits para que somas de valores próximos não coincidam
+    private static long misturar(long valor) {
+        long z = valor + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
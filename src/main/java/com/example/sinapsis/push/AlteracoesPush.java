@@ -0,0 +1,443 @@
+package com.example.sinapsis.push;
+
+import com.example.sinapsis.events.TopologiaAlteradaEvent;
+import com.example.sinapsis.model.AlteracaoTopologia;
+import com.example.sinapsis.model.SequenciaAlteracoes;
+import com.example.sinapsis.repositories.AlteracaoTopologiaRepository;
+import com.example.sinapsis.repositories.SequenciaAlteracoesRepository;
+import com.example.sinapsis.services.AlteracaoTopologiaService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Envio das alterações da topologia por Server-Sent Events, para que as telas acompanhem a topologia sem
+ * consultar as listas periodicamente.
+ * Uma única thread lê as novas entradas do registro de alterações (TB_ALTERACAO_TOPOLOGIA) e as distribui aos
+ * assinantes; a leitura é feita a cada intervalo e logo após cada alteração confirmada nesta instância, então
+ * alterações feitas por outras instâncias da aplicação também são enviadas. O ID de cada evento é o cursor da
+ * alteração no registro, o que permite retomar a assinatura a partir do último evento recebido (Last-Event-ID).
+ * Cada assinante tem um buffer limitado, esvaziado por uma thread de envio própria enquanto há eventos pendentes
+ * (virtual, com spring.threads.virtual.enabled); um assinante lento cujo buffer enche ou cuja escrita passa do
+ * tempo máximo é desconectado, sem atrasar os demais, e pode se reconectar retomando do último evento.
+ */
+@Component
+public class AlteracoesPush implements MeterBinder {
+    private static final Logger logger = LoggerFactory.getLogger(AlteracoesPush.class);
+
+    // Alterações lidas do registro por consulta, na distribuição e na retomada
+    private static final int LOTE_LEITURA = 500;
+
+    // Marca, no buffer de um assinante, o envio de um comentário que mantém a conexão aberta
+    private static final Object HEARTBEAT = new Object();
+
+    private final AlteracaoTopologiaRepository alteracaoRepository;
+    private final SequenciaAlteracoesRepository sequenciaRepository;
+    private final TransactionTemplate transaction;
+    private final Duration intervalo;
+    private final Duration heartbeat;
+    private final Duration timeout;
+    private final Duration timeoutEscrita;
+    private final int buffer;
+
+    private final List<Assinante> assinantes = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService leitor;
+    private final AtomicBoolean leituraAgendada = new AtomicBoolean();
+    private final Executor envio;
+
+    // A distribuição e o registro de novos assinantes são feitos sob este lock, para que cada alteração seja
+    // entregue a um assinante exatamente uma vez: pela retomada ou pelo buffer
+    private final Object distribuicao = new Object();
+
+    // Última sequência distribuída, ou -1 antes da primeira leitura do registro
+    private volatile long ultimaDistribuida = -1;
+
+    /**
+     * Construtor da classe AlteracoesPush.
+     *
+     * @param alteracaoRepository Repositório das alterações.
+     * @param sequenciaRepository Repositório do contador de sequências.
+     * @param transactionManager  Gerenciador de transações usado nas leituras do registro.
+     * @param intervalo           Intervalo entre as leituras do registro de alterações.
+     * @param heartbeat           Intervalo entre os comentários enviados para manter as conexões abertas.
+     * @param timeout             Duração máxima de uma conexão; o cliente se reconecta retomando do último evento.
+     * @param timeoutEscrita      Duração máxima de uma escrita na conexão antes de o assinante ser desconectado.
+     * @param buffer              Quantidade máxima de eventos aguardando envio para um assinante.
+     * @param threads             Quantidade de threads de envio mantidas ativas (sem threads virtuais).
+     * @param threadsVirtuais     Se o envio usa uma thread virtual por assinante (requer Java 21).
+     */
+    @Autowired
+    public AlteracoesPush(AlteracaoTopologiaRepository alteracaoRepository,
+                          SequenciaAlteracoesRepository sequenciaRepository,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${sinapsis.push.intervalo:250ms}") Duration intervalo,
+                          @Value("${sinapsis.push.heartbeat:15s}") Duration heartbeat,
+                          @Value("${sinapsis.push.timeout:30m}") Duration timeout,
+                          @Value("${sinapsis.push.timeout-escrita:10s}") Duration timeoutEscrita,
+                          @Value("${sinapsis.push.buffer:256}") int buffer,
+                          @Value("${sinapsis.push.threads:8}") int threads,
+                          @Value("${spring.threads.virtual.enabled:false}") boolean threadsVirtuais) {
+        this(alteracaoRepository, sequenciaRepository, transactionManager, intervalo, heartbeat, timeout, timeoutEscrita,
+                buffer, threadsVirtuais ? criarThreadsVirtuais() : criarPool(threads));
+    }
+
+    // Recebe o executor de envio para que os testes enviem os eventos na própria thread
+    AlteracoesPush(AlteracaoTopologiaRepository alteracaoRepository,
+                   SequenciaAlteracoesRepository sequenciaRepository,
+                   PlatformTransactionManager transactionManager,
+                   Duration intervalo, Duration heartbeat, Duration timeout, Duration timeoutEscrita, int buffer,
+                   Executor envio) {
+        this.alteracaoRepository = alteracaoRepository;
+        this.sequenciaRepository = sequenciaRepository;
+        // Transação de escrita: com réplicas configuradas, as leituras vão à primária e veem as alterações sem atraso
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.intervalo = intervalo;
+        this.heartbeat = heartbeat;
+        this.timeout = timeout;
+        this.timeoutEscrita = timeoutEscrita;
+        this.buffer = buffer;
+        this.envio = envio;
+        this.leitor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "push-alteracoes");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Cada envio em andamento tem a sua thread: um assinante bloqueado em uma escrita não ocupa a vez dos demais.
+    // Um assinante tem no máximo um envio em andamento, então há no máximo uma thread por assinante.
+    private static ExecutorService criarPool(int threads) {
+        AtomicInteger contador = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, Integer.MAX_VALUE, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), r -> {
+            Thread thread = new Thread(r, "push-envio-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static SimpleAsyncTaskExecutor criarThreadsVirtuais() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("push-envio-");
+        executor.setVirtualThreads(true);
+        return executor;
+    }
+
+    /**
+     * Inicia a leitura periódica do registro de alterações e o envio dos heartbeats.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        leitor.scheduleWithFixedDelay(this::ler, 0, intervalo.toMillis(), TimeUnit.MILLISECONDS);
+        leitor.scheduleWithFixedDelay(this::enviarHeartbeat, heartbeat.toMillis(), heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Antecipa a leitura do registro após a confirmação de uma alteração nesta instância.
+     *
+     * @param event Evento de alteração da topologia.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTopologiaAlterada(TopologiaAlteradaEvent event) {
+        if (leituraAgendada.compareAndSet(false, true)) {
+            leitor.execute(this::ler);
+        }
+    }
+
+    /**
+     * Cria uma assinatura das alterações da topologia.
+     *
+     * @param subestacaoIds  IDs das subestações cujas alterações (da subestação e de suas redes MT) são enviadas;
+     *                       null ou vazio para todas.
+     * @param ultimoEventoId Sequência do último evento recebido pelo cliente, para retomar a partir dele, ou null
+     *                       para receber apenas as alterações confirmadas a partir de agora.
+     * @return SseEmitter da assinatura.
+     * @throws IllegalStateException Se a primeira leitura do registro de alterações ainda não terminou.
+     */
+    public SseEmitter assinar(Set<Integer> subestacaoIds, Long ultimoEventoId) {
+        if (ultimaDistribuida < 0) {
+            throw new IllegalStateException("Envio de alterações ainda não iniciado. Tente novamente em instantes.");
+        }
+
+        SseEmitter emitter = criarEmitter(timeout.toMillis());
+        Assinante assinante = new Assinante(emitter, subestacaoIds);
+        emitter.onCompletion(() -> assinantes.remove(assinante));
+        emitter.onError(e -> desconectar(assinante));
+        synchronized (distribuicao) {
+            // Alterações até a última distribuída vêm do registro; as seguintes, do buffer
+            if (ultimoEventoId != null && ultimoEventoId < ultimaDistribuida) {
+                assinante.retomarDe = ultimoEventoId;
+                assinante.retomarAte = ultimaDistribuida;
+            }
+            assinantes.add(assinante);
+        }
+        assinante.agendarEnvio();
+        return emitter;
+    }
+
+    /**
+     * Retorna a quantidade de assinantes conectados.
+     *
+     * @return Quantidade de assinantes.
+     */
+    public int getQuantidadeAssinantes() {
+        return assinantes.size();
+    }
+
+    /**
+     * Publica a quantidade de assinantes conectados.
+     *
+     * @param registry Registro de métricas.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("sinapsis.push.assinantes", assinantes, List::size)
+                .description("Assinantes conectados ao envio de alterações da topologia")
+                .register(registry);
+    }
+
+    /**
+     * Interrompe a leitura do registro e encerra as assinaturas; os clientes se reconectam a outra instância
+     * retomando do último evento.
+     */
+    @PreDestroy
+    public void encerrar() {
+        leitor.shutdownNow();
+        if (envio instanceof ExecutorService pool) {
+            pool.shutdownNow();
+        } else if (envio instanceof SimpleAsyncTaskExecutor executor) {
+            executor.close();
+        }
+        for (Assinante assinante : assinantes) {
+            assinante.ativo = false;
+            assinante.emitter.complete();
+        }
+        assinantes.clear();
+    }
+
+    // Exposto ao pacote para que os testes capturem os eventos enviados
+    SseEmitter criarEmitter(long timeout) {
+        return new SseEmitter(timeout);
+    }
+
+    /**
+     * Lê as alterações confirmadas desde a última leitura e as distribui aos assinantes.
+     * Executado na thread de leitura; exposto ao pacote para os testes.
+     */
+    void ler() {
+        // Alterações confirmadas a partir daqui agendam uma nova leitura
+        leituraAgendada.set(false);
+        try {
+            if (ultimaDistribuida < 0) {
+                // Primeira leitura: apenas as alterações confirmadas a partir de agora são distribuídas
+                ultimaDistribuida = transaction.execute(status -> sequenciaRepository.findById(SequenciaAlteracoes.ID)
+                        .map(SequenciaAlteracoes::getUltima)
+                        .orElse(0L));
+                return;
+            }
+            List<AlteracaoTopologia> lidas;
+            do {
+                long desde = ultimaDistribuida;
+                lidas = transaction.execute(status ->
+                        alteracaoRepository.findBySequenciaGreaterThanOrderBySequenciaAsc(desde, Limit.of(LOTE_LEITURA)));
+                distribuir(lidas);
+            } while (lidas.size() == LOTE_LEITURA);
+        } catch (RuntimeException e) {
+            // As alterações são lidas novamente no próximo intervalo
+            logger.error("Falha ao ler o registro de alterações: {}", e.getMessage(), e);
+        }
+    }
+
+    private void distribuir(List<AlteracaoTopologia> alteracoes) {
+        if (alteracoes.isEmpty()) {
+            return;
+        }
+        synchronized (distribuicao) {
+            for (Assinante assinante : assinantes) {
+                for (AlteracaoTopologia alteracao : alteracoes) {
+                    if (assinante.aceita(alteracao) && !assinante.fila.offer(alteracao)) {
+                        logger.debug("Assinante de alterações desconectado: buffer de {} eventos cheio", buffer);
+                        desconectar(assinante);
+                        break;
+                    }
+                }
+                assinante.agendarEnvio();
+            }
+            ultimaDistribuida = alteracoes.get(alteracoes.size() - 1).getSequencia();
+        }
+    }
+
+    // Executado na thread de leitura; assinantes com eventos pendentes já mantêm a conexão ativa.
+    // Também desconecta os assinantes com uma escrita em andamento há mais que o tempo máximo.
+    // Exposto ao pacote para os testes.
+    void enviarHeartbeat() {
+        long agora = System.nanoTime();
+        for (Assinante assinante : assinantes) {
+            long escritaDesde = assinante.escritaDesde;
+            if (escritaDesde != 0 && agora - escritaDesde > timeoutEscrita.toNanos()) {
+                logger.debug("Assinante de alterações desconectado: escrita sem resposta há mais de {}", timeoutEscrita);
+                desconectar(assinante);
+            } else if (assinante.fila.isEmpty() && assinante.fila.offer(HEARTBEAT)) {
+                assinante.agendarEnvio();
+            }
+        }
+    }
+
+    // Não escreve na conexão: a assinatura é encerrada pela thread de envio, que pode estar bloqueada em uma escrita
+    private void desconectar(Assinante assinante) {
+        assinante.ativo = false;
+        assinantes.remove(assinante);
+        assinante.fila.clear();
+        assinante.agendarEnvio();
+    }
+
+    /**
+     * Assinatura de um cliente: filtro, buffer de eventos e retomada pendente.
+     */
+    private final class Assinante {
+        private final SseEmitter emitter;
+        private final Set<Integer> subestacaoIds;
+        private final Queue<Object> fila;
+        private final AtomicBoolean enviando = new AtomicBoolean();
+        private volatile boolean ativo = true;
+
+        // Início (System.nanoTime) da escrita em andamento na conexão, ou 0 sem escrita em andamento
+        private volatile long escritaDesde;
+
+        // Alterações do registro a enviar antes do buffer, na retomada: sequências maiores que retomarDe até retomarAte
+        private volatile long retomarDe = -1;
+        private volatile long retomarAte = -1;
+
+        Assinante(SseEmitter emitter, Set<Integer> subestacaoIds) {
+            this.emitter = emitter;
+            this.subestacaoIds = subestacaoIds == null ? Set.of() : new HashSet<>(subestacaoIds);
+            this.fila = new ArrayBlockingQueue<>(buffer);
+        }
+
+        boolean aceita(AlteracaoTopologia alteracao) {
+            return subestacaoIds.isEmpty() || subestacaoIds.contains(alteracao.getSubestacaoId());
+        }
+
+        // Um envio por vez para cada assinante, preservando a ordem dos eventos
+        void agendarEnvio() {
+            if (enviando.compareAndSet(false, true)) {
+                try {
+                    envio.execute(this::enviar);
+                } catch (RejectedExecutionException e) {
+                    enviando.set(false);
+                }
+            }
+        }
+
+        private void enviar() {
+            try {
+                if (ativo && retomarAte >= 0) {
+                    retomar();
+                    retomarAte = -1;
+                }
+                Object item;
+                while (ativo && (item = fila.poll()) != null) {
+                    if (item == HEARTBEAT) {
+                        escrever(SseEmitter.event().comment("heartbeat"));
+                    } else {
+                        enviar((AlteracaoTopologia) item);
+                    }
+                }
+                if (!ativo) {
+                    emitter.complete();
+                }
+            } catch (IOException | RuntimeException e) {
+                // Conexão encerrada pelo cliente
+                ativo = false;
+                assinantes.remove(this);
+            } finally {
+                enviando.set(false);
+            }
+            // Eventos recebidos depois que o buffer foi esvaziado
+            if (ativo && !fila.isEmpty()) {
+                agendarEnvio();
+            }
+        }
+
+        private void enviar(AlteracaoTopologia alteracao) throws IOException {
+            escrever(SseEmitter.event()
+                    .id(AlteracaoTopologiaService.encodeSequencia(alteracao.getSequencia()))
+                    .name("alteracao")
+                    .data(alteracao, MediaType.APPLICATION_JSON));
+        }
+
+        // Registra o início da escrita, acompanhado pela thread de leitura a cada heartbeat
+        private void escrever(SseEmitter.SseEventBuilder evento) throws IOException {
+            escritaDesde = System.nanoTime();
+            try {
+                emitter.send(evento);
+            } finally {
+                escritaDesde = 0;
+            }
+        }
+
+        // Envia as alterações do registro entre o último evento recebido pelo cliente e o início do buffer
+        private void retomar() throws IOException {
+            long removidasAte = transaction.execute(status -> sequenciaRepository.findById(SequenciaAlteracoes.ID)
+                    .map(SequenciaAlteracoes::getRemovidasAte)
+                    .orElse(0L));
+            if (retomarDe < removidasAte) {
+                escrever(SseEmitter.event().name("expirado")
+                        .data("As alterações posteriores ao último evento já foram removidas. Sincronize a topologia completa."));
+                ativo = false;
+                return;
+            }
+
+            long desde = retomarDe;
+            while (ativo) {
+                long inicio = desde;
+                List<AlteracaoTopologia> lidas = transaction.execute(status ->
+                        alteracaoRepository.findBySequenciaGreaterThanOrderBySequenciaAsc(inicio, Limit.of(LOTE_LEITURA)));
+                for (AlteracaoTopologia alteracao : lidas) {
+                    if (alteracao.getSequencia() > retomarAte) {
+                        return;
+                    }
+                    if (aceita(alteracao)) {
+                        enviar(alteracao);
+                    }
+                }
+                if (lidas.size() < LOTE_LEITURA) {
+                    return;
+                }
+                desde = lidas.get(lidas.size() - 1).getSequencia();
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.sinapsis.repositories;
+
+import com.example.sinapsis.model.AlteracaoTopologia;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Interface de repositório para o registro de alterações da topologia.
+ */
+@Repository
+public interface AlteracaoTopologiaRepository extends JpaRepository<AlteracaoTopologia, Long> {
+
+    /**
+     * Busca as alterações posteriores a uma sequência, filtrando pela chave primária (keyset pagination).
+     *
+     * @param sequencia Última sequência já lida pelo cliente.
+     * @param limit     Quantidade máxima de alterações.
+     * @return Alterações com sequência maior que a informada, em ordem crescente.
+     */
+    List<AlteracaoTopologia> findBySequenciaGreaterThanOrderBySequenciaAsc(long sequencia, Limit limit);
+
+    /**
+     * Retorna a maior sequência entre as alterações confirmadas antes de uma data.
+     *
+     * @param data Data limite (exclusiva).
+     * @return Maior sequência, ou null se não houver alterações anteriores à data.
+     */
+    @Query("SELECT MAX(a.sequencia) FROM AlteracaoTopologia a WHERE a.data < :data")
+    Long findUltimaSequenciaAntes(@Param("data") Instant data);
+
+    /**
+     * Retorna as sequências das alterações que já têm uma alteração posterior da mesma entidade.
+     * Como o registro indica apenas que a entidade mudou, só a alteração mais recente de cada entidade é necessária.
+     *
+     * @return Sequências das alterações substituídas.
+     */
+    @Query("SELECT a.sequencia FROM AlteracaoTopologia a WHERE EXISTS ("
+            + "SELECT b.sequencia FROM AlteracaoTopologia b WHERE b.entidade = a.entidade "
+            + "AND b.entidadeId = a.entidadeId AND b.sequencia > a.sequencia)")
+    List<Long> findSequenciasSubstituidas();
+
+    /**
+     * Remove as alterações até uma sequência.
+     *
+     * @param sequencia Maior sequência removida (inclusiva).
+     * @return Quantidade de alterações removidas.
+     */
+    @Modifying
+    @Query("DELETE FROM AlteracaoTopologia a WHERE a.sequencia <= :sequencia")
+    int deleteAteSequencia(@Param("sequencia") long sequencia);
+}
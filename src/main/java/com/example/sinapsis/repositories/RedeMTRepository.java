@@ -1,9 +1,19 @@
 package com.example.sinapsis.repositories;
 
+import com.example.sinapsis.dto.EstatisticasRedes;
+import com.example.sinapsis.dto.RedeMTResumo;
+import com.example.sinapsis.dto.RedeMTTensao;
 import com.example.sinapsis.model.RedeMT;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -21,6 +31,34 @@ public interface RedeMTRepository extends JpaRepository<RedeMT, Integer> {
      */
     Optional<RedeMT> findByCodigo(String codigo);
 
+    /**
+     * Busca uma RedeMT pelo ID com uma consulta declarada.
+     * Diferente de findById, herdado de SimpleJpaRepository com transação somente leitura, não é roteada para as
+     * réplicas quando chamada fora de transação; usada nas cargas do cache da topologia.
+     *
+     * @param id ID da RedeMT.
+     * @return Um Optional contendo a RedeMT encontrada, ou vazio se não for encontrada.
+     */
+    @Query("SELECT r FROM RedeMT r WHERE r.id = :id")
+    Optional<RedeMT> findPrimariaById(@Param("id") Integer id);
+
+    /**
+     * Busca apenas a versão de uma RedeMT, sem carregar a entidade.
+     *
+     * @param id ID da RedeMT.
+     * @return Um Optional contendo a versão, ou vazio se a RedeMT não for encontrada.
+     */
+    @Query("SELECT r.versao FROM RedeMT r WHERE r.id = :id")
+    Optional<Long> findVersaoById(@Param("id") Integer id);
+
+    /**
+     * Busca as redes MT cujos códigos estão na coleção informada, com uma única consulta.
+     *
+     * @param codigos Códigos das redes MT a serem buscadas.
+     * @return Lista com as redes MT encontradas.
+     */
+    List<RedeMT> findByCodigoIn(Collection<String> codigos);
+
     /**
      * Busca uma RedeMT pelo código e pelo ID da Subestacao associada.
      *
@@ -29,4 +67,116 @@ public interface RedeMTRepository extends JpaRepository<RedeMT, Integer> {
      * @return Um Optional contendo a RedeMT encontrada, ou vazio se não for encontrada.
      */
     Optional<RedeMT> findByCodigoAndSubestacaoId(String codigo, Integer subestacaoId);
+
+    /**
+     * Busca a próxima página de redes MT a partir de um cursor (keyset pagination).
+     * Filtra pela chave primária em vez de usar OFFSET, então o custo não cresce com a profundidade da página.
+     *
+     * @param id    ID da última rede MT retornada na página anterior (0 para a primeira página).
+     * @param limit Quantidade máxima de redes MT a serem retornadas.
+     * @return Lista de redes MT com ID maior que o informado, ordenadas por ID.
+     */
+    List<RedeMT> findByIdGreaterThanOrderByIdAsc(Integer id, Limit limit);
+
+    /**
+     * Retorna o ID, código, nome e subestação de todas as redes MT, sem carregar as entidades.
+     *
+     * @return Lista de projeções resumidas das redes MT.
+     */
+    @Query("SELECT r.id AS id, r.codigo AS codigo, r.nome AS nome, r.subestacao.id AS subestacaoId FROM RedeMT r")
+    List<RedeMTResumo> findAllResumos();
+
+    /**
+     * Retorna o ID, código, nome e subestação das redes MT das subestações informadas, sem carregar as entidades.
+     *
+     * @param subestacaoIds IDs das subestações.
+     * @return Lista de projeções resumidas das redes MT.
+     */
+    @Query("SELECT r.id AS id, r.codigo AS codigo, r.nome AS nome, r.subestacao.id AS subestacaoId FROM RedeMT r "
+            + "WHERE r.subestacao.id IN :subestacaoIds")
+    List<RedeMTResumo> findResumosBySubestacaoIdIn(@Param("subestacaoIds") Collection<Integer> subestacaoIds);
+
+    /**
+     * Remove as redes MT das subestações informadas com um único DELETE, sem carregar as entidades.
+     * O contexto de persistência é sincronizado antes e limpo depois, pois o DELETE não passa por ele.
+     *
+     * @param subestacaoIds IDs das subestações.
+     * @return Quantidade de redes MT removidas.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM RedeMT r WHERE r.subestacao.id IN :subestacaoIds")
+    int deleteBySubestacaoIdIn(@Param("subestacaoIds") Collection<Integer> subestacaoIds);
+
+    /**
+     * Busca a próxima página de redes MT com tensão nominal dentro de uma faixa (keyset pagination).
+     * A ordem (tensão, subestação, código) é a do índice IDX_REDE_MT_TENSAO_SUBESTACAO e a projeção usa apenas
+     * colunas do índice, então a consulta percorre somente o intervalo do índice, sem ordenação nem leitura das linhas.
+     *
+     * @param tensaoMin    Tensão nominal mínima (inclusiva).
+     * @param tensaoMax    Tensão nominal máxima (inclusiva).
+     * @param tensao       Tensão da última rede da página anterior.
+     * @param subestacaoId ID da subestação da última rede da página anterior.
+     * @param codigo       Código da última rede da página anterior.
+     * @param limit        Quantidade máxima de redes MT a serem retornadas.
+     * @return Redes MT posteriores ao cursor, na ordem do índice.
+     */
+    @Query("SELECT r.id AS id, r.codigo AS codigo, r.tensaoNominal AS tensaoNominal, r.subestacao.id AS subestacaoId "
+            + "FROM RedeMT r "
+            + "WHERE r.tensaoNominal BETWEEN :tensaoMin AND :tensaoMax "
+            + "AND (r.tensaoNominal, r.subestacao.id, r.codigo) > (:tensao, :subestacaoId, :codigo) "
+            + "ORDER BY r.tensaoNominal, r.subestacao.id, r.codigo")
+    List<RedeMTTensao> findByFaixaDeTensao(@Param("tensaoMin") BigDecimal tensaoMin, @Param("tensaoMax") BigDecimal tensaoMax,
+                                           @Param("tensao") BigDecimal tensao, @Param("subestacaoId") Integer subestacaoId,
+                                           @Param("codigo") String codigo, Limit limit);
+
+    /**
+     * Busca a próxima página de redes MT de uma subestação com tensão nominal dentro de uma faixa (keyset pagination).
+     * Como a subestação é fixa, a ordem (tensão, código) também é a do índice IDX_REDE_MT_TENSAO_SUBESTACAO.
+     *
+     * @param subestacaoId ID da subestação.
+     * @param tensaoMin    Tensão nominal mínima (inclusiva).
+     * @param tensaoMax    Tensão nominal máxima (inclusiva).
+     * @param tensao       Tensão da última rede da página anterior.
+     * @param codigo       Código da última rede da página anterior.
+     * @param limit        Quantidade máxima de redes MT a serem retornadas.
+     * @return Redes MT posteriores ao cursor, na ordem do índice.
+     */
+    @Query("SELECT r.id AS id, r.codigo AS codigo, r.tensaoNominal AS tensaoNominal, r.subestacao.id AS subestacaoId "
+            + "FROM RedeMT r "
+            + "WHERE r.subestacao.id = :subestacaoId AND r.tensaoNominal BETWEEN :tensaoMin AND :tensaoMax "
+            + "AND (r.tensaoNominal, r.codigo) > (:tensao, :codigo) "
+            + "ORDER BY r.tensaoNominal, r.codigo")
+    List<RedeMTTensao> findByFaixaDeTensaoAndSubestacao(@Param("subestacaoId") Integer subestacaoId,
+                                                        @Param("tensaoMin") BigDecimal tensaoMin, @Param("tensaoMax") BigDecimal tensaoMax,
+                                                        @Param("tensao") BigDecimal tensao, @Param("codigo") String codigo, Limit limit);
+
+    // Agregação das redes por subestação; os limites das classes de tensão são os de ClasseTensao
+    String ESTATISTICAS_POR_SUBESTACAO = "SELECT r.subestacao.id AS subestacaoId, COUNT(r) AS quantidadeRedes, "
+            + "COUNT(r.tensaoNominal) AS quantidadeComTensao, SUM(r.tensaoNominal) AS somaTensao, "
+            + "MIN(r.tensaoNominal) AS tensaoMinima, MAX(r.tensaoNominal) AS tensaoMaxima, "
+            + "SUM(CASE WHEN r.tensaoNominal <= 15.0 THEN 1 ELSE 0 END) AS quantidadeClasse15kV, "
+            + "SUM(CASE WHEN r.tensaoNominal > 15.0 AND r.tensaoNominal <= 24.2 THEN 1 ELSE 0 END) AS quantidadeClasse24kV, "
+            + "SUM(CASE WHEN r.tensaoNominal > 24.2 AND r.tensaoNominal <= 36.2 THEN 1 ELSE 0 END) AS quantidadeClasse36kV, "
+            + "SUM(CASE WHEN r.tensaoNominal > 36.2 THEN 1 ELSE 0 END) AS quantidadeAcima36kV "
+            + "FROM RedeMT r ";
+
+    /**
+     * Calcula as estatísticas das redes MT de cada subestação (quantidade, tensões mínima, máxima e soma,
+     * e quantidade por classe de tensão) com uma única consulta agregada.
+     * Subestações sem redes não aparecem no resultado.
+     *
+     * @return Estatísticas das redes de cada subestação.
+     */
+    @Query(ESTATISTICAS_POR_SUBESTACAO + "GROUP BY r.subestacao.id")
+    List<EstatisticasRedes> findEstatisticasPorSubestacao();
+
+    /**
+     * Calcula as estatísticas das redes MT das subestações informadas, com uma única consulta agregada.
+     * Subestações sem redes não aparecem no resultado.
+     *
+     * @param subestacaoIds IDs das subestações.
+     * @return Estatísticas das redes de cada subestação.
+     */
+    @Query(ESTATISTICAS_POR_SUBESTACAO + "WHERE r.subestacao.id IN :ids GROUP BY r.subestacao.id")
+    List<EstatisticasRedes> findEstatisticasPorSubestacao(@Param("ids") Collection<Integer> subestacaoIds);
 }
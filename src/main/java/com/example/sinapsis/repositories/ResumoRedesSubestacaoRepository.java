@@ -0,0 +1,27 @@
+package com.example.sinapsis.repositories;
+
+import com.example.sinapsis.dto.EstatisticasSubestacao;
+import com.example.sinapsis.model.ResumoRedesSubestacao;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Interface de repositório para o resumo das redes MT de cada subestação.
+ */
+@Repository
+public interface ResumoRedesSubestacaoRepository extends JpaRepository<ResumoRedesSubestacao, Integer> {
+    /**
+     * Retorna as estatísticas das redes MT de todas as subestações a partir do resumo, uma linha por subestação.
+     * Subestações sem redes aparecem com quantidade zero.
+     *
+     * @return Lista de estatísticas, ordenadas pelo ID da subestação.
+     */
+    @Query("SELECT new com.example.sinapsis.dto.EstatisticasSubestacao(s.id, s.codigo, s.nome, r.quantidadeRedes, "
+            + "r.quantidadeComTensao, r.somaTensao, r.tensaoMinima, r.tensaoMaxima) "
+            + "FROM Subestacao s LEFT JOIN ResumoRedesSubestacao r ON r.subestacaoId = s.id "
+            + "ORDER BY s.id")
+    List<EstatisticasSubestacao> findEstatisticasSubestacoes();
+}
@@ -0,0 +1,28 @@
+package com.example.sinapsis.repositories;
+
+import com.example.sinapsis.model.SequenciaAlteracoes;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Interface de repositório para o contador do registro de alterações da topologia.
+ */
+@Repository
+public interface SequenciaAlteracoesRepository extends JpaRepository<SequenciaAlteracoes, Integer> {
+
+    /**
+     * Busca o contador bloqueando a linha (SELECT ... FOR UPDATE) até o fim da transação.
+     *
+     * @param id ID da linha do contador.
+     * @return Um Optional contendo o contador, ou vazio se a linha ainda não existir.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM SequenciaAlteracoes s WHERE s.id = :id")
+    Optional<SequenciaAlteracoes> findParaAtualizacao(@Param("id") Integer id);
+}
@@ -1,17 +1,39 @@
 package com.example.sinapsis.repositories;
 
 
+import com.example.sinapsis.dto.SubestacaoCoordenadas;
+import com.example.sinapsis.dto.SubestacaoResumo;
+import com.example.sinapsis.dto.VersaoRedeSubestacao;
 import com.example.sinapsis.model.Subestacao;
+import jakarta.persistence.QueryHint;
+import jakarta.persistence.criteria.Predicate;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
 /**
  * Interface de repositório para a entidade Subestacao.
  * Fornece métodos para acessar e manipular dados de subestações no banco de dados.
  * Estende JpaRepository, que inclui métodos CRUD básicos.
  */
 @Repository
-public interface SubestacaoRepository extends JpaRepository<Subestacao, Integer> {
+public interface SubestacaoRepository extends JpaRepository<Subestacao, Integer>, JpaSpecificationExecutor<Subestacao> {
 
     /**
      * Verifica se uma Subestacao já existe no banco de dados pelo código.
@@ -20,4 +42,174 @@ public interface SubestacaoRepository extends JpaRepository<Subestacao, Integer>
      * @return true se a Subestacao já existe, false caso contrário.
      */
     boolean existsByCodigo(String codigo);
+
+    /**
+     * Retorna, entre os códigos informados, aqueles que já pertencem a alguma Subestacao.
+     * Permite verificar duplicidade de um lote inteiro com uma única consulta.
+     *
+     * @param codigos Códigos a serem verificados.
+     * @return Conjunto com os códigos já cadastrados.
+     */
+    @Query("SELECT s.codigo FROM Subestacao s WHERE s.codigo IN :codigos")
+    Set<String> findCodigosExistentes(@Param("codigos") Collection<String> codigos);
+
+    /**
+     * Busca os IDs da próxima página de subestações a partir de um cursor (keyset pagination).
+     * Filtra pela chave primária em vez de usar OFFSET, então o custo não cresce com a profundidade da página.
+     * As entidades da página são carregadas depois, com as redes, por {@link #findByIdInOrderByIdAsc}.
+     *
+     * @param id    ID da última subestação retornada na página anterior (0 para a primeira página).
+     * @param limit Quantidade máxima de IDs a serem retornados.
+     * @return Lista de IDs maiores que o informado, em ordem crescente.
+     */
+    @Query("SELECT s.id FROM Subestacao s WHERE s.id > :id ORDER BY s.id")
+    List<Integer> findIdsAfter(@Param("id") Integer id, Limit limit);
+
+    /**
+     * Retorna, entre os IDs informados, aqueles que pertencem a alguma Subestacao.
+     *
+     * @param ids IDs a serem verificados.
+     * @return Lista com os IDs cadastrados, em ordem crescente.
+     */
+    @Query("SELECT s.id FROM Subestacao s WHERE s.id IN :ids ORDER BY s.id")
+    List<Integer> findIdsExistentes(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Retorna os IDs das subestações cujo código começa com o prefixo informado.
+     * A comparação usa LIKE com '!' como caractere de escape; '!', '%' e '_' do prefixo devem vir escapados.
+     *
+     * @param prefixo Prefixo do código, já escapado.
+     * @return Lista de IDs, em ordem crescente.
+     */
+    @Query("SELECT s.id FROM Subestacao s WHERE s.codigo LIKE CONCAT(:prefixo, '%') ESCAPE '!' ORDER BY s.id")
+    List<Integer> findIdsByCodigoPrefixo(@Param("prefixo") String prefixo);
+
+    /**
+     * Remove as subestações informadas com um único DELETE, sem carregar as entidades nem as redes MT.
+     * As redes MT das subestações devem ser removidas antes, por {@link RedeMTRepository#deleteBySubestacaoIdIn}.
+     * O contexto de persistência é sincronizado antes e limpo depois, pois o DELETE não passa por ele.
+     *
+     * @param ids IDs das subestações.
+     * @return Quantidade de subestações removidas.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Subestacao s WHERE s.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Busca as subestações com os IDs informados, carregando as redes MT na mesma consulta.
+     *
+     * @param ids IDs das subestações.
+     * @return Lista de subestações com as redes MT, ordenadas por ID.
+     */
+    @EntityGraph(attributePaths = "redesMT")
+    List<Subestacao> findByIdInOrderByIdAsc(Collection<Integer> ids);
+
+    /**
+     * Busca a versão de uma subestação e o ID e a versão de cada uma de suas redes MT, sem carregar as entidades.
+     *
+     * @param id ID da subestação.
+     * @return Uma linha por rede MT (uma linha sem rede se a subestação não tiver redes MT), ou lista vazia se a
+     * subestação não for encontrada.
+     */
+    @Query("SELECT s.versao AS versaoSubestacao, r.id AS redeId, r.versao AS redeVersao "
+            + "FROM Subestacao s LEFT JOIN s.redesMT r WHERE s.id = :id")
+    List<VersaoRedeSubestacao> findVersoesComRedesById(@Param("id") Integer id);
+
+    /**
+     * Busca uma subestação pelo ID, carregando as redes MT na mesma consulta.
+     *
+     * @param id ID da subestação.
+     * @return Um Optional contendo a subestação com as redes MT, ou vazio se não for encontrada.
+     */
+    @EntityGraph(attributePaths = "redesMT")
+    Optional<Subestacao> findWithRedesById(Integer id);
+
+    /**
+     * Busca todas as subestações, carregando as redes MT na mesma consulta (evita uma consulta por subestação
+     * durante a serialização).
+     *
+     * @return Lista de subestações com as redes MT, ordenadas por ID.
+     */
+    @EntityGraph(attributePaths = "redesMT")
+    @Query("SELECT s FROM Subestacao s ORDER BY s.id")
+    List<Subestacao> findAllWithRedes();
+
+    /**
+     * Retorna o resumo de todas as subestações, com a quantidade de redes MT de cada uma,
+     * em uma única consulta agregada.
+     *
+     * @return Lista de resumos das subestações, ordenados por ID.
+     */
+    @Query("SELECT s.id AS id, s.codigo AS codigo, s.nome AS nome, s.latitude AS latitude, s.longitude AS longitude, "
+            + "COUNT(r.id) AS quantidadeRedes "
+            + "FROM Subestacao s LEFT JOIN s.redesMT r "
+            + "GROUP BY s.id, s.codigo, s.nome, s.latitude, s.longitude "
+            + "ORDER BY s.id")
+    List<SubestacaoResumo> findAllResumos();
+
+    /**
+     * Percorre todas as subestações com suas redes MT como um Stream, sem materializar a tabela em memória.
+     * As redes são carregadas via fetch join, ordenadas por subestação, para que cada subestação chegue completa
+     * sem consultas adicionais. O fetch size faz o driver buscar as linhas em blocos (cursor no servidor).
+     * Deve ser consumido dentro de uma transação e fechado ao final.
+     *
+     * @return Stream de subestações com as redes MT já carregadas.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT s FROM Subestacao s LEFT JOIN FETCH s.redesMT ORDER BY s.id")
+    Stream<Subestacao> streamAllWithRedes();
+
+    /**
+     * Retorna o ID, código, nome e coordenadas de todas as subestações, sem carregar as redes MT.
+     *
+     * @return Lista de projeções com as coordenadas das subestações.
+     */
+    @Query("SELECT s.id AS id, s.codigo AS codigo, s.nome AS nome, s.latitude AS latitude, s.longitude AS longitude FROM Subestacao s")
+    List<SubestacaoCoordenadas> findAllCoordenadas();
+
+    /**
+     * Busca as subestações dentro de uma área retangular.
+     * O filtro por prefixos de geohash é resolvido como range scan no índice da coluna GEOHASH;
+     * o filtro por latitude/longitude descarta os registros das células que ficam parcialmente fora da área.
+     * As redes MT são carregadas na mesma consulta (ver {@link #findAll(Specification, Sort)}).
+     *
+     * @param prefixos Prefixos de geohash cujas células cobrem a área.
+     * @param minLat   Latitude mínima da área.
+     * @param minLon   Longitude mínima da área.
+     * @param maxLat   Latitude máxima da área.
+     * @param maxLon   Longitude máxima da área.
+     * @return Lista de subestações dentro da área, com as redes MT, ordenadas por ID.
+     */
+    default List<Subestacao> findInGeohashCells(Collection<String> prefixos, BigDecimal minLat, BigDecimal minLon,
+                                                BigDecimal maxLat, BigDecimal maxLon) {
+        return findAll((root, query, cb) -> {
+            Predicate[] celulas = prefixos.stream()
+                    .map(prefixo -> cb.like(root.get("geohash"), prefixo + "%"))
+                    .toArray(Predicate[]::new);
+            return cb.and(
+                    cb.or(celulas),
+                    cb.between(root.get("latitude"), minLat, maxLat),
+                    cb.between(root.get("longitude"), minLon, maxLon));
+        }, Sort.by("id"));
+    }
+
+    /**
+     * Busca as subestações que atendem à especificação, carregando as redes MT na mesma consulta.
+     * Evita uma consulta por subestação ao serializar a resposta de {@link #findInGeohashCells}.
+     *
+     * @param spec Especificação do filtro.
+     * @param sort Ordenação do resultado.
+     * @return Lista de subestações com as redes MT.
+     */
+    @Override
+    @EntityGraph(attributePaths = "redesMT")
+    List<Subestacao> findAll(Specification<Subestacao> spec, Sort sort);
+
+    /**
+     * Busca as subestações que ainda não possuem geohash calculado (cadastradas antes da criação da coluna).
+     *
+     * @return Lista de subestações sem geohash.
+     */
+    List<Subestacao> findByGeohashIsNull();
 }
@@ -0,0 +1,195 @@
+package com.example.sinapsis.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Trie persistente (imutável) de códigos, usada para buscas por prefixo.
+ * Cada nó guarda os filhos em arrays ordenados pelo caractere, sem mapas, e os valores cujo código termina nele.
+ * Inserções e remoções não alteram a trie: devolvem uma nova versão que copia apenas os nós do caminho
+ * até a chave e compartilha o restante, de forma que leitores concorrentes percorrem uma versão consistente
+ * sem bloqueio enquanto a próxima é montada.
+ *
+ * @param <T> Tipo dos valores associados aos códigos.
+ */
+final class CodigoTrie<T> {
+    private static final CodigoTrie<?> VAZIA = new CodigoTrie<>(null);
+
+    // Raiz da trie, ou null se estiver vazia
+    private final No<T> raiz;
+
+    private CodigoTrie(No<T> raiz) {
+        this.raiz = raiz;
+    }
+
+    /**
+     * Retorna uma trie vazia.
+     *
+     * @param <T> Tipo dos valores.
+     * @return Trie vazia.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> CodigoTrie<T> vazia() {
+        return (CodigoTrie<T>) VAZIA;
+    }
+
+    /**
+     * Associa um valor a um código, substituindo os valores do mesmo código que atendem ao critério.
+     *
+     * @param codigo     Código (já normalizado).
+     * @param valor      Valor a ser associado.
+     * @param substituir Critério dos valores existentes do código que devem ser substituídos.
+     * @return Nova versão da trie.
+     */
+    CodigoTrie<T> inserir(String codigo, T valor, Predicate<T> substituir) {
+        return new CodigoTrie<>(inserir(raiz, codigo, 0, valor, substituir));
+    }
+
+    /**
+     * Remove os valores de um código que atendem ao critério.
+     *
+     * @param codigo  Código (já normalizado).
+     * @param remover Critério dos valores que devem ser removidos.
+     * @return Nova versão da trie, ou a mesma se nada foi removido.
+     */
+    CodigoTrie<T> remover(String codigo, Predicate<T> remover) {
+        No<T> novaRaiz = remover(raiz, codigo, 0, remover);
+        return novaRaiz == raiz ? this : new CodigoTrie<>(novaRaiz);
+    }
+
+    /**
+     * Busca os valores cujo código começa com o prefixo, em ordem de código
+     * (um código vem antes dos códigos mais longos que o estendem).
+     *
+     * @param prefixo Prefixo (já normalizado).
+     * @param limite  Quantidade máxima de valores.
+     * @return Valores encontrados, até o limite.
+     */
+    List<T> buscarPrefixo(String prefixo, int limite) {
+        No<T> no = raiz;
+        for (int i = 0; no != null && i < prefixo.length(); i++) {
+            int pos = Arrays.binarySearch(no.chars, prefixo.charAt(i));
+            no = pos >= 0 ? no.filhos[pos] : null;
+        }
+        List<T> resultado = new ArrayList<>(Math.min(limite, 16));
+        if (no != null) {
+            coletar(no, resultado, limite);
+        }
+        return resultado;
+    }
+
+    // Percorre a subárvore em pré-ordem, com os filhos em ordem de caractere, até atingir o limite
+    private static <T> void coletar(No<T> no, List<T> resultado, int limite) {
+        for (T valor : no.valores) {
+            if (resultado.size() >= limite) {
+                return;
+            }
+            resultado.add(valor);
+        }
+        for (No<T> filho : no.filhos) {
+            if (resultado.size() >= limite) {
+                return;
+            }
+            coletar(filho, resultado, limite);
+        }
+    }
+
+    private static <T> No<T> inserir(No<T> no, String codigo, int i, T valor, Predicate<T> substituir) {
+        if (no == null) {
+            no = No.vazio();
+        }
+        if (i == codigo.length()) {
+            List<T> valores = new ArrayList<>(no.valores.size() + 1);
+            for (T existente : no.valores) {
+                if (!substituir.test(existente)) {
+                    valores.add(existente);
+                }
+            }
+            valores.add(valor);
+            return new No<>(no.chars, no.filhos, List.copyOf(valores));
+        }
+
+        char c = codigo.charAt(i);
+        int pos = Arrays.binarySearch(no.chars, c);
+        if (pos >= 0) {
+            No<T>[] filhos = no.filhos.clone();
+            filhos[pos] = inserir(filhos[pos], codigo, i + 1, valor, substituir);
+            return new No<>(no.chars, filhos, no.valores);
+        }
+
+        // Insere o novo filho na posição que mantém os arrays ordenados
+        int ins = -pos - 1;
+        char[] chars = new char[no.chars.length + 1];
+        No<T>[] filhos = No.filhos(no.filhos.length + 1);
+        System.arraycopy(no.chars, 0, chars, 0, ins);
+        System.arraycopy(no.filhos, 0, filhos, 0, ins);
+        chars[ins] = c;
+        filhos[ins] = inserir(null, codigo, i + 1, valor, substituir);
+        System.arraycopy(no.chars, ins, chars, ins + 1, no.chars.length - ins);
+        System.arraycopy(no.filhos, ins, filhos, ins + 1, no.filhos.length - ins);
+        return new No<>(chars, filhos, no.valores);
+    }
+
+    // Retorna o mesmo nó se nada foi removido, ou null se o nó ficou sem valores e sem filhos
+    private static <T> No<T> remover(No<T> no, String codigo, int i, Predicate<T> remover) {
+        if (no == null) {
+            return null;
+        }
+        if (i == codigo.length()) {
+            List<T> valores = no.valores.stream().filter(remover.negate()).toList();
+            if (valores.size() == no.valores.size()) {
+                return no;
+            }
+            return valores.isEmpty() && no.chars.length == 0 ? null : new No<>(no.chars, no.filhos, valores);
+        }
+
+        int pos = Arrays.binarySearch(no.chars, codigo.charAt(i));
+        if (pos < 0) {
+            return no;
+        }
+        No<T> filho = remover(no.filhos[pos], codigo, i + 1, remover);
+        if (filho == no.filhos[pos]) {
+            return no;
+        }
+        if (filho != null) {
+            No<T>[] filhos = no.filhos.clone();
+            filhos[pos] = filho;
+            return new No<>(no.chars, filhos, no.valores);
+        }
+
+        // O filho ficou vazio e é retirado dos arrays
+        if (no.chars.length == 1 && no.valores.isEmpty()) {
+            return null;
+        }
+        char[] chars = new char[no.chars.length - 1];
+        No<T>[] filhos = No.filhos(no.filhos.length - 1);
+        System.arraycopy(no.chars, 0, chars, 0, pos);
+        System.arraycopy(no.filhos, 0, filhos, 0, pos);
+        System.arraycopy(no.chars, pos + 1, chars, pos, no.chars.length - pos - 1);
+        System.arraycopy(no.filhos, pos + 1, filhos, pos, no.filhos.length - pos - 1);
+        return new No<>(chars, filhos, no.valores);
+    }
+
+    private static final class No<T> {
+        final char[] chars;
+        final No<T>[] filhos;
+        final List<T> valores;
+
+        No(char[] chars, No<T>[] filhos, List<T> valores) {
+            this.chars = chars;
+            this.filhos = filhos;
+            this.valores = valores;
+        }
+
+        static <T> No<T> vazio() {
+            return new No<>(new char[0], filhos(0), List.of());
+        }
+
+        @SuppressWarnings("unchecked")
+        static <T> No<T>[] filhos(int tamanho) {
+            return (No<T>[]) new No<?>[tamanho];
+        }
+    }
+}
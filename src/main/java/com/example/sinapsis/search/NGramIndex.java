@@ -0,0 +1,106 @@
+package com.example.sinapsis.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice invertido de trigramas, usado para buscas por trecho de texto.
+ * Cada texto (já normalizado) é precedido de um espaço, de forma que os trigramas iniciados por espaço marcam
+ * o início das palavras. A busca intersecta as listas dos trigramas da consulta, começando pela menor;
+ * o resultado são candidatos, que o chamador confirma comparando o texto.
+ * As listas são conjuntos concorrentes: leituras não bloqueiam e enxergam cada alteração assim que ela é feita.
+ *
+ * @param <T> Tipo dos valores indexados.
+ */
+final class NGramIndex<T> {
+    static final int N = 3;
+
+    private final Map<String, Set<T>> listas = new ConcurrentHashMap<>();
+
+    /**
+     * Indexa um valor pelos trigramas de um texto.
+     *
+     * @param valor Valor a ser indexado.
+     * @param texto Texto normalizado (ignorado se null ou vazio).
+     */
+    void adicionar(T valor, String texto) {
+        for (String ngrama : ngramas(texto)) {
+            listas.computeIfAbsent(ngrama, k -> ConcurrentHashMap.newKeySet()).add(valor);
+        }
+    }
+
+    /**
+     * Remove um valor das listas dos trigramas de um texto.
+     *
+     * @param valor Valor a ser removido.
+     * @param texto Texto normalizado com o qual o valor foi indexado.
+     */
+    void remover(T valor, String texto) {
+        for (String ngrama : ngramas(texto)) {
+            listas.computeIfPresent(ngrama, (k, lista) -> lista.remove(valor) && lista.isEmpty() ? null : lista);
+        }
+    }
+
+    /**
+     * Retorna os valores que contêm todos os trigramas da consulta.
+     * Consultas com menos de três caracteres são buscadas como início de palavra (espaço + consulta).
+     *
+     * @param consulta Consulta normalizada, com ao menos dois caracteres.
+     * @return Candidatos; vazio se algum trigrama da consulta não estiver indexado.
+     */
+    List<T> candidatos(String consulta) {
+        String texto = consulta.length() < N ? " " + consulta : consulta;
+        List<Set<T>> encontradas = new ArrayList<>();
+        for (int i = 0; i + N <= texto.length(); i++) {
+            Set<T> lista = listas.get(texto.substring(i, i + N));
+            if (lista == null) {
+                return Collections.emptyList();
+            }
+            encontradas.add(lista);
+        }
+        if (encontradas.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        encontradas.sort(Comparator.comparingInt(Set::size));
+        List<T> resultado = new ArrayList<>();
+        for (T valor : encontradas.get(0)) {
+            boolean todas = true;
+            for (int i = 1; i < encontradas.size() && todas; i++) {
+                todas = encontradas.get(i).contains(valor);
+            }
+            if (todas) {
+                resultado.add(valor);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Retorna a quantidade de trigramas distintos indexados.
+     *
+     * @return Quantidade de trigramas.
+     */
+    int size() {
+        return listas.size();
+    }
+
+    // Trigramas distintos do texto precedido de espaço
+    static Set<String> ngramas(String texto) {
+        if (texto == null || texto.isEmpty()) {
+            return Collections.emptySet();
+        }
+        String comEspaco = " " + texto;
+        Set<String> resultado = new LinkedHashSet<>();
+        for (int i = 0; i + N <= comEspaco.length(); i++) {
+            resultado.add(comEspaco.substring(i, i + N));
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,362 @@
+package com.example.sinapsis.search;
+
+import com.example.sinapsis.dto.RedeMTResumo;
+import com.example.sinapsis.dto.ResultadoBusca;
+import com.example.sinapsis.dto.SubestacaoCoordenadas;
+import com.example.sinapsis.events.TopologiaAlteradaEvent;
+import com.example.sinapsis.model.RedeMT;
+import com.example.sinapsis.model.Subestacao;
+import com.example.sinapsis.repositories.RedeMTRepository;
+import com.example.sinapsis.repositories.SubestacaoRepository;
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Índice de busca em memória de subestações e redes MT, usado pelo autocompletar da interface de operação
+ * sem consultar o banco de dados.
+ * Os códigos ficam em uma trie persistente (busca por prefixo) e os nomes, sem acentos e em minúsculas,
+ * em um índice de trigramas (busca por trecho). O índice é carregado quando a aplicação inicia e atualizado
+ * entrada a entrada pelos eventos de alteração da topologia, após o commit.
+ * As escritas são serializadas; as buscas não bloqueiam: leem a versão atual da trie e os conjuntos
+ * concorrentes do índice de trigramas.
+ */
+@Component
+public class TopologiaSearchIndex {
+    private static final Logger logger = LoggerFactory.getLogger(TopologiaSearchIndex.class);
+
+    // Quantidade de resultados retornada quando o cliente não informa o limite
+    public static final int LIMITE_PADRAO = 10;
+
+    // Quantidade máxima de resultados por busca
+    public static final int LIMITE_MAXIMO = 50;
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{Alnum}]+");
+    private static final Pattern ESPACOS = Pattern.compile("\\s+");
+
+    private final SubestacaoRepository subestacaoRepository;
+    private final RedeMTRepository redeMTRepository;
+
+    // Entradas indexadas por ID, uma tabela por tipo
+    private final Map<Integer, Entrada> subestacoes = new ConcurrentHashMap<>();
+    private final Map<Integer, Entrada> redes = new ConcurrentHashMap<>();
+
+    // IDs das redes de cada subestação; acessado apenas pelas escritas, que são sincronizadas
+    private final Map<Integer, Set<Integer>> redesPorSubestacao = new HashMap<>();
+
+    private final NGramIndex<Entrada> nomes = new NGramIndex<>();
+    private volatile CodigoTrie<Entrada> codigos = CodigoTrie.vazia();
+
+    /**
+     * Construtor da classe TopologiaSearchIndex.
+     *
+     * @param subestacaoRepository Repositório usado para a carga inicial das subestações.
+     * @param redeMTRepository     Repositório usado para a carga inicial das redes MT.
+     */
+    public TopologiaSearchIndex(SubestacaoRepository subestacaoRepository, RedeMTRepository redeMTRepository) {
+        this.subestacaoRepository = subestacaoRepository;
+        this.redeMTRepository = redeMTRepository;
+    }
+
+    /**
+     * Carrega todas as subestações e redes MT no índice quando a aplicação termina de iniciar.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        for (SubestacaoCoordenadas s : subestacaoRepository.findAllCoordenadas()) {
+            putSubestacao(s.getId(), s.getCodigo(), s.getNome());
+        }
+        for (RedeMTResumo r : redeMTRepository.findAllResumos()) {
+            putRede(r.getId(), r.getCodigo(), r.getNome(), r.getSubestacaoId());
+        }
+        logger.info("Índice de busca carregado com {} subestações, {} redes MT e {} trigramas",
+                subestacoes.size(), redes.size(), nomes.size());
+    }
+
+    /**
+     * Atualiza o índice após a confirmação de uma alteração da topologia.
+     *
+     * @param event Evento de alteração da topologia.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTopologiaAlterada(TopologiaAlteradaEvent event) {
+        boolean remocao = event.operacao() == TopologiaAlteradaEvent.Operacao.REMOCAO;
+        if (event.entidade() == TopologiaAlteradaEvent.Entidade.SUBESTACAO) {
+            if (remocao) {
+                removeSubestacao(event.id());
+                return;
+            }
+            Subestacao s = event.subestacao();
+            putSubestacao(s.getId(), s.getCodigo(), s.getNome());
+            // A lista de redes só é sincronizada se foi carregada; sem ela, as redes da subestação não mudaram
+            if (s.getRedesMT() != null && Hibernate.isInitialized(s.getRedesMT())) {
+                sincronizarRedes(s.getId(), s.getRedesMT());
+            }
+        } else if (remocao) {
+            removeRede(event.id());
+        } else {
+            RedeMT r = event.rede();
+            putRede(r.getId(), r.getCodigo(), r.getNome(), event.subestacaoId());
+        }
+    }
+
+    /**
+     * Adiciona ou substitui uma subestação no índice.
+     *
+     * @param id     ID da subestação.
+     * @param codigo Código da subestação.
+     * @param nome   Nome da subestação.
+     */
+    public synchronized void putSubestacao(Integer id, String codigo, String nome) {
+        if (id != null) {
+            indexar(subestacoes, new Entrada(ResultadoBusca.Tipo.SUBESTACAO, id, codigo, nome, id));
+        }
+    }
+
+    /**
+     * Adiciona ou substitui uma rede MT no índice.
+     *
+     * @param id           ID da rede MT.
+     * @param codigo       Código da rede MT.
+     * @param nome         Nome da rede MT.
+     * @param subestacaoId ID da subestação da rede MT.
+     */
+    public synchronized void putRede(Integer id, String codigo, String nome, Integer subestacaoId) {
+        if (id == null) {
+            return;
+        }
+        Entrada anterior = indexar(redes, new Entrada(ResultadoBusca.Tipo.REDE_MT, id, codigo, nome, subestacaoId));
+        if (anterior != null && anterior.subestacaoId() != null && !anterior.subestacaoId().equals(subestacaoId)) {
+            desassociar(anterior.subestacaoId(), id);
+        }
+        if (subestacaoId != null) {
+            redesPorSubestacao.computeIfAbsent(subestacaoId, k -> new HashSet<>()).add(id);
+        }
+    }
+
+    /**
+     * Remove uma subestação do índice, junto com as suas redes MT (removidas por cascata).
+     *
+     * @param id ID da subestação.
+     */
+    public synchronized void removeSubestacao(Integer id) {
+        desindexar(subestacoes.remove(id));
+        Set<Integer> ids = redesPorSubestacao.remove(id);
+        if (ids != null) {
+            for (Integer redeId : ids) {
+                desindexar(redes.remove(redeId));
+            }
+        }
+    }
+
+    /**
+     * Remove uma rede MT do índice.
+     *
+     * @param id ID da rede MT.
+     */
+    public synchronized void removeRede(Integer id) {
+        Entrada anterior = redes.remove(id);
+        desindexar(anterior);
+        if (anterior != null && anterior.subestacaoId() != null) {
+            desassociar(anterior.subestacaoId(), id);
+        }
+    }
+
+    // Substitui as redes de uma subestação pela lista informada; as que não constam mais na lista são removidas
+    private synchronized void sincronizarRedes(Integer subestacaoId, List<RedeMT> lista) {
+        Set<Integer> atuais = new HashSet<>();
+        for (RedeMT rede : lista) {
+            if (rede.getId() != null) {
+                putRede(rede.getId(), rede.getCodigo(), rede.getNome(), subestacaoId);
+                atuais.add(rede.getId());
+            }
+        }
+        Set<Integer> anteriores = redesPorSubestacao.get(subestacaoId);
+        if (anteriores != null) {
+            for (Integer id : new ArrayList<>(anteriores)) {
+                if (!atuais.contains(id)) {
+                    removeRede(id);
+                }
+            }
+        }
+    }
+
+    /**
+     * Busca subestações e redes MT pelo início do código ou por um trecho do nome, ignorando acentos e maiúsculas.
+     * Primeiro vêm os códigos que começam com a consulta, do mais curto (correspondência exata) para o mais longo;
+     * em seguida, os nomes que começam com a consulta, os que têm uma palavra começando com ela e os que a contêm.
+     * Consultas de um caractere buscam apenas códigos e consultas de dois caracteres, apenas inícios de palavra.
+     *
+     * @param consulta Texto digitado.
+     * @param limite   Quantidade máxima de resultados (usa o padrão se null).
+     * @return Resultados em ordem de relevância.
+     * @throws IllegalArgumentException Se a consulta estiver vazia ou o limite for menor que 1.
+     */
+    public List<ResultadoBusca> buscar(String consulta, Integer limite) {
+        if (consulta == null || consulta.isBlank()) {
+            throw new IllegalArgumentException("Informe o texto da busca.");
+        }
+        if (limite != null && limite < 1) {
+            throw new IllegalArgumentException("O limite deve ser maior que zero.");
+        }
+        int tamanho = limite == null ? LIMITE_PADRAO : Math.min(limite, LIMITE_MAXIMO);
+
+        Set<Entrada> encontradas = new LinkedHashSet<>();
+        String codigo = normalizarCodigo(consulta);
+        if (!codigo.isEmpty()) {
+            encontradas.addAll(codigos.buscarPrefixo(codigo, tamanho));
+        }
+
+        String nome = normalizarNome(consulta);
+        int restantes = tamanho - encontradas.size();
+        if (restantes > 0 && nome.length() >= 2) {
+            // Mantém apenas os melhores candidatos, sem ordenar todos
+            PriorityQueue<Candidato> melhores = new PriorityQueue<>(restantes + 1, Candidato.ORDEM.reversed());
+            for (Entrada e : nomes.candidatos(nome)) {
+                int relevancia = relevancia(e.nomeNormalizado(), nome);
+                if (relevancia < 0 || encontradas.contains(e)) {
+                    continue;
+                }
+                melhores.add(new Candidato(e, relevancia));
+                if (melhores.size() > restantes) {
+                    melhores.poll();
+                }
+            }
+            List<Candidato> ordenados = new ArrayList<>(melhores);
+            ordenados.sort(Candidato.ORDEM);
+            ordenados.forEach(c -> encontradas.add(c.entrada()));
+        }
+
+        List<ResultadoBusca> resultado = new ArrayList<>(encontradas.size());
+        for (Entrada e : encontradas) {
+            resultado.add(new ResultadoBusca(e.tipo(), e.id(), e.codigo(), e.nome(), e.subestacaoId()));
+        }
+        return resultado;
+    }
+
+    /**
+     * Retorna a quantidade de entradas indexadas (subestações e redes MT).
+     *
+     * @return Quantidade de entradas.
+     */
+    public int size() {
+        return subestacoes.size() + redes.size();
+    }
+
+    /**
+     * Normaliza um nome para a busca: sem acentos, em minúsculas e com as palavras separadas por um espaço.
+     *
+     * @param texto Texto original (pode ser null).
+     * @return Texto normalizado (vazio se null).
+     */
+    static String normalizarNome(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String semAcentos = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARADORES.matcher(semAcentos.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    /**
+     * Normaliza um código para a busca: sem acentos, sem espaços e em maiúsculas.
+     *
+     * @param texto Código original (pode ser null).
+     * @return Código normalizado (vazio se null).
+     */
+    static String normalizarCodigo(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String semAcentos = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return ESPACOS.matcher(semAcentos).replaceAll("").toUpperCase(Locale.ROOT);
+    }
+
+    // 0 se o nome começa com a consulta, 1 se uma palavra começa com ela, 2 se a contém no meio de uma palavra
+    // e -1 se não a contém; consultas curtas só valem como início de palavra
+    private static int relevancia(String nome, String consulta) {
+        if (nome.startsWith(consulta)) {
+            return 0;
+        }
+        if (nome.contains(" " + consulta)) {
+            return 1;
+        }
+        return consulta.length() >= NGramIndex.N && nome.contains(consulta) ? 2 : -1;
+    }
+
+    // Indexa a entrada, substituindo a anterior da mesma entidade; retorna a anterior
+    private Entrada indexar(Map<Integer, Entrada> tabela, Entrada nova) {
+        Entrada anterior = tabela.put(nova.id(), nova);
+        if (nova.equals(anterior)) {
+            return anterior;
+        }
+
+        // A nova entrada é indexada antes da remoção da anterior, para que a entidade não desapareça das buscas
+        CodigoTrie<Entrada> trie = codigos;
+        if (anterior != null) {
+            trie = trie.remover(anterior.codigoNormalizado(), nova::mesmaEntidade);
+        }
+        codigos = trie.inserir(nova.codigoNormalizado(), nova, nova::mesmaEntidade);
+        nomes.adicionar(nova, nova.nomeNormalizado());
+        if (anterior != null) {
+            nomes.remover(anterior, anterior.nomeNormalizado());
+        }
+        return anterior;
+    }
+
+    private void desindexar(Entrada entrada) {
+        if (entrada != null) {
+            codigos = codigos.remover(entrada.codigoNormalizado(), entrada::mesmaEntidade);
+            nomes.remover(entrada, entrada.nomeNormalizado());
+        }
+    }
+
+    private void desassociar(Integer subestacaoId, Integer redeId) {
+        Set<Integer> ids = redesPorSubestacao.get(subestacaoId);
+        if (ids != null && ids.remove(redeId) && ids.isEmpty()) {
+            redesPorSubestacao.remove(subestacaoId);
+        }
+    }
+
+    /**
+     * Subestação ou rede MT indexada, com o código e o nome já normalizados.
+     */
+    record Entrada(ResultadoBusca.Tipo tipo, Integer id, String codigo, String nome, Integer subestacaoId,
+                   String codigoNormalizado, String nomeNormalizado) {
+
+        Entrada(ResultadoBusca.Tipo tipo, Integer id, String codigo, String nome, Integer subestacaoId) {
+            this(tipo, id, codigo, nome, subestacaoId, normalizarCodigo(codigo), normalizarNome(nome));
+        }
+
+        boolean mesmaEntidade(Entrada outra) {
+            return tipo == outra.tipo && id.equals(outra.id);
+        }
+    }
+
+    // Candidato da busca por nome, com a relevância calculada uma única vez
+    private record Candidato(Entrada entrada, int relevancia) {
+        static final Comparator<Candidato> ORDEM = Comparator.comparingInt(Candidato::relevancia)
+                .thenComparingInt(c -> c.entrada().nomeNormalizado().length())
+                .thenComparing(c -> c.entrada().nomeNormalizado())
+                .thenComparing(c -> c.entrada().tipo())
+                .thenComparing(c -> c.entrada().id());
+    }
+}
@@ -0,0 +1,316 @@
+package com.example.sinapsis.services;
+
+import com.example.sinapsis.dto.CursorPage;
+import com.example.sinapsis.dto.PaginaAlteracoes;
+import com.example.sinapsis.events.TopologiaAlteradaEvent;
+import com.example.sinapsis.model.AlteracaoTopologia;
+import com.example.sinapsis.model.SequenciaAlteracoes;
+import com.example.sinapsis.repositories.AlteracaoTopologiaRepository;
+import com.example.sinapsis.repositories.SequenciaAlteracoesRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serviço do registro de alterações da topologia (change feed), usado por sistemas externos para sincronizar
+ * apenas o que mudou, em vez de baixar a topologia inteira.
+ * Cada alteração de subestação ou rede MT é registrada na mesma transação que a fez, antes do commit; a sequência
+ * é atribuída com a linha de {@link SequenciaAlteracoes} bloqueada, então segue a ordem de confirmação.
+ * Uma tarefa periódica compacta o registro: remove as alterações substituídas por outra mais recente da mesma
+ * entidade e as anteriores ao período de retenção.
+ */
+@Service
+public class AlteracaoTopologiaService {
+    private static final Logger logger = LoggerFactory.getLogger(AlteracaoTopologiaService.class);
+
+    // Quantidade de sequências por comando DELETE na remoção das alterações substituídas
+    private static final int LOTE_REMOCAO = 1000;
+
+    private final AlteracaoTopologiaRepository alteracaoRepository;
+    private final SequenciaAlteracoesRepository sequenciaRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transaction;
+    private final Duration retencao;
+    private final Duration intervaloCompactacao;
+
+    private final ScheduledExecutorService compactador;
+
+    /**
+     * Construtor da classe AlteracaoTopologiaService.
+     *
+     * @param alteracaoRepository  Repositório das alterações.
+     * @param sequenciaRepository  Repositório do contador de sequências.
+     * @param entityManager        EntityManager usado para gravar as alterações.
+     * @param transactionManager   Gerenciador de transações, usado fora das transações dos serviços.
+     * @param retencao             Tempo durante o qual uma alteração permanece no registro.
+     * @param intervaloCompactacao Intervalo entre as execuções da compactação.
+     */
+    public AlteracaoTopologiaService(AlteracaoTopologiaRepository alteracaoRepository,
+                                     SequenciaAlteracoesRepository sequenciaRepository,
+                                     EntityManager entityManager,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${sinapsis.alteracoes.retencao:7d}") Duration retencao,
+                                     @Value("${sinapsis.alteracoes.intervalo-compactacao:1h}") Duration intervaloCompactacao) {
+        this.alteracaoRepository = alteracaoRepository;
+        this.sequenciaRepository = sequenciaRepository;
+        this.entityManager = entityManager;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.retencao = retencao;
+        this.intervaloCompactacao = intervaloCompactacao;
+        this.compactador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "compactacao-alteracoes");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Cria a linha do contador, se ainda não existir, e agenda a compactação periódica.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        try {
+            transaction.executeWithoutResult(status -> {
+                if (!sequenciaRepository.existsById(SequenciaAlteracoes.ID)) {
+                    sequenciaRepository.save(new SequenciaAlteracoes(SequenciaAlteracoes.ID));
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Outra instância da aplicação criou a linha ao mesmo tempo
+            logger.debug("Contador de alterações criado por outra instância: {}", e.getMessage());
+        }
+        compactador.scheduleWithFixedDelay(this::executarCompactacao, intervaloCompactacao.toMillis(),
+                intervaloCompactacao.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Interrompe a compactação periódica.
+     */
+    @PreDestroy
+    public void encerrar() {
+        compactador.shutdownNow();
+    }
+
+    /**
+     * Registra uma alteração da topologia. O listener é síncrono, então é executado na transação que publicou o evento.
+     *
+     * @param event Evento de alteração da topologia.
+     */
+    @EventListener
+    public void onTopologiaAlterada(TopologiaAlteradaEvent event) {
+        registrar(new AlteracaoTopologia(event.entidade(), event.operacao(), event.id(), event.subestacaoId()));
+    }
+
+    /**
+     * Registra uma alteração da topologia.
+     * Dentro de uma transação, a alteração é gravada antes do commit, junto com as demais registradas na mesma
+     * transação; fora de uma transação, é gravada imediatamente em uma transação própria.
+     *
+     * @param alteracao Alteração, ainda sem sequência.
+     */
+    public void registrar(AlteracaoTopologia alteracao) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            transaction.executeWithoutResult(status -> gravar(List.of(alteracao)));
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<AlteracaoTopologia> pendentes = (List<AlteracaoTopologia>) TransactionSynchronizationManager.getResource(this);
+        if (pendentes == null) {
+            List<AlteracaoTopologia> novas = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, novas);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    gravar(novas);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(AlteracaoTopologiaService.this);
+                }
+            });
+            pendentes = novas;
+        }
+        pendentes.add(alteracao);
+    }
+
+    /**
+     * Retorna as alterações confirmadas após o cursor informado.
+     * Sem cursor, retorna desde a alteração mais antiga ainda no registro. A resposta traz sempre um cursor,
+     * que deve ser enviado na consulta seguinte, mesmo que a página venha vazia.
+     *
+     * @param cursor Cursor retornado pela consulta anterior (opcional).
+     * @param limite Quantidade máxima de alterações (usa o padrão se null).
+     * @return Página de alterações, em ordem de sequência.
+     * @throws IllegalArgumentException Se o cursor ou o limite forem inválidos.
+     * @throws CursorExpiradoException  Se alterações posteriores ao cursor já tiverem sido removidas pela retenção.
+     */
+    @Transactional(readOnly = true)
+    public PaginaAlteracoes findAlteracoes(String cursor, Integer limite) {
+        int tamanho = CursorPage.normalizeLimit(limite);
+        long removidasAte = sequenciaRepository.findById(SequenciaAlteracoes.ID)
+                .map(SequenciaAlteracoes::getRemovidasAte)
+                .orElse(0L);
+
+        long desde = removidasAte;
+        if (cursor != null && !cursor.isBlank()) {
+            desde = decodeSequencia(cursor);
+            if (desde < removidasAte) {
+                throw new CursorExpiradoException("Cursor expirado: as alterações posteriores a ele já foram removidas. "
+                        + "Sincronize a topologia completa a partir de GET /changes/cursor.");
+            }
+        }
+
+        List<AlteracaoTopologia> resultado = alteracaoRepository.findBySequenciaGreaterThanOrderBySequenciaAsc(desde,
+                Limit.of(tamanho + 1));
+        boolean maisAlteracoes = resultado.size() > tamanho;
+        List<AlteracaoTopologia> itens = maisAlteracoes ? resultado.subList(0, tamanho) : resultado;
+        long ultima = itens.isEmpty() ? desde : itens.get(itens.size() - 1).getSequencia();
+        return new PaginaAlteracoes(itens, encodeSequencia(ultima), maisAlteracoes);
+    }
+
+    /**
+     * Retorna o cursor da última alteração registrada, sem alterações.
+     * Usado para iniciar a sincronização: o cliente obtém o cursor, baixa a topologia completa e passa a consultar
+     * as alterações a partir dele.
+     *
+     * @return Página vazia com o cursor atual.
+     */
+    @Transactional(readOnly = true)
+    public PaginaAlteracoes findCursorAtual() {
+        long ultima = sequenciaRepository.findById(SequenciaAlteracoes.ID)
+                .map(SequenciaAlteracoes::getUltima)
+                .orElse(0L);
+        return new PaginaAlteracoes(List.of(), encodeSequencia(ultima), false);
+    }
+
+    // Atribui as sequências com o contador bloqueado até o commit; deve ser executado dentro de uma transação
+    private void gravar(List<AlteracaoTopologia> alteracoes) {
+        // Grava antes as alterações pendentes da transação, para que, enquanto o contador estiver bloqueado,
+        // a transação não espere por bloqueios de outras linhas (o que poderia causar deadlocks)
+        entityManager.flush();
+        SequenciaAlteracoes sequencia = sequenciaRepository.findParaAtualizacao(SequenciaAlteracoes.ID)
+                .orElseGet(() -> {
+                    SequenciaAlteracoes nova = new SequenciaAlteracoes(SequenciaAlteracoes.ID);
+                    entityManager.persist(nova);
+                    return nova;
+                });
+
+        Instant agora = Instant.now();
+        long ultima = sequencia.getUltima();
+        for (AlteracaoTopologia alteracao : alteracoes) {
+            alteracao.setSequencia(++ultima);
+            alteracao.setData(agora);
+            entityManager.persist(alteracao);
+        }
+        sequencia.setUltima(ultima);
+    }
+
+    // Executado na thread de compactação
+    private void executarCompactacao() {
+        long inicio = System.nanoTime();
+        try {
+            Integer removidas = transaction.execute(status -> compactar(Instant.now().minus(retencao)));
+            logger.debug("Registro de alterações compactado em {} ms: {} alterações removidas",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio), removidas);
+        } catch (RuntimeException e) {
+            // A compactação é tentada novamente no próximo intervalo
+            logger.error("Falha ao compactar o registro de alterações: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Remove as alterações substituídas por outra mais recente da mesma entidade e as confirmadas antes do limite.
+     * Deve ser executado dentro de uma transação; exposto ao pacote para os testes.
+     *
+     * @param limite Data a partir da qual as alterações são mantidas.
+     * @return Quantidade de alterações removidas.
+     */
+    int compactar(Instant limite) {
+        int removidas = 0;
+
+        // Clientes com cursor anterior a uma alteração substituída ainda recebem a mais recente da entidade
+        List<Long> substituidas = alteracaoRepository.findSequenciasSubstituidas();
+        for (int i = 0; i < substituidas.size(); i += LOTE_REMOCAO) {
+            alteracaoRepository.deleteAllByIdInBatch(substituidas.subList(i, Math.min(substituidas.size(), i + LOTE_REMOCAO)));
+        }
+        removidas += substituidas.size();
+
+        // Clientes com cursor anterior às alterações removidas pela retenção precisam sincronizar a topologia completa
+        Long antigas = alteracaoRepository.findUltimaSequenciaAntes(limite);
+        if (antigas != null) {
+            removidas += alteracaoRepository.deleteAteSequencia(antigas);
+            sequenciaRepository.findParaAtualizacao(SequenciaAlteracoes.ID).ifPresent(sequencia -> {
+                if (antigas > sequencia.getRemovidasAte()) {
+                    sequencia.setRemovidasAte(antigas);
+                }
+            });
+        }
+        return removidas;
+    }
+
+    /**
+     * Codifica uma sequência do registro em um cursor opaco, usado por GET /changes e como ID dos eventos enviados.
+     *
+     * @param sequencia Sequência da alteração.
+     * @return Cursor correspondente.
+     */
+    public static String encodeSequencia(long sequencia) {
+        return CursorPage.encode(Long.toString(sequencia));
+    }
+
+    /**
+     * Decodifica um cursor do registro de alterações.
+     *
+     * @param cursor Cursor recebido do cliente.
+     * @return Sequência contida no cursor.
+     * @throws IllegalArgumentException Se o cursor for inválido.
+     */
+    public static long decodeSequencia(String cursor) {
+        try {
+            long sequencia = Long.parseLong(CursorPage.decode(cursor, 1)[0]);
+            if (sequencia < 0) {
+                throw new IllegalArgumentException("Cursor inválido: " + cursor);
+            }
+            return sequencia;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor, e);
+        }
+    }
+
+    /**
+     * Exceção lançada quando o cursor informado é anterior às alterações removidas pela retenção.
+     */
+    public static class CursorExpiradoException extends RuntimeException {
+
+        /**
+         * Construtor da exceção.
+         *
+         * @param mensagem Mensagem de erro.
+         */
+        public CursorExpiradoException(String mensagem) {
+            super(mensagem);
+        }
+    }
+}
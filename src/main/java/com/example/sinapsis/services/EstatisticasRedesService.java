@@ -0,0 +1,208 @@
+package com.example.sinapsis.services;
+
+import com.example.sinapsis.dto.EstatisticasRedes;
+import com.example.sinapsis.dto.EstatisticasSubestacao;
+import com.example.sinapsis.dto.EstatisticasTensao;
+import com.example.sinapsis.model.ClasseTensao;
+import com.example.sinapsis.model.ResumoRedesSubestacao;
+import com.example.sinapsis.repositories.RedeMTRepository;
+import com.example.sinapsis.repositories.ResumoRedesSubestacaoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Serviço responsável pelas estatísticas das redes MT (quantidade por subestação e distribuição das tensões nominais).
+ * As estatísticas são lidas do resumo por subestação (TB_RESUMO_REDES_SUBESTACAO), então o custo dos relatórios
+ * cresce com a quantidade de subestações e não com a quantidade de redes.
+ * Os serviços de escrita registram as subestações cujas redes foram alteradas; o resumo de cada uma é recalculado
+ * uma única vez por transação, antes do commit, com uma consulta agregada restrita a essas subestações.
+ */
+@Service
+public class EstatisticasRedesService {
+    private static final Logger logger = LoggerFactory.getLogger(EstatisticasRedesService.class);
+
+    @Autowired
+    private RedeMTRepository redeMTRepository;
+
+    @Autowired
+    private ResumoRedesSubestacaoRepository resumoRepository;
+
+    /**
+     * Registra que as redes MT de uma subestação foram alteradas.
+     * Dentro de uma transação, o resumo é recalculado antes do commit, junto com o das demais subestações
+     * registradas na mesma transação; fora de uma transação, é recalculado imediatamente.
+     *
+     * @param subestacaoId ID da subestação (ignorado se null).
+     */
+    public void registrarAlteracao(Integer subestacaoId) {
+        if (subestacaoId == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            recalcular(Set.of(subestacaoId));
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        Set<Integer> pendentes = (Set<Integer>) TransactionSynchronizationManager.getResource(this);
+        if (pendentes == null) {
+            Set<Integer> novas = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, novas);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    recalcular(novas);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(EstatisticasRedesService.this);
+                }
+            });
+            pendentes = novas;
+        }
+        pendentes.add(subestacaoId);
+    }
+
+    /**
+     * Recalcula o resumo das subestações informadas a partir das redes MT atuais.
+     * O resumo de subestações sem redes (ou removidas) é excluído.
+     *
+     * @param subestacaoIds IDs das subestações.
+     */
+    @Transactional
+    public void recalcular(Collection<Integer> subestacaoIds) {
+        if (subestacaoIds.isEmpty()) {
+            return;
+        }
+        Map<Integer, EstatisticasRedes> estatisticas = redeMTRepository.findEstatisticasPorSubestacao(subestacaoIds).stream()
+                .collect(Collectors.toMap(EstatisticasRedes::getSubestacaoId, Function.identity()));
+        Map<Integer, ResumoRedesSubestacao> existentes = resumoRepository.findAllById(subestacaoIds).stream()
+                .collect(Collectors.toMap(ResumoRedesSubestacao::getSubestacaoId, Function.identity()));
+
+        for (Integer id : subestacaoIds) {
+            EstatisticasRedes atual = estatisticas.get(id);
+            ResumoRedesSubestacao resumo = existentes.get(id);
+            if (atual == null) {
+                if (resumo != null) {
+                    resumoRepository.delete(resumo);
+                }
+            } else {
+                resumo = resumo != null ? resumo : new ResumoRedesSubestacao(id);
+                copiar(atual, resumo);
+                resumoRepository.save(resumo);
+            }
+        }
+    }
+
+    /**
+     * Reconstrói o resumo a partir de todas as redes MT quando a aplicação inicia e o resumo ainda está vazio
+     * (por exemplo, no primeiro início após a criação da tabela).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void reconstruirSeVazio() {
+        if (resumoRepository.count() > 0) {
+            return;
+        }
+        List<EstatisticasRedes> estatisticas = redeMTRepository.findEstatisticasPorSubestacao();
+        for (EstatisticasRedes atual : estatisticas) {
+            ResumoRedesSubestacao resumo = new ResumoRedesSubestacao(atual.getSubestacaoId());
+            copiar(atual, resumo);
+            resumoRepository.save(resumo);
+        }
+        if (!estatisticas.isEmpty()) {
+            logger.info("Resumo das redes MT reconstruído para {} subestações", estatisticas.size());
+        }
+    }
+
+    /**
+     * Retorna a quantidade de redes MT e as tensões mínima, máxima e média de cada subestação.
+     *
+     * @return Estatísticas de cada subestação, ordenadas pelo ID da subestação.
+     */
+    @Transactional(readOnly = true)
+    public List<EstatisticasSubestacao> findEstatisticasSubestacoes() {
+        return resumoRepository.findEstatisticasSubestacoes();
+    }
+
+    /**
+     * Retorna as tensões mínima, máxima e média de todas as redes MT e o histograma por classe de tensão,
+     * somando o resumo de cada subestação.
+     *
+     * @return Estatísticas de tensão.
+     */
+    @Transactional(readOnly = true)
+    public EstatisticasTensao findEstatisticasTensao() {
+        long quantidadeRedes = 0;
+        long quantidadeComTensao = 0;
+        BigDecimal soma = null;
+        BigDecimal minima = null;
+        BigDecimal maxima = null;
+        Map<ClasseTensao, Long> histograma = new EnumMap<>(ClasseTensao.class);
+        for (ClasseTensao classe : ClasseTensao.values()) {
+            histograma.put(classe, 0L);
+        }
+
+        for (ResumoRedesSubestacao resumo : resumoRepository.findAll()) {
+            quantidadeRedes += resumo.getQuantidadeRedes();
+            quantidadeComTensao += resumo.getQuantidadeComTensao();
+            soma = somar(soma, resumo.getSomaTensao());
+            minima = menor(minima, resumo.getTensaoMinima());
+            maxima = maior(maxima, resumo.getTensaoMaxima());
+            histograma.merge(ClasseTensao.CLASSE_15KV, resumo.getQuantidadeClasse15kV(), Long::sum);
+            histograma.merge(ClasseTensao.CLASSE_24_2KV, resumo.getQuantidadeClasse24kV(), Long::sum);
+            histograma.merge(ClasseTensao.CLASSE_36_2KV, resumo.getQuantidadeClasse36kV(), Long::sum);
+            histograma.merge(ClasseTensao.ACIMA_36_2KV, resumo.getQuantidadeAcima36kV(), Long::sum);
+        }
+
+        return new EstatisticasTensao(quantidadeRedes, quantidadeRedes - quantidadeComTensao, minima, maxima,
+                EstatisticasSubestacao.media(soma, quantidadeComTensao), histograma);
+    }
+
+    private static void copiar(EstatisticasRedes origem, ResumoRedesSubestacao destino) {
+        destino.setQuantidadeRedes(valor(origem.getQuantidadeRedes()));
+        destino.setQuantidadeComTensao(valor(origem.getQuantidadeComTensao()));
+        destino.setSomaTensao(origem.getSomaTensao());
+        destino.setTensaoMinima(origem.getTensaoMinima());
+        destino.setTensaoMaxima(origem.getTensaoMaxima());
+        destino.setQuantidadeClasse15kV(valor(origem.getQuantidadeClasse15kV()));
+        destino.setQuantidadeClasse24kV(valor(origem.getQuantidadeClasse24kV()));
+        destino.setQuantidadeClasse36kV(valor(origem.getQuantidadeClasse36kV()));
+        destino.setQuantidadeAcima36kV(valor(origem.getQuantidadeAcima36kV()));
+    }
+
+    private static long valor(Long valor) {
+        return valor == null ? 0 : valor;
+    }
+
+    // Operações que ignoram valores null (subestações cujas redes não têm tensão informada)
+    private static BigDecimal somar(BigDecimal a, BigDecimal b) {
+        return a == null ? b : b == null ? a : a.add(b);
+    }
+
+    private static BigDecimal menor(BigDecimal a, BigDecimal b) {
+        return a == null ? b : b == null ? a : a.min(b);
+    }
+
+    private static BigDecimal maior(BigDecimal a, BigDecimal b) {
+        return a == null ? b : b == null ? a : a.max(b);
+    }
+}
@@ -0,0 +1,416 @@
+package com.example.sinapsis.services;
+
+import com.example.sinapsis.cache.TopologiaCache;
+import com.example.sinapsis.dto.ResultadoImportacao;
+import com.example.sinapsis.dto.SituacaoIngestao;
+import com.example.sinapsis.events.TopologiaAlteradaEvent;
+import com.example.sinapsis.model.RedeMT;
+import com.example.sinapsis.model.Subestacao;
+import com.example.sinapsis.repositories.RedeMTRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Collectors;
+
+/**
+ * Serviço de ingestão assíncrona (write-behind) de redes MT.
+ * As redes recebidas são validadas e colocadas em uma fila limitada; uma thread de gravação agrupa os itens
+ * da fila em lotes, gravados em uma única transação quando o lote atinge o tamanho máximo ou quando o
+ * intervalo máximo de espera termina. Assim, milhares de cadastros individuais custam poucos commits e
+ * consultas de duplicidade, em vez de um commit e uma consulta por rede.
+ * Quando a fila está cheia, novas requisições aguardam um tempo limitado por vaga e depois são recusadas
+ * (backpressure). O resultado de cada rede pode ser consultado pelo ticket devolvido no envio.
+ */
+@Service
+public class RedeMTIngestaoService implements MeterBinder {
+    private static final Logger logger = LoggerFactory.getLogger(RedeMTIngestaoService.class);
+
+    private final RedeMTRepository redeMTRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transaction;
+    private final TopologiaCache topologiaCache;
+    private final EstatisticasRedesService estatisticasRedesService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Validator validator;
+
+    private final int capacidade;
+    private final int tamanhoLote;
+    private final Duration intervalo;
+    private final Duration espera;
+
+    // A fila em si não tem limite; as vagas controlam a capacidade para que um envio entre inteiro ou seja recusado
+    private final BlockingQueue<Pendente> fila = new LinkedBlockingQueue<>();
+    private final Semaphore vagas;
+
+    // Situação dos lotes enviados, mantida por um tempo após o envio para consulta
+    private final Cache<String, Ingestao> ingestoes;
+
+    private volatile boolean ativo;
+    private Thread gravador;
+
+    /**
+     * Construtor da classe RedeMTIngestaoService.
+     *
+     * @param redeMTRepository   Repositório de redes MT.
+     * @param entityManager      EntityManager usado para gravar os lotes.
+     * @param transactionManager Gerenciador de transações, uma transação por lote.
+     * @param topologiaCache     Cache da topologia, invalidado para as redes e subestações gravadas.
+     * @param estatisticasRedes  Serviço de estatísticas, cujo resumo é atualizado para as subestações afetadas.
+     * @param eventPublisher     Publicador dos eventos de alteração da topologia.
+     * @param validator          Validador das restrições da entidade RedeMT.
+     * @param capacidade         Quantidade máxima de redes MT aguardando gravação.
+     * @param tamanhoLote        Quantidade máxima de redes MT gravadas por transação.
+     * @param intervalo          Tempo máximo que uma rede MT espera pela formação do lote.
+     * @param espera             Tempo máximo que um envio aguarda por vagas na fila antes de ser recusado.
+     * @param retencao           Tempo durante o qual a situação de um lote pode ser consultada.
+     */
+    public RedeMTIngestaoService(RedeMTRepository redeMTRepository,
+                                 EntityManager entityManager,
+                                 PlatformTransactionManager transactionManager,
+                                 TopologiaCache topologiaCache,
+                                 EstatisticasRedesService estatisticasRedes,
+                                 ApplicationEventPublisher eventPublisher,
+                                 Validator validator,
+                                 @Value("${sinapsis.ingestao.capacidade:50000}") int capacidade,
+                                 @Value("${sinapsis.ingestao.tamanho-lote:500}") int tamanhoLote,
+                                 @Value("${sinapsis.ingestao.intervalo:200ms}") Duration intervalo,
+                                 @Value("${sinapsis.ingestao.espera:1s}") Duration espera,
+                                 @Value("${sinapsis.ingestao.retencao:1h}") Duration retencao) {
+        this.redeMTRepository = redeMTRepository;
+        this.entityManager = entityManager;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.topologiaCache = topologiaCache;
+        this.estatisticasRedesService = estatisticasRedes;
+        this.eventPublisher = eventPublisher;
+        this.validator = validator;
+        this.capacidade = capacidade;
+        this.tamanhoLote = tamanhoLote;
+        this.intervalo = intervalo;
+        this.espera = espera;
+        this.vagas = new Semaphore(capacidade);
+        this.ingestoes = Caffeine.newBuilder()
+                .maximumSize(10000)
+                .expireAfterWrite(retencao)
+                .build();
+    }
+
+    /**
+     * Inicia a thread de gravação.
+     */
+    @PostConstruct
+    public void iniciar() {
+        ativo = true;
+        gravador = new Thread(this::executar, "redemt-ingestao");
+        gravador.setDaemon(true);
+        gravador.start();
+    }
+
+    /**
+     * Para de aceitar a formação de novos lotes e aguarda a gravação dos itens que já estão na fila.
+     *
+     * @throws InterruptedException Se a espera for interrompida.
+     */
+    @PreDestroy
+    public void encerrar() throws InterruptedException {
+        ativo = false;
+        if (gravador != null) {
+            gravador.join(TimeUnit.SECONDS.toMillis(30));
+        }
+    }
+
+    /**
+     * Publica a quantidade de redes MT aguardando gravação.
+     *
+     * @param registry Registro de métricas.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("sinapsis.ingestao.fila", fila, BlockingQueue::size)
+                .description("Redes MT aguardando gravação pela ingestão assíncrona")
+                .register(registry);
+    }
+
+    /**
+     * Valida as redes MT recebidas e coloca as válidas na fila de gravação.
+     * Redes inválidas são rejeitadas imediatamente; as demais ficam pendentes até a gravação do lote.
+     *
+     * @param redes Redes MT a serem cadastradas.
+     * @return Situação inicial do lote, com o ticket para consulta.
+     * @throws IllegalArgumentException Se o lote for vazio ou exceder a capacidade da fila.
+     * @throws IllegalStateException    Se a fila continuar cheia após o tempo de espera.
+     */
+    public SituacaoIngestao enfileirar(List<RedeMT> redes) {
+        if (redes == null || redes.isEmpty()) {
+            throw new IllegalArgumentException("O lote deve ter ao menos uma rede MT.");
+        }
+        if (redes.size() > capacidade) {
+            throw new IllegalArgumentException("O lote deve ter no máximo " + capacidade + " redes MT.");
+        }
+
+        Ingestao ingestao = new Ingestao(UUID.randomUUID().toString(), redes.size());
+        List<Pendente> validos = new ArrayList<>();
+        for (int i = 0; i < redes.size(); i++) {
+            RedeMT rede = redes.get(i);
+            String erro = validar(rede);
+            if (erro != null) {
+                ingestao.registrar(ResultadoImportacao.rejeitada(i, rede == null ? null : rede.getCodigo(), erro));
+            } else {
+                ingestao.registrar(ResultadoImportacao.pendente(i, rede.getCodigo()));
+                Pendente pendente = new Pendente(ingestao, i, rede);
+                pendente.descartarIds(); // A ingestão apenas cria redes
+                validos.add(pendente);
+            }
+        }
+
+        // Reserva as vagas de todo o envio de uma vez, para que ele não seja aceito pela metade
+        try {
+            if (!vagas.tryAcquire(validos.size(), espera.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("Fila de ingestão cheia. Tente novamente em instantes.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Envio interrompido antes de entrar na fila de ingestão.");
+        }
+        ingestoes.put(ingestao.ticket, ingestao);
+        fila.addAll(validos);
+        return ingestao.situacao();
+    }
+
+    /**
+     * Consulta a situação de um lote enviado para ingestão.
+     *
+     * @param ticket Ticket devolvido no envio.
+     * @return Um Optional contendo a situação do lote, ou vazio se o ticket não existir ou já tiver expirado.
+     */
+    public Optional<SituacaoIngestao> situacao(String ticket) {
+        return Optional.ofNullable(ingestoes.getIfPresent(ticket)).map(Ingestao::situacao);
+    }
+
+    // Retorna o motivo da rejeição de uma rede, ou null se ela puder ser enfileirada
+    private String validar(RedeMT rede) {
+        if (rede == null) {
+            return "A rede MT é obrigatória.";
+        }
+        if (rede.getCodigo() == null || rede.getCodigo().isBlank()) {
+            return "O código da rede MT é obrigatório.";
+        }
+        if (rede.getSubestacao() == null || rede.getSubestacao().getId() == null) {
+            return "A rede deve estar vinculada a uma subestação antes de ser salva.";
+        }
+        Set<ConstraintViolation<RedeMT>> violacoes = validator.validate(rede);
+        if (!violacoes.isEmpty()) {
+            return violacoes.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("; "));
+        }
+        return null;
+    }
+
+    // Laço da thread de gravação: forma lotes por tamanho ou por tempo até o encerramento, esvaziando a fila antes de sair
+    private void executar() {
+        List<Pendente> lote = new ArrayList<>(tamanhoLote);
+        while (ativo || !fila.isEmpty()) {
+            try {
+                Pendente primeiro = fila.poll(intervalo.toMillis(), TimeUnit.MILLISECONDS);
+                if (primeiro == null) {
+                    continue;
+                }
+                lote.add(primeiro);
+
+                // Completa o lote com o que já está na fila e espera pelo restante até o fim do intervalo
+                long limite = System.nanoTime() + intervalo.toNanos();
+                while (lote.size() < tamanhoLote) {
+                    if (fila.drainTo(lote, tamanhoLote - lote.size()) > 0) {
+                        continue;
+                    }
+                    long restante = limite - System.nanoTime();
+                    Pendente proximo = restante > 0 ? fila.poll(restante, TimeUnit.NANOSECONDS) : null;
+                    if (proximo == null) {
+                        break;
+                    }
+                    lote.add(proximo);
+                }
+                vagas.release(lote.size());
+                processar(lote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Erro inesperado na ingestão de redes MT: {}", e.getMessage(), e);
+                for (Pendente pendente : lote) {
+                    pendente.rejeitar("Erro inesperado ao gravar a rede MT.");
+                }
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    /**
+     * Grava um lote de redes MT em uma única transação e registra o resultado de cada uma.
+     * Se a transação do lote falhar, cada rede é gravada individualmente para que o resultado de cada item seja preciso.
+     *
+     * @param lote Redes MT retiradas da fila.
+     */
+    void processar(List<Pendente> lote) {
+        List<ResultadoImportacao> resultados;
+        try {
+            resultados = transaction.execute(status -> gravar(lote));
+        } catch (RuntimeException e) {
+            logger.warn("Falha ao gravar lote de redes MT, gravando itens individualmente: {}", e.getMessage());
+            resultados = new ArrayList<>(lote.size());
+            for (Pendente pendente : lote) {
+                resultados.add(gravarIndividualmente(pendente));
+            }
+        }
+        for (int i = 0; i < lote.size(); i++) {
+            lote.get(i).ingestao.registrar(resultados.get(i));
+        }
+    }
+
+    // Grava uma única rede em sua própria transação, para identificar exatamente quais itens de um lote falham
+    private ResultadoImportacao gravarIndividualmente(Pendente pendente) {
+        pendente.descartarIds();
+        try {
+            return transaction.execute(status -> gravar(List.of(pendente))).get(0);
+        } catch (RuntimeException e) {
+            pendente.descartarIds();
+            return ResultadoImportacao.rejeitada(pendente.indice, pendente.rede.getCodigo(),
+                    NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+        }
+    }
+
+    // Persiste um lote de redes e faz o flush em lote; deve ser executado dentro de uma transação
+    private List<ResultadoImportacao> gravar(List<Pendente> lote) {
+        // Verifica com uma única consulta quais códigos já estão cadastrados (o código da rede é único)
+        Set<String> codigos = lote.stream().map(p -> p.rede.getCodigo()).collect(Collectors.toSet());
+        Set<String> existentes = redeMTRepository.findByCodigoIn(codigos).stream()
+                .map(RedeMT::getCodigo)
+                .collect(Collectors.toSet());
+
+        List<ResultadoImportacao> resultados = new ArrayList<>(lote.size());
+        List<RedeMT> gravadas = new ArrayList<>();
+        Map<Integer, Subestacao> subestacoes = new HashMap<>();
+        Set<String> vistos = new HashSet<>();
+        for (Pendente pendente : lote) {
+            RedeMT rede = pendente.rede;
+            if (existentes.contains(rede.getCodigo()) || !vistos.add(rede.getCodigo())) {
+                resultados.add(ResultadoImportacao.rejeitada(pendente.indice, rede.getCodigo(),
+                        "Rede já cadastrada com esse código: " + rede.getCodigo()));
+                continue;
+            }
+
+            // Cada subestação é carregada uma vez por lote
+            Subestacao subestacao = subestacoes.computeIfAbsent(rede.getSubestacao().getId(),
+                    id -> entityManager.find(Subestacao.class, id));
+            if (subestacao == null) {
+                resultados.add(ResultadoImportacao.rejeitada(pendente.indice, rede.getCodigo(),
+                        "Subestação não encontrada: " + rede.getSubestacao().getId()));
+                continue;
+            }
+
+            rede.setSubestacao(subestacao);
+            entityManager.persist(rede);
+            gravadas.add(rede);
+            resultados.add(ResultadoImportacao.criada(pendente.indice, rede.getCodigo(), rede.getId()));
+        }
+
+        entityManager.flush();
+        for (RedeMT rede : gravadas) {
+            topologiaCache.invalidarRede(rede.getId(), rede.getCodigo());
+            eventPublisher.publishEvent(TopologiaAlteradaEvent.redeSalva(TopologiaAlteradaEvent.Operacao.CRIACAO, rede));
+        }
+        for (Integer subestacaoId : subestacoes.keySet()) {
+            topologiaCache.invalidarSubestacao(subestacaoId);
+            estatisticasRedesService.registrarAlteracao(subestacaoId);
+        }
+
+        // A thread de gravação não tem contexto de persistência próprio, então ele é fechado junto com a transação
+        return resultados;
+    }
+
+    /**
+     * Rede MT aguardando gravação, com a posição no lote em que foi enviada.
+     */
+    static final class Pendente {
+        final Ingestao ingestao;
+        final int indice;
+        final RedeMT rede;
+
+        Pendente(Ingestao ingestao, int indice, RedeMT rede) {
+            this.ingestao = ingestao;
+            this.indice = indice;
+            this.rede = rede;
+        }
+
+        void rejeitar(String mensagem) {
+            ingestao.registrar(ResultadoImportacao.rejeitada(indice, rede.getCodigo(), mensagem));
+        }
+
+        // Remove o ID e a versão atribuídos por uma tentativa que sofreu rollback, para que a rede possa ser gravada novamente
+        void descartarIds() {
+            rede.setId(null);
+            rede.setVersao(null);
+        }
+    }
+
+    /**
+     * Situação de um lote enviado, atualizada pela thread de gravação.
+     */
+    static final class Ingestao {
+        final String ticket;
+        private final AtomicReferenceArray<ResultadoImportacao> itens;
+        private final AtomicInteger pendentes;
+
+        Ingestao(String ticket, int total) {
+            this.ticket = ticket;
+            this.itens = new AtomicReferenceArray<>(total);
+            this.pendentes = new AtomicInteger(total);
+        }
+
+        void registrar(ResultadoImportacao resultado) {
+            ResultadoImportacao anterior = itens.getAndSet(resultado.indice(), resultado);
+            boolean estavaPendente = anterior == null || anterior.status() == ResultadoImportacao.Status.PENDENTE;
+            if (estavaPendente && resultado.status() != ResultadoImportacao.Status.PENDENTE) {
+                pendentes.decrementAndGet();
+            }
+        }
+
+        SituacaoIngestao situacao() {
+            List<ResultadoImportacao> lista = new ArrayList<>(itens.length());
+            for (int i = 0; i < itens.length(); i++) {
+                lista.add(itens.get(i));
+            }
+            return new SituacaoIngestao(ticket, itens.length(), pendentes.get(), lista);
+        }
+    }
+}
@@ -1,11 +1,27 @@
 package com.example.sinapsis.services;
 
+import com.example.sinapsis.cache.TopologiaCache;
+import com.example.sinapsis.dto.CursorPage;
+import com.example.sinapsis.dto.RedeMTTensao;
+import com.example.sinapsis.events.TopologiaAlteradaEvent;
 import com.example.sinapsis.model.RedeMT;
+import com.example.sinapsis.model.Subestacao;
 import com.example.sinapsis.repositories.RedeMTRepository;
-import jakarta.transaction.Transactional;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,30 +31,128 @@ import java.util.Optional;
  */
 @Service
 public class RedeMTService {
+    // Maior tensão nominal representável na coluna TENSAO_NOMINAL (precisão 5, escala 2)
+    private static final BigDecimal TENSAO_MAXIMA = new BigDecimal("999.99");
+
     @Autowired
     private RedeMTRepository redeMTRepository;
 
+    @Autowired
+    private TopologiaCache topologiaCache;
+
+    @Autowired
+    private EstatisticasRedesService estatisticasRedesService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     /**
      * Retorna todas as redes MT cadastradas.
      *
      * @return Lista de redes MT.
      */
+    @Transactional(readOnly = true)
     public List<RedeMT> findAll() {
         return redeMTRepository.findAll();
     }
 
+    /**
+     * Retorna uma página de redes MT usando paginação por cursor.
+     * Busca um registro a mais que o limite para saber se existe uma próxima página.
+     *
+     * @param cursor Cursor opaco retornado pela página anterior, ou null para a primeira página.
+     * @param limite Quantidade máxima de redes MT na página (usa o padrão se null).
+     * @return Página de redes MT com o cursor da próxima página.
+     * @throws IllegalArgumentException Se o cursor ou o limite forem inválidos.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<RedeMT> findPage(String cursor, Integer limite) {
+        int tamanho = CursorPage.normalizeLimit(limite);
+        List<RedeMT> resultado = redeMTRepository.findByIdGreaterThanOrderByIdAsc(
+                CursorPage.decodeId(cursor), Limit.of(tamanho + 1));
+        return CursorPage.of(resultado, tamanho, r -> new String[]{String.valueOf(r.getId())});
+    }
+
+    /**
+     * Busca as redes MT com tensão nominal dentro de uma faixa, opcionalmente de uma única subestação,
+     * usando paginação por cursor na ordem do índice de tensão.
+     * Redes sem tensão nominal informada não fazem parte de nenhuma faixa.
+     *
+     * @param tensaoMin    Tensão nominal mínima, inclusiva (sem limite se null).
+     * @param tensaoMax    Tensão nominal máxima, inclusiva (sem limite se null).
+     * @param subestacaoId ID da subestação (todas se null).
+     * @param cursor       Cursor opaco retornado pela página anterior, ou null para a primeira página.
+     * @param limite       Quantidade máxima de redes MT na página (usa o padrão se null).
+     * @return Página de redes MT com o cursor da próxima página.
+     * @throws IllegalArgumentException Se a faixa, o cursor ou o limite forem inválidos.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<RedeMTTensao> findByFaixaDeTensao(BigDecimal tensaoMin, BigDecimal tensaoMax, Integer subestacaoId,
+                                                        String cursor, Integer limite) {
+        int tamanho = CursorPage.normalizeLimit(limite);
+        BigDecimal min = tensaoMin != null ? tensaoMin : BigDecimal.ZERO;
+        BigDecimal max = tensaoMax != null ? tensaoMax : TENSAO_MAXIMA;
+        if (min.compareTo(max) > 0) {
+            throw new IllegalArgumentException("A tensão mínima deve ser menor ou igual à tensão máxima.");
+        }
+
+        // Posição após a qual a página começa: a última rede da página anterior ou, na primeira página,
+        // uma posição anterior a todas as redes da faixa (IDs e códigos vazios nunca ocorrem)
+        BigDecimal tensao = min;
+        int subestacao = 0;
+        String codigo = "";
+        if (cursor != null && !cursor.isBlank()) {
+            String[] partes = CursorPage.decode(cursor, 3);
+            try {
+                tensao = new BigDecimal(partes[0]);
+                subestacao = Integer.parseInt(partes[1]);
+                codigo = URLDecoder.decode(partes[2], StandardCharsets.UTF_8);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Cursor inválido: " + cursor, e);
+            }
+        }
+
+        List<RedeMTTensao> resultado = subestacaoId == null
+                ? redeMTRepository.findByFaixaDeTensao(min, max, tensao, subestacao, codigo, Limit.of(tamanho + 1))
+                : redeMTRepository.findByFaixaDeTensaoAndSubestacao(subestacaoId, min, max, tensao, codigo, Limit.of(tamanho + 1));
+        // O código é codificado para que não se confunda com o separador do cursor
+        return CursorPage.of(resultado, tamanho, r -> new String[]{r.getTensaoNominal().toPlainString(),
+                String.valueOf(r.getSubestacaoId()), URLEncoder.encode(r.getCodigo(), StandardCharsets.UTF_8)});
+    }
+
     /**
      * Busca uma rede MT pelo ID.
+     * A consulta passa pelo cache da topologia, que é invalidado pelas operações de escrita.
+     * Não usa transação somente leitura: a carga é feita na primária por uma consulta declarada (findById herda a
+     * transação somente leitura de SimpleJpaRepository), pois uma réplica atrasada colocaria no cache um estado
+     * anterior a uma escrita já confirmada, mantido até o fim do tempo de vida da entrada.
      *
      * @param id ID da rede MT a ser buscada.
      * @return Rede MT encontrada.
      * @throws RuntimeException Se a rede MT não for encontrada.
      */
     public RedeMT findById(Integer id) {
-        return redeMTRepository.findById(id)
+        return topologiaCache.getRede(id, redeMTRepository::findPrimariaById)
                 .orElseThrow(() -> new RuntimeException("RedeMT not found"));
     }
 
+    /**
+     * Busca apenas a versão de uma rede MT, usada como ETag.
+     * Lida na primária (sem transação somente leitura), para que o cliente veja a nova ETag logo após a própria escrita.
+     *
+     * @param id ID da rede MT.
+     * @return Um Optional contendo a versão, ou vazio se a rede MT não for encontrada.
+     */
+    public Optional<Long> findVersao(Integer id) {
+        return redeMTRepository.findVersaoById(id);
+    }
+
     /**
      * Salva uma nova rede MT no banco de dados.
      * Verifica se já existe uma rede com o mesmo código na mesma subestação.
@@ -66,12 +180,16 @@ public class RedeMTService {
             throw new RuntimeException("Rede já cadastrada com esse código para esta subestação: " + redeMT.getCodigo());
         }
 
+        RedeMT resultado = redeMTRepository.save(redeMT);
+        invalidar(resultado);
 
-        return redeMTRepository.save(redeMT);
+        eventPublisher.publishEvent(TopologiaAlteradaEvent.redeSalva(TopologiaAlteradaEvent.Operacao.CRIACAO, resultado));
+        return resultado;
     }
 
     /**
      * Atualiza uma rede MT existente no banco de dados.
+     * Invalida no cache tanto o estado anterior (código e subestação antigos) quanto o novo.
      *
      * @param id     ID da rede MT a ser atualizada.
      * @param redeMT Dados atualizados da rede MT.
@@ -80,12 +198,82 @@ public class RedeMTService {
      */
     @Transactional
     public RedeMT update(Integer id, RedeMT redeMT) {
-        if (!redeMTRepository.existsById(id)) {
-            throw new RuntimeException("RedeMT not found");
-        }
+        RedeMT anterior = redeMTRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("RedeMT not found"));
+        invalidar(anterior);
 
         redeMT.setId(id);
-        return redeMTRepository.save(redeMT);
+        if (redeMT.getVersao() == null) {
+            // Sem versão informada, a atualização parte da versão atual
+            redeMT.setVersao(anterior.getVersao());
+        }
+        RedeMT resultado = redeMTRepository.save(redeMT);
+        invalidar(resultado);
+
+        eventPublisher.publishEvent(TopologiaAlteradaEvent.redeSalva(TopologiaAlteradaEvent.Operacao.ATUALIZACAO, resultado));
+        return resultado;
+    }
+
+    /**
+     * Atualiza parcialmente uma rede MT, com a semântica de JSON Merge Patch (RFC 7396).
+     * Apenas os campos presentes no patch são alterados (um campo com valor null é apagado) e apenas as colunas
+     * alteradas são gravadas. A rede pode ser reassociada a outra subestação com {@code "subestacao": {"id": ...}}.
+     * A versão esperada pode ser informada pelo chamador (If-Match) ou no campo "versao" do patch;
+     * se não corresponder à versão atual, a atualização é rejeitada.
+     *
+     * @param id             ID da rede MT a ser atualizada.
+     * @param patch          Documento JSON Merge Patch com os campos a serem alterados.
+     * @param versaoEsperada Versão que o cliente leu (opcional).
+     * @return Rede MT atualizada.
+     * @throws IllegalArgumentException                  Se a rede MT não for encontrada ou o patch for inválido.
+     * @throws ObjectOptimisticLockingFailureException Se a rede MT foi alterada desde a versão esperada.
+     */
+    @Transactional
+    public RedeMT patch(Integer id, JsonNode patch, Long versaoEsperada) {
+        if (patch == null || !patch.isObject()) {
+            throw new IllegalArgumentException("O patch deve ser um objeto JSON.");
+        }
+        RedeMT redeMT = redeMTRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("RedeMT não encontrada: " + id));
+
+        // Verifica se a rede não foi alterada desde a versão lida pelo cliente
+        Long versao = versaoEsperada != null ? versaoEsperada : valor(patch, "versao", Long.class);
+        if (versao != null && !versao.equals(redeMT.getVersao())) {
+            throw new ObjectOptimisticLockingFailureException(RedeMT.class, id);
+        }
+
+        // Invalida o estado anterior (código e subestação antigos)
+        invalidar(redeMT);
+
+        if (patch.has("codigo")) {
+            redeMT.setCodigo(valor(patch, "codigo", String.class));
+        }
+        if (patch.has("nome")) {
+            redeMT.setNome(valor(patch, "nome", String.class));
+        }
+        if (patch.has("tensaoNominal")) {
+            redeMT.setTensaoNominal(valor(patch, "tensaoNominal", BigDecimal.class));
+        }
+        if (patch.has("subestacao")) {
+            Integer subestacaoId = valor(patch.get("subestacao"), "id", Integer.class);
+            if (subestacaoId == null) {
+                throw new IllegalArgumentException("A rede deve estar vinculada a uma subestação.");
+            }
+            redeMT.setSubestacao(entityManager.getReference(Subestacao.class, subestacaoId));
+        }
+
+        // Grava imediatamente para que um conflito de versão com outra transação seja detectado aqui
+        RedeMT resultado = redeMTRepository.saveAndFlush(redeMT);
+        invalidar(resultado);
+
+        eventPublisher.publishEvent(TopologiaAlteradaEvent.redeSalva(TopologiaAlteradaEvent.Operacao.ATUALIZACAO, resultado));
+        return resultado;
+    }
+
+    // Converte o campo do patch para o tipo informado (null se o valor for null); falhas viram IllegalArgumentException
+    private <T> T valor(JsonNode patch, String campo, Class<T> tipo) {
+        JsonNode node = patch == null ? null : patch.get(campo);
+        return node == null || node.isNull() ? null : objectMapper.convertValue(node, tipo);
     }
 
     /**
@@ -93,7 +281,23 @@ public class RedeMTService {
      *
      * @param id ID da rede MT a ser excluída.
      */
+    @Transactional
     public void deleteById(Integer id) {
+        redeMTRepository.findById(id).ifPresent(redeMT -> {
+            invalidar(redeMT);
+            eventPublisher.publishEvent(TopologiaAlteradaEvent.redeRemovida(id,
+                    redeMT.getSubestacao() != null ? redeMT.getSubestacao().getId() : null));
+        });
         redeMTRepository.deleteById(id);
     }
+
+    // Invalida a rede MT (pelo ID e pelo código) e a subestação que a contém, cujo resumo de redes é recalculado.
+    // A linha da subestação não é alterada: o ETag da subestação já inclui a versão de cada rede (VersaoSubestacao)
+    private void invalidar(RedeMT redeMT) {
+        topologiaCache.invalidarRede(redeMT.getId(), redeMT.getCodigo());
+        if (redeMT.getSubestacao() != null && redeMT.getSubestacao().getId() != null) {
+            topologiaCache.invalidarSubestacao(redeMT.getSubestacao().getId());
+            estatisticasRedesService.registrarAlteracao(redeMT.getSubestacao().getId());
+        }
+    }
 }
@@ -0,0 +1,201 @@
+package com.example.sinapsis.services;
+
+import com.example.sinapsis.cache.TopologiaCache;
+import com.example.sinapsis.dto.ResultadoImportacao;
+import com.example.sinapsis.events.TopologiaAlteradaEvent;
+import com.example.sinapsis.model.RedeMT;
+import com.example.sinapsis.model.Subestacao;
+import com.example.sinapsis.repositories.RedeMTRepository;
+import com.example.sinapsis.repositories.SubestacaoRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Serviço responsável pela importação de subestações em lote.
+ * Verifica duplicidades de todo o lote com uma única consulta e grava as subestações em blocos de tamanho fixo,
+ * cada bloco em uma transação, aproveitando os IDs gerados por sequência e o JDBC batching do Hibernate.
+ * Se um bloco falhar, seus itens são gravados individualmente para que o resultado de cada item seja preciso.
+ */
+@Service
+public class SubestacaoImportService {
+    private static final Logger logger = LoggerFactory.getLogger(SubestacaoImportService.class);
+
+    // Quantidade de subestações gravadas por transação, alinhada com hibernate.jdbc.batch_size
+    static final int TAMANHO_LOTE = 50;
+
+    // Quantidade máxima de subestações aceitas em uma única importação
+    public static final int MAX_ITENS = 10000;
+
+    @Autowired
+    private SubestacaoRepository subestacaoRepository;
+
+    @Autowired
+    private RedeMTRepository redeMTRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TopologiaCache topologiaCache;
+
+    @Autowired
+    private EstatisticasRedesService estatisticasRedesService;
+
+    /**
+     * Importa um lote de subestações com suas redes MT.
+     * Redes MT que já existem (pelo código) são reassociadas à nova subestação, como no cadastro individual.
+     *
+     * @param subestacoes Subestações a serem importadas.
+     * @return Resultado de cada item, na mesma ordem do lote recebido.
+     * @throws IllegalArgumentException Se o lote exceder a quantidade máxima de itens.
+     */
+    public List<ResultadoImportacao> importar(List<Subestacao> subestacoes) {
+        if (subestacoes.size() > MAX_ITENS) {
+            throw new IllegalArgumentException("O lote deve ter no máximo " + MAX_ITENS + " subestações.");
+        }
+        ResultadoImportacao[] resultados = new ResultadoImportacao[subestacoes.size()];
+
+        // Verifica com uma única consulta quais códigos já estão cadastrados
+        Set<String> codigos = subestacoes.stream()
+                .filter(Objects::nonNull)
+                .map(Subestacao::getCodigo)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<String> existentes = codigos.isEmpty() ? Collections.emptySet() : subestacaoRepository.findCodigosExistentes(codigos);
+
+        List<Integer> validos = new ArrayList<>();
+        Set<String> vistos = new HashSet<>();
+        for (int i = 0; i < subestacoes.size(); i++) {
+            Subestacao subestacao = subestacoes.get(i);
+            String codigo = subestacao == null ? null : subestacao.getCodigo();
+
+            if (codigo == null || codigo.isBlank()) {
+                resultados[i] = ResultadoImportacao.rejeitada(i, codigo, "O código da subestação é obrigatório.");
+            } else if (existentes.contains(codigo)) {
+                resultados[i] = ResultadoImportacao.rejeitada(i, codigo, "Subestação já cadastrada: " + codigo);
+            } else if (!vistos.add(codigo)) {
+                resultados[i] = ResultadoImportacao.rejeitada(i, codigo, "Código repetido no lote: " + codigo);
+            } else {
+                validos.add(i);
+            }
+        }
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (int inicio = 0; inicio < validos.size(); inicio += TAMANHO_LOTE) {
+            List<Integer> lote = validos.subList(inicio, Math.min(inicio + TAMANHO_LOTE, validos.size()));
+            try {
+                transaction.executeWithoutResult(status -> gravar(subestacoes, lote));
+                liberar();
+                for (Integer i : lote) {
+                    resultados[i] = ResultadoImportacao.criada(i, subestacoes.get(i).getCodigo(), subestacoes.get(i).getId());
+                }
+            } catch (RuntimeException e) {
+                liberar();
+                logger.warn("Falha ao gravar lote de subestações, gravando itens individualmente: {}", e.getMessage());
+                for (Integer i : lote) {
+                    resultados[i] = gravarIndividualmente(transaction, subestacoes, i);
+                }
+            }
+        }
+
+        return Arrays.asList(resultados);
+    }
+
+    // Grava um único item em sua própria transação, para identificar exatamente quais itens de um lote falham
+    private ResultadoImportacao gravarIndividualmente(TransactionTemplate transaction, List<Subestacao> subestacoes, int i) {
+        Subestacao subestacao = subestacoes.get(i);
+        descartarIds(subestacao);
+        try {
+            transaction.executeWithoutResult(status -> gravar(subestacoes, List.of(i)));
+            liberar();
+            return ResultadoImportacao.criada(i, subestacao.getCodigo(), subestacao.getId());
+        } catch (RuntimeException e) {
+            liberar();
+            descartarIds(subestacao);
+            return ResultadoImportacao.rejeitada(i, subestacao.getCodigo(), NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+        }
+    }
+
+    // Persiste um bloco de subestações e faz o flush em lote; deve ser executado dentro de uma transação
+    private void gravar(List<Subestacao> subestacoes, List<Integer> lote) {
+        List<Subestacao> itens = lote.stream().map(subestacoes::get).toList();
+
+        // Busca de uma vez as redes do bloco que já existem, para reassociá-las à nova subestação
+        Set<String> codigosRedes = itens.stream()
+                .flatMap(s -> redes(s).stream())
+                .map(RedeMT::getCodigo)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<String, RedeMT> redesExistentes = codigosRedes.isEmpty() ? Collections.emptyMap()
+                : redeMTRepository.findByCodigoIn(codigosRedes).stream()
+                .collect(Collectors.toMap(RedeMT::getCodigo, Function.identity()));
+
+        for (Subestacao subestacao : itens) {
+            List<RedeMT> redes = new ArrayList<>();
+            for (RedeMT rede : redes(subestacao)) {
+                RedeMT redeAssociada = redesExistentes.getOrDefault(rede.getCodigo(), rede);
+
+                // Uma rede reassociada deixa de pertencer à subestação anterior, que também é invalidada no cache
+                topologiaCache.invalidarRede(redeAssociada.getId(), redeAssociada.getCodigo());
+                if (redeAssociada.getSubestacao() != null && redeAssociada.getSubestacao().getId() != null) {
+                    topologiaCache.invalidarSubestacao(redeAssociada.getSubestacao().getId());
+                    estatisticasRedesService.registrarAlteracao(redeAssociada.getSubestacao().getId());
+                }
+                redeAssociada.setSubestacao(subestacao);
+                redes.add(redeAssociada);
+            }
+            subestacao.setRedesMT(redes);
+            entityManager.persist(subestacao); // Persiste também as novas redes, por cascata
+            estatisticasRedesService.registrarAlteracao(subestacao.getId());
+        }
+
+        entityManager.flush();
+        for (Subestacao subestacao : itens) {
+            eventPublisher.publishEvent(TopologiaAlteradaEvent.subestacaoSalva(TopologiaAlteradaEvent.Operacao.CRIACAO, subestacao));
+        }
+    }
+
+    // Libera as entidades do bloco para que o contexto de persistência (compartilhado com a requisição) não cresça
+    // com o lote. Após um rollback, também descarta as entidades da tentativa que falhou, para que a gravação item a
+    // item comece de um contexto limpo.
+    private void liberar() {
+        entityManager.clear();
+    }
+
+    // Remove os IDs atribuídos por uma tentativa que sofreu rollback, para que o item possa ser gravado novamente
+    private void descartarIds(Subestacao subestacao) {
+        subestacao.setId(null);
+        for (RedeMT rede : redes(subestacao)) {
+            rede.setId(null);
+        }
+    }
+
+    private static List<RedeMT> redes(Subestacao subestacao) {
+        return subestacao.getRedesMT() == null ? Collections.emptyList() : subestacao.getRedesMT();
+    }
+}
@@ -1,16 +1,50 @@
 package com.example.sinapsis.services;
 
+import com.example.sinapsis.cache.TopologiaCache;
+import com.example.sinapsis.dto.CursorPage;
+import com.example.sinapsis.dto.SubestacaoProxima;
+import com.example.sinapsis.dto.SubestacaoResumo;
+import com.example.sinapsis.dto.VersaoRedeSubestacao;
+import com.example.sinapsis.events.TopologiaAlteradaEvent;
 import com.example.sinapsis.model.RedeMT;
 import com.example.sinapsis.model.Subestacao;
+import com.example.sinapsis.model.VersaoSubestacao;
 import com.example.sinapsis.repositories.RedeMTRepository;
 import com.example.sinapsis.repositories.SubestacaoRepository;
-import jakarta.transaction.Transactional;
+import com.example.sinapsis.spatial.Geohash;
+import com.example.sinapsis.spatial.SubestacaoSpatialIndex;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Serviço responsável por gerenciar operações relacionadas à entidade Subestacao.
@@ -18,32 +52,221 @@ import java.util.Optional;
  */
 @Service
 public class SubestacaoService {
+    private static final Logger logger = LoggerFactory.getLogger(SubestacaoService.class);
+
     @Autowired
     private SubestacaoRepository subestacaoRepository;
 
     @Autowired
     private RedeMTRepository redeMTRepository;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private SubestacaoSpatialIndex spatialIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TopologiaCache topologiaCache;
+
+    @Autowired
+    private EstatisticasRedesService estatisticasRedesService;
+
+    // Quantidade de linhas escritas entre cada flush da exportação
+    private static final int EXPORT_FLUSH_INTERVAL = 100;
+
+    // Quantidade máxima de subestações retornadas pela busca por proximidade
+    public static final int MAX_VIZINHOS = 100;
+
+    // Quantidade máxima de prefixos de geohash usados para cobrir uma área
+    private static final int MAX_CELULAS_GEOHASH = 32;
+
+    // Quantidade máxima de subestações removidas por comando na exclusão em massa
+    private static final int LOTE_REMOCAO = 1000;
+
     /**
-     * Retorna todas as subestações cadastradas.
+     * Retorna todas as subestações cadastradas, com as redes MT carregadas na mesma consulta.
      *
      * @return Lista de subestações.
      */
+    @Transactional(readOnly = true)
     public List<Subestacao> findAll() {
-        return subestacaoRepository.findAll();
+        return subestacaoRepository.findAllWithRedes();
     }
 
     /**
-     * Busca uma subestação pelo ID.
+     * Retorna o resumo de todas as subestações (dados básicos e quantidade de redes MT),
+     * calculado em uma única consulta agregada.
+     *
+     * @return Lista de resumos das subestações.
+     */
+    @Transactional(readOnly = true)
+    public List<SubestacaoResumo> findAllResumos() {
+        return subestacaoRepository.findAllResumos();
+    }
+
+    /**
+     * Retorna uma página de subestações usando paginação por cursor.
+     * Busca um ID a mais que o limite para saber se existe uma próxima página e, em seguida,
+     * carrega as subestações da página com as redes MT em uma única consulta.
+     *
+     * @param cursor Cursor opaco retornado pela página anterior, ou null para a primeira página.
+     * @param limite Quantidade máxima de subestações na página (usa o padrão se null).
+     * @return Página de subestações com o cursor da próxima página.
+     * @throws IllegalArgumentException Se o cursor ou o limite forem inválidos.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Subestacao> findPage(String cursor, Integer limite) {
+        int tamanho = CursorPage.normalizeLimit(limite);
+        CursorPage<Integer> ids = CursorPage.of(
+                subestacaoRepository.findIdsAfter(CursorPage.decodeId(cursor), Limit.of(tamanho + 1)),
+                tamanho, id -> new String[]{String.valueOf(id)});
+
+        List<Subestacao> subestacoes = ids.itens().isEmpty() ? Collections.emptyList()
+                : subestacaoRepository.findByIdInOrderByIdAsc(ids.itens());
+        return new CursorPage<>(subestacoes, ids.proximoCursor());
+    }
+
+    /**
+     * Exporta todas as subestações, com suas redes MT, em JSON delimitado por linhas (NDJSON).
+     * As subestações são lidas de um Stream do banco, escritas uma por linha e desanexadas do contexto
+     * de persistência logo em seguida, de forma que o uso de memória não cresce com o tamanho da tabela.
+     *
+     * @param out Stream de saída onde as linhas serão escritas (não é fechado por este método).
+     * @throws IOException Em caso de erro de escrita.
+     */
+    @Transactional(readOnly = true)
+    public void exportTopology(OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(Subestacao.class);
+        int linhas = 0;
+
+        try (Stream<Subestacao> subestacoes = subestacaoRepository.streamAllWithRedes()) {
+            Iterator<Subestacao> iterator = subestacoes.iterator();
+            while (iterator.hasNext()) {
+                Subestacao subestacao = iterator.next();
+                out.write(writer.writeValueAsBytes(subestacao));
+                out.write('\n');
+
+                // Remove a subestação (e, por cascata, as redes) do contexto para liberar memória
+                entityManager.detach(subestacao);
+
+                if (++linhas % EXPORT_FLUSH_INTERVAL == 0) {
+                    out.flush();
+                }
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * Busca uma subestação pelo ID, com as redes MT carregadas.
+     * A consulta passa pelo cache da topologia, que é invalidado pelas operações de escrita.
+     * Não usa transação somente leitura: a carga é feita na primária, pois uma réplica atrasada colocaria no cache
+     * um estado anterior a uma escrita já confirmada, mantido até o fim do tempo de vida da entrada.
      *
      * @param id ID da subestação a ser buscada.
      * @return Subestação encontrada.
      * @throws RuntimeException Se a subestação não for encontrada.
      */
     public Subestacao findById(Integer id) {
-        return subestacaoRepository.findById(id).orElseThrow(() -> new RuntimeException("Subestacao not found"));
+        return topologiaCache.getSubestacao(id, subestacaoRepository::findWithRedesById)
+                .orElseThrow(() -> new RuntimeException("Subestacao not found"));
+    }
+
+
+    /**
+     * Busca apenas a versão de uma subestação com as suas redes MT ({@link VersaoSubestacao}), usada como ETag,
+     * sem carregar as entidades.
+     * Lida na primária (sem transação somente leitura), para que o cliente veja a nova ETag logo após a própria escrita.
+     *
+     * @param id ID da subestação.
+     * @return Um Optional contendo a versão, ou vazio se a subestação não for encontrada.
+     */
+    public Optional<Long> findVersao(Integer id) {
+        List<VersaoRedeSubestacao> linhas = subestacaoRepository.findVersoesComRedesById(id);
+        if (linhas.isEmpty() || linhas.get(0).getVersaoSubestacao() == null) {
+            return Optional.empty();
+        }
+        long versao = VersaoSubestacao.inicio(linhas.get(0).getVersaoSubestacao());
+        for (VersaoRedeSubestacao linha : linhas) {
+            if (linha.getRedeId() != null) {
+                versao = VersaoSubestacao.comRede(versao, linha.getRedeId(),
+                        linha.getRedeVersao() != null ? linha.getRedeVersao() : 0L);
+            }
+        }
+        return Optional.of(versao);
+    }
+
+    /**
+     * Busca as subestações mais próximas de um ponto, usando o índice espacial em memória.
+     *
+     * @param latitude  Latitude do ponto, em graus.
+     * @param longitude Longitude do ponto, em graus.
+     * @param k         Quantidade de subestações a retornar.
+     * @return Subestações ordenadas da mais próxima para a mais distante, com a distância em quilômetros.
+     * @throws IllegalArgumentException Se as coordenadas ou a quantidade forem inválidas.
+     */
+    public List<SubestacaoProxima> findNearby(double latitude, double longitude, int k) {
+        if (latitude < -90 || latitude > 90) {
+            throw new IllegalArgumentException("Latitude deve estar entre -90 e 90.");
+        }
+        if (longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("Longitude deve estar entre -180 e 180.");
+        }
+        if (k < 1 || k > MAX_VIZINHOS) {
+            throw new IllegalArgumentException("k deve estar entre 1 e " + MAX_VIZINHOS + ".");
+        }
+        return spatialIndex.nearest(latitude, longitude, k);
     }
 
+    /**
+     * Busca as subestações dentro de uma área retangular (viewport do mapa).
+     * A área é coberta por prefixos de geohash, e a consulta é resolvida como range scan no índice da coluna GEOHASH.
+     *
+     * @param minLat Latitude mínima da área.
+     * @param minLon Longitude mínima da área.
+     * @param maxLat Latitude máxima da área.
+     * @param maxLon Longitude máxima da área.
+     * @return Lista de subestações dentro da área.
+     * @throws IllegalArgumentException Se a área for inválida.
+     */
+    @Transactional(readOnly = true)
+    public List<Subestacao> findInBoundingBox(BigDecimal minLat, BigDecimal minLon, BigDecimal maxLat, BigDecimal maxLon) {
+        if (minLat.compareTo(BigDecimal.valueOf(-90)) < 0 || maxLat.compareTo(BigDecimal.valueOf(90)) > 0
+                || minLon.compareTo(BigDecimal.valueOf(-180)) < 0 || maxLon.compareTo(BigDecimal.valueOf(180)) > 0) {
+            throw new IllegalArgumentException("Coordenadas fora dos limites (latitude -90 a 90, longitude -180 a 180).");
+        }
+        if (minLat.compareTo(maxLat) > 0 || minLon.compareTo(maxLon) > 0) {
+            // Áreas que cruzam o antimeridiano devem ser divididas em duas consultas pelo cliente
+            throw new IllegalArgumentException("Os valores mínimos devem ser menores ou iguais aos máximos.");
+        }
+
+        List<String> prefixos = Geohash.cover(minLat.doubleValue(), minLon.doubleValue(),
+                maxLat.doubleValue(), maxLon.doubleValue(), MAX_CELULAS_GEOHASH);
+        return subestacaoRepository.findInGeohashCells(prefixos, minLat, minLon, maxLat, maxLon);
+    }
+
+    /**
+     * Calcula o geohash das subestações cadastradas antes da criação da coluna GEOHASH.
+     * Executado uma vez quando a aplicação termina de iniciar.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void preencherGeohashPendentes() {
+        List<Subestacao> pendentes = subestacaoRepository.findByGeohashIsNull();
+        for (Subestacao subestacao : pendentes) {
+            subestacao.atualizarGeohash();
+        }
+        if (!pendentes.isEmpty()) {
+            logger.info("Geohash calculado para {} subestações", pendentes.size());
+        }
+    }
 
     /**
      * Salva uma nova subestação no banco de dados.
@@ -61,40 +284,57 @@ public class SubestacaoService {
             throw new IllegalArgumentException("Subestação já cadastrada: " + subestacao.getCodigo());
         }
 
-        // Salva a subestação primeiro para garantir um ID válido
+        // Salva a subestação primeiro para garantir um ID válido. As redes informadas são separadas antes, para que
+        // não sejam gravadas em cascata ainda sem a subestação (a consulta de cada rede descarrega o contexto)
+        List<RedeMT> redesInformadas = subestacao.getRedesMT() != null ? subestacao.getRedesMT() : List.of();
+        subestacao.setRedesMT(new ArrayList<>());
         Subestacao savedSubestacao = subestacaoRepository.save(subestacao);
 
         // Processa as RedesMT associadas à Subestação
         List<RedeMT> redesAtualizadas = new ArrayList<>();
-        for (RedeMT rede : subestacao.getRedesMT()) {
-            Optional<RedeMT> redeExistente = redeMTRepository.findByCodigo(rede.getCodigo());
+        for (RedeMT rede : redesInformadas) {
+            Optional<RedeMT> redeExistente = topologiaCache
+                    .getRedeIdPorCodigo(rede.getCodigo(), codigo -> redeMTRepository.findByCodigo(codigo).map(RedeMT::getId))
+                    .flatMap(redeMTRepository::findById);
 
             if (redeExistente.isPresent()) {
                 // Se a rede já existe, associamos à subestação atual
                 RedeMT redeAtualizada = redeExistente.get();
+                invalidarRede(redeAtualizada);
                 redeAtualizada.setSubestacao(savedSubestacao);
                 redesAtualizadas.add(redeMTRepository.save(redeAtualizada));
             } else {
                 // Se a rede não existe, criamos e associamos
                 rede.setSubestacao(savedSubestacao);
                 redesAtualizadas.add(redeMTRepository.save(rede));
+                topologiaCache.invalidarRede(null, rede.getCodigo());
             }
         }
 
         // Atualiza a lista de redes da subestação e salva novamente
         savedSubestacao.setRedesMT(redesAtualizadas);
-        return subestacaoRepository.save(savedSubestacao);
+        Subestacao resultado = subestacaoRepository.save(savedSubestacao);
+        topologiaCache.invalidarSubestacao(resultado.getId());
+        estatisticasRedesService.registrarAlteracao(resultado.getId());
+
+        eventPublisher.publishEvent(TopologiaAlteradaEvent.subestacaoSalva(TopologiaAlteradaEvent.Operacao.CRIACAO, resultado));
+        return resultado;
     }
 
     /**
      * Atualiza uma subestação existente no banco de dados.
-     * Atualiza os dados básicos da subestação e processa as redes MT associadas.
+     * Atualiza os dados básicos da subestação e, se a lista de redes MT for informada, sincroniza as redes associadas:
+     * redes novas são criadas, redes existentes são reassociadas a esta subestação e redes que deixaram
+     * de constar na lista são removidas.
+     * As redes são buscadas com uma única consulta e as alterações são enviadas em lote,
+     * de forma que a quantidade de comandos não cresce com a quantidade de redes.
      *
      * @param id                   ID da subestação a ser atualizada.
      * @param subestacaoAtualizada Dados atualizados da subestação.
      * @return Subestação atualizada.
      * @throws IllegalArgumentException Se a subestação não for encontrada.
      */
+    @Transactional
     public Subestacao update(Integer id, Subestacao subestacaoAtualizada) {
         // Verifica se a subestação existe
         Subestacao subestacaoExistente = subestacaoRepository.findById(id)
@@ -106,36 +346,220 @@ public class SubestacaoService {
         subestacaoExistente.setLatitude(subestacaoAtualizada.getLatitude());
         subestacaoExistente.setLongitude(subestacaoAtualizada.getLongitude());
 
-        // Processa as RedesMT associadas à Subestação
+        // Processa as RedesMT associadas à Subestação, se a lista foi informada
+        if (subestacaoAtualizada.getRedesMT() != null) {
+            sincronizarRedes(subestacaoExistente, subestacaoAtualizada.getRedesMT());
+            estatisticasRedesService.registrarAlteracao(id);
+        }
+
+        // Salva e retorna a subestação atualizada
+        Subestacao resultado = subestacaoRepository.save(subestacaoExistente);
+        topologiaCache.invalidarSubestacao(id);
+
+        eventPublisher.publishEvent(TopologiaAlteradaEvent.subestacaoSalva(TopologiaAlteradaEvent.Operacao.ATUALIZACAO, resultado));
+        return resultado;
+    }
+
+    /**
+     * Atualiza parcialmente uma subestação, com a semântica de JSON Merge Patch (RFC 7396).
+     * Apenas os campos presentes no patch são alterados (um campo com valor null é apagado) e apenas as colunas
+     * alteradas são gravadas. A lista de redes MT só é sincronizada se estiver presente no patch; como em
+     * qualquer merge patch, um array substitui a lista inteira.
+     * A versão esperada pode ser informada pelo chamador (If-Match, com a versão da subestação com as redes MT,
+     * ver {@link VersaoSubestacao}) ou no campo "versao" do patch (versão da própria subestação); se não
+     * corresponder à versão atual, a atualização é rejeitada.
+     *
+     * @param id             ID da subestação a ser atualizada.
+     * @param patch          Documento JSON Merge Patch com os campos a serem alterados.
+     * @param versaoEsperada Versão da subestação com as redes MT (ETag) que o cliente leu (opcional).
+     * @return Subestação atualizada.
+     * @throws IllegalArgumentException                  Se a subestação não for encontrada ou o patch for inválido.
+     * @throws ObjectOptimisticLockingFailureException Se a subestação foi alterada desde a versão esperada.
+     */
+    @Transactional
+    public Subestacao patch(Integer id, JsonNode patch, Long versaoEsperada) {
+        if (patch == null || !patch.isObject()) {
+            throw new IllegalArgumentException("O patch deve ser um objeto JSON.");
+        }
+        Subestacao subestacao = subestacaoRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Subestação não encontrada: " + id));
+
+        // Verifica se a subestação (e, pelo ETag, as suas redes MT) não foi alterada desde a versão lida pelo cliente
+        Long versaoCampo = valor(patch, "versao", Long.class);
+        if ((versaoEsperada != null && !versaoEsperada.equals(VersaoSubestacao.de(subestacao)))
+                || (versaoEsperada == null && versaoCampo != null && !versaoCampo.equals(subestacao.getVersao()))) {
+            throw new ObjectOptimisticLockingFailureException(Subestacao.class, id);
+        }
+
+        if (patch.has("codigo")) {
+            subestacao.setCodigo(valor(patch, "codigo", String.class));
+        }
+        if (patch.has("nome")) {
+            subestacao.setNome(valor(patch, "nome", String.class));
+        }
+        if (patch.has("latitude")) {
+            subestacao.setLatitude(valor(patch, "latitude", BigDecimal.class));
+        }
+        if (patch.has("longitude")) {
+            subestacao.setLongitude(valor(patch, "longitude", BigDecimal.class));
+        }
+        if (patch.has("redesMT")) {
+            List<RedeMT> redes = valor(patch, "redesMT", new TypeReference<List<RedeMT>>() {
+            });
+            sincronizarRedes(subestacao, redes == null ? Collections.emptyList() : redes);
+            estatisticasRedesService.registrarAlteracao(id);
+        }
+
+        // Grava imediatamente para que um conflito de versão com outra transação seja detectado aqui
+        Subestacao resultado = subestacaoRepository.saveAndFlush(subestacao);
+        topologiaCache.invalidarSubestacao(id);
+
+        eventPublisher.publishEvent(TopologiaAlteradaEvent.subestacaoSalva(TopologiaAlteradaEvent.Operacao.ATUALIZACAO, resultado));
+        return resultado;
+    }
+
+    // Converte o campo do patch para o tipo informado (null se o valor for null); falhas viram IllegalArgumentException
+    private <T> T valor(JsonNode patch, String campo, Class<T> tipo) {
+        JsonNode node = patch.get(campo);
+        return node == null || node.isNull() ? null : objectMapper.convertValue(node, tipo);
+    }
+
+    private <T> T valor(JsonNode patch, String campo, TypeReference<T> tipo) {
+        JsonNode node = patch.get(campo);
+        return node == null || node.isNull() ? null : objectMapper.convertValue(node, tipo);
+    }
+
+    /**
+     * Sincroniza as redes MT de uma subestação com a lista recebida, comparando os conjuntos em memória.
+     * Executa uma consulta para as redes recebidas, um insert em lote para as novas, updates em lote
+     * (via dirty checking) para as reassociadas e um único delete para as removidas.
+     *
+     * @param subestacao Subestação gerenciada que terá as redes sincronizadas.
+     * @param novasRedes Lista completa de redes que a subestação deve ter.
+     */
+    private void sincronizarRedes(Subestacao subestacao, List<RedeMT> novasRedes) {
+        // Busca de uma vez as redes recebidas que já existem, pelo código
+        Set<String> codigos = novasRedes.stream()
+                .map(RedeMT::getCodigo)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<String, RedeMT> existentes = codigos.isEmpty() ? Collections.emptyMap()
+                : redeMTRepository.findByCodigoIn(codigos).stream()
+                .collect(Collectors.toMap(RedeMT::getCodigo, Function.identity()));
+
         List<RedeMT> redesAtualizadas = new ArrayList<>();
-        for (RedeMT novaRede : subestacaoAtualizada.getRedesMT()) {
-            Optional<RedeMT> redeExistente = redeMTRepository.findByCodigo(novaRede.getCodigo());
+        List<RedeMT> redesNovas = new ArrayList<>();
+        for (RedeMT novaRede : novasRedes) {
+            RedeMT redeExistente = existentes.get(novaRede.getCodigo());
 
-            if (redeExistente.isPresent()) {
-                // Se a rede já existe, associamos à subestação atual
-                RedeMT redeAtualizada = redeExistente.get();
-                redeAtualizada.setSubestacao(subestacaoExistente);
-                redesAtualizadas.add(redeMTRepository.save(redeAtualizada));
+            if (redeExistente != null) {
+                // Se a rede já existe, associamos à subestação atual; redes que já pertencem a ela não mudam
+                if (redeExistente.getSubestacao() == null
+                        || !Objects.equals(redeExistente.getSubestacao().getId(), subestacao.getId())) {
+                    invalidarRede(redeExistente);
+                }
+                redeExistente.setSubestacao(subestacao);
+                redesAtualizadas.add(redeExistente);
             } else {
                 // Se a rede não existe, criamos e associamos
-                novaRede.setSubestacao(subestacaoExistente);
-                redesAtualizadas.add(redeMTRepository.save(novaRede));
+                novaRede.setSubestacao(subestacao);
+                topologiaCache.invalidarRede(null, novaRede.getCodigo());
+                redesNovas.add(novaRede);
+                redesAtualizadas.add(novaRede);
             }
         }
 
-        // Atualiza a lista de redes da subestação
-        subestacaoExistente.setRedesMT(redesAtualizadas);
+        // Redes que pertenciam à subestação e não constam mais na lista recebida
+        List<Integer> redesRemovidas = new ArrayList<>();
+        if (subestacao.getRedesMT() != null) {
+            for (RedeMT rede : subestacao.getRedesMT()) {
+                if (!codigos.contains(rede.getCodigo())) {
+                    topologiaCache.invalidarRede(rede.getId(), rede.getCodigo());
+                    redesRemovidas.add(rede.getId());
+                }
+            }
+        }
 
-        // Salva e retorna a subestação atualizada
-        return subestacaoRepository.save(subestacaoExistente);
+        if (!redesNovas.isEmpty()) {
+            redeMTRepository.saveAll(redesNovas);
+        }
+        if (!redesRemovidas.isEmpty()) {
+            redeMTRepository.deleteAllByIdInBatch(redesRemovidas);
+        }
+
+        // Atualiza a lista de redes da subestação
+        subestacao.setRedesMT(redesAtualizadas);
     }
 
     /**
-     * Exclui uma subestação pelo ID.
+     * Exclui uma subestação pelo ID, com as suas redes MT, sem carregar as entidades (ver {@link #deleteAllById}).
      *
      * @param id ID da subestação a ser excluída.
      */
+    @Transactional
     public void deleteById(Integer id) {
-        subestacaoRepository.deleteById(id);
+        deleteAllById(List.of(id));
+    }
+
+    /**
+     * Exclui as subestações informadas e as suas redes MT com comandos em massa, sem carregar as entidades:
+     * a cada lote de IDs, uma consulta dos IDs existentes, uma das redes MT (para o cache), um DELETE das redes MT
+     * e um DELETE das subestações, em vez de um DELETE por linha como na remoção por cascata do JPA.
+     * As subestações e redes MT removidas são invalidadas no cache e cada subestação é notificada como removida.
+     *
+     * @param ids IDs das subestações a serem excluídas; IDs inexistentes são ignorados.
+     * @return Quantidade de subestações excluídas.
+     */
+    @Transactional
+    public int deleteAllById(Collection<Integer> ids) {
+        List<Integer> distintos = ids.stream().filter(Objects::nonNull).distinct().toList();
+        int removidas = 0;
+        for (int i = 0; i < distintos.size(); i += LOTE_REMOCAO) {
+            List<Integer> existentes = subestacaoRepository.findIdsExistentes(
+                    distintos.subList(i, Math.min(distintos.size(), i + LOTE_REMOCAO)));
+            if (existentes.isEmpty()) {
+                continue;
+            }
+
+            redeMTRepository.findResumosBySubestacaoIdIn(existentes)
+                    .forEach(rede -> topologiaCache.invalidarRede(rede.getId(), rede.getCodigo()));
+            redeMTRepository.deleteBySubestacaoIdIn(existentes);
+            removidas += subestacaoRepository.deleteByIdIn(existentes);
+
+            for (Integer id : existentes) {
+                topologiaCache.invalidarSubestacao(id);
+                estatisticasRedesService.registrarAlteracao(id);
+                eventPublisher.publishEvent(TopologiaAlteradaEvent.subestacaoRemovida(id));
+            }
+        }
+        return removidas;
+    }
+
+    /**
+     * Exclui as subestações cujo código começa com o prefixo informado, com as suas redes MT
+     * (ver {@link #deleteAllById}).
+     *
+     * @param prefixo Prefixo do código das subestações a serem excluídas.
+     * @return Quantidade de subestações excluídas.
+     * @throws IllegalArgumentException Se o prefixo não for informado.
+     */
+    @Transactional
+    public int deleteByCodigoPrefixo(String prefixo) {
+        if (prefixo == null || prefixo.isBlank()) {
+            throw new IllegalArgumentException("O prefixo do código é obrigatório.");
+        }
+        // Os caracteres especiais do LIKE no prefixo são comparados literalmente
+        String escapado = prefixo.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+        return deleteAllById(subestacaoRepository.findIdsByCodigoPrefixo(escapado));
+    }
+
+    // Invalida uma rede MT existente e a subestação à qual ela pertence, antes de reassociá-la a outra subestação;
+    // o resumo de redes da subestação anterior, que perdeu uma rede, é recalculado
+    private void invalidarRede(RedeMT rede) {
+        topologiaCache.invalidarRede(rede.getId(), rede.getCodigo());
+        if (rede.getSubestacao() != null && rede.getSubestacao().getId() != null) {
+            topologiaCache.invalidarSubestacao(rede.getSubestacao().getId());
+            estatisticasRedesService.registrarAlteracao(rede.getSubestacao().getId());
+        }
     }
-}
\ No newline at end of file
+}
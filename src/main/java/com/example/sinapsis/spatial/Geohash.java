@@ -0,0 +1,137 @@
+package com.example.sinapsis.spatial;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Utilitário para codificação de coordenadas em geohash.
+ * Um geohash intercala os bits de longitude e latitude (ordem Z / Morton) e os codifica em base 32,
+ * de forma que pontos próximos compartilham prefixos. Isso permite que buscas por área sejam feitas
+ * como buscas por prefixo (range scan) em um índice comum do banco de dados.
+ */
+public final class Geohash {
+
+    // Precisão máxima suportada (12 caracteres, células de poucos centímetros)
+    public static final int PRECISAO_MAXIMA = 12;
+
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+
+    private Geohash() {
+    }
+
+    /**
+     * Codifica uma coordenada em geohash.
+     *
+     * @param latitude  Latitude em graus (-90 a 90).
+     * @param longitude Longitude em graus (-180 a 180).
+     * @param precisao  Quantidade de caracteres do geohash (1 a 12).
+     * @return Geohash da coordenada.
+     */
+    public static String encode(double latitude, double longitude, int precisao) {
+        if (precisao < 1 || precisao > PRECISAO_MAXIMA) {
+            throw new IllegalArgumentException("Precisão do geohash deve estar entre 1 e " + PRECISAO_MAXIMA);
+        }
+
+        double latMin = -90, latMax = 90;
+        double lonMin = -180, lonMax = 180;
+        StringBuilder geohash = new StringBuilder(precisao);
+        boolean bitLongitude = true;
+        int bit = 0;
+        int caractere = 0;
+
+        while (geohash.length() < precisao) {
+            if (bitLongitude) {
+                double meio = (lonMin + lonMax) / 2;
+                if (longitude >= meio) {
+                    caractere = (caractere << 1) | 1;
+                    lonMin = meio;
+                } else {
+                    caractere = caractere << 1;
+                    lonMax = meio;
+                }
+            } else {
+                double meio = (latMin + latMax) / 2;
+                if (latitude >= meio) {
+                    caractere = (caractere << 1) | 1;
+                    latMin = meio;
+                } else {
+                    caractere = caractere << 1;
+                    latMax = meio;
+                }
+            }
+            bitLongitude = !bitLongitude;
+
+            if (++bit == 5) {
+                geohash.append(BASE32[caractere]);
+                bit = 0;
+                caractere = 0;
+            }
+        }
+        return geohash.toString();
+    }
+
+    /**
+     * Calcula um conjunto de prefixos de geohash cujas células cobrem completamente a área informada.
+     * Usa a maior precisão possível sem ultrapassar a quantidade máxima de células, para que a busca
+     * por prefixo traga o mínimo de registros fora da área.
+     *
+     * @param minLat     Latitude mínima da área.
+     * @param minLon     Longitude mínima da área.
+     * @param maxLat     Latitude máxima da área.
+     * @param maxLon     Longitude máxima da área.
+     * @param maxCelulas Quantidade máxima de prefixos retornados.
+     * @return Lista de prefixos que cobrem a área.
+     */
+    public static List<String> cover(double minLat, double minLon, double maxLat, double maxLon, int maxCelulas) {
+        for (int precisao = PRECISAO_MAXIMA; precisao > 1; precisao--) {
+            Celulas celulas = Celulas.of(precisao, minLat, minLon, maxLat, maxLon);
+            if (celulas.quantidade() <= maxCelulas) {
+                return celulas.prefixos();
+            }
+        }
+        return Celulas.of(1, minLat, minLon, maxLat, maxLon).prefixos();
+    }
+
+    /**
+     * Intervalo de células de uma precisão que cobre uma área.
+     */
+    private record Celulas(int precisao, long latInicio, long latFim, long lonInicio, long lonFim) {
+
+        static Celulas of(int precisao, double minLat, double minLon, double maxLat, double maxLon) {
+            int bits = precisao * 5;
+            int bitsLon = (bits + 1) / 2;
+            int bitsLat = bits / 2;
+            return new Celulas(precisao,
+                    indice(minLat + 90, 180, bitsLat), indice(maxLat + 90, 180, bitsLat),
+                    indice(minLon + 180, 360, bitsLon), indice(maxLon + 180, 360, bitsLon));
+        }
+
+        // Índice da célula que contém o valor, limitado à última célula (para latitude 90 ou longitude 180)
+        private static long indice(double valor, double amplitude, int bits) {
+            long celulas = 1L << bits;
+            long indice = (long) Math.floor(valor / amplitude * celulas);
+            return Math.max(0, Math.min(celulas - 1, indice));
+        }
+
+        long quantidade() {
+            return (latFim - latInicio + 1) * (lonFim - lonInicio + 1);
+        }
+
+        List<String> prefixos() {
+            int bits = precisao * 5;
+            double altura = 180.0 / (1L << (bits / 2));
+            double largura = 360.0 / (1L << ((bits + 1) / 2));
+
+            // Codifica o centro de cada célula, o que gera exatamente o prefixo daquela célula
+            Set<String> prefixos = new LinkedHashSet<>();
+            for (long lat = latInicio; lat <= latFim; lat++) {
+                for (long lon = lonInicio; lon <= lonFim; lon++) {
+                    prefixos.add(encode(-90 + (lat + 0.5) * altura, -180 + (lon + 0.5) * largura, precisao));
+                }
+            }
+            return new ArrayList<>(prefixos);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.sinapsis.spatial;
+
+/**
+ * Árvore k-d imutável em três dimensões, armazenada em arrays primitivos.
+ * Os pontos são reorganizados de forma que a raiz de cada subárvore fica no meio do seu intervalo,
+ * dispensando objetos de nó e ponteiros. Usada para buscas de vizinhos mais próximos.
+ */
+final class KdTree {
+    private static final int DIMENSOES = 3;
+
+    // Índice original de cada ponto, na ordem da árvore
+    private final int[] indices;
+
+    // Coordenadas x, y, z intercaladas, na ordem da árvore
+    private final double[] coords;
+
+    /**
+     * Constrói a árvore a partir de coordenadas intercaladas (x0, y0, z0, x1, y1, z1, ...).
+     *
+     * @param xyz Coordenadas dos pontos.
+     */
+    KdTree(double[] xyz) {
+        int n = xyz.length / DIMENSOES;
+        this.indices = new int[n];
+        for (int i = 0; i < n; i++) {
+            indices[i] = i;
+        }
+        build(xyz, 0, n, 0);
+
+        this.coords = new double[n * DIMENSOES];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(xyz, indices[i] * DIMENSOES, coords, i * DIMENSOES, DIMENSOES);
+        }
+    }
+
+    /**
+     * Retorna a quantidade de pontos da árvore.
+     *
+     * @return Quantidade de pontos.
+     */
+    int size() {
+        return indices.length;
+    }
+
+    /**
+     * Busca os k pontos mais próximos (distância euclidiana) do ponto informado.
+     *
+     * @param x Coordenada x da consulta.
+     * @param y Coordenada y da consulta.
+     * @param z Coordenada z da consulta.
+     * @param k Quantidade de vizinhos.
+     * @return Índices originais dos vizinhos, do mais próximo para o mais distante.
+     */
+    int[] nearest(double x, double y, double z, int k) {
+        Heap heap = new Heap(Math.min(k, indices.length));
+        if (heap.capacidade > 0) {
+            search(new double[]{x, y, z}, 0, indices.length, 0, heap);
+        }
+        return heap.ordenado();
+    }
+
+    private void build(double[] xyz, int lo, int hi, int eixo) {
+        if (hi - lo <= 1) {
+            return;
+        }
+        int meio = (lo + hi) >>> 1;
+        select(xyz, lo, hi - 1, meio, eixo);
+        int proximo = (eixo + 1) % DIMENSOES;
+        build(xyz, lo, meio, proximo);
+        build(xyz, meio + 1, hi, proximo);
+    }
+
+    // Quickselect: posiciona em k o elemento que estaria lá se o intervalo estivesse ordenado pelo eixo
+    private void select(double[] xyz, int lo, int hi, int k, int eixo) {
+        while (hi > lo) {
+            double pivo = xyz[indices[(lo + hi) >>> 1] * DIMENSOES + eixo];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (xyz[indices[i] * DIMENSOES + eixo] < pivo) {
+                    i++;
+                }
+                while (xyz[indices[j] * DIMENSOES + eixo] > pivo) {
+                    j--;
+                }
+                if (i <= j) {
+                    int tmp = indices[i];
+                    indices[i] = indices[j];
+                    indices[j] = tmp;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void search(double[] consulta, int lo, int hi, int eixo, Heap heap) {
+        if (lo >= hi) {
+            return;
+        }
+        int meio = (lo + hi) >>> 1;
+        int base = meio * DIMENSOES;
+        double dx = consulta[0] - coords[base];
+        double dy = consulta[1] - coords[base + 1];
+        double dz = consulta[2] - coords[base + 2];
+        heap.offer(indices[meio], dx * dx + dy * dy + dz * dz);
+
+        double diferenca = consulta[eixo] - coords[base + eixo];
+        int proximo = (eixo + 1) % DIMENSOES;
+
+        // Visita primeiro o lado que contém a consulta; o outro só se ainda puder conter um vizinho melhor
+        if (diferenca < 0) {
+            search(consulta, lo, meio, proximo, heap);
+            if (!heap.cheio() || diferenca * diferenca < heap.pior()) {
+                search(consulta, meio + 1, hi, proximo, heap);
+            }
+        } else {
+            search(consulta, meio + 1, hi, proximo, heap);
+            if (!heap.cheio() || diferenca * diferenca < heap.pior()) {
+                search(consulta, lo, meio, proximo, heap);
+            }
+        }
+    }
+
+    /**
+     * Heap de máximo com capacidade fixa, guardando os k melhores candidatos encontrados até o momento.
+     */
+    private static final class Heap {
+        private final int capacidade;
+        private final int[] itens;
+        private final double[] distancias;
+        private int tamanho;
+
+        Heap(int capacidade) {
+            this.capacidade = capacidade;
+            this.itens = new int[capacidade];
+            this.distancias = new double[capacidade];
+        }
+
+        boolean cheio() {
+            return tamanho == capacidade;
+        }
+
+        double pior() {
+            return distancias[0];
+        }
+
+        void offer(int item, double distancia) {
+            if (tamanho < capacidade) {
+                itens[tamanho] = item;
+                distancias[tamanho] = distancia;
+                subir(tamanho++);
+            } else if (distancia < distancias[0]) {
+                itens[0] = item;
+                distancias[0] = distancia;
+                descer(0);
+            }
+        }
+
+        // Esvazia o heap, retornando os itens do mais próximo para o mais distante
+        int[] ordenado() {
+            int[] resultado = new int[tamanho];
+            for (int i = tamanho - 1; i >= 0; i--) {
+                resultado[i] = itens[0];
+                tamanho--;
+                itens[0] = itens[tamanho];
+                distancias[0] = distancias[tamanho];
+                descer(0);
+            }
+            return resultado;
+        }
+
+        private void subir(int i) {
+            while (i > 0) {
+                int pai = (i - 1) / 2;
+                if (distancias[pai] >= distancias[i]) {
+                    return;
+                }
+                trocar(i, pai);
+                i = pai;
+            }
+        }
+
+        private void descer(int i) {
+            while (true) {
+                int maior = i;
+                int esquerda = 2 * i + 1;
+                int direita = esquerda + 1;
+                if (esquerda < tamanho && distancias[esquerda] > distancias[maior]) {
+                    maior = esquerda;
+                }
+                if (direita < tamanho && distancias[direita] > distancias[maior]) {
+                    maior = direita;
+                }
+                if (maior == i) {
+                    return;
+                }
+                trocar(i, maior);
+                i = maior;
+            }
+        }
+
+        private void trocar(int a, int b) {
+            int item = itens[a];
+            itens[a] = itens[b];
+            itens[b] = item;
+            double distancia = distancias[a];
+            distancias[a] = distancias[b];
+            distancias[b] = distancia;
+        }
+    }
+}
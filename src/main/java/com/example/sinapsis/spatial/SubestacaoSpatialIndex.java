@@ -0,0 +1,242 @@
+package com.example.sinapsis.spatial;
+
+import com.example.sinapsis.dto.SubestacaoCoordenadas;
+import com.example.sinapsis.dto.SubestacaoProxima;
+import com.example.sinapsis.events.TopologiaAlteradaEvent;
+import com.example.sinapsis.model.Subestacao;
+import com.example.sinapsis.repositories.SubestacaoRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Índice espacial em memória das subestações, usado para responder buscas de vizinhos mais próximos
+ * sem consultar o banco de dados.
+ * As coordenadas são convertidas para vetores unitários na esfera e indexadas em uma árvore k-d:
+ * a distância euclidiana entre esses vetores (corda) cresce junto com a distância sobre a superfície,
+ * então a ordem dos vizinhos é a mesma da distância haversine.
+ * A árvore é imutável e reconstruída em uma thread própria após as alterações confirmadas; alterações próximas
+ * são agrupadas em uma única reconstrução. Enquanto a nova árvore não fica pronta, as consultas usam a anterior.
+ */
+@Component
+public class SubestacaoSpatialIndex {
+    private static final Logger logger = LoggerFactory.getLogger(SubestacaoSpatialIndex.class);
+
+    // Raio médio da Terra em quilômetros
+    static final double RAIO_TERRA_KM = 6371.0088;
+
+    private final SubestacaoRepository subestacaoRepository;
+    private final Duration atraso;
+
+    // Fonte de verdade do índice: subestações indexadas por ID
+    private final Map<Integer, Ponto> pontos = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService reconstrutor;
+    private final AtomicBoolean agendada = new AtomicBoolean();
+
+    private volatile Snapshot snapshot = Snapshot.VAZIO;
+
+    /**
+     * Construtor da classe SubestacaoSpatialIndex.
+     *
+     * @param subestacaoRepository Repositório usado para a carga inicial do índice.
+     * @param atraso               Espera entre uma alteração e a reconstrução da árvore, para agrupar alterações próximas.
+     */
+    public SubestacaoSpatialIndex(SubestacaoRepository subestacaoRepository,
+                                  @Value("${sinapsis.espacial.atraso:500ms}") Duration atraso) {
+        this.subestacaoRepository = subestacaoRepository;
+        this.atraso = atraso;
+        this.reconstrutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "indice-espacial");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Carrega todas as subestações no índice quando a aplicação termina de iniciar.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        pontos.clear();
+        for (SubestacaoCoordenadas s : subestacaoRepository.findAllCoordenadas()) {
+            put(s.getId(), s.getCodigo(), s.getNome(), s.getLatitude(), s.getLongitude());
+        }
+        reconstruir();
+        logger.info("Índice espacial carregado com {} subestações", pontos.size());
+    }
+
+    /**
+     * Interrompe a thread de reconstrução.
+     */
+    @PreDestroy
+    public void encerrar() {
+        reconstrutor.shutdownNow();
+    }
+
+    /**
+     * Atualiza o índice após a confirmação de uma alteração de subestação.
+     *
+     * @param event Evento de alteração da topologia.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTopologiaAlterada(TopologiaAlteradaEvent event) {
+        if (event.entidade() != TopologiaAlteradaEvent.Entidade.SUBESTACAO) {
+            return;
+        }
+        if (event.operacao() == TopologiaAlteradaEvent.Operacao.REMOCAO) {
+            remove(event.id());
+        } else {
+            Subestacao s = event.subestacao();
+            put(s.getId(), s.getCodigo(), s.getNome(), s.getLatitude(), s.getLongitude());
+        }
+    }
+
+    /**
+     * Adiciona ou substitui uma subestação no índice; a árvore consultada é reconstruída em segundo plano.
+     *
+     * @param id        ID da subestação.
+     * @param codigo    Código da subestação.
+     * @param nome      Nome da subestação.
+     * @param latitude  Latitude da subestação.
+     * @param longitude Longitude da subestação.
+     */
+    public void put(Integer id, String codigo, String nome, BigDecimal latitude, BigDecimal longitude) {
+        if (id == null || latitude == null || longitude == null) {
+            return;
+        }
+        pontos.put(id, new Ponto(id, codigo, nome, latitude.doubleValue(), longitude.doubleValue()));
+        agendar();
+    }
+
+    /**
+     * Remove uma subestação do índice; a árvore consultada é reconstruída em segundo plano.
+     *
+     * @param id ID da subestação.
+     */
+    public void remove(Integer id) {
+        if (pontos.remove(id) != null) {
+            agendar();
+        }
+    }
+
+    /**
+     * Busca as k subestações mais próximas de um ponto.
+     *
+     * @param latitude  Latitude do ponto, em graus.
+     * @param longitude Longitude do ponto, em graus.
+     * @param k         Quantidade de subestações a retornar.
+     * @return Subestações ordenadas da mais próxima para a mais distante.
+     */
+    public List<SubestacaoProxima> nearest(double latitude, double longitude, int k) {
+        Snapshot atual = snapshot;
+        double lat = Math.toRadians(latitude);
+        double lon = Math.toRadians(longitude);
+        int[] vizinhos = atual.arvore.nearest(
+                Math.cos(lat) * Math.cos(lon), Math.cos(lat) * Math.sin(lon), Math.sin(lat), k);
+
+        List<SubestacaoProxima> resultado = new ArrayList<>(vizinhos.length);
+        for (int i : vizinhos) {
+            Ponto p = atual.pontos[i];
+            resultado.add(new SubestacaoProxima(p.id, p.codigo, p.nome, p.latitude, p.longitude,
+                    haversineKm(latitude, longitude, p.latitude, p.longitude)));
+        }
+        return resultado;
+    }
+
+    /**
+     * Retorna a quantidade de subestações indexadas.
+     *
+     * @return Quantidade de subestações.
+     */
+    public int size() {
+        return pontos.size();
+    }
+
+    /**
+     * Calcula a distância entre dois pontos pela fórmula de haversine.
+     *
+     * @param lat1 Latitude do primeiro ponto, em graus.
+     * @param lon1 Longitude do primeiro ponto, em graus.
+     * @param lat2 Latitude do segundo ponto, em graus.
+     * @param lon2 Longitude do segundo ponto, em graus.
+     * @return Distância em quilômetros.
+     */
+    static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * RAIO_TERRA_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    // Uma reconstrução por vez: alterações recebidas enquanto há uma agendada são atendidas por ela
+    private void agendar() {
+        if (agendada.compareAndSet(false, true)) {
+            try {
+                reconstrutor.schedule(this::reconstruir, atraso.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                agendada.set(false);
+            }
+        }
+    }
+
+    /**
+     * Reconstrói a árvore a partir das subestações indexadas.
+     * Executado na thread de reconstrução (e na carga inicial); exposto ao pacote para os testes.
+     */
+    synchronized void reconstruir() {
+        // Alterações feitas a partir daqui agendam uma nova reconstrução
+        agendada.set(false);
+        try {
+            snapshot = Snapshot.of(pontos.values().toArray(new Ponto[0]));
+        } catch (RuntimeException e) {
+            // A árvore anterior continua sendo consultada até a próxima alteração
+            logger.error("Falha ao reconstruir o índice espacial: {}", e.getMessage(), e);
+        }
+    }
+
+    private record Ponto(Integer id, String codigo, String nome, double latitude, double longitude) {
+    }
+
+    private static final class Snapshot {
+        static final Snapshot VAZIO = of(new Ponto[0]);
+
+        final Ponto[] pontos;
+        final KdTree arvore;
+
+        private Snapshot(Ponto[] pontos, KdTree arvore) {
+            this.pontos = pontos;
+            this.arvore = arvore;
+        }
+
+        static Snapshot of(Ponto[] pontos) {
+            double[] xyz = new double[pontos.length * 3];
+            for (int i = 0; i < pontos.length; i++) {
+                double lat = Math.toRadians(pontos[i].latitude);
+                double lon = Math.toRadians(pontos[i].longitude);
+                xyz[i * 3] = Math.cos(lat) * Math.cos(lon);
+                xyz[i * 3 + 1] = Math.cos(lat) * Math.sin(lon);
+                xyz[i * 3 + 2] = Math.sin(lat);
+            }
+            return new Snapshot(pontos, new KdTree(xyz));
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.sinapsis.cache;
+
+import com.example.sinapsis.model.Subestacao;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TopologiaCacheTest {
+    private final TopologiaCache cache = new TopologiaCache(100, Duration.ofMinutes(5));
+
+    @AfterEach
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private Subestacao subestacao(Integer id) {
+        Subestacao subestacao = new Subestacao();
+        subestacao.setId(id);
+        return subestacao;
+    }
+
+    @Test
+    public void testReadThroughAndStats() {
+        AtomicInteger cargas = new AtomicInteger();
+
+        // Execução do método: a primeira busca carrega, a segunda é um acerto
+        cache.getSubestacao(1, id -> { cargas.incrementAndGet(); return Optional.of(subestacao(id)); });
+        Optional<Subestacao> result = cache.getSubestacao(1, id -> { cargas.incrementAndGet(); return Optional.of(subestacao(id)); });
+
+        // Verificações
+        assertEquals(1, result.orElseThrow().getId());
+        assertEquals(1, cargas.get());
+        assertEquals(1, cache.estatisticas().get("subestacoes").hitCount());
+        assertEquals(1, cache.estatisticas().get("subestacoes").missCount());
+    }
+
+    @Test
+    public void testMissingIdIsNotCached() {
+        AtomicInteger cargas = new AtomicInteger();
+
+        // Execução do método: IDs inexistentes são consultados novamente a cada busca
+        cache.getSubestacao(1, id -> { cargas.incrementAndGet(); return Optional.empty(); });
+        Optional<Subestacao> result = cache.getSubestacao(1, id -> { cargas.incrementAndGet(); return Optional.empty(); });
+
+        // Verificações
+        assertTrue(result.isEmpty());
+        assertEquals(2, cargas.get());
+    }
+
+    @Test
+    public void testMissingCodeIsCachedUntilInvalidated() {
+        AtomicInteger cargas = new AtomicInteger();
+
+        // Execução do método: o código inexistente fica no cache até ser invalidado pela criação da rede
+        cache.getRedeIdPorCodigo("R0001", codigo -> { cargas.incrementAndGet(); return Optional.empty(); });
+        cache.getRedeIdPorCodigo("R0001", codigo -> { cargas.incrementAndGet(); return Optional.empty(); });
+        cache.invalidarRede(7, "R0001");
+        Optional<Integer> result = cache.getRedeIdPorCodigo("R0001", codigo -> { cargas.incrementAndGet(); return Optional.of(7); });
+
+        // Verificações
+        assertEquals(Optional.of(7), result);
+        assertEquals(2, cargas.get());
+    }
+
+    @Test
+    public void testInvalidationAfterTransactionCompletion() {
+        // Configuração: uma transação em andamento invalida a subestação
+        TransactionSynchronizationManager.initSynchronization();
+        cache.invalidarSubestacao(1);
+
+        // Uma leitura concorrente, antes do commit, recoloca o valor antigo no cache
+        cache.getSubestacao(1, id -> Optional.of(subestacao(id)));
+
+        // Execução do método: o término da transação remove novamente a entrada
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+
+        // Verificações
+        AtomicInteger cargas = new AtomicInteger();
+        cache.getSubestacao(1, id -> { cargas.incrementAndGet(); return Optional.of(subestacao(id)); });
+        assertEquals(1, cargas.get());
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.sinapsis.cache;
+
+import com.example.sinapsis.model.RedeMT;
+import com.example.sinapsis.model.Subestacao;
+import com.example.sinapsis.repositories.RedeMTRepository;
+import com.example.sinapsis.repositories.SubestacaoRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TopologiaSnapshotTest {
+    @Mock
+    private SubestacaoRepository subestacaoRepository;
+
+    @Mock
+    private RedeMTRepository redeMTRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private TopologiaSnapshot topologiaSnapshot;
+
+    @BeforeEach
+    public void setUp() {
+        topologiaSnapshot = new TopologiaSnapshot(subestacaoRepository, redeMTRepository, objectMapper,
+                transactionManager, Duration.ZERO);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        topologiaSnapshot.encerrar();
+    }
+
+    private static Subestacao subestacao(String nome) {
+        Subestacao subestacao = new Subestacao();
+        subestacao.setId(1);
+        subestacao.setCodigo("SPO");
+        subestacao.setNome(nome);
+        subestacao.setLatitude(new BigDecimal("-23.5505000000000"));
+        subestacao.setLongitude(new BigDecimal("-46.6333000000000"));
+
+        RedeMT rede = new RedeMT();
+        rede.setId(10);
+        rede.setCodigo("R0001");
+        rede.setTensaoNominal(new BigDecimal("13.80"));
+        rede.setSubestacao(subestacao);
+        subestacao.setRedesMT(List.of(rede));
+        return subestacao;
+    }
+
+    @Test
+    public void testGerar() throws Exception {
+        // Configuração do mock
+        Subestacao subestacao = subestacao("Subestação São Paulo");
+        when(subestacaoRepository.findAllWithRedes()).thenReturn(List.of(subestacao));
+        when(redeMTRepository.findAll()).thenReturn(subestacao.getRedesMT());
+        assertTrue(topologiaSnapshot.subestacoes().isEmpty());
+
+        // Execução do método
+        topologiaSnapshot.gerar();
+
+        // Verificações: o JSON é o mesmo da serialização da lista e o gzip o descomprime para os mesmos bytes
+        TopologiaSnapshot.Conteudo result = topologiaSnapshot.subestacoes().orElseThrow();
+        assertArrayEquals(objectMapper.writeValueAsBytes(List.of(subestacao)), result.json());
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(result.gzip()))) {
+            assertArrayEquals(result.json(), in.readAllBytes());
+        }
+        assertTrue(result.etag().startsWith("W/\""));
+        assertArrayEquals(objectMapper.writeValueAsBytes(subestacao.getRedesMT()), topologiaSnapshot.redes().orElseThrow().json());
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    public void testEtagDerivadoDoConteudo() {
+        // Configuração do mock: a segunda e a terceira gerações leem a mesma topologia, a quarta uma alterada
+        when(subestacaoRepository.findAllWithRedes()).thenReturn(
+                List.of(subestacao("A")), List.of(subestacao("A")), List.of(subestacao("B")));
+
+        // Execução do método
+        topologiaSnapshot.gerar();
+        TopologiaSnapshot.Conteudo primeiro = topologiaSnapshot.subestacoes().orElseThrow();
+        topologiaSnapshot.gerar();
+        TopologiaSnapshot.Conteudo segundo = topologiaSnapshot.subestacoes().orElseThrow();
+        topologiaSnapshot.gerar();
+        TopologiaSnapshot.Conteudo terceiro = topologiaSnapshot.subestacoes().orElseThrow();
+
+        // Verificações
+        assertTrue(segundo.geracao() > primeiro.geracao());
+        assertEquals(primeiro.etag(), segundo.etag());
+        assertNotEquals(segundo.etag(), terceiro.etag());
+    }
+
+    @Test
+    public void testFalhaMantemSnapshotAnterior() {
+        // Configuração do mock: a segunda geração falha ao consultar o banco
+        when(subestacaoRepository.findAllWithRedes())
+                .thenReturn(List.of(subestacao("A")))
+                .thenThrow(new RuntimeException("Banco indisponível"));
+        topologiaSnapshot.gerar();
+        TopologiaSnapshot.Conteudo anterior = topologiaSnapshot.subestacoes().orElseThrow();
+
+        // Execução do método
+        topologiaSnapshot.gerar();
+
+        // Verificações
+        assertSame(anterior, topologiaSnapshot.subestacoes().orElseThrow());
+    }
+
+    @Test
+    public void testCodificacao() {
+        // Configuração: snapshot com e sem Brotli
+        byte[] json = {1};
+        byte[] gzip = {2};
+        byte[] brotli = {3};
+        TopologiaSnapshot.Conteudo completo = new TopologiaSnapshot.Conteudo(1, "W/\"1\"", json, gzip, brotli);
+        TopologiaSnapshot.Conteudo semBrotli = new TopologiaSnapshot.Conteudo(1, "W/\"1\"", json, gzip, null);
+
+        // Verificações
+        assertEquals(TopologiaSnapshot.Codificacao.BROTLI, completo.codificacao("gzip, deflate, br"));
+        assertSame(brotli, completo.corpo(completo.codificacao("gzip, deflate, br")));
+        assertEquals(TopologiaSnapshot.Codificacao.GZIP, semBrotli.codificacao("gzip, deflate, br"));
+        assertEquals(TopologiaSnapshot.Codificacao.GZIP, completo.codificacao("br;q=0, gzip;q=0.8"));
+        assertEquals(TopologiaSnapshot.Codificacao.GZIP, completo.codificacao("*"));
+        assertEquals(TopologiaSnapshot.Codificacao.IDENTIDADE, completo.codificacao("identity"));
+        assertEquals(TopologiaSnapshot.Codificacao.IDENTIDADE, completo.codificacao("gzip;q=0"));
+        assertEquals(TopologiaSnapshot.Codificacao.IDENTIDADE, completo.codificacao(null));
+        assertSame(json, completo.corpo(TopologiaSnapshot.Codificacao.IDENTIDADE));
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.sinapsis.codec;
+
+import com.example.sinapsis.dto.CursorPage;
+import com.example.sinapsis.dto.SubestacaoResumo;
+import com.example.sinapsis.model.RedeMT;
+import com.example.sinapsis.model.Subestacao;
+import com.google.protobuf.CodedInputStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class TopologiaProtobufTest {
+
+    private final TopologiaProtobufHttpMessageConverter converter = new TopologiaProtobufHttpMessageConverter();
+
+    private static Subestacao subestacao(Integer id, String codigo, int redes) {
+        Subestacao subestacao = new Subestacao();
+        subestacao.setId(id);
+        subestacao.setCodigo(codigo);
+        subestacao.setNome("Subestação São Paulo");
+        subestacao.setLatitude(new BigDecimal("-23.5505123456789"));
+        subestacao.setLongitude(new BigDecimal("-179.9999999999999"));
+        subestacao.setVersao(3L);
+        subestacao.atualizarGeohash();
+
+        List<RedeMT> lista = new ArrayList<>();
+        for (int i = 0; i < redes; i++) {
+            lista.add(rede(id * 100 + i, String.format("R%04d", i), subestacao));
+        }
+        subestacao.setRedesMT(lista);
+        return subestacao;
+    }
+
+    private static RedeMT rede(Integer id, String codigo, Subestacao subestacao) {
+        RedeMT rede = new RedeMT();
+        rede.setId(id);
+        rede.setCodigo(codigo);
+        rede.setNome("Rede " + codigo);
+        rede.setTensaoNominal(new BigDecimal("13.80"));
+        rede.setVersao(0L);
+        rede.setSubestacao(subestacao);
+        return rede;
+    }
+
+    private byte[] escrever(Object valor) throws Exception {
+        MockHttpOutputMessage mensagem = new MockHttpOutputMessage();
+        converter.write(valor, TopologiaProtobufHttpMessageConverter.PROTOBUF, mensagem);
+        assertEquals(TopologiaProtobufHttpMessageConverter.PROTOBUF, mensagem.getHeaders().getContentType());
+        return mensagem.getBodyAsBytes();
+    }
+
+    @Test
+    public void testSubestacao() throws Exception {
+        // Execução do método
+        Subestacao original = subestacao(1, "SPO", 2);
+        Subestacao lida = TopologiaProtobuf.lerSubestacao(CodedInputStream.newInstance(escrever(original)));
+
+        // Verificações: os decimais voltam com o mesmo valor e a mesma escala
+        assertEquals(1, lida.getId());
+        assertEquals("SPO", lida.getCodigo());
+        assertEquals("Subestação São Paulo", lida.getNome());
+        assertEquals(original.getLatitude(), lida.getLatitude());
+        assertEquals(original.getLongitude(), lida.getLongitude());
+        assertEquals(3L, lida.getVersao());
+        assertEquals(2, lida.getRedesMT().size());
+        RedeMT rede = lida.getRedesMT().get(1);
+        assertEquals("R0001", rede.getCodigo());
+        assertEquals(new BigDecimal("13.80"), rede.getTensaoNominal());
+        assertSame(lida, rede.getSubestacao());
+    }
+
+    @Test
+    public void testRedeMTComValoresNulos() throws Exception {
+        // Configuração: rede sem nome e sem tensão, vinculada à subestação 7
+        Subestacao referencia = new Subestacao();
+        referencia.setId(7);
+        RedeMT original = rede(10, "R0010", referencia);
+        original.setNome(null);
+        original.setTensaoNominal(null);
+
+        // Execução do método
+        RedeMT lida = TopologiaProtobuf.lerRedeMT(CodedInputStream.newInstance(escrever(original)));
+
+        // Verificações
+        assertEquals(10, lida.getId());
+        assertNull(lida.getNome());
+        assertNull(lida.getTensaoNominal());
+        assertEquals(7, lida.getSubestacao().getId());
+    }
+
+    @Test
+    public void testPagina() throws Exception {
+        // Execução do método
+        CursorPage<Subestacao> pagina = new CursorPage<>(List.of(subestacao(1, "SPO", 1), subestacao(2, "CPS", 0)), "Mg");
+        CursorPage<Subestacao> lida = TopologiaProtobuf.lerSubestacoes(CodedInputStream.newInstance(escrever(pagina)));
+
+        // Verificações
+        assertEquals(2, lida.itens().size());
+        assertEquals("CPS", lida.itens().get(1).getCodigo());
+        assertEquals(1, lida.itens().get(0).getRedesMT().size());
+        assertEquals("Mg", lida.proximoCursor());
+
+        // Lista de redes MT, sem cursor
+        CursorPage<RedeMT> redes = TopologiaProtobuf.lerRedesMT(CodedInputStream.newInstance(
+                escrever(subestacao(3, "RIO", 3).getRedesMT())));
+        assertEquals(3, redes.itens().size());
+        assertEquals(3, redes.itens().get(2).getSubestacao().getId());
+        assertNull(redes.proximoCursor());
+    }
+
+    @Test
+    public void testTipoSemRepresentacao() {
+        // Execução e verificação da exceção: listas de resumos não têm mensagem no esquema
+        List<SubestacaoResumo> resumos = List.of(mock(SubestacaoResumo.class));
+        assertThrows(HttpMessageNotWritableException.class, () -> escrever(resumos));
+        assertFalse(converter.canRead(Subestacao.class, TopologiaProtobufHttpMessageConverter.PROTOBUF));
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.sinapsis.infra;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.Authentication;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtServiceTest {
+    private final JwtService jwtService = new JwtService();
+
+    @Test
+    public void testGenerateAndValidateToken() {
+        // Execução do método
+        String token = jwtService.generateToken("operador");
+
+        // Verificações
+        assertEquals("operador", jwtService.validateToken(token));
+    }
+
+    @Test
+    public void testUserIsReusedForSameToken() {
+        // Configuração
+        String token = jwtService.generateToken("operador");
+
+        // Execução do método: a segunda chamada é respondida pelo cache
+        Authentication primeira = jwtService.authenticate(token);
+        Authentication segunda = jwtService.authenticate(token);
+
+        // Verificações
+        assertNotNull(primeira);
+        assertTrue(primeira.isAuthenticated());
+        assertEquals("operador", primeira.getName());
+        // O usuário vem do cache, mas cada requisição recebe a sua própria autenticação (que é mutável)
+        assertSame(primeira.getPrincipal(), segunda.getPrincipal());
+        assertNotSame(primeira, segunda);
+    }
+
+    @Test
+    public void testInvalidToken() {
+        // Configuração: token com a assinatura adulterada
+        String token = jwtService.generateToken("operador");
+        String adulterado = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        // Execução e verificações
+        assertNull(jwtService.validateToken(adulterado));
+        assertNull(jwtService.authenticate("nao.e.token"));
+
+        // O token original continua válido
+        assertEquals("operador", jwtService.validateToken(token));
+    }
+}
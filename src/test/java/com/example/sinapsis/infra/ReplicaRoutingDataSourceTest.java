@@ -0,0 +1,125 @@
+package com.example.sinapsis.infra;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReplicaRoutingDataSourceTest {
+    private DataSource primaria;
+    private DataSource replica;
+
+    // Atraso informado pela réplica na próxima verificação
+    private final AtomicReference<Duration> atraso = new AtomicReference<>(Duration.ZERO);
+
+    private ReplicaRoutingDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate leitura;
+    private TransactionTemplate escrita;
+
+    @BeforeEach
+    public void setUp() {
+        // Configuração inicial: duas instâncias H2 independentes, cada uma identificada pelo conteúdo da tabela ORIGEM
+        primaria = h2("primaria");
+        replica = h2("replica");
+        dataSource = new ReplicaRoutingDataSource(primaria, List.of(replica), Duration.ofSeconds(5), conexao -> atraso.get());
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        leitura = new TransactionTemplate(transactionManager);
+        leitura.setReadOnly(true);
+        escrita = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        new JdbcTemplate(primaria).execute("SHUTDOWN");
+        new JdbcTemplate(replica).execute("SHUTDOWN");
+    }
+
+    private static DataSource h2(String nome) {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:" + nome + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(h2);
+        jdbc.execute("CREATE TABLE ORIGEM (NOME VARCHAR(20))");
+        jdbc.update("INSERT INTO ORIGEM (NOME) VALUES (?)", nome);
+        return h2;
+    }
+
+    private String origem(TransactionTemplate transacao) {
+        return transacao.execute(status -> jdbcTemplate.queryForObject("SELECT MIN(NOME) FROM ORIGEM", String.class));
+    }
+
+    @Test
+    public void testLeituraNaReplicaEscritaNaPrimaria() {
+        // Configuração: a réplica está em dia
+        dataSource.verificarReplicas();
+        assertEquals(1, dataSource.getReplicasDisponiveis());
+
+        // Verificações: transações somente leitura vão para a réplica; as demais e os acessos fora de transação, para a primária
+        assertEquals("replica", origem(leitura));
+        assertEquals("primaria", origem(escrita));
+        assertEquals("primaria", jdbcTemplate.queryForObject("SELECT NOME FROM ORIGEM", String.class));
+
+        // Execução do método: uma escrita grava apenas na primária
+        escrita.executeWithoutResult(status -> jdbcTemplate.update("INSERT INTO ORIGEM (NOME) VALUES ('nova')"));
+        assertEquals(2, new JdbcTemplate(primaria).queryForObject("SELECT COUNT(*) FROM ORIGEM", Integer.class));
+        assertEquals(1, new JdbcTemplate(replica).queryForObject("SELECT COUNT(*) FROM ORIGEM", Integer.class));
+    }
+
+    @Test
+    public void testReplicaAtrasadaUsaPrimaria() {
+        // Configuração: a réplica está 60 segundos atrasada (máximo de 5 segundos)
+        atraso.set(Duration.ofSeconds(60));
+        dataSource.verificarReplicas();
+
+        // Verificações: as leituras voltam para a primária enquanto o atraso não diminuir
+        assertEquals(0, dataSource.getReplicasDisponiveis());
+        assertEquals("primaria", origem(leitura));
+
+        atraso.set(Duration.ofSeconds(1));
+        dataSource.verificarReplicas();
+        assertEquals("replica", origem(leitura));
+
+        // Replicação parada (atraso desconhecido) também tira a réplica do rodízio
+        atraso.set(null);
+        dataSource.verificarReplicas();
+        assertEquals("primaria", origem(leitura));
+    }
+
+    @Test
+    public void testReplicaNaoVerificadaUsaPrimaria() {
+        // Verificações: antes da primeira verificação nenhuma réplica recebe leituras
+        assertEquals("primaria", origem(leitura));
+    }
+
+    @Test
+    public void testAtrasoPorConsulta() {
+        // Configuração: o atraso é lido de uma tabela de heartbeat da réplica
+        new JdbcTemplate(replica).execute("CREATE TABLE HEARTBEAT (ATRASO INT)");
+        new JdbcTemplate(replica).update("INSERT INTO HEARTBEAT (ATRASO) VALUES (30)");
+        ReplicaRoutingDataSource porConsulta = new ReplicaRoutingDataSource(primaria, List.of(replica), Duration.ofSeconds(5),
+                ReplicaRoutingDataSource.atrasoPorConsulta("SELECT ATRASO FROM HEARTBEAT"));
+
+        // Execução do método
+        porConsulta.verificarReplicas();
+        assertEquals(0, porConsulta.getReplicasDisponiveis());
+
+        new JdbcTemplate(replica).update("UPDATE HEARTBEAT SET ATRASO = 2");
+        porConsulta.verificarReplicas();
+
+        // Verificações
+        assertEquals(1, porConsulta.getReplicasDisponiveis());
+    }
+}
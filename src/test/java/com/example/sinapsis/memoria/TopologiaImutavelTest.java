@@ -0,0 +1,136 @@
+package com.example.sinapsis.memoria;
+
+import com.example.sinapsis.dto.CursorPage;
+import com.example.sinapsis.model.RedeMT;
+import com.example.sinapsis.model.Subestacao;
+import com.example.sinapsis.model.VersaoSubestacao;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TopologiaImutavelTest {
+
+    private static Subestacao subestacao(int id, String codigo, int... redes) {
+        Subestacao subestacao = new Subestacao();
+        subestacao.setId(id);
+        subestacao.setCodigo(codigo);
+        subestacao.setNome("Subestação " + codigo);
+        subestacao.setLatitude(new BigDecimal("-23.5505123456789"));
+        subestacao.setLongitude(new BigDecimal("-46.6333987654321"));
+        subestacao.setVersao(1L);
+
+        List<RedeMT> lista = new ArrayList<>();
+        for (int redeId : redes) {
+            RedeMT rede = new RedeMT();
+            rede.setId(redeId);
+            rede.setCodigo(String.format("R%04d", redeId));
+            rede.setNome("Rede " + redeId);
+            rede.setTensaoNominal(new BigDecimal("13.80"));
+            rede.setVersao(0L);
+            rede.setSubestacao(subestacao);
+            lista.add(rede);
+        }
+        subestacao.setRedesMT(lista);
+        return subestacao;
+    }
+
+    private static List<Integer> ids(List<Subestacao> subestacoes) {
+        return subestacoes.stream().map(Subestacao::getId).toList();
+    }
+
+    private static List<Integer> idsRedes(Subestacao subestacao) {
+        return subestacao.getRedesMT().stream().map(RedeMT::getId).toList();
+    }
+
+    @Test
+    public void testDe() {
+        // Configuração: subestações fora de ordem, uma sem coordenadas
+        Subestacao semCoordenadas = subestacao(2, "CPS", 22, 21);
+        semCoordenadas.setLatitude(null);
+        semCoordenadas.setLongitude(null);
+
+        // Execução do método
+        TopologiaImutavel topologia = TopologiaImutavel.de(List.of(semCoordenadas, subestacao(1, "SPO", 10)));
+
+        // Verificações: decimais reconstruídos na escala das colunas, redes MT agrupadas e ordenadas por ID
+        assertEquals(2, topologia.quantidadeSubestacoes());
+        assertEquals(3, topologia.quantidadeRedes());
+        Subestacao result = topologia.subestacao(1);
+        assertEquals("SPO", result.getCodigo());
+        assertEquals(new BigDecimal("-23.5505123456789"), result.getLatitude());
+        assertEquals(new BigDecimal("-46.6333987654321"), result.getLongitude());
+        assertEquals(1L, result.getVersao());
+        assertNotNull(result.getGeohash());
+        assertEquals(new BigDecimal("13.80"), result.getRedesMT().get(0).getTensaoNominal());
+        assertNull(topologia.subestacao(2).getLatitude());
+        assertEquals(List.of(21, 22), idsRedes(topologia.subestacao(2)));
+        assertNull(topologia.subestacao(3));
+    }
+
+    @Test
+    public void testRede() {
+        // Configuração
+        TopologiaImutavel topologia = TopologiaImutavel.de(List.of(subestacao(1, "SPO", 10), subestacao(2, "CPS", 5)));
+
+        // Execução do método
+        RedeMT result = topologia.rede(5);
+
+        // Verificações
+        assertEquals("R0005", result.getCodigo());
+        assertEquals(2, result.getSubestacao().getId());
+        assertEquals(0L, topologia.versaoRede(5));
+        assertEquals(2, topologia.subestacaoDaRede(5));
+        assertNull(topologia.rede(99));
+        assertNull(topologia.versaoRede(99));
+        assertNull(topologia.subestacaoDaRede(99));
+    }
+
+    @Test
+    public void testComAlteracoes() {
+        // Configuração: a rede 11 passa da subestação 1 para a 2, a 3 é removida e a 4 é criada
+        TopologiaImutavel anterior = TopologiaImutavel.de(List.of(
+                subestacao(1, "SPO", 10, 11), subestacao(2, "CPS", 20), subestacao(3, "STS", 30)));
+        Subestacao atualizada = subestacao(2, "CPS", 11, 20);
+        atualizada.setVersao(2L);
+
+        // Execução do método
+        TopologiaImutavel result = anterior.comAlteracoes(Set.of(2, 3, 4),
+                List.of(subestacao(4, "RPR", 40), atualizada));
+
+        // Verificações: a topologia anterior não é alterada
+        assertEquals(List.of(1, 2, 4), ids(result.subestacoes()));
+        assertEquals(List.of(10), idsRedes(result.subestacao(1)));
+        assertEquals(List.of(11, 20), idsRedes(result.subestacao(2)));
+        assertEquals(VersaoSubestacao.de(result.subestacao(2)), result.versaoSubestacao(2));
+        assertEquals(2, result.subestacaoDaRede(11));
+        assertNull(result.rede(30));
+        assertEquals(4, result.quantidadeRedes());
+        assertEquals(List.of(1, 2, 3), ids(anterior.subestacoes()));
+        assertEquals(1, anterior.subestacaoDaRede(11));
+    }
+
+    @Test
+    public void testPaginas() {
+        // Configuração
+        TopologiaImutavel topologia = TopologiaImutavel.de(List.of(
+                subestacao(1, "SPO", 10, 11), subestacao(2, "CPS", 20), subestacao(3, "STS", 30)));
+
+        // Execução do método
+        CursorPage<Subestacao> primeira = topologia.paginaSubestacoes(null, 2);
+        CursorPage<Subestacao> segunda = topologia.paginaSubestacoes(primeira.proximoCursor(), 2);
+        CursorPage<RedeMT> redes = topologia.paginaRedes(CursorPage.encode("10"), 2);
+
+        // Verificações
+        assertEquals(List.of(1, 2), ids(primeira.itens()));
+        assertEquals(List.of(3), ids(segunda.itens()));
+        assertNull(segunda.proximoCursor());
+        assertEquals(List.of(11, 20), redes.itens().stream().map(RedeMT::getId).toList());
+        assertNotNull(redes.proximoCursor());
+        assertThrows(IllegalArgumentException.class, () -> topologia.paginaSubestacoes("inválido", 2));
+    }
+}
@@ -0,0 +1,250 @@
+package com.example.sinapsis.push;
+
+import com.example.sinapsis.events.TopologiaAlteradaEvent;
+import com.example.sinapsis.model.AlteracaoTopologia;
+import com.example.sinapsis.model.SequenciaAlteracoes;
+import com.example.sinapsis.repositories.AlteracaoTopologiaRepository;
+import com.example.sinapsis.repositories.SequenciaAlteracoesRepository;
+import com.example.sinapsis.services.AlteracaoTopologiaService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AlteracoesPushTest {
+    @Mock
+    private AlteracaoTopologiaRepository alteracaoRepository;
+
+    @Mock
+    private SequenciaAlteracoesRepository sequenciaRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private AlteracoesPush alteracoesPush;
+
+    // Eventos enviados a cada emitter, na ordem de criação dos emitters
+    private final List<EmitterCapturado> emitters = new ArrayList<>();
+
+    /**
+     * SseEmitter que registra os eventos enviados em vez de escrevê-los na resposta.
+     */
+    private static class EmitterCapturado extends SseEmitter {
+        private final List<String> eventos = new ArrayList<>();
+        private boolean completo;
+
+        EmitterCapturado(long timeout) {
+            super(timeout);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            eventos.add(builder.build().stream()
+                    .map(ResponseBodyEmitter.DataWithMediaType::getData)
+                    .map(dado -> dado instanceof AlteracaoTopologia alteracao ? "seq=" + alteracao.getSequencia() : dado.toString())
+                    .collect(Collectors.joining()));
+        }
+
+        @Override
+        public void complete() {
+            completo = true;
+        }
+    }
+
+    @BeforeEach
+    public void setUp() {
+        Executor direto = Runnable::run;
+        alteracoesPush = new AlteracoesPush(alteracaoRepository, sequenciaRepository, transactionManager,
+                Duration.ofMillis(250), Duration.ofSeconds(15), Duration.ofMinutes(30), Duration.ofSeconds(10), 2, direto) {
+            @Override
+            SseEmitter criarEmitter(long timeout) {
+                EmitterCapturado emitter = new EmitterCapturado(timeout);
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+    }
+
+    @AfterEach
+    public void tearDown() {
+        alteracoesPush.encerrar();
+    }
+
+    private static SequenciaAlteracoes sequencia(long ultima, long removidasAte) {
+        SequenciaAlteracoes sequencia = new SequenciaAlteracoes(SequenciaAlteracoes.ID);
+        sequencia.setUltima(ultima);
+        sequencia.setRemovidasAte(removidasAte);
+        return sequencia;
+    }
+
+    private static AlteracaoTopologia alteracao(long sequencia, Integer subestacaoId) {
+        AlteracaoTopologia alteracao = new AlteracaoTopologia(TopologiaAlteradaEvent.Entidade.REDE_MT,
+                TopologiaAlteradaEvent.Operacao.ATUALIZACAO, (int) sequencia, subestacaoId);
+        alteracao.setSequencia(sequencia);
+        return alteracao;
+    }
+
+    private static List<String> alteracoesEnviadas(EmitterCapturado emitter) {
+        return emitter.eventos.stream().filter(evento -> evento.contains("seq=")).toList();
+    }
+
+    @Test
+    public void testAssinarAntesDeIniciar() {
+        // Execução do método e verificações: sem a primeira leitura do registro, a assinatura é recusada
+        assertThrows(IllegalStateException.class, () -> alteracoesPush.assinar(null, null));
+    }
+
+    @Test
+    public void testDistribuirComFiltro() {
+        // Configuração do mock: contador na sequência 10 e duas novas alterações, de subestações diferentes
+        when(sequenciaRepository.findById(SequenciaAlteracoes.ID)).thenReturn(Optional.of(sequencia(10, 0)));
+        when(alteracaoRepository.findBySequenciaGreaterThanOrderBySequenciaAsc(10L, Limit.of(500)))
+                .thenReturn(List.of(alteracao(11, 1), alteracao(12, 2)));
+        alteracoesPush.ler();
+        alteracoesPush.assinar(null, null);
+        alteracoesPush.assinar(Set.of(2), null);
+
+        // Execução do método
+        alteracoesPush.ler();
+
+        // Verificações: o primeiro assinante recebe todas, o segundo apenas as da subestação 2
+        assertEquals(2, alteracoesPush.getQuantidadeAssinantes());
+        List<String> todas = alteracoesEnviadas(emitters.get(0));
+        assertEquals(2, todas.size());
+        assertTrue(todas.get(0).contains("id:" + AlteracaoTopologiaService.encodeSequencia(11)));
+        assertTrue(todas.get(1).contains("seq=12"));
+        List<String> filtradas = alteracoesEnviadas(emitters.get(1));
+        assertEquals(1, filtradas.size());
+        assertTrue(filtradas.get(0).contains("seq=12"));
+    }
+
+    @Test
+    public void testDesconectarAssinanteLento() {
+        // Configuração do mock: envio que nunca esvazia os buffers e três alterações para um buffer de 2
+        List<Runnable> pendentes = new ArrayList<>();
+        alteracoesPush = new AlteracoesPush(alteracaoRepository, sequenciaRepository, transactionManager,
+                Duration.ofMillis(250), Duration.ofSeconds(15), Duration.ofMinutes(30), Duration.ofSeconds(10), 2, pendentes::add) {
+            @Override
+            SseEmitter criarEmitter(long timeout) {
+                EmitterCapturado emitter = new EmitterCapturado(timeout);
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+        when(sequenciaRepository.findById(SequenciaAlteracoes.ID)).thenReturn(Optional.of(sequencia(10, 0)));
+        when(alteracaoRepository.findBySequenciaGreaterThanOrderBySequenciaAsc(10L, Limit.of(500)))
+                .thenReturn(List.of(alteracao(11, 1), alteracao(12, 1), alteracao(13, 1)));
+        alteracoesPush.ler();
+        alteracoesPush.assinar(null, null);
+
+        // Execução do método
+        alteracoesPush.ler();
+        pendentes.forEach(Runnable::run);
+
+        // Verificações: o assinante é removido e a conexão encerrada sem enviar as alterações descartadas
+        assertEquals(0, alteracoesPush.getQuantidadeAssinantes());
+        assertTrue(emitters.get(0).completo);
+        assertTrue(alteracoesEnviadas(emitters.get(0)).isEmpty());
+    }
+
+    @Test
+    public void testDesconectarAssinanteComEscritaBloqueada() throws Exception {
+        // Configuração do mock: escrita que fica bloqueada até ser liberada, em uma thread de envio própria
+        CountDownLatch escrevendo = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        CountDownLatch completo = new CountDownLatch(1);
+        alteracoesPush = new AlteracoesPush(alteracaoRepository, sequenciaRepository, transactionManager,
+                Duration.ofMillis(250), Duration.ofSeconds(15), Duration.ofMinutes(30), Duration.ZERO, 2,
+                r -> new Thread(r).start()) {
+            @Override
+            SseEmitter criarEmitter(long timeout) {
+                return new SseEmitter(timeout) {
+                    @Override
+                    public void send(SseEventBuilder builder) throws IOException {
+                        escrevendo.countDown();
+                        try {
+                            liberar.await();
+                        } catch (InterruptedException e) {
+                            throw new IOException(e);
+                        }
+                    }
+
+                    @Override
+                    public void complete() {
+                        completo.countDown();
+                    }
+                };
+            }
+        };
+        when(sequenciaRepository.findById(SequenciaAlteracoes.ID)).thenReturn(Optional.of(sequencia(10, 0)));
+        alteracoesPush.ler();
+        alteracoesPush.assinar(null, null);
+        alteracoesPush.enviarHeartbeat();
+        assertTrue(escrevendo.await(5, TimeUnit.SECONDS));
+
+        // Execução do método: a escrita do heartbeat passou do tempo máximo
+        alteracoesPush.enviarHeartbeat();
+
+        // Verificações: o assinante é removido e a conexão encerrada quando a escrita retorna
+        assertEquals(0, alteracoesPush.getQuantidadeAssinantes());
+        liberar.countDown();
+        assertTrue(completo.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testRetomarDoUltimoEvento() {
+        // Configuração do mock: contador na sequência 10; o cliente recebeu até a sequência 7
+        when(sequenciaRepository.findById(SequenciaAlteracoes.ID)).thenReturn(Optional.of(sequencia(10, 3)));
+        when(alteracaoRepository.findBySequenciaGreaterThanOrderBySequenciaAsc(7L, Limit.of(500)))
+                .thenReturn(List.of(alteracao(8, 1), alteracao(9, 2), alteracao(10, 1)));
+        alteracoesPush.ler();
+
+        // Execução do método
+        alteracoesPush.assinar(Set.of(1), 7L);
+
+        // Verificações: as alterações entre o último evento e a assinatura são enviadas do registro, com o filtro
+        List<String> enviadas = alteracoesEnviadas(emitters.get(0));
+        assertEquals(2, enviadas.size());
+        assertTrue(enviadas.get(0).contains("seq=8"));
+        assertTrue(enviadas.get(1).contains("seq=10"));
+        assertFalse(emitters.get(0).completo);
+    }
+
+    @Test
+    public void testRetomarCursorExpirado() {
+        // Configuração do mock: alterações até a sequência 5 foram removidas pela retenção
+        when(sequenciaRepository.findById(SequenciaAlteracoes.ID)).thenReturn(Optional.of(sequencia(10, 5)));
+        alteracoesPush.ler();
+
+        // Execução do método
+        alteracoesPush.assinar(null, 2L);
+
+        // Verificações: o cliente é avisado para sincronizar a topologia completa e a conexão é encerrada
+        EmitterCapturado emitter = emitters.get(0);
+        assertEquals(1, emitter.eventos.size());
+        assertTrue(emitter.eventos.get(0).contains("event:expirado"));
+        assertTrue(emitter.completo);
+        verify(alteracaoRepository, never()).findBySequenciaGreaterThanOrderBySequenciaAsc(anyLong(), any());
+    }
+}
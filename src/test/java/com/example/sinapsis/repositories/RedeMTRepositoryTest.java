@@ -7,12 +7,16 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.TestPropertySource;
 
+import java.math.BigDecimal;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+// O banco embutido (H2) usa o seu próprio dialeto, e não o MySQLDialect definido em application.properties
 @DataJpaTest
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
 public class RedeMTRepositoryTest {
     @Autowired
     private TestEntityManager entityManager;
@@ -27,12 +31,14 @@ public class RedeMTRepositoryTest {
     public void setUp() {
         // Configuração inicial para os testes
         subestacao = new Subestacao();
-        subestacao.setCodigo("SUB001");
+        subestacao.setCodigo("S01");
         subestacao.setNome("Subestação 1");
+        subestacao.setLatitude(new BigDecimal("-23.5505"));
+        subestacao.setLongitude(new BigDecimal("-46.6333"));
         entityManager.persist(subestacao); // Persiste a subestação no banco de dados
 
         redeMT = new RedeMT();
-        redeMT.setCodigo("REDE001");
+        redeMT.setCodigo("R0001");
         redeMT.setNome("Rede 1");
         redeMT.setSubestacao(subestacao);
         entityManager.persist(redeMT); // Persiste a rede MT no banco de dados
@@ -42,18 +48,18 @@ public class RedeMTRepositoryTest {
     @Test
     public void testFindByCodigo() {
         // Execução do método
-        Optional<RedeMT> found = redeMTRepository.findByCodigo("REDE001");
+        Optional<RedeMT> found = redeMTRepository.findByCodigo("R0001");
 
         // Verificações
         assertTrue(found.isPresent());
-        assertEquals("REDE001", found.get().getCodigo());
+        assertEquals("R0001", found.get().getCodigo());
         assertEquals("Rede 1", found.get().getNome());
     }
 
     @Test
     public void testFindByCodigoNotFound() {
         // Execução do método
-        Optional<RedeMT> found = redeMTRepository.findByCodigo("REDE999");
+        Optional<RedeMT> found = redeMTRepository.findByCodigo("R9999");
 
         // Verificações
         assertFalse(found.isPresent());
@@ -62,18 +68,18 @@ public class RedeMTRepositoryTest {
     @Test
     public void testFindByCodigoAndSubestacaoId() {
         // Execução do método
-        Optional<RedeMT> found = redeMTRepository.findByCodigoAndSubestacaoId("REDE001", subestacao.getId());
+        Optional<RedeMT> found = redeMTRepository.findByCodigoAndSubestacaoId("R0001", subestacao.getId());
 
         // Verificações
         assertTrue(found.isPresent());
-        assertEquals("REDE001", found.get().getCodigo());
+        assertEquals("R0001", found.get().getCodigo());
         assertEquals(subestacao.getId(), found.get().getSubestacao().getId());
     }
 
     @Test
     public void testFindByCodigoAndSubestacaoIdNotFound() {
         // Execução do método
-        Optional<RedeMT> found = redeMTRepository.findByCodigoAndSubestacaoId("REDE001", 999);
+        Optional<RedeMT> found = redeMTRepository.findByCodigoAndSubestacaoId("R0001", 999);
 
         // Verificações
         assertFalse(found.isPresent());
@@ -0,0 +1,102 @@
+package com.example.sinapsis.repositories;
+
+import com.example.sinapsis.infra.ReplicaRoutingDataSource;
+import com.example.sinapsis.model.RedeMT;
+import com.example.sinapsis.model.Subestacao;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifica para qual banco as consultas de redes MT são roteadas quando há uma réplica de leitura:
+ * a réplica tem as mesmas tabelas, mas vazias, então uma consulta roteada para ela não encontra a rede MT.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class RedeMTRoteamentoTest {
+    @Autowired
+    private RedeMTRepository redeMTRepository;
+
+    @Autowired
+    private SubestacaoRepository subestacaoRepository;
+
+    @Autowired
+    private ReplicaRoutingDataSource dataSource;
+
+    private RedeMT redeMT;
+
+    @TestConfiguration
+    static class Configuracao {
+        @Bean
+        public ReplicaRoutingDataSource dataSource() {
+            ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(h2(), List.of(replica()),
+                    Duration.ofSeconds(5), conexao -> Duration.ZERO);
+            dataSource.verificarReplicas();
+            return dataSource;
+        }
+
+        private static JdbcDataSource h2() {
+            JdbcDataSource h2 = new JdbcDataSource();
+            h2.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+            return h2;
+        }
+
+        // Réplica com a tabela de redes MT vazia
+        private static JdbcDataSource replica() {
+            JdbcDataSource replica = h2();
+            new JdbcTemplate(replica).execute("CREATE TABLE TB_REDE_MT (ID_REDE_MT INTEGER NOT NULL PRIMARY KEY, "
+                    + "CODIGO VARCHAR(5) NOT NULL, NOME VARCHAR(100), TENSAO_NOMINAL DECIMAL(5,2), "
+                    + "VERSAO BIGINT DEFAULT 0 NOT NULL, ID_SUBESTACAO INTEGER NOT NULL)");
+            return replica;
+        }
+    }
+
+    @BeforeEach
+    public void setUp() {
+        // Configuração inicial: as gravações (fora de transação somente leitura) vão para a primária
+        redeMTRepository.deleteAllInBatch();
+        subestacaoRepository.deleteAllInBatch();
+        Subestacao subestacao = new Subestacao();
+        subestacao.setCodigo("S01");
+        subestacao.setNome("Subestação 1");
+        subestacao.setLatitude(new BigDecimal("-23.5505"));
+        subestacao.setLongitude(new BigDecimal("-46.6333"));
+        subestacao = subestacaoRepository.save(subestacao);
+
+        redeMT = new RedeMT();
+        redeMT.setCodigo("R0001");
+        redeMT.setNome("Rede 1");
+        redeMT.setSubestacao(subestacao);
+        redeMT = redeMTRepository.save(redeMT);
+    }
+
+    @Test
+    public void testFindPrimariaByIdNaPrimaria() {
+        // Verificações: a réplica está disponível e recebe o findById herdado, com transação somente leitura
+        assertEquals(1, dataSource.getReplicasDisponiveis());
+        assertTrue(redeMTRepository.findById(redeMT.getId()).isEmpty());
+
+        // Execução do método e verificações: a consulta usada pelo cache da topologia lê a primária
+        assertTrue(redeMTRepository.findPrimariaById(redeMT.getId()).isPresent());
+        assertEquals(redeMT.getVersao(), redeMTRepository.findVersaoById(redeMT.getId()).orElseThrow());
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.sinapsis.repositories;
+
+import com.example.sinapsis.model.RedeMT;
+import com.example.sinapsis.model.Subestacao;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// O banco embutido (H2) usa o seu próprio dialeto, e não o MySQLDialect definido em application.properties
+@DataJpaTest
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+public class SubestacaoRepositoryTest {
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private SubestacaoRepository subestacaoRepository;
+
+    @BeforeEach
+    public void setUp() {
+        // Configuração inicial para os testes
+        Subestacao subestacao = new Subestacao();
+        subestacao.setCodigo("S01");
+        subestacao.setNome("Subestação 1");
+        subestacao.setLatitude(new BigDecimal("-23.5505"));
+        subestacao.setLongitude(new BigDecimal("-46.6333"));
+        entityManager.persist(subestacao);
+
+        RedeMT redeMT = new RedeMT();
+        redeMT.setCodigo("R0001");
+        redeMT.setNome("Rede 1");
+        redeMT.setSubestacao(subestacao);
+        entityManager.persist(redeMT);
+        entityManager.flush();
+        entityManager.clear(); // As subestações são lidas do banco, e não do contexto de persistência
+    }
+
+    @Test
+    public void testFindInGeohashCellsCarregaRedesMT() {
+        // Execução do método
+        List<Subestacao> subestacoes = subestacaoRepository.findInGeohashCells(List.of("6gyf"),
+                new BigDecimal("-24"), new BigDecimal("-47"), new BigDecimal("-23"), new BigDecimal("-46"));
+
+        // Verificações: as redes MT já vêm carregadas, sem uma consulta por subestação na serialização
+        assertEquals(1, subestacoes.size());
+        assertTrue(Hibernate.isInitialized(subestacoes.get(0).getRedesMT()));
+        assertEquals("R0001", subestacoes.get(0).getRedesMT().get(0).getCodigo());
+    }
+}
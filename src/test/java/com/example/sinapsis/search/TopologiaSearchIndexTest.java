@@ -0,0 +1,126 @@
+package com.example.sinapsis.search;
+
+import com.example.sinapsis.dto.ResultadoBusca;
+import com.example.sinapsis.events.TopologiaAlteradaEvent;
+import com.example.sinapsis.model.RedeMT;
+import com.example.sinapsis.model.Subestacao;
+import com.example.sinapsis.repositories.RedeMTRepository;
+import com.example.sinapsis.repositories.SubestacaoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TopologiaSearchIndexTest {
+    @Mock
+    private SubestacaoRepository subestacaoRepository;
+
+    @Mock
+    private RedeMTRepository redeMTRepository;
+
+    @InjectMocks
+    private TopologiaSearchIndex searchIndex;
+
+    @BeforeEach
+    public void setUp() {
+        // Configuração inicial: duas subestações e três redes MT
+        searchIndex.putSubestacao(1, "SPO", "São Paulo");
+        searchIndex.putSubestacao(2, "SAN", "Santo André");
+        searchIndex.putRede(10, "SPO01", "Alimentador Paulista", 1);
+        searchIndex.putRede(11, "SPO02", "Alimentador Jabaquara", 1);
+        searchIndex.putRede(20, "SAN01", "Alimentador Utinga", 2);
+    }
+
+    private static List<String> codigos(List<ResultadoBusca> resultado) {
+        return resultado.stream().map(ResultadoBusca::codigo).toList();
+    }
+
+    @Test
+    public void testBuscarPorCodigo() {
+        // Execução do método: o código exato vem antes dos códigos que o estendem
+        List<ResultadoBusca> result = searchIndex.buscar("spo", null);
+
+        // Verificações
+        assertEquals(List.of("SPO", "SPO01", "SPO02"), codigos(result));
+        assertEquals(ResultadoBusca.Tipo.SUBESTACAO, result.get(0).tipo());
+        assertEquals(ResultadoBusca.Tipo.REDE_MT, result.get(1).tipo());
+        assertEquals(1, result.get(1).subestacaoId());
+    }
+
+    @Test
+    public void testBuscarPorNomeSemAcentos() {
+        // Execução do método: "andre" encontra "Santo André" e "paulista" encontra a rede pelo trecho do nome
+        assertEquals(List.of("SAN"), codigos(searchIndex.buscar("andre", null)));
+        assertEquals(List.of("SPO", "SPO01"), codigos(searchIndex.buscar("PAUL", null)));
+
+        // Consultas de dois caracteres buscam apenas inícios de palavra ("ut" não encontra "Paulista")
+        assertEquals(List.of("SAN01"), codigos(searchIndex.buscar("ut", null)));
+    }
+
+    @Test
+    public void testBuscarLimite() {
+        // Execução do método: os códigos ocupam as primeiras posições e o limite corta os nomes
+        List<ResultadoBusca> result = searchIndex.buscar("al", 2);
+
+        // Verificações
+        assertEquals(2, result.size());
+        assertThrows(IllegalArgumentException.class, () -> searchIndex.buscar(" ", null));
+        assertThrows(IllegalArgumentException.class, () -> searchIndex.buscar("spo", 0));
+    }
+
+    @Test
+    public void testAtualizacaoIncremental() {
+        // Execução do método: a rede muda de código, de nome e de subestação
+        searchIndex.putRede(10, "SAN02", "Alimentador Vila Assunção", 2);
+
+        // Verificações: o estado anterior deixa de ser encontrado
+        assertEquals(List.of("SPO", "SPO02"), codigos(searchIndex.buscar("SPO", null)));
+        assertTrue(searchIndex.buscar("paulista", null).isEmpty());
+        assertEquals(List.of("SAN02"), codigos(searchIndex.buscar("assuncao", null)));
+
+        // A remoção da subestação remove também as redes que passaram a pertencer a ela
+        searchIndex.removeSubestacao(2);
+        assertTrue(searchIndex.buscar("SAN", null).isEmpty());
+        assertEquals(2, searchIndex.size());
+    }
+
+    @Test
+    public void testOnTopologiaAlterada() {
+        // Configuração: a subestação 1 é salva apenas com a rede SPO02 e uma rede nova
+        Subestacao subestacao = new Subestacao();
+        subestacao.setId(1);
+        subestacao.setCodigo("SPO");
+        subestacao.setNome("São Paulo Centro");
+        List<RedeMT> redes = new ArrayList<>();
+        redes.add(rede(11, "SPO02", "Alimentador Jabaquara"));
+        redes.add(rede(12, "SPO03", "Alimentador Sé"));
+        subestacao.setRedesMT(redes);
+
+        // Execução do método
+        searchIndex.onTopologiaAlterada(TopologiaAlteradaEvent.subestacaoSalva(TopologiaAlteradaEvent.Operacao.ATUALIZACAO, subestacao));
+
+        // Verificações: SPO01 deixou de pertencer à subestação e foi removida
+        assertEquals(List.of("SPO", "SPO02", "SPO03"), codigos(searchIndex.buscar("spo", null)));
+        assertEquals(List.of("SPO"), codigos(searchIndex.buscar("centro", null)));
+
+        // Remoção de uma rede MT
+        searchIndex.onTopologiaAlterada(TopologiaAlteradaEvent.redeRemovida(12, 1));
+        assertEquals(List.of("SPO", "SPO02"), codigos(searchIndex.buscar("spo", null)));
+    }
+
+    private static RedeMT rede(Integer id, String codigo, String nome) {
+        RedeMT rede = new RedeMT();
+        rede.setId(id);
+        rede.setCodigo(codigo);
+        rede.setNome(nome);
+        return rede;
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.sinapsis.services;
+
+import com.example.sinapsis.dto.CursorPage;
+import com.example.sinapsis.dto.PaginaAlteracoes;
+import com.example.sinapsis.events.TopologiaAlteradaEvent;
+import com.example.sinapsis.model.AlteracaoTopologia;
+import com.example.sinapsis.model.SequenciaAlteracoes;
+import com.example.sinapsis.repositories.AlteracaoTopologiaRepository;
+import com.example.sinapsis.repositories.SequenciaAlteracoesRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AlteracaoTopologiaServiceTest {
+    @Mock
+    private AlteracaoTopologiaRepository alteracaoRepository;
+
+    @Mock
+    private SequenciaAlteracoesRepository sequenciaRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private AlteracaoTopologiaService alteracaoTopologiaService;
+
+    @BeforeEach
+    public void setUp() {
+        alteracaoTopologiaService = new AlteracaoTopologiaService(alteracaoRepository, sequenciaRepository,
+                entityManager, transactionManager, Duration.ofDays(7), Duration.ofHours(1));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        alteracaoTopologiaService.encerrar();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    private static SequenciaAlteracoes sequencia(long ultima, long removidasAte) {
+        SequenciaAlteracoes sequencia = new SequenciaAlteracoes(SequenciaAlteracoes.ID);
+        sequencia.setUltima(ultima);
+        sequencia.setRemovidasAte(removidasAte);
+        return sequencia;
+    }
+
+    private static AlteracaoTopologia alteracao(long sequencia) {
+        AlteracaoTopologia alteracao = new AlteracaoTopologia(TopologiaAlteradaEvent.Entidade.REDE_MT,
+                TopologiaAlteradaEvent.Operacao.ATUALIZACAO, (int) sequencia, 1);
+        alteracao.setSequencia(sequencia);
+        return alteracao;
+    }
+
+    @Test
+    public void testRegistrarNaTransacao() {
+        // Configuração do mock: transação ativa e contador na sequência 5
+        SequenciaAlteracoes sequencia = sequencia(5, 0);
+        when(sequenciaRepository.findParaAtualizacao(SequenciaAlteracoes.ID)).thenReturn(Optional.of(sequencia));
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        // Execução do método: duas alterações na mesma transação
+        alteracaoTopologiaService.onTopologiaAlterada(TopologiaAlteradaEvent.subestacaoRemovida(1));
+        alteracaoTopologiaService.onTopologiaAlterada(TopologiaAlteradaEvent.redeRemovida(10, 2));
+
+        // Verificações: nada é gravado antes do commit
+        verify(entityManager, never()).persist(any());
+
+        // Execução do método: confirmação da transação
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.beforeCommit(false);
+        }
+
+        // Verificações: o contador é bloqueado uma única vez e as sequências seguem a ordem das alterações
+        verify(sequenciaRepository, times(1)).findParaAtualizacao(SequenciaAlteracoes.ID);
+        ArgumentCaptor<AlteracaoTopologia> captor = ArgumentCaptor.forClass(AlteracaoTopologia.class);
+        verify(entityManager, times(2)).persist(captor.capture());
+        List<AlteracaoTopologia> gravadas = captor.getAllValues();
+        assertEquals(6L, gravadas.get(0).getSequencia());
+        assertEquals(TopologiaAlteradaEvent.Entidade.SUBESTACAO, gravadas.get(0).getEntidade());
+        assertEquals(7L, gravadas.get(1).getSequencia());
+        assertEquals(10, gravadas.get(1).getEntidadeId());
+        assertEquals(2, gravadas.get(1).getSubestacaoId());
+        assertNotNull(gravadas.get(1).getData());
+        assertEquals(7L, sequencia.getUltima());
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+    }
+
+    @Test
+    public void testRegistrarForaDeTransacao() {
+        // Configuração do mock
+        SequenciaAlteracoes sequencia = sequencia(0, 0);
+        when(sequenciaRepository.findParaAtualizacao(SequenciaAlteracoes.ID)).thenReturn(Optional.of(sequencia));
+
+        // Execução do método
+        alteracaoTopologiaService.onTopologiaAlterada(TopologiaAlteradaEvent.subestacaoRemovida(1));
+
+        // Verificações: gravada imediatamente, em uma transação própria
+        verify(entityManager).persist(any(AlteracaoTopologia.class));
+        verify(transactionManager).commit(any());
+        assertEquals(1L, sequencia.getUltima());
+    }
+
+    @Test
+    public void testFindAlteracoes() {
+        // Configuração do mock: três alterações após o cursor, com limite 2
+        when(sequenciaRepository.findById(SequenciaAlteracoes.ID)).thenReturn(Optional.of(sequencia(9, 0)));
+        when(alteracaoRepository.findBySequenciaGreaterThanOrderBySequenciaAsc(4L, Limit.of(3)))
+                .thenReturn(new ArrayList<>(List.of(alteracao(5), alteracao(7), alteracao(9))));
+
+        // Execução do método
+        PaginaAlteracoes result = alteracaoTopologiaService.findAlteracoes(CursorPage.encode("4"), 2);
+
+        // Verificações
+        assertEquals(2, result.itens().size());
+        assertTrue(result.maisAlteracoes());
+        assertEquals(CursorPage.encode("7"), result.proximoCursor());
+    }
+
+    @Test
+    public void testFindAlteracoesSemNovidades() {
+        // Configuração do mock: sem cursor, a leitura começa após as alterações removidas pela retenção
+        when(sequenciaRepository.findById(SequenciaAlteracoes.ID)).thenReturn(Optional.of(sequencia(9, 3)));
+        when(alteracaoRepository.findBySequenciaGreaterThanOrderBySequenciaAsc(3L, Limit.of(51))).thenReturn(List.of());
+
+        // Execução do método
+        PaginaAlteracoes result = alteracaoTopologiaService.findAlteracoes(null, null);
+
+        // Verificações: o cursor é mantido para a próxima consulta
+        assertTrue(result.itens().isEmpty());
+        assertFalse(result.maisAlteracoes());
+        assertEquals(CursorPage.encode("3"), result.proximoCursor());
+    }
+
+    @Test
+    public void testFindAlteracoesCursorExpirado() {
+        // Configuração do mock: alterações até a sequência 3 foram removidas pela retenção
+        when(sequenciaRepository.findById(SequenciaAlteracoes.ID)).thenReturn(Optional.of(sequencia(9, 3)));
+
+        // Execução do método e verificações
+        assertThrows(AlteracaoTopologiaService.CursorExpiradoException.class,
+                () -> alteracaoTopologiaService.findAlteracoes(CursorPage.encode("2"), null));
+        assertThrows(IllegalArgumentException.class,
+                () -> alteracaoTopologiaService.findAlteracoes(CursorPage.encode("abc"), null));
+        verify(alteracaoRepository, never()).findBySequenciaGreaterThanOrderBySequenciaAsc(anyLong(), any());
+    }
+
+    @Test
+    public void testCompactar() {
+        // Configuração do mock: duas alterações substituídas e alterações anteriores à retenção até a sequência 4
+        Instant limite = Instant.parse("2024-01-01T00:00:00Z");
+        SequenciaAlteracoes sequencia = sequencia(9, 1);
+        when(alteracaoRepository.findSequenciasSubstituidas()).thenReturn(List.of(2L, 6L));
+        when(alteracaoRepository.findUltimaSequenciaAntes(limite)).thenReturn(4L);
+        when(alteracaoRepository.deleteAteSequencia(4L)).thenReturn(2);
+        when(sequenciaRepository.findParaAtualizacao(SequenciaAlteracoes.ID)).thenReturn(Optional.of(sequencia));
+
+        // Execução do método
+        int result = alteracaoTopologiaService.compactar(limite);
+
+        // Verificações
+        assertEquals(4, result);
+        verify(alteracaoRepository).deleteAllByIdInBatch(List.of(2L, 6L));
+        assertEquals(4L, sequencia.getRemovidasAte());
+    }
+}
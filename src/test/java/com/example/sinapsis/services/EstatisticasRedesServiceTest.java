@@ -0,0 +1,119 @@
+package com.example.sinapsis.services;
+
+import com.example.sinapsis.dto.EstatisticasRedes;
+import com.example.sinapsis.dto.EstatisticasTensao;
+import com.example.sinapsis.model.ClasseTensao;
+import com.example.sinapsis.model.ResumoRedesSubestacao;
+import com.example.sinapsis.repositories.RedeMTRepository;
+import com.example.sinapsis.repositories.ResumoRedesSubestacaoRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EstatisticasRedesServiceTest {
+    @Mock
+    private RedeMTRepository redeMTRepository;
+
+    @Mock
+    private ResumoRedesSubestacaoRepository resumoRepository;
+
+    @InjectMocks
+    private EstatisticasRedesService estatisticasRedesService;
+
+    // Estatísticas de uma subestação com redes de 13.8 kV e 34.5 kV
+    private static EstatisticasRedes estatisticas(Integer subestacaoId) {
+        return new EstatisticasRedes() {
+            public Integer getSubestacaoId() { return subestacaoId; }
+            public Long getQuantidadeRedes() { return 3L; }
+            public Long getQuantidadeComTensao() { return 2L; }
+            public BigDecimal getSomaTensao() { return new BigDecimal("48.30"); }
+            public BigDecimal getTensaoMinima() { return new BigDecimal("13.80"); }
+            public BigDecimal getTensaoMaxima() { return new BigDecimal("34.50"); }
+            public Long getQuantidadeClasse15kV() { return 1L; }
+            public Long getQuantidadeClasse24kV() { return 0L; }
+            public Long getQuantidadeClasse36kV() { return 1L; }
+            public Long getQuantidadeAcima36kV() { return 0L; }
+        };
+    }
+
+    private static ResumoRedesSubestacao resumo(Integer subestacaoId, long quantidade, String soma, String minima, String maxima,
+                                                long classe15, long acima36) {
+        ResumoRedesSubestacao resumo = new ResumoRedesSubestacao(subestacaoId);
+        resumo.setQuantidadeRedes(quantidade);
+        resumo.setQuantidadeComTensao(classe15 + acima36);
+        resumo.setSomaTensao(soma == null ? null : new BigDecimal(soma));
+        resumo.setTensaoMinima(minima == null ? null : new BigDecimal(minima));
+        resumo.setTensaoMaxima(maxima == null ? null : new BigDecimal(maxima));
+        resumo.setQuantidadeClasse15kV(classe15);
+        resumo.setQuantidadeAcima36kV(acima36);
+        return resumo;
+    }
+
+    @Test
+    public void testRecalcular() {
+        // Configuração do mock: a subestação 1 já tem resumo, a 2 ainda não e a 3 ficou sem redes
+        ResumoRedesSubestacao resumo1 = new ResumoRedesSubestacao(1);
+        ResumoRedesSubestacao resumo3 = new ResumoRedesSubestacao(3);
+        Set<Integer> ids = Set.of(1, 2, 3);
+        when(redeMTRepository.findEstatisticasPorSubestacao(ids)).thenReturn(List.of(estatisticas(1), estatisticas(2)));
+        when(resumoRepository.findAllById(ids)).thenReturn(List.of(resumo1, resumo3));
+
+        // Execução do método
+        estatisticasRedesService.recalcular(ids);
+
+        // Verificações: uma consulta agregada para todas as subestações
+        verify(redeMTRepository, times(1)).findEstatisticasPorSubestacao(ids);
+        assertEquals(3, resumo1.getQuantidadeRedes());
+        assertEquals(new BigDecimal("13.80"), resumo1.getTensaoMinima());
+        assertEquals(1, resumo1.getQuantidadeClasse36kV());
+        verify(resumoRepository).save(resumo1);
+        verify(resumoRepository).delete(resumo3);
+
+        ArgumentCaptor<ResumoRedesSubestacao> captor = ArgumentCaptor.forClass(ResumoRedesSubestacao.class);
+        verify(resumoRepository, times(2)).save(captor.capture());
+        assertTrue(captor.getAllValues().stream().anyMatch(r -> r.getSubestacaoId() == 2 && r.getQuantidadeRedes() == 3));
+    }
+
+    @Test
+    public void testRegistrarAlteracaoSemTransacao() {
+        // Execução do método: fora de uma transação o resumo é recalculado imediatamente
+        estatisticasRedesService.registrarAlteracao(1);
+        estatisticasRedesService.registrarAlteracao(null);
+
+        // Verificações
+        verify(redeMTRepository, times(1)).findEstatisticasPorSubestacao(Set.of(1));
+    }
+
+    @Test
+    public void testFindEstatisticasTensao() {
+        // Configuração do mock: o resumo de duas subestações e o de uma subestação sem tensões informadas
+        when(resumoRepository.findAll()).thenReturn(List.of(
+                resumo(1, 2, "27.60", "13.80", "13.80", 2, 0),
+                resumo(2, 1, "69.00", "69.00", "69.00", 0, 1),
+                resumo(3, 4, null, null, null, 0, 0)));
+
+        // Execução do método
+        EstatisticasTensao result = estatisticasRedesService.findEstatisticasTensao();
+
+        // Verificações
+        assertEquals(7, result.quantidadeRedes());
+        assertEquals(4, result.quantidadeSemTensao());
+        assertEquals(new BigDecimal("13.80"), result.tensaoMinima());
+        assertEquals(new BigDecimal("69.00"), result.tensaoMaxima());
+        assertEquals(new BigDecimal("32.20"), result.tensaoMedia());
+        assertEquals(2L, result.histograma().get(ClasseTensao.CLASSE_15KV));
+        assertEquals(0L, result.histograma().get(ClasseTensao.CLASSE_24_2KV));
+        assertEquals(1L, result.histograma().get(ClasseTensao.ACIMA_36_2KV));
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.sinapsis.services;
+
+import com.example.sinapsis.cache.TopologiaCache;
+import com.example.sinapsis.dto.ResultadoImportacao;
+import com.example.sinapsis.dto.SituacaoIngestao;
+import com.example.sinapsis.model.RedeMT;
+import com.example.sinapsis.model.Subestacao;
+import com.example.sinapsis.repositories.RedeMTRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RedeMTIngestaoServiceTest {
+    @Mock
+    private RedeMTRepository redeMTRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private TopologiaCache topologiaCache;
+
+    @Mock
+    private EstatisticasRedesService estatisticasRedesService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private Validator validator;
+
+    private RedeMTIngestaoService ingestaoService;
+
+    private Subestacao subestacao;
+
+    private final AtomicInteger sequencia = new AtomicInteger(100);
+
+    @BeforeEach
+    public void setUp() {
+        // Configuração inicial: fila com 3 vagas e sem espera por vagas; a thread de gravação não é iniciada
+        ingestaoService = new RedeMTIngestaoService(redeMTRepository, entityManager, transactionManager, topologiaCache,
+                estatisticasRedesService, eventPublisher, validator, 3, 10, Duration.ofMillis(50), Duration.ZERO, Duration.ofMinutes(5));
+
+        subestacao = new Subestacao();
+        subestacao.setId(1);
+    }
+
+    private RedeMT rede(String codigo, Integer subestacaoId) {
+        RedeMT rede = new RedeMT();
+        rede.setCodigo(codigo);
+        if (subestacaoId != null) {
+            Subestacao referencia = new Subestacao();
+            referencia.setId(subestacaoId);
+            rede.setSubestacao(referencia);
+        }
+        return rede;
+    }
+
+    private List<RedeMTIngestaoService.Pendente> pendentes(RedeMTIngestaoService.Ingestao ingestao, RedeMT... redes) {
+        return IntStream.range(0, redes.length)
+                .mapToObj(i -> new RedeMTIngestaoService.Pendente(ingestao, i, redes[i]))
+                .toList();
+    }
+
+    // Simula a atribuição de IDs pela sequência ao persistir
+    private void simularPersist() {
+        doAnswer(invocation -> {
+            RedeMT r = invocation.getArgument(0);
+            if ("ERR".equals(r.getCodigo())) {
+                throw new PersistenceException("Violação de restrição");
+            }
+            r.setId(sequencia.getAndIncrement());
+            return null;
+        }).when(entityManager).persist(any(RedeMT.class));
+    }
+
+    @Test
+    public void testEnfileirar() {
+        // Execução do método: uma rede válida, uma sem código e uma sem subestação
+        SituacaoIngestao result = ingestaoService.enfileirar(Arrays.asList(rede("R0001", 1), rede(" ", 1), rede("R0003", null)));
+
+        // Verificações: apenas a rede válida fica pendente; as demais são rejeitadas sem acessar o banco
+        assertNotNull(result.ticket());
+        assertEquals(3, result.total());
+        assertEquals(1, result.pendentes());
+        assertEquals(ResultadoImportacao.Status.PENDENTE, result.itens().get(0).status());
+        assertEquals(ResultadoImportacao.Status.REJEITADA, result.itens().get(1).status());
+        assertEquals("A rede deve estar vinculada a uma subestação antes de ser salva.", result.itens().get(2).mensagem());
+        assertEquals(result, ingestaoService.situacao(result.ticket()).orElseThrow());
+        verifyNoInteractions(redeMTRepository, entityManager);
+    }
+
+    @Test
+    public void testEnfileirarFilaCheia() {
+        // Ocupa duas das três vagas da fila
+        ingestaoService.enfileirar(List.of(rede("R0001", 1), rede("R0002", 1)));
+
+        // Execução e verificação da exceção: o envio seguinte não cabe inteiro na fila
+        assertThrows(IllegalStateException.class, () -> ingestaoService.enfileirar(List.of(rede("R0003", 1), rede("R0004", 1))));
+
+        // Um envio maior que a própria capacidade é inválido
+        assertThrows(IllegalArgumentException.class, () -> ingestaoService.enfileirar(List.of(
+                rede("R0005", 1), rede("R0006", 1), rede("R0007", 1), rede("R0008", 1))));
+    }
+
+    @Test
+    public void testProcessar() {
+        // Configuração do mock: R0009 já existe e a subestação 2 não existe
+        simularPersist();
+        RedeMT existente = rede("R0009", 1);
+        when(redeMTRepository.findByCodigoIn(anySet())).thenReturn(List.of(existente));
+        when(entityManager.find(Subestacao.class, 1)).thenReturn(subestacao);
+        when(entityManager.find(Subestacao.class, 2)).thenReturn(null);
+
+        RedeMTIngestaoService.Ingestao ingestao = new RedeMTIngestaoService.Ingestao("t", 5);
+        List<RedeMTIngestaoService.Pendente> lote = pendentes(ingestao,
+                rede("R0001", 1), rede("R0009", 1), rede("R0001", 1), rede("R0002", 2), rede("R0003", 1));
+
+        // Execução do método
+        ingestaoService.processar(lote);
+
+        // Verificações
+        SituacaoIngestao result = ingestao.situacao();
+        assertEquals(0, result.pendentes());
+        assertEquals(ResultadoImportacao.Status.CRIADA, result.itens().get(0).status());
+        assertEquals(100, result.itens().get(0).id());
+        assertEquals("Rede já cadastrada com esse código: R0009", result.itens().get(1).mensagem());
+        assertEquals("Rede já cadastrada com esse código: R0001", result.itens().get(2).mensagem());
+        assertEquals("Subestação não encontrada: 2", result.itens().get(3).mensagem());
+        assertEquals(ResultadoImportacao.Status.CRIADA, result.itens().get(4).status());
+        assertSame(subestacao, lote.get(4).rede.getSubestacao());
+
+        // Um único lote: uma consulta de códigos, uma busca por subestação, um flush e um commit
+        verify(redeMTRepository, times(1)).findByCodigoIn(anySet());
+        verify(entityManager, times(1)).find(Subestacao.class, 1);
+        verify(entityManager, times(2)).persist(any(RedeMT.class));
+        verify(entityManager, times(1)).flush();
+        verify(transactionManager, times(1)).commit(any());
+        verify(topologiaCache).invalidarRede(100, "R0001");
+        verify(topologiaCache).invalidarSubestacao(1);
+        verify(estatisticasRedesService).registrarAlteracao(1);
+    }
+
+    @Test
+    public void testProcessarFallbackIndividual() {
+        // Configuração do mock: o item "ERR" falha ao ser persistido e derruba o lote
+        simularPersist();
+        when(entityManager.find(Subestacao.class, 1)).thenReturn(subestacao);
+
+        RedeMTIngestaoService.Ingestao ingestao = new RedeMTIngestaoService.Ingestao("t", 3);
+        List<RedeMTIngestaoService.Pendente> lote = pendentes(ingestao, rede("AAA", 1), rede("ERR", 1), rede("BBB", 1));
+
+        // Execução do método
+        ingestaoService.processar(lote);
+
+        // Verificações: os itens válidos foram gravados individualmente e apenas o inválido foi rejeitado
+        SituacaoIngestao result = ingestao.situacao();
+        assertEquals(ResultadoImportacao.Status.CRIADA, result.itens().get(0).status());
+        assertEquals(ResultadoImportacao.Status.REJEITADA, result.itens().get(1).status());
+        assertEquals("Violação de restrição", result.itens().get(1).mensagem());
+        assertNull(lote.get(1).rede.getId());
+        assertEquals(ResultadoImportacao.Status.CRIADA, result.itens().get(2).status());
+
+        // Uma tentativa em lote com rollback e três tentativas individuais
+        verify(transactionManager, times(2)).rollback(any());
+        verify(transactionManager, times(2)).commit(any());
+    }
+}
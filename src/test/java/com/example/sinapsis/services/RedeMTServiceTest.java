@@ -1,15 +1,28 @@
 package com.example.sinapsis.services;
 
+import com.example.sinapsis.cache.TopologiaCache;
+import com.example.sinapsis.dto.CursorPage;
+import com.example.sinapsis.dto.RedeMTTensao;
+import com.example.sinapsis.events.TopologiaAlteradaEvent;
 import com.example.sinapsis.model.RedeMT;
 import com.example.sinapsis.model.Subestacao;
 import com.example.sinapsis.repositories.RedeMTRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
+import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -22,6 +35,21 @@ public class RedeMTServiceTest {
     @Mock
     private RedeMTRepository redeMTRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Spy
+    private TopologiaCache topologiaCache = new TopologiaCache(100, Duration.ofMinutes(5));
+
+    @Mock
+    private EstatisticasRedesService estatisticasRedesService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private RedeMTService redeMTService;
 
@@ -59,33 +87,97 @@ public class RedeMTServiceTest {
         verify(redeMTRepository, times(1)).findAll();
     }
 
+    @Test
+    public void testFindPage() {
+        // Configuração do mock: retorna um registro a mais que o limite, indicando que há próxima página
+        RedeMT outra = new RedeMT();
+        outra.setId(2);
+        when(redeMTRepository.findByIdGreaterThanOrderByIdAsc(0, Limit.of(2))).thenReturn(Arrays.asList(redeMT, outra));
+
+        // Execução do método
+        CursorPage<RedeMT> result = redeMTService.findPage(null, 1);
+
+        // Verificações
+        assertEquals(List.of(redeMT), result.itens());
+        assertEquals(1, CursorPage.decodeId(result.proximoCursor()));
+    }
+
+    @Test
+    public void testFindByFaixaDeTensao() {
+        // Configuração do mock: a primeira página começa antes de todas as redes da faixa
+        RedeMTTensao primeira = tensao(1, "R 01", "13.80", 1);
+        RedeMTTensao segunda = tensao(2, "R0002", "13.80", 2);
+        BigDecimal min = new BigDecimal("13.80");
+        BigDecimal max = new BigDecimal("15.00");
+        when(redeMTRepository.findByFaixaDeTensao(min, max, min, 0, "", Limit.of(2))).thenReturn(List.of(primeira, segunda));
+
+        // Execução do método
+        CursorPage<RedeMTTensao> result = redeMTService.findByFaixaDeTensao(min, max, null, null, 1);
+
+        // Verificações: o cursor contém a posição da última rede da página no índice
+        assertEquals(List.of(primeira), result.itens());
+        assertArrayEquals(new String[]{"13.80", "1", "R+01"}, CursorPage.decode(result.proximoCursor(), 3));
+
+        // Execução do método: a página seguinte, restrita à subestação 1, parte do cursor
+        redeMTService.findByFaixaDeTensao(min, max, 1, result.proximoCursor(), 1);
+        verify(redeMTRepository).findByFaixaDeTensaoAndSubestacao(1, min, max, min, "R 01", Limit.of(2));
+    }
+
+    @Test
+    public void testFindByFaixaDeTensaoInvalida() {
+        // Execução e verificação da exceção: faixa invertida
+        assertThrows(IllegalArgumentException.class,
+                () -> redeMTService.findByFaixaDeTensao(new BigDecimal("34.50"), new BigDecimal("13.80"), null, null, null));
+        verifyNoInteractions(redeMTRepository);
+    }
+
+    private static RedeMTTensao tensao(Integer id, String codigo, String tensaoNominal, Integer subestacaoId) {
+        return new RedeMTTensao() {
+            public Integer getId() { return id; }
+            public String getCodigo() { return codigo; }
+            public BigDecimal getTensaoNominal() { return new BigDecimal(tensaoNominal); }
+            public Integer getSubestacaoId() { return subestacaoId; }
+        };
+    }
+
     @Test
     public void testFindById() {
         // Configuração do mock
-        when(redeMTRepository.findById(1)).thenReturn(Optional.of(redeMT));
+        when(redeMTRepository.findPrimariaById(1)).thenReturn(Optional.of(redeMT));
 
-        // Execução do método
+        // Execução do método: a segunda busca é respondida pelo cache
         RedeMT result = redeMTService.findById(1);
+        redeMTService.findById(1);
 
         // Verificações
         assertNotNull(result);
         assertEquals(redeMT, result);
 
-        // Verifica se o método do repositório foi chamado
-        verify(redeMTRepository, times(1)).findById(1);
+        // Verifica se o método do repositório foi chamado uma única vez
+        verify(redeMTRepository, times(1)).findPrimariaById(1);
     }
 
     @Test
     public void testFindByIdNotFound() {
         // Configuração do mock
-        when(redeMTRepository.findById(1)).thenReturn(Optional.empty());
+        when(redeMTRepository.findPrimariaById(1)).thenReturn(Optional.empty());
 
         // Execução e verificação da exceção
         RuntimeException exception = assertThrows(RuntimeException.class, () -> redeMTService.findById(1));
         assertEquals("RedeMT not found", exception.getMessage());
 
         // Verifica se o método do repositório foi chamado
-        verify(redeMTRepository, times(1)).findById(1);
+        verify(redeMTRepository, times(1)).findPrimariaById(1);
+    }
+
+    @Test
+    public void testFindVersao() {
+        // Configuração do mock
+        when(redeMTRepository.findVersaoById(1)).thenReturn(Optional.of(4L));
+
+        // Execução e verificações: apenas a versão é consultada
+        assertEquals(Optional.of(4L), redeMTService.findVersao(1));
+        verify(redeMTRepository, never()).findById(any());
     }
 
     @Test
@@ -104,6 +196,7 @@ public class RedeMTServiceTest {
         // Verifica se os métodos do repositório foram chamados
         verify(redeMTRepository, times(1)).findByCodigoAndSubestacaoId("REDE001", 1);
         verify(redeMTRepository, times(1)).save(redeMT);
+        verify(eventPublisher, times(1)).publishEvent(any(TopologiaAlteradaEvent.class));
     }
 
     @Test
@@ -131,8 +224,16 @@ public class RedeMTServiceTest {
 
     @Test
     public void testUpdate() {
-        // Configuração do mock
-        when(redeMTRepository.existsById(1)).thenReturn(true);
+        // Configuração do mock: a rede passa da subestação 1 para a subestação 2, com outro código
+        RedeMT anterior = new RedeMT();
+        anterior.setId(1);
+        anterior.setCodigo("REDE000");
+        anterior.setVersao(3L);
+        anterior.setSubestacao(subestacao);
+        Subestacao novaSubestacao = new Subestacao();
+        novaSubestacao.setId(2);
+        redeMT.setSubestacao(novaSubestacao);
+        when(redeMTRepository.findById(1)).thenReturn(Optional.of(anterior));
         when(redeMTRepository.save(redeMT)).thenReturn(redeMT);
 
         // Execução do método
@@ -142,31 +243,90 @@ public class RedeMTServiceTest {
         assertNotNull(result);
         assertEquals(redeMT, result);
         assertEquals(1, result.getId());
+        assertEquals(3L, result.getVersao());
 
         // Verifica se os métodos do repositório foram chamados
-        verify(redeMTRepository, times(1)).existsById(1);
+        verify(redeMTRepository, times(1)).findById(1);
         verify(redeMTRepository, times(1)).save(redeMT);
+
+        // As linhas das subestações envolvidas não são bloqueadas: o ETag delas inclui a versão da rede
+        verify(entityManager, never()).find(eq(Subestacao.class), any(), any(LockModeType.class));
+        verify(topologiaCache).invalidarSubestacao(1);
+        verify(topologiaCache).invalidarSubestacao(2);
+
+        // Verifica se o estado anterior e o novo foram invalidados no cache
+        verify(topologiaCache).invalidarRede(1, "REDE000");
+        verify(topologiaCache).invalidarRede(1, "REDE001");
+        verify(topologiaCache).invalidarSubestacao(1);
+        verify(topologiaCache).invalidarSubestacao(2);
     }
 
     @Test
     public void testUpdateNotFound() {
         // Configuração do mock
-        when(redeMTRepository.existsById(1)).thenReturn(false);
+        when(redeMTRepository.findById(1)).thenReturn(Optional.empty());
 
         // Execução e verificação da exceção
         RuntimeException exception = assertThrows(RuntimeException.class, () -> redeMTService.update(1, redeMT));
         assertEquals("RedeMT not found", exception.getMessage());
 
         // Verifica se o método do repositório foi chamado
-        verify(redeMTRepository, times(1)).existsById(1);
+        verify(redeMTRepository, times(1)).findById(1);
+        verify(redeMTRepository, never()).save(any());
     }
 
     @Test
     public void testDeleteById() {
+        // Configuração do mock: a rede está no cache
+        when(redeMTRepository.findPrimariaById(1)).thenReturn(Optional.of(redeMT));
+        when(redeMTRepository.findById(1)).thenReturn(Optional.of(redeMT));
+        redeMTService.findById(1);
+
         // Execução do método
         redeMTService.deleteById(1);
 
-        // Verifica se o método do repositório foi chamado
+        // Verifica se o método do repositório foi chamado e se a rede e a subestação foram invalidadas no cache
         verify(redeMTRepository, times(1)).deleteById(1);
+        verify(topologiaCache).invalidarRede(1, "REDE001");
+        verify(topologiaCache).invalidarSubestacao(1);
+    }
+
+    @Test
+    public void testPatch() throws Exception {
+        // Configuração do mock
+        redeMT.setVersao(5L);
+        Subestacao novaSubestacao = new Subestacao();
+        novaSubestacao.setId(2);
+        when(redeMTRepository.findById(1)).thenReturn(Optional.of(redeMT));
+        when(entityManager.getReference(Subestacao.class, 2)).thenReturn(novaSubestacao);
+        when(redeMTRepository.saveAndFlush(redeMT)).thenReturn(redeMT);
+
+        // Execução do método: altera o nome e reassocia a rede, mantendo o código
+        RedeMT result = redeMTService.patch(1, objectMapper.readTree("{\"nome\": \"Rede A\", \"subestacao\": {\"id\": 2}}"), 5L);
+
+        // Verificações
+        assertEquals("Rede A", result.getNome());
+        assertEquals("REDE001", result.getCodigo());
+        assertSame(novaSubestacao, result.getSubestacao());
+
+        // As linhas das subestações envolvidas não são bloqueadas: o ETag delas inclui a versão da rede
+        verify(entityManager, never()).find(eq(Subestacao.class), any(), any(LockModeType.class));
+        verify(topologiaCache).invalidarSubestacao(1);
+        verify(topologiaCache).invalidarSubestacao(2);
+    }
+
+    @Test
+    public void testPatchVersionConflict() throws Exception {
+        // Configuração do mock: a rede já está na versão 6
+        redeMT.setVersao(6L);
+        when(redeMTRepository.findById(1)).thenReturn(Optional.of(redeMT));
+
+        // Execução e verificação da exceção
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> redeMTService.patch(1, objectMapper.readTree("{\"nome\": \"Rede A\"}"), 5L));
+
+        // Verifica se nada foi gravado
+        assertEquals("Rede 1", redeMT.getNome());
+        verify(redeMTRepository, never()).saveAndFlush(any());
     }
 }
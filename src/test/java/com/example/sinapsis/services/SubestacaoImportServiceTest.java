@@ -0,0 +1,156 @@
+package com.example.sinapsis.services;
+
+import com.example.sinapsis.cache.TopologiaCache;
+import com.example.sinapsis.dto.ResultadoImportacao;
+import com.example.sinapsis.model.RedeMT;
+import com.example.sinapsis.model.Subestacao;
+import com.example.sinapsis.repositories.RedeMTRepository;
+import com.example.sinapsis.repositories.SubestacaoRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SubestacaoImportServiceTest {
+    @Mock
+    private SubestacaoRepository subestacaoRepository;
+
+    @Mock
+    private RedeMTRepository redeMTRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private TopologiaCache topologiaCache;
+
+    @Mock
+    private EstatisticasRedesService estatisticasRedesService;
+
+    @InjectMocks
+    private SubestacaoImportService subestacaoImportService;
+
+    private final AtomicInteger sequencia = new AtomicInteger(100);
+
+    private Subestacao subestacao(String codigo, String... redes) {
+        Subestacao subestacao = new Subestacao();
+        subestacao.setCodigo(codigo);
+        subestacao.setNome("Subestação " + codigo);
+        List<RedeMT> lista = new ArrayList<>();
+        for (String codigoRede : redes) {
+            RedeMT rede = new RedeMT();
+            rede.setCodigo(codigoRede);
+            lista.add(rede);
+        }
+        subestacao.setRedesMT(lista);
+        return subestacao;
+    }
+
+    // Simula a atribuição de IDs pela sequência ao persistir
+    private void simularPersist() {
+        doAnswer(invocation -> {
+            Subestacao s = invocation.getArgument(0);
+            if ("ERR".equals(s.getCodigo())) {
+                throw new PersistenceException("Violação de restrição");
+            }
+            s.setId(sequencia.getAndIncrement());
+            return null;
+        }).when(entityManager).persist(any(Subestacao.class));
+    }
+
+    @Test
+    public void testImportar() {
+        // Configuração do mock
+        simularPersist();
+        when(subestacaoRepository.findCodigosExistentes(anySet())).thenReturn(Set.of("EXI"));
+
+        RedeMT redeExistente = new RedeMT();
+        redeExistente.setId(7);
+        redeExistente.setCodigo("R0001");
+        when(redeMTRepository.findByCodigoIn(anySet())).thenReturn(List.of(redeExistente));
+
+        Subestacao nova = subestacao("NOV", "R0001", "R0002");
+        List<Subestacao> lote = Arrays.asList(nova, subestacao("EXI"), subestacao("NOV"), subestacao(null), subestacao("OUT"));
+
+        // Execução do método
+        List<ResultadoImportacao> result = subestacaoImportService.importar(lote);
+
+        // Verificações
+        assertEquals(5, result.size());
+        assertEquals(ResultadoImportacao.Status.CRIADA, result.get(0).status());
+        assertEquals(100, result.get(0).id());
+        assertEquals(ResultadoImportacao.Status.REJEITADA, result.get(1).status());
+        assertEquals("Subestação já cadastrada: EXI", result.get(1).mensagem());
+        assertEquals(ResultadoImportacao.Status.REJEITADA, result.get(2).status());
+        assertEquals(ResultadoImportacao.Status.REJEITADA, result.get(3).status());
+        assertEquals(ResultadoImportacao.Status.CRIADA, result.get(4).status());
+
+        // A rede existente foi reassociada e a nova foi mantida
+        assertSame(redeExistente, nova.getRedesMT().get(0));
+        assertSame(nova, redeExistente.getSubestacao());
+        assertSame(nova, nova.getRedesMT().get(1).getSubestacao());
+
+        // Um único lote: uma consulta de códigos, um flush e um evento por subestação criada
+        verify(subestacaoRepository, times(1)).findCodigosExistentes(anySet());
+        verify(redeMTRepository, times(1)).findByCodigoIn(anySet());
+        verify(entityManager, times(2)).persist(any(Subestacao.class));
+        verify(entityManager, times(1)).flush();
+        verify(eventPublisher, times(2)).publishEvent(any(Object.class));
+    }
+
+    @Test
+    public void testImportarFallbackIndividual() {
+        // Configuração do mock: o item "ERR" falha ao ser persistido e derruba o lote
+        simularPersist();
+        when(subestacaoRepository.findCodigosExistentes(anySet())).thenReturn(Set.of());
+
+        List<Subestacao> lote = List.of(subestacao("AAA"), subestacao("ERR"), subestacao("BBB"));
+
+        // Execução do método
+        List<ResultadoImportacao> result = subestacaoImportService.importar(lote);
+
+        // Verificações: os itens válidos foram gravados individualmente e apenas o inválido foi rejeitado
+        assertEquals(ResultadoImportacao.Status.CRIADA, result.get(0).status());
+        assertEquals(ResultadoImportacao.Status.REJEITADA, result.get(1).status());
+        assertEquals("Violação de restrição", result.get(1).mensagem());
+        assertNull(lote.get(1).getId());
+        assertEquals(ResultadoImportacao.Status.CRIADA, result.get(2).status());
+
+        // Uma tentativa em lote com rollback e três tentativas individuais
+        verify(transactionManager, times(2)).rollback(any());
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    public void testImportarTooManyItems() {
+        // Execução e verificação da exceção
+        List<Subestacao> lote = new ArrayList<>();
+        for (int i = 0; i <= SubestacaoImportService.MAX_ITENS; i++) {
+            lote.add(new Subestacao());
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> subestacaoImportService.importar(lote));
+        verifyNoInteractions(subestacaoRepository);
+    }
+}
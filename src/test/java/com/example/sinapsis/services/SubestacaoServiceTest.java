@@ -1,21 +1,42 @@
 package com.example.sinapsis.services;
 
 
+import com.example.sinapsis.cache.TopologiaCache;
+import com.example.sinapsis.dto.CursorPage;
+import com.example.sinapsis.dto.RedeMTResumo;
+import com.example.sinapsis.dto.SubestacaoProxima;
+import com.example.sinapsis.dto.SubestacaoResumo;
+import com.example.sinapsis.dto.VersaoRedeSubestacao;
+import com.example.sinapsis.events.TopologiaAlteradaEvent;
 import com.example.sinapsis.model.RedeMT;
 import com.example.sinapsis.model.Subestacao;
+import com.example.sinapsis.model.VersaoSubestacao;
 import com.example.sinapsis.repositories.RedeMTRepository;
 import com.example.sinapsis.repositories.SubestacaoRepository;
+import com.example.sinapsis.spatial.SubestacaoSpatialIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -28,6 +49,24 @@ public class SubestacaoServiceTest {
     @Mock
     private RedeMTRepository redeMTRepository;
 
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private SubestacaoSpatialIndex spatialIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private TopologiaCache topologiaCache = new TopologiaCache(100, Duration.ofMinutes(5));
+
+    @Mock
+    private EstatisticasRedesService estatisticasRedesService;
+
     @InjectMocks
     private SubestacaoService subestacaoService;
 
@@ -56,7 +95,7 @@ public class SubestacaoServiceTest {
     @Test
     public void testFindAll() {
         // Configuração do mock
-        when(subestacaoRepository.findAll()).thenReturn(List.of(subestacao));
+        when(subestacaoRepository.findAllWithRedes()).thenReturn(List.of(subestacao));
 
         // Execução do método
         List<Subestacao> result = subestacaoService.findAll();
@@ -67,36 +106,211 @@ public class SubestacaoServiceTest {
         assertEquals(subestacao, result.get(0));
 
         // Verifica se o método do repositório foi chamado
-        verify(subestacaoRepository, times(1)).findAll();
+        verify(subestacaoRepository, times(1)).findAllWithRedes();
     }
 
     @Test
-    public void testFindById() {
+    public void testFindAllResumos() {
         // Configuração do mock
-        when(subestacaoRepository.findById(1)).thenReturn(Optional.of(subestacao));
+        SubestacaoResumo resumo = mock(SubestacaoResumo.class);
+        when(subestacaoRepository.findAllResumos()).thenReturn(List.of(resumo));
+
+        // Execução do método
+        List<SubestacaoResumo> result = subestacaoService.findAllResumos();
+
+        // Verificações
+        assertEquals(List.of(resumo), result);
+        verify(subestacaoRepository, never()).findAll();
+    }
+
+    @Test
+    public void testFindPage() {
+        // Configuração do mock: retorna um ID a mais que o limite, indicando que há próxima página
+        when(subestacaoRepository.findIdsAfter(0, Limit.of(2))).thenReturn(List.of(1, 2));
+        when(subestacaoRepository.findByIdInOrderByIdAsc(List.of(1))).thenReturn(List.of(subestacao));
+
+        // Execução do método
+        CursorPage<Subestacao> result = subestacaoService.findPage(null, 1);
+
+        // Verificações
+        assertEquals(List.of(subestacao), result.itens());
+        assertNotNull(result.proximoCursor());
+        assertEquals(1, CursorPage.decodeId(result.proximoCursor()));
+    }
+
+    @Test
+    public void testFindPageLastPage() {
+        // Configuração do mock: o cursor aponta para o ID 1 e não há mais registros depois da página
+        String cursor = CursorPage.encode("1");
+        when(subestacaoRepository.findIdsAfter(1, Limit.of(CursorPage.LIMITE_PADRAO + 1))).thenReturn(List.of());
 
         // Execução do método
+        CursorPage<Subestacao> result = subestacaoService.findPage(cursor, null);
+
+        // Verificações
+        assertTrue(result.itens().isEmpty());
+        assertNull(result.proximoCursor());
+        verify(subestacaoRepository, never()).findByIdInOrderByIdAsc(any());
+    }
+
+    @Test
+    public void testFindPageInvalidCursor() {
+        // Execução e verificação da exceção
+        assertThrows(IllegalArgumentException.class, () -> subestacaoService.findPage("@@@", 10));
+        verifyNoInteractions(subestacaoRepository);
+    }
+
+    @Test
+    public void testExportTopology() throws Exception {
+        // Configuração do mock
+        Subestacao outra = new Subestacao();
+        outra.setId(2);
+        outra.setCodigo("SUB002");
+        outra.setRedesMT(new ArrayList<>());
+        when(subestacaoRepository.streamAllWithRedes()).thenReturn(Stream.of(subestacao, outra));
+
+        // Execução do método
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        subestacaoService.exportTopology(out);
+
+        // Verificações: uma subestação por linha, com as redes aninhadas
+        String[] linhas = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, linhas.length);
+        assertEquals("SUB001", objectMapper.readTree(linhas[0]).get("codigo").asText());
+        assertEquals("REDE001", objectMapper.readTree(linhas[0]).get("redesMT").get(0).get("codigo").asText());
+        assertEquals("SUB002", objectMapper.readTree(linhas[1]).get("codigo").asText());
+
+        // Verifica se as subestações foram desanexadas do contexto de persistência
+        verify(entityManager, times(1)).detach(subestacao);
+        verify(entityManager, times(1)).detach(outra);
+    }
+
+    @Test
+    public void testFindNearby() {
+        // Configuração do mock
+        List<SubestacaoProxima> proximas = List.of(new SubestacaoProxima(1, "SUB001", "Subestação 1", -23.5505, -46.6333, 0.0));
+        when(spatialIndex.nearest(-23.55, -46.63, 3)).thenReturn(proximas);
+
+        // Execução do método
+        List<SubestacaoProxima> result = subestacaoService.findNearby(-23.55, -46.63, 3);
+
+        // Verificações
+        assertEquals(proximas, result);
+    }
+
+    @Test
+    public void testFindNearbyInvalidArguments() {
+        // Execução e verificação das exceções
+        assertThrows(IllegalArgumentException.class, () -> subestacaoService.findNearby(91, 0, 3));
+        assertThrows(IllegalArgumentException.class, () -> subestacaoService.findNearby(0, -181, 3));
+        assertThrows(IllegalArgumentException.class, () -> subestacaoService.findNearby(0, 0, 0));
+        verifyNoInteractions(spatialIndex);
+    }
+
+    @Test
+    public void testFindInBoundingBox() {
+        // Configuração do mock
+        BigDecimal minLat = new BigDecimal("-24"), minLon = new BigDecimal("-47"), maxLat = new BigDecimal("-23"), maxLon = new BigDecimal("-46");
+        when(subestacaoRepository.findInGeohashCells(anyList(), eq(minLat), eq(minLon), eq(maxLat), eq(maxLon)))
+                .thenReturn(List.of(subestacao));
+
+        // Execução do método
+        List<Subestacao> result = subestacaoService.findInBoundingBox(minLat, minLon, maxLat, maxLon);
+
+        // Verificações
+        assertEquals(List.of(subestacao), result);
+    }
+
+    @Test
+    public void testFindInBoundingBoxInvalid() {
+        // Execução e verificação das exceções: mínimos maiores que máximos e coordenadas fora dos limites
+        assertThrows(IllegalArgumentException.class, () -> subestacaoService.findInBoundingBox(
+                BigDecimal.ONE, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ONE));
+        assertThrows(IllegalArgumentException.class, () -> subestacaoService.findInBoundingBox(
+                BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.valueOf(91), BigDecimal.ONE));
+        verifyNoInteractions(subestacaoRepository);
+    }
+
+    @Test
+    public void testFindById() {
+        // Configuração do mock
+        when(subestacaoRepository.findWithRedesById(1)).thenReturn(Optional.of(subestacao));
+
+        // Execução do método: a segunda busca é respondida pelo cache
         Subestacao result = subestacaoService.findById(1);
+        subestacaoService.findById(1);
 
         // Verificações
         assertNotNull(result);
         assertEquals(subestacao, result);
 
-        // Verifica se o método do repositório foi chamado
-        verify(subestacaoRepository, times(1)).findById(1);
+        // Verifica se o método do repositório foi chamado uma única vez
+        verify(subestacaoRepository, times(1)).findWithRedesById(1);
     }
 
     @Test
     public void testFindByIdNotFound() {
         // Configuração do mock
-        when(subestacaoRepository.findById(1)).thenReturn(Optional.empty());
+        when(subestacaoRepository.findWithRedesById(1)).thenReturn(Optional.empty());
 
         // Execução e verificação da exceção
         RuntimeException exception = assertThrows(RuntimeException.class, () -> subestacaoService.findById(1));
         assertEquals("Subestacao not found", exception.getMessage());
 
         // Verifica se o método do repositório foi chamado
-        verify(subestacaoRepository, times(1)).findById(1);
+        verify(subestacaoRepository, times(1)).findWithRedesById(1);
+    }
+
+    @Test
+    public void testFindVersao() {
+        // Configuração do mock: a subestação (versão 7) tem a rede 1 (versão 0)
+        subestacao.setVersao(7L);
+        redeMT.setVersao(0L);
+        VersaoRedeSubestacao linha = mock(VersaoRedeSubestacao.class);
+        when(linha.getVersaoSubestacao()).thenReturn(7L);
+        when(linha.getRedeId()).thenReturn(1);
+        when(linha.getRedeVersao()).thenReturn(0L);
+        when(subestacaoRepository.findVersoesComRedesById(1)).thenReturn(List.of(linha));
+        when(subestacaoRepository.findVersoesComRedesById(2)).thenReturn(List.of());
+
+        // Execução e verificações: a versão é a mesma calculada a partir da entidade, sem carregar a subestação
+        assertEquals(Optional.of(VersaoSubestacao.de(subestacao)), subestacaoService.findVersao(1));
+        assertEquals(Optional.empty(), subestacaoService.findVersao(2));
+        verify(subestacaoRepository, never()).findWithRedesById(any());
+    }
+
+    @Test
+    public void testVersaoMudaComAsRedes() {
+        // Configuração: a subestação (versão 7) tem a rede 1 (versão 0)
+        subestacao.setVersao(7L);
+        redeMT.setVersao(0L);
+        Long inicial = VersaoSubestacao.de(subestacao);
+
+        // Execução e verificações: a versão muda quando a rede é alterada ou removida, sem alterar a subestação
+        redeMT.setVersao(1L);
+        Long redeAlterada = VersaoSubestacao.de(subestacao);
+        assertNotEquals(inicial, redeAlterada);
+        subestacao.setRedesMT(new ArrayList<>());
+        assertNotEquals(redeAlterada, VersaoSubestacao.de(subestacao));
+        assertNotEquals(inicial, VersaoSubestacao.de(subestacao));
+    }
+
+    @Test
+    public void testFindByIdAfterUpdate() {
+        // Configuração do mock
+        when(subestacaoRepository.findWithRedesById(1)).thenReturn(Optional.of(subestacao));
+        when(subestacaoRepository.findById(1)).thenReturn(Optional.of(subestacao));
+        when(subestacaoRepository.save(subestacao)).thenReturn(subestacao);
+
+        // Execução do método: a atualização invalida a subestação no cache
+        subestacaoService.findById(1);
+        Subestacao atualizada = new Subestacao();
+        atualizada.setCodigo("SUB001");
+        subestacaoService.update(1, atualizada);
+        subestacaoService.findById(1);
+
+        // Verifica se a subestação foi buscada novamente no repositório
+        verify(subestacaoRepository, times(2)).findWithRedesById(1);
     }
 
     @Test
@@ -119,6 +333,7 @@ public class SubestacaoServiceTest {
         verify(subestacaoRepository, times(2)).save(subestacao);
         verify(redeMTRepository, times(1)).findByCodigo("REDE001");
         verify(redeMTRepository, times(1)).save(redeMT);
+        verify(eventPublisher, times(1)).publishEvent(any(TopologiaAlteradaEvent.class));
     }
 
     @Test
@@ -139,8 +354,7 @@ public class SubestacaoServiceTest {
         // Configuração do mock
         when(subestacaoRepository.findById(1)).thenReturn(Optional.of(subestacao));
         when(subestacaoRepository.save(subestacao)).thenReturn(subestacao);
-        when(redeMTRepository.findByCodigo("REDE001")).thenReturn(Optional.empty());
-        when(redeMTRepository.save(redeMT)).thenReturn(redeMT);
+        when(redeMTRepository.findByCodigoIn(Set.of("REDE001"))).thenReturn(List.of());
 
         // Execução do método
         Subestacao result = subestacaoService.update(1, subestacao);
@@ -152,8 +366,87 @@ public class SubestacaoServiceTest {
         // Verifica se os métodos do repositório foram chamados
         verify(subestacaoRepository, times(1)).findById(1);
         verify(subestacaoRepository, times(1)).save(subestacao);
-        verify(redeMTRepository, times(1)).findByCodigo("REDE001");
-        verify(redeMTRepository, times(1)).save(redeMT);
+        verify(redeMTRepository, times(1)).findByCodigoIn(Set.of("REDE001"));
+        verify(redeMTRepository, times(1)).saveAll(List.of(redeMT));
+        verify(redeMTRepository, never()).deleteAllByIdInBatch(any());
+    }
+
+    @Test
+    public void testUpdateDiffsFeeders() {
+        // Configuração: a subestação tem REDE001 e REDE002; a atualização traz REDE001, REDE003 (de outra subestação) e REDE004 (nova)
+        RedeMT rede2 = new RedeMT();
+        rede2.setId(2);
+        rede2.setCodigo("REDE002");
+        rede2.setSubestacao(subestacao);
+        subestacao.getRedesMT().add(rede2);
+
+        Subestacao outraSubestacao = new Subestacao();
+        outraSubestacao.setId(9);
+        RedeMT rede3 = new RedeMT();
+        rede3.setId(3);
+        rede3.setCodigo("REDE003");
+        rede3.setSubestacao(outraSubestacao);
+
+        Subestacao atualizada = new Subestacao();
+        atualizada.setCodigo("SUB001");
+        atualizada.setNome("Subestação renomeada");
+        RedeMT recebida1 = new RedeMT();
+        recebida1.setCodigo("REDE001");
+        RedeMT recebida3 = new RedeMT();
+        recebida3.setCodigo("REDE003");
+        RedeMT recebida4 = new RedeMT();
+        recebida4.setCodigo("REDE004");
+        atualizada.setRedesMT(List.of(recebida1, recebida3, recebida4));
+
+        when(subestacaoRepository.findById(1)).thenReturn(Optional.of(subestacao));
+        when(subestacaoRepository.save(subestacao)).thenReturn(subestacao);
+        when(redeMTRepository.findByCodigoIn(Set.of("REDE001", "REDE003", "REDE004"))).thenReturn(List.of(redeMT, rede3));
+
+        // Execução do método
+        Subestacao result = subestacaoService.update(1, atualizada);
+
+        // Verificações: uma consulta, um insert em lote para a nova rede e um delete em lote para a removida
+        assertEquals("Subestação renomeada", result.getNome());
+        assertEquals(List.of(redeMT, rede3, recebida4), result.getRedesMT());
+        assertSame(subestacao, rede3.getSubestacao());
+        assertSame(subestacao, recebida4.getSubestacao());
+        verify(redeMTRepository, times(1)).findByCodigoIn(anyCollection());
+        verify(redeMTRepository, times(1)).saveAll(List.of(recebida4));
+        verify(redeMTRepository, times(1)).deleteAllByIdInBatch(List.of(2));
+        verify(redeMTRepository, never()).findByCodigo(anyString());
+        verify(redeMTRepository, never()).save(any(RedeMT.class));
+
+        // A subestação que perdeu a REDE003 e as redes alteradas foram invalidadas no cache
+        verify(topologiaCache).invalidarSubestacao(9);
+        verify(topologiaCache).invalidarRede(3, "REDE003");
+        verify(topologiaCache).invalidarRede(2, "REDE002");
+        verify(topologiaCache).invalidarRede(null, "REDE004");
+
+        // As linhas das subestações não são bloqueadas: o ETag delas inclui a versão das redes
+        verify(entityManager, never()).find(eq(Subestacao.class), any(), any(LockModeType.class));
+        verify(entityManager, never()).lock(any(), any());
+
+        // O resumo de redes das duas subestações é recalculado
+        verify(estatisticasRedesService).registrarAlteracao(9);
+        verify(estatisticasRedesService).registrarAlteracao(1);
+    }
+
+    @Test
+    public void testUpdateWithoutFeederList() {
+        // Configuração: a atualização não informa a lista de redes
+        Subestacao atualizada = new Subestacao();
+        atualizada.setCodigo("SUB001");
+        atualizada.setNome("Outro nome");
+
+        when(subestacaoRepository.findById(1)).thenReturn(Optional.of(subestacao));
+        when(subestacaoRepository.save(subestacao)).thenReturn(subestacao);
+
+        // Execução do método
+        Subestacao result = subestacaoService.update(1, atualizada);
+
+        // Verificações: as redes não foram tocadas
+        assertEquals(List.of(redeMT), result.getRedesMT());
+        verifyNoInteractions(redeMTRepository);
     }
 
     @Test
@@ -171,10 +464,104 @@ public class SubestacaoServiceTest {
 
     @Test
     public void testDeleteById() {
+        // Configuração do mock: a subestação tem a rede REDE001
+        RedeMTResumo rede = mock(RedeMTResumo.class);
+        when(rede.getId()).thenReturn(1);
+        when(rede.getCodigo()).thenReturn("REDE001");
+        when(subestacaoRepository.findIdsExistentes(List.of(1))).thenReturn(List.of(1));
+        when(redeMTRepository.findResumosBySubestacaoIdIn(List.of(1))).thenReturn(List.of(rede));
+        when(subestacaoRepository.deleteByIdIn(List.of(1))).thenReturn(1);
+
         // Execução do método
         subestacaoService.deleteById(1);
 
-        // Verifica se o método do repositório foi chamado
-        verify(subestacaoRepository, times(1)).deleteById(1);
+        // Verificações: redes e subestação removidas em massa, sem carregar as entidades
+        verify(redeMTRepository, times(1)).deleteBySubestacaoIdIn(List.of(1));
+        verify(subestacaoRepository, times(1)).deleteByIdIn(List.of(1));
+        verify(subestacaoRepository, never()).findById(any());
+        verify(subestacaoRepository, never()).deleteById(any());
+
+        // O cache foi invalidado e a remoção foi publicada
+        verify(topologiaCache).invalidarRede(1, "REDE001");
+        verify(topologiaCache).invalidarSubestacao(1);
+        verify(estatisticasRedesService).registrarAlteracao(1);
+        verify(eventPublisher, times(1)).publishEvent(TopologiaAlteradaEvent.subestacaoRemovida(1));
+    }
+
+    @Test
+    public void testDeleteAllById() {
+        // Configuração do mock: o ID 3 não existe e o ID 2 foi informado duas vezes
+        when(subestacaoRepository.findIdsExistentes(List.of(1, 2, 3))).thenReturn(List.of(1, 2));
+        when(redeMTRepository.findResumosBySubestacaoIdIn(List.of(1, 2))).thenReturn(List.of());
+        when(subestacaoRepository.deleteByIdIn(List.of(1, 2))).thenReturn(2);
+
+        // Execução do método
+        int result = subestacaoService.deleteAllById(List.of(1, 2, 3, 2));
+
+        // Verificações: um DELETE para as redes e um para as subestações; só as existentes são notificadas
+        assertEquals(2, result);
+        verify(redeMTRepository, times(1)).deleteBySubestacaoIdIn(List.of(1, 2));
+        verify(eventPublisher).publishEvent(TopologiaAlteradaEvent.subestacaoRemovida(1));
+        verify(eventPublisher).publishEvent(TopologiaAlteradaEvent.subestacaoRemovida(2));
+        verify(eventPublisher, never()).publishEvent(TopologiaAlteradaEvent.subestacaoRemovida(3));
+        verify(topologiaCache, never()).invalidarSubestacao(3);
+    }
+
+    @Test
+    public void testDeleteByCodigoPrefixo() {
+        // Configuração do mock: nenhuma subestação com o prefixo
+        when(subestacaoRepository.findIdsByCodigoPrefixo("SUB!_N")).thenReturn(List.of());
+
+        // Execução do método: o '_' do prefixo é escapado para ser comparado literalmente
+        int result = subestacaoService.deleteByCodigoPrefixo("SUB_N");
+
+        // Verificações
+        assertEquals(0, result);
+        verify(subestacaoRepository, never()).deleteByIdIn(any());
+        assertThrows(IllegalArgumentException.class, () -> subestacaoService.deleteByCodigoPrefixo(" "));
+    }
+
+    @Test
+    public void testPatch() throws Exception {
+        // Configuração do mock
+        subestacao.setVersao(2L);
+        when(subestacaoRepository.findById(1)).thenReturn(Optional.of(subestacao));
+        when(subestacaoRepository.saveAndFlush(subestacao)).thenReturn(subestacao);
+
+        // Execução do método: apenas o nome é alterado
+        Long etag = VersaoSubestacao.de(subestacao);
+        Subestacao result = subestacaoService.patch(1, objectMapper.readTree("{\"nome\": \"Subestação renomeada\"}"), etag);
+
+        // Verificações: os demais campos e as redes MT não foram tocados
+        assertEquals("Subestação renomeada", result.getNome());
+        assertEquals("SUB001", result.getCodigo());
+        assertEquals(new BigDecimal("-23.5505"), result.getLatitude());
+        assertEquals(List.of(redeMT), result.getRedesMT());
+        verifyNoInteractions(redeMTRepository);
+        verify(entityManager, never()).lock(any(), any());
+        verify(topologiaCache).invalidarSubestacao(1);
+        verify(eventPublisher).publishEvent(any(TopologiaAlteradaEvent.class));
+    }
+
+    @Test
+    public void testPatchVersionConflict() throws Exception {
+        // Configuração do mock: a subestação já está na versão 3
+        subestacao.setVersao(3L);
+        when(subestacaoRepository.findById(1)).thenReturn(Optional.of(subestacao));
+
+        // Execução e verificação da exceção: a versão informada no corpo está desatualizada
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> subestacaoService.patch(1, objectMapper.readTree("{\"versao\": 2, \"nome\": \"X\"}"), null));
+
+        // Verifica se nada foi gravado
+        assertEquals("Subestação 1", subestacao.getNome());
+        verify(subestacaoRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    public void testPatchNotObject() throws Exception {
+        // Execução e verificação da exceção
+        assertThrows(IllegalArgumentException.class, () -> subestacaoService.patch(1, objectMapper.readTree("[]"), null));
+        verifyNoInteractions(subestacaoRepository);
     }
 }
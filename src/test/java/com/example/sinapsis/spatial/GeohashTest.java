@@ -0,0 +1,57 @@
+package com.example.sinapsis.spatial;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GeohashTest {
+
+    @Test
+    public void testEncode() {
+        // Valores de referência do algoritmo de geohash
+        assertEquals("ezs42", Geohash.encode(42.605, -5.603, 5));
+        assertEquals("u4pruydqqvj", Geohash.encode(57.64911, 10.40744, 11));
+    }
+
+    @Test
+    public void testEncodeInvalidPrecision() {
+        // Execução e verificação da exceção
+        assertThrows(IllegalArgumentException.class, () -> Geohash.encode(0, 0, 13));
+    }
+
+    @Test
+    public void testCoverRespectsMaxCells() {
+        // Execução do método: área em torno do centro de São Paulo
+        List<String> prefixos = Geohash.cover(-23.6, -46.7, -23.5, -46.6, 32);
+
+        // Verificações
+        assertFalse(prefixos.isEmpty());
+        assertTrue(prefixos.size() <= 32);
+    }
+
+    @Test
+    public void testCoverContainsEveryPointInBox() {
+        // Gera áreas aleatórias de vários tamanhos e confere que todo ponto interno cai em algum prefixo
+        Random random = new Random(7);
+        for (int area = 0; area < 500; area++) {
+            double minLat = random.nextDouble() * 170 - 90;
+            double minLon = random.nextDouble() * 350 - 180;
+            double tamanho = Math.pow(10, -random.nextInt(5));
+            double maxLat = Math.min(90, minLat + random.nextDouble() * 10 * tamanho);
+            double maxLon = Math.min(180, minLon + random.nextDouble() * 10 * tamanho);
+
+            List<String> prefixos = Geohash.cover(minLat, minLon, maxLat, maxLon, 32);
+
+            for (int ponto = 0; ponto < 20; ponto++) {
+                double lat = ponto == 0 ? maxLat : minLat + random.nextDouble() * (maxLat - minLat);
+                double lon = ponto == 0 ? maxLon : minLon + random.nextDouble() * (maxLon - minLon);
+                String geohash = Geohash.encode(lat, lon, Geohash.PRECISAO_MAXIMA);
+                assertTrue(prefixos.stream().anyMatch(geohash::startsWith),
+                        "Ponto " + lat + "," + lon + " fora dos prefixos " + prefixos);
+            }
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.sinapsis.spatial;
+
+import com.example.sinapsis.dto.SubestacaoProxima;
+import com.example.sinapsis.events.TopologiaAlteradaEvent;
+import com.example.sinapsis.model.Subestacao;
+import com.example.sinapsis.repositories.SubestacaoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SubestacaoSpatialIndexTest {
+    @Mock
+    private SubestacaoRepository subestacaoRepository;
+
+    private SubestacaoSpatialIndex spatialIndex;
+
+    @BeforeEach
+    public void setUp() {
+        // Configuração inicial: três subestações em São Paulo, Campinas e Rio de Janeiro. A espera longa evita que a
+        // reconstrução agendada rode durante o teste; a árvore é reconstruída explicitamente
+        spatialIndex = new SubestacaoSpatialIndex(subestacaoRepository, Duration.ofHours(1));
+        spatialIndex.put(1, "SPO", "São Paulo", new BigDecimal("-23.5505"), new BigDecimal("-46.6333"));
+        spatialIndex.put(2, "CPS", "Campinas", new BigDecimal("-22.9056"), new BigDecimal("-47.0608"));
+        spatialIndex.put(3, "RIO", "Rio de Janeiro", new BigDecimal("-22.9068"), new BigDecimal("-43.1729"));
+        spatialIndex.reconstruir();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        spatialIndex.encerrar();
+    }
+
+    @Test
+    public void testNearest() {
+        // Execução do método: ponto próximo a Jundiaí
+        List<SubestacaoProxima> result = spatialIndex.nearest(-23.1857, -46.8978, 2);
+
+        // Verificações
+        assertEquals(2, result.size());
+        assertEquals("CPS", result.get(0).codigo());
+        assertEquals("SPO", result.get(1).codigo());
+        assertTrue(result.get(0).distanciaKm() < result.get(1).distanciaKm());
+    }
+
+    @Test
+    public void testNearestMoreThanIndexed() {
+        // Execução do método
+        List<SubestacaoProxima> result = spatialIndex.nearest(0, 0, 10);
+
+        // Verificações
+        assertEquals(3, result.size());
+    }
+
+    @Test
+    public void testHaversineDistance() {
+        // Distância conhecida entre São Paulo e Rio de Janeiro (aproximadamente 360 km)
+        double distancia = SubestacaoSpatialIndex.haversineKm(-23.5505, -46.6333, -22.9068, -43.1729);
+
+        assertEquals(360, distancia, 5);
+    }
+
+    @Test
+    public void testUpdateAndRemoveThroughEvents() {
+        // Remove Campinas e move São Paulo para perto do ponto consultado
+        spatialIndex.onTopologiaAlterada(TopologiaAlteradaEvent.subestacaoRemovida(2));
+
+        Subestacao movida = new Subestacao();
+        movida.setId(1);
+        movida.setCodigo("SPO");
+        movida.setNome("São Paulo");
+        movida.setLatitude(new BigDecimal("10.0"));
+        movida.setLongitude(new BigDecimal("10.0"));
+        spatialIndex.onTopologiaAlterada(TopologiaAlteradaEvent.subestacaoSalva(TopologiaAlteradaEvent.Operacao.ATUALIZACAO, movida));
+
+        // Até a reconstrução, as consultas usam a árvore anterior
+        assertEquals(3, spatialIndex.nearest(10.1, 10.1, 3).size());
+        spatialIndex.reconstruir();
+
+        // Execução do método
+        List<SubestacaoProxima> result = spatialIndex.nearest(10.1, 10.1, 3);
+
+        // Verificações
+        assertEquals(2, result.size());
+        assertEquals(1, result.get(0).id());
+        assertEquals(3, result.get(1).id());
+    }
+
+    @Test
+    public void testReconstrucaoEmSegundoPlano() throws Exception {
+        // Configuração: índice com espera curta entre a alteração e a reconstrução
+        spatialIndex.encerrar();
+        spatialIndex = new SubestacaoSpatialIndex(subestacaoRepository, Duration.ofMillis(10));
+        spatialIndex.reconstruir();
+
+        // Execução do método
+        spatialIndex.put(1, "SPO", "São Paulo", new BigDecimal("-23.5505"), new BigDecimal("-46.6333"));
+
+        // Verificações: a consulta não reconstrói a árvore; a nova árvore fica disponível após a reconstrução agendada
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (spatialIndex.nearest(0, 0, 1).isEmpty() && System.nanoTime() < limite) {
+            Thread.sleep(10);
+        }
+        assertEquals("SPO", spatialIndex.nearest(0, 0, 1).get(0).codigo());
+    }
+
+    @Test
+    public void testNearestMatchesBruteForce() {
+        // Popula o índice com pontos aleatórios, incluindo regiões próximas aos polos e ao antimeridiano
+        Random random = new Random(42);
+        List<double[]> pontos = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            double lat = random.nextDouble() * 180 - 90;
+            double lon = random.nextDouble() * 360 - 180;
+            pontos.add(new double[]{i + 10, lat, lon});
+            spatialIndex.put(i + 10, "C" + i, "Ponto " + i, BigDecimal.valueOf(lat), BigDecimal.valueOf(lon));
+        }
+        pontos.add(new double[]{1, -23.5505, -46.6333});
+        pontos.add(new double[]{2, -22.9056, -47.0608});
+        pontos.add(new double[]{3, -22.9068, -43.1729});
+        spatialIndex.reconstruir();
+
+        for (int consulta = 0; consulta < 50; consulta++) {
+            double lat = random.nextDouble() * 180 - 90;
+            double lon = random.nextDouble() * 360 - 180;
+
+            // Resultado esperado por força bruta
+            List<double[]> esperado = new ArrayList<>(pontos);
+            esperado.sort(Comparator.comparingDouble(p -> SubestacaoSpatialIndex.haversineKm(lat, lon, p[1], p[2])));
+
+            List<SubestacaoProxima> result = spatialIndex.nearest(lat, lon, 5);
+
+            assertEquals(5, result.size());
+            for (int i = 0; i < 5; i++) {
+                double distanciaEsperada = SubestacaoSpatialIndex.haversineKm(lat, lon, esperado.get(i)[1], esperado.get(i)[2]);
+                assertEquals(distanciaEsperada, result.get(i).distanciaKm(), 1e-6);
+            }
+        }
+    }
+}